@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Array allocation: each benchmark allocates many short arrays at the same site and fills them.
+ * Without allocation site feedback (--js.array-allocation-sites=false), every array goes through
+ * the empty, int and double transitions and repeated regrowth.
+ */
+
+var size;
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 1000;
+  size = n;
+}
+var benchmarks = {
+  pushInt: function() {
+    var sum = 0;
+    for (var j = 0; j < 1000; j++) {
+      var a = [];
+      for (var i = 0; i < size; i++) {
+        a.push(i);
+      }
+      sum += a.length;
+    }
+    return sum;
+  },
+  pushDouble: function() {
+    var sum = 0;
+    for (var j = 0; j < 1000; j++) {
+      var a = [];
+      for (var i = 0; i < size; i++) {
+        a.push(i + 0.5);
+      }
+      sum += a.length;
+    }
+    return sum;
+  },
+  newArrayDouble: function() {
+    var sum = 0;
+    for (var j = 0; j < 1000; j++) {
+      var a = new Array(size);
+      for (var i = 0; i < size; i++) {
+        a[i] = i * 0.5;
+      }
+      sum += a.length;
+    }
+    return sum;
+  },
+  pushObject: function() {
+    var sum = 0;
+    for (var j = 0; j < 1000; j++) {
+      var a = [];
+      for (var i = 0; i < size; i++) {
+        a.push(i === 0 ? 'x' : i);
+      }
+      sum += a.length;
+    }
+    return sum;
+  }
+};
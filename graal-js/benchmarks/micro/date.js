@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Date: local and UTC getters, setters, construction from fields, and string conversion, each over
+ * a spread of time values across several years.
+ */
+
+var dates;
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 100000;
+  dates = [];
+  var t = Date.UTC(2015, 0, 1);
+  for (var i = 0; i < n; i++) {
+    dates.push(new Date(t));
+    t += 37 * 60 * 1000;
+  }
+}
+var benchmarks = {
+  localGetters: function() {
+    var sum = 0;
+    for (var i = 0; i < dates.length; i++) {
+      var d = dates[i];
+      sum += d.getFullYear() + d.getMonth() + d.getDate() + d.getDay() + d.getHours() + d.getMinutes() + d.getSeconds();
+    }
+    return sum;
+  },
+  utcGetters: function() {
+    var sum = 0;
+    for (var i = 0; i < dates.length; i++) {
+      var d = dates[i];
+      sum += d.getUTCFullYear() + d.getUTCMonth() + d.getUTCDate() + d.getUTCDay() + d.getUTCHours() + d.getUTCMinutes();
+    }
+    return sum;
+  },
+  timezoneOffset: function() {
+    var sum = 0;
+    for (var i = 0; i < dates.length; i++) {
+      sum += dates[i].getTimezoneOffset();
+    }
+    return sum;
+  },
+  setters: function() {
+    var sum = 0, d = new Date(0);
+    for (var i = 0; i < dates.length; i++) {
+      d.setTime(dates[i].getTime());
+      d.setHours(i % 24);
+      d.setDate(1 + i % 28);
+      sum += d.getTime() % 1000003;
+    }
+    return sum;
+  },
+  construct: function() {
+    var sum = 0;
+    for (var i = 0; i < dates.length; i++) {
+      sum += new Date(2015 + i % 10, i % 12, 1 + i % 28, i % 24, i % 60).getTime() % 1000003;
+    }
+    return sum;
+  },
+  format: function() {
+    var sum = 0;
+    for (var i = 0; i < dates.length; i++) {
+      var d = dates[i];
+      sum += d.toString().length + d.toISOString().length + d.toUTCString().length;
+    }
+    return sum;
+  },
+  parse: function() {
+    var sum = 0;
+    for (var i = 0; i < dates.length; i++) {
+      sum += Date.parse(dates[i].toISOString()) % 1000003;
+    }
+    return sum;
+  }
+};
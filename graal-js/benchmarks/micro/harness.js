@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Runs one benchmark of a micro benchmark workload and prints the time of every iteration.
+ * Usually started by the js-micro mx benchmark suite (mx_graal_js_benchmark.py):
+ *
+ *   mx js [options] harness.js -- <workload.js> <benchmark> [iterations] [workload arguments...]
+ *
+ * A workload defines `benchmarks`, an object of functions that return a number, and optionally
+ * `setup(args)`, which is called once with the workload arguments before the first iteration.
+ */
+
+var workload = arguments[0];
+var name = arguments[1];
+var iterations = arguments.length > 2 ? Number(arguments[2]) : 20;
+
+load(workload);
+
+if (typeof setup === 'function') {
+  setup(Array.prototype.slice.call(arguments, 3));
+}
+var benchmark = benchmarks[name];
+if (typeof benchmark !== 'function') {
+  throw new Error('Unknown benchmark ' + name + ' in ' + workload + ', expected one of: ' + Object.keys(benchmarks).join(', '));
+}
+var label = workload.replace(/^.*\//, '').replace(/\.js$/, '') + '.' + name;
+for (var i = 0; i < iterations; i++) {
+  var start = performance.now();
+  var result = benchmark();
+  var millis = performance.now() - start;
+  console.log(label + ' iteration ' + i + ': ' + millis.toFixed(2) + ' ms (' + result + ')');
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * JSON.parse of a string compared to the streaming parser reading the same UTF-8 text from an
+ * ArrayBuffer (Polyglot.parseJSON).
+ */
+
+var text, bytes;
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 20000;
+  var records = [];
+  for (var i = 0; i < n; i++) {
+    records.push({id: i, name: 'record ' + i, active: i % 3 === 0, score: i / 7, tags: ['a', 'b', 'c' + (i % 10)]});
+  }
+  text = JSON.stringify(records);
+  bytes = new ArrayBuffer(text.length);
+  var view = new Uint8Array(bytes);
+  for (var i = 0; i < text.length; i++) {
+    view[i] = text.charCodeAt(i);
+  }
+}
+var benchmarks = {
+  parseString: function() {
+    return JSON.parse(text).length;
+  },
+  parseStream: function() {
+    return Polyglot.parseJSON(bytes).length;
+  }
+};
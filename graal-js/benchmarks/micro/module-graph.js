@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Loading an ES module graph into a fresh realm (requires --js.v8-realm-builtin). The graph is
+ * written by the js-micro mx benchmark suite; its directory is the first workload argument. The
+ * entry module stores its result in the global 'result'. Compare with the modules parsed
+ * concurrently (--js.module-parse-threads=4).
+ */
+
+var main;
+function setup(args) {
+  main = args[0] + '/main.mjs';
+}
+var benchmarks = {
+  load: function() {
+    var realm = Realm.create();
+    try {
+      return Realm.eval(realm, 'load(' + JSON.stringify(main) + '); result');
+    } finally {
+      Realm.dispose(realm);
+    }
+  }
+};
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Creation and disposal of realms (requires --js.v8-realm-builtin). The lazy benchmark leaves the
+ * lazily created global builtins untouched; materialized accesses all of them, which corresponds
+ * to the eager realm setup.
+ */
+
+var count;
+function setup(args) {
+  count = args.length > 0 ? Number(args[0]) : 200;
+}
+function createRealms(code) {
+  for (var i = 0; i < count; i++) {
+    var realm = Realm.create();
+    if (code) {
+      Realm.eval(realm, code);
+    }
+    Realm.dispose(realm);
+  }
+  return count;
+}
+var benchmarks = {
+  lazy: function() {
+    return createRealms(null);
+  },
+  materialized: function() {
+    return createRealms('[JSON, Reflect, Atomics, Intl, Polyglot, console, performance, Graal].length');
+  }
+};
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Backtracking-heavy patterns with backreferences and lookbehind, which TRegex does not support
+ * and which therefore run on the Joni backtracking matcher.
+ */
+
+var words, numbers, tags, prices;
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 5000;
+  var w = [], d = [], t = [], p = [];
+  for (var i = 0; i < n; i++) {
+    var word = 'w' + (i % 97).toString(36);
+    w.push(word, i % 5 === 0 ? word : 'x' + word);
+    d.push((i % 13) + '-' + (i % 13) + '-' + (i % 7 === 0 ? i % 13 : i % 11));
+    t.push('<b' + (i % 9) + '>text ' + i + '</b' + ((i * 7) % 9) + '>');
+    p.push('item' + i + ' $' + (i * 3));
+  }
+  words = w.join(' ');
+  numbers = d;
+  tags = t.join('');
+  prices = p.join(', ');
+}
+function count(re, s) {
+  var c = 0;
+  while (re.exec(s) !== null) c++;
+  return c;
+}
+var benchmarks = {
+  run: function() {
+    var sum = count(/(\w+)\s+\1\b/g, words);
+    sum += count(/<(\w+)>[^<]*?<\/\1>/g, tags);
+    sum += count(/(?<=\$)\d+/g, prices);
+    sum += count(/(a|b)\1+/g, tags);
+    for (var i = 0; i < numbers.length; i++) {
+      if (/^(\d+)-\1-\1$/.test(numbers[i])) sum++;
+    }
+    return sum;
+  }
+};
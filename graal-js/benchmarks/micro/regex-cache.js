@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Code that builds RegExps from a few hundred runtime strings at several call sites. Compare with
+ * the context-wide compiled RegExp cache disabled (--js.regex-cache-size=0).
+ */
+
+var routes = [];
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 300;
+  for (var i = 0; i < n; i++) {
+    routes.push('^/api/v' + (i % 3) + '/resource' + i + '/(\\d+)(?:/([a-z]+))?$');
+  }
+}
+function matchRoute(path) {
+  for (var i = 0; i < routes.length; i++) {
+    var m = new RegExp(routes[i]).exec(path);
+    if (m) return i;
+  }
+  return -1;
+}
+function matchRouteIgnoreCase(path) {
+  for (var i = routes.length - 1; i >= 0; i--) {
+    if (new RegExp(routes[i], 'i').test(path)) return i;
+  }
+  return -1;
+}
+var benchmarks = {
+  run: function() {
+    var sum = 0;
+    for (var i = 0; i < routes.length; i += 7) {
+      var path = '/api/v' + (i % 3) + '/resource' + i + '/42/items';
+      sum += matchRoute(path) + matchRouteIgnoreCase(path.toUpperCase());
+    }
+    return sum;
+  }
+};
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Sparse arrays: filling an ID-indexed lookup table, reading it, iterating over its elements, and
+ * splicing it.
+ */
+
+var size, table;
+function id(i) {
+  return (i * 7919) % (size * 1000);
+}
+function fill(n) {
+  var a = [];
+  for (var i = 0; i < n; i++) {
+    a[id(i)] = i;
+  }
+  return a;
+}
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 100000;
+  size = n;
+  table = fill(n);
+}
+var benchmarks = {
+  fill: function() {
+    return fill(size).length;
+  },
+  fillAscending: function() {
+    var a = [];
+    for (var i = 0; i < size; i++) {
+      a[i * 1000] = i;
+    }
+    return a.length;
+  },
+  lookup: function() {
+    var sum = 0;
+    for (var i = 0; i < size; i++) {
+      sum += table[id(i)] + (table[id(i) + 1] === undefined ? 1 : 0);
+    }
+    return sum;
+  },
+  forEach: function() {
+    var sum = 0;
+    table.forEach(function(v) {
+      sum += v;
+    });
+    return sum;
+  },
+  forIn: function() {
+    var count = 0;
+    for (var key in table) {
+      count++;
+    }
+    return count;
+  },
+  splice: function() {
+    var a = fill(size);
+    for (var i = 0; i < 100; i++) {
+      a.splice(i * 10, 1, i);
+      a.splice(i * 20, 0, i, i);
+    }
+    return a.length;
+  }
+};
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Building large ASCII strings by concatenation, Array.prototype.join and JSON.stringify. The
+ * concatenated rope is flattened at the end, which copies Latin-1 ropes without a UTF-16
+ * intermediate on JDKs with compact strings.
+ */
+
+var parts = [];
+var records = [];
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 100000;
+  for (var i = 0; i < n; i++) {
+    parts.push('item-' + i + ' with some ascii payload;');
+    records.push({id: i, name: 'record ' + i, tags: ['a', 'b']});
+  }
+}
+var benchmarks = {
+  concat: function() {
+    var s = '';
+    for (var i = 0; i < parts.length; i++) {
+      s += parts[i];
+    }
+    // charCodeAt would not flatten the rope; the regexp match does
+    return /;$/.test(s) ? s.length : 0;
+  },
+  join: function() {
+    return parts.join('\n').length;
+  },
+  stringify: function() {
+    return JSON.stringify(records).length;
+  }
+};
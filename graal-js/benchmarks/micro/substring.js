@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * A parsing workload that slices lines and fields out of a large input string. Compare with
+ * substring views disabled (-Dtruffle.js.LazySubstringMaxRetention=0), which copies every
+ * substring.
+ */
+
+var log;
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 100000;
+  var lines = [];
+  for (var i = 0; i < n; i++) {
+    lines.push('2019-03-14T12:00:' + (i % 60) + 'Z INFO  [worker-' + (i % 16) + '] request ' + i + ' served from cache in ' + (i % 1000) + 'ms, path=/api/v1/items/' + i);
+  }
+  log = lines.join('\n');
+}
+var benchmarks = {
+  parse: function() {
+    var total = 0;
+    var lines = log.split('\n');
+    for (var i = 0; i < lines.length; i++) {
+      var line = lines[i];
+      var message = line.slice(line.indexOf(']') + 2);
+      var path = message.substring(message.indexOf('path=') + 5);
+      total += message.length + path.length + (/in (\d+)ms/.exec(message)[1] | 0);
+    }
+    return total;
+  }
+};
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * WeakMap: the private field pattern (one WeakMap per class, many instances), memoization over a
+ * fixed set of keys, and keys shared by several WeakMaps.
+ */
+
+var size, keys;
+var privates = new WeakMap();
+function Point(x, y) {
+  privates.set(this, {x: x, y: y});
+}
+Point.prototype.sum = function() {
+  var p = privates.get(this);
+  return p.x + p.y;
+};
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 100000;
+  size = n;
+  keys = [];
+  for (var i = 0; i < n; i++) {
+    keys.push({id: i});
+  }
+}
+var benchmarks = {
+  privateFields: function() {
+    var sum = 0;
+    for (var i = 0; i < size; i++) {
+      sum += new Point(i, 1).sum();
+    }
+    return sum;
+  },
+  memoize: function() {
+    var cache = new WeakMap(), hits = 0;
+    for (var r = 0; r < 4; r++) {
+      for (var i = 0; i < size; i++) {
+        var key = keys[i];
+        if (cache.has(key)) {
+          hits += cache.get(key);
+        } else {
+          cache.set(key, 1);
+        }
+      }
+    }
+    return hits;
+  },
+  sharedKeys: function() {
+    var maps = [new WeakMap(), new WeakMap(), new WeakMap(), new WeakMap()], sum = 0;
+    for (var i = 0; i < size; i++) {
+      maps[i & 3].set(keys[i], i);
+      maps[(i + 1) & 3].set(keys[i], 1);
+    }
+    for (var i = 0; i < size; i++) {
+      sum += maps[(i + 1) & 3].get(keys[i]);
+      maps[i & 3].delete(keys[i]);
+    }
+    return sum;
+  }
+};
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Objects used as dictionaries with run-time string keys: counting the words of a generated text,
+ * and looking them up again. Compare with the megamorphic property stub cache disabled
+ * (-Dtruffle.js.PropertyStubCacheSize=0).
+ */
+
+var words, vocabulary, counts;
+function setup(args) {
+  var n = args.length > 0 ? Number(args[0]) : 1000000;
+  vocabulary = [];
+  for (var i = 0; i < 200; i++) {
+    vocabulary.push('w' + (i * 7919).toString(36));
+  }
+  var text = [];
+  for (var i = 0; i < n; i++) {
+    text.push(vocabulary[(i * i + 3 * i) % vocabulary.length]);
+  }
+  words = text.join(' ').split(' ');
+  counts = count({});
+}
+function count(dict) {
+  for (var i = 0; i < words.length; i++) {
+    var word = words[i];
+    dict[word] = (dict[word] || 0) + 1;
+  }
+  return dict;
+}
+var benchmarks = {
+  count: function() {
+    return Object.keys(count({})).length;
+  },
+  countNullPrototype: function() {
+    return Object.keys(count(Object.create(null))).length;
+  },
+  increment: function() {
+    var dict = {};
+    for (var i = 0; i < vocabulary.length; i++) {
+      dict[vocabulary[i]] = 0;
+    }
+    for (var i = 0; i < words.length; i++) {
+      dict[words[i]]++;
+    }
+    return dict[vocabulary[0]];
+  },
+  lookup: function() {
+    var sum = 0;
+    for (var i = 0; i < words.length; i++) {
+      sum += counts[words[i]];
+    }
+    return sum;
+  }
+};
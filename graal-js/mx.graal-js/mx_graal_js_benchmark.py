@@ -1,7 +1,7 @@
 #
 # ----------------------------------------------------------------------------------------------------
 #
-# Copyright (c) 2007, 2018, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2007, 2019, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # This code is free software; you can redistribute it and/or modify it
@@ -27,8 +27,11 @@
 # ----------------------------------------------------------------------------------------------------
 
 import mx, mx_benchmark, mx_graal_js
+import os
 from mx_benchmark import GuestVm
 
+_js_vm_registry = mx_benchmark.VmRegistry('JavaScript', 'js-vm')
+
 class GraalJsVm(GuestVm):
     def __init__(self, config_name, options, host_vm=None):
         super(GraalJsVm, self).__init__(host_vm=host_vm)
@@ -55,7 +58,132 @@ class GraalJsVm(GuestVm):
             return self.host_vm().run(cwd, mx_graal_js.graaljs_cmd_line(args))
 
 
+class JsMicroBenchmarkRule(mx_benchmark.StdOutRule):
+    """Parses the `<workload>.<benchmark> iteration <n>: <time> ms` lines printed by benchmarks/micro/harness.js."""
+    def __init__(self, benchmark):
+        super(JsMicroBenchmarkRule, self).__init__(r"^\S+ iteration (?P<iteration>[0-9]+): (?P<time>[0-9]+(\.[0-9]+)?) ms", {
+            "benchmark": benchmark,
+            "metric.name": "time",
+            "metric.value": ("<time>", float),
+            "metric.unit": "ms",
+            "metric.type": "numeric",
+            "metric.score-function": "id",
+            "metric.better": "lower",
+            "metric.iteration": ("<iteration>", int),
+        })
+
+
+class JsMicroBenchmarkSuite(mx_benchmark.VmBenchmarkSuite):
+    """Runs the engine micro benchmarks in graal-js/benchmarks/micro."""
+
+    _realm = ['--experimental-options', '--js.v8-realm-builtin']
+
+    # name -> VM options, workload file and benchmark function
+    _benchmarks = {
+        'array-allocation-sites.push-int': ['array-allocation-sites.js', 'pushInt'],
+        'array-allocation-sites.push-double': ['array-allocation-sites.js', 'pushDouble'],
+        'array-allocation-sites.new-array-double': ['array-allocation-sites.js', 'newArrayDouble'],
+        'array-allocation-sites.push-object': ['array-allocation-sites.js', 'pushObject'],
+        'array-allocation-sites.push-int-untracked': ['--experimental-options', '--js.array-allocation-sites=false', 'array-allocation-sites.js', 'pushInt'],
+        'date.local-getters': ['date.js', 'localGetters'],
+        'date.utc-getters': ['date.js', 'utcGetters'],
+        'date.timezone-offset': ['date.js', 'timezoneOffset'],
+        'date.setters': ['date.js', 'setters'],
+        'date.construct': ['date.js', 'construct'],
+        'date.format': ['date.js', 'format'],
+        'date.parse': ['date.js', 'parse'],
+        'json-stream.parse-string': ['json-stream.js', 'parseString'],
+        'json-stream.parse-stream': ['json-stream.js', 'parseStream'],
+        'module-graph': _realm + ['module-graph.js', 'load'],
+        'module-graph-threads': _realm + ['--js.module-parse-threads=4', 'module-graph.js', 'load'],
+        'realm-creation.lazy': _realm + ['--js.intl-402', 'realm-creation.js', 'lazy'],
+        'realm-creation.materialized': _realm + ['--js.intl-402', 'realm-creation.js', 'materialized'],
+        'regex-backreference': ['regex-backreference.js', 'run'],
+        'regex-cache': ['regex-cache.js', 'run'],
+        'regex-cache-disabled': ['--experimental-options', '--js.regex-cache-size=0', 'regex-cache.js', 'run'],
+        'sparse-array.fill': ['sparse-array.js', 'fill'],
+        'sparse-array.fill-ascending': ['sparse-array.js', 'fillAscending'],
+        'sparse-array.lookup': ['sparse-array.js', 'lookup'],
+        'sparse-array.for-each': ['sparse-array.js', 'forEach'],
+        'sparse-array.for-in': ['sparse-array.js', 'forIn'],
+        'sparse-array.splice': ['sparse-array.js', 'splice'],
+        'string-allocation.concat': ['string-allocation.js', 'concat'],
+        'string-allocation.join': ['string-allocation.js', 'join'],
+        'string-allocation.stringify': ['string-allocation.js', 'stringify'],
+        'substring': ['substring.js', 'parse'],
+        'substring-copied': ['-Dtruffle.js.LazySubstringMaxRetention=0', 'substring.js', 'parse'],
+        'weakmap.private-fields': ['weakmap.js', 'privateFields'],
+        'weakmap.memoize': ['weakmap.js', 'memoize'],
+        'weakmap.shared-keys': ['weakmap.js', 'sharedKeys'],
+        'word-count.count': ['word-count.js', 'count'],
+        'word-count.count-null-prototype': ['word-count.js', 'countNullPrototype'],
+        'word-count.increment': ['word-count.js', 'increment'],
+        'word-count.lookup': ['word-count.js', 'lookup'],
+        'word-count.count-uncached': ['-Dtruffle.js.PropertyStubCacheSize=0', 'word-count.js', 'count'],
+    }
+
+    _module_graph_leaves = 200
+
+    def name(self):
+        return 'js-micro'
+
+    def group(self):
+        return 'Graal'
+
+    def subgroup(self):
+        return 'graal-js'
+
+    def benchmarkList(self, bmSuiteArgs):
+        return sorted(self._benchmarks.keys())
+
+    def get_vm_registry(self):
+        return _js_vm_registry
+
+    def workingDirectory(self, benchmarks, bmSuiteArgs):
+        return os.path.join(mx.suite('graal-js').dir, 'benchmarks', 'micro')
+
+    def run(self, benchmarks, bmSuiteArgs):
+        results = []
+        for benchmark in benchmarks or self.benchmarkList(bmSuiteArgs):
+            results += super(JsMicroBenchmarkSuite, self).run([benchmark], bmSuiteArgs)
+        return results
+
+    def _module_graph(self):
+        """Writes a graph of modules that all import a shared module, which imports the first one back."""
+        graph = os.path.join(mx.suite('graal-js').get_output_root(), 'module-graph')
+        main = os.path.join(graph, 'main.mjs')
+        if not os.path.exists(main):
+            mx.ensure_dir_exists(graph)
+            imports = []
+            for i in range(self._module_graph_leaves):
+                with open(os.path.join(graph, 'leaf{}.mjs'.format(i)), 'w') as f:
+                    f.write("import {{ base }} from './shared.mjs';\nexport function f{0}() {{ return base + {0}; }}\n".format(i))
+                imports.append("import {{ f{0} }} from './leaf{0}.mjs';\n".format(i))
+            with open(os.path.join(graph, 'shared.mjs'), 'w') as f:
+                f.write("import { f0 } from './leaf0.mjs';\nexport const base = 1;\nexport function g() { return f0(); }\n")
+            with open(main, 'w') as f:
+                f.write(''.join(imports))
+                f.write('globalThis.result = 0 + ' + ' + '.join('f{}()'.format(i) for i in range(self._module_graph_leaves)) + ';\n')
+        return graph
+
+    def createCommandLineArgs(self, benchmarks, bmSuiteArgs):
+        if benchmarks is None or len(benchmarks) != 1:
+            mx.abort('Expected exactly one benchmark, got ' + str(benchmarks))
+        config = self._benchmarks[benchmarks[0]]
+        options, workload, function = config[:-2], config[-2], config[-1]
+        # run arguments: [iterations] [workload arguments...]
+        runArgs = self.runArgs(bmSuiteArgs) or ['20']
+        if workload == 'module-graph.js':
+            runArgs = runArgs[:1] + [self._module_graph()]
+        return self.vmArgs(bmSuiteArgs) + options + ['harness.js', '--', workload, function] + runArgs
+
+    def rules(self, output, benchmarks, bmSuiteArgs):
+        return [JsMicroBenchmarkRule(benchmarks[0])]
+
+
 def register_js_vms():
+    _js_vm_registry.add_vm(GraalJsVm('default', []), mx.suite('graal-js'), 10)
+    mx_benchmark.add_bm_suite(JsMicroBenchmarkSuite())
     if mx.suite('js-benchmarks', fatalIfMissing=False):
         import mx_js_benchmarks
         _suite = mx.suite('graal-js')
@@ -192,7 +192,41 @@ public class Lexer extends Scanner {
      * avoid reading ahead unnecessarily when we skip the function bodies.
      */
     public Lexer(final Source source, final int start, final int len, final TokenStream stream, final boolean scripting, final boolean es6, final boolean shebang, final boolean isModule, final boolean pauseOnFunctionBody, final boolean allowBigInt) {
-        super(source.getContent().toString().toCharArray(), 1, start, len);
+        this(source, getContent(source, start, len), start, start, len, stream, scripting, es6, shebang, isModule, pauseOnFunctionBody, allowBigInt);
+    }
+
+    /**
+     * Copies only the lexed segment of the source, a function that is parsed on its own does not
+     * need the whole source.
+     */
+    private static char[] getContent(final Source source, final int start, final int len) {
+        final char[] content = new char[len];
+        source.getContent().toString().getChars(start, start + len, content, 0);
+        return content;
+    }
+
+    /**
+     * Constructor for a lexer that continues on the content of another lexer of the same source,
+     * e.g. after skipping a function body, without copying the content again.
+     *
+     * @param lexer     the lexer whose content is scanned
+     * @param start     start position in source from which to start lexing
+     * @param len       length of source segment to lex
+     * @param stream    token stream to lex
+     * @param scripting are we in scripting mode
+     * @param es6       are we in ECMAScript 6 mode
+     * @param shebang   do we support shebang
+     * @param isModule  are we in module
+     * @param pauseOnFunctionBody if true, lexer will return from {@link #lexify()} when it encounters a
+     * function body.
+     */
+    Lexer(final Lexer lexer, final int start, final int len, final TokenStream stream, final boolean scripting, final boolean es6, final boolean shebang, final boolean isModule, final boolean pauseOnFunctionBody, final boolean allowBigInt) {
+        this(lexer.source, lexer.content, lexer.offset, start, len, stream, scripting, es6, shebang, isModule, pauseOnFunctionBody, allowBigInt);
+    }
+
+    private Lexer(final Source source, final char[] content, final int offset, final int start, final int len, final TokenStream stream, final boolean scripting, final boolean es6, final boolean shebang,
+                    final boolean isModule, final boolean pauseOnFunctionBody, final boolean allowBigInt) {
+        super(content, offset, 1, start, len);
         this.source      = source;
         this.stream      = stream;
         this.scripting   = scripting;
@@ -885,7 +919,7 @@ public class Lexer extends Scanner {
         }
 
         for (int i = 0; i < len; ++i) {
-            if (content[start + i] != keyword.charAt(i)) {
+            if (content[start + i - offset] != keyword.charAt(i)) {
                 return false;
             }
         }
@@ -912,7 +946,7 @@ public class Lexer extends Scanner {
         // Scan until end of line or end of file.
         while (pos < end) {
 
-            char curCh0 = content[pos];
+            char curCh0 = content[pos - offset];
 
             // If escape character.
             if (convertUnicode && curCh0 == '\\' && charAt(pos + 1) == 'u') {
@@ -955,7 +989,7 @@ public class Lexer extends Scanner {
         // Scan identifier.
         final int length = scanIdentifier();
         // Check to see if it is a keyword.
-        final TokenType type = TokenLookup.lookupKeyword(content, start, length);
+        final TokenType type = TokenLookup.lookupKeyword(content, start - offset, length);
         if (type == FUNCTION && pauseOnFunctionBody) {
             pauseOnNextLeftBrace = true;
         }
@@ -1620,7 +1654,7 @@ public class Lexer extends Scanner {
     private boolean identifierEqual(final int aStart, final int aLength, final int bStart, final int bLength) {
         if (aLength == bLength) {
             for (int i = 0; i < aLength; i++) {
-                if (content[aStart + i] != content[bStart + i]) {
+                if (content[aStart + i - offset] != content[bStart + i - offset]) {
                     return false;
                 }
             }
@@ -1877,12 +1911,12 @@ public class Lexer extends Scanner {
             // Remove last end of line if specified.
             if (excludeLastEOL) {
                 // Handles \n.
-                if (content[stringEnd - 1] == '\n') {
+                if (content[stringEnd - 1 - offset] == '\n') {
                     stringEnd--;
                 }
 
                 // Handles \r and \r\n.
-                if (content[stringEnd - 1] == '\r') {
+                if (content[stringEnd - 1 - offset] == '\r') {
                     stringEnd--;
                 }
 
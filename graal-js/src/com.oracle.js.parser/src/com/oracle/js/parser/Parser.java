@@ -337,6 +337,8 @@ public class Parser extends AbstractParser {
      * Sets the @link RecompilableScriptFunctionData representing the function being reparsed (when this
      * parser instance is used to reparse a previously parsed function, as part of its on-demand compilation).
      * This will trigger various special behaviors, such as skipping nested function bodies.
+     * If the function id of {@code reparsedFunction} is that of the program, the whole source is
+     * pre-parsed, i.e. the bodies of all functions that can be reparsed on their own are skipped.
      * @param reparsedFunction the function being reparsed.
      */
     public void setReparsedFunction(final RecompilableScriptFunctionData reparsedFunction) {
@@ -4238,7 +4240,7 @@ loop:
             // are not allowed. But if we are reparsing then anon function
             // statement is possible - because it was used as function
             // expression in surrounding code.
-            if (!env.syntaxExtensions && reparsedFunction == null) {
+            if (!env.syntaxExtensions && !isReparsingFunction()) {
                 expect(IDENT);
             }
         }
@@ -4583,12 +4585,13 @@ loop:
 
         final boolean parseBody;
         Object endParserState = null;
+        RecompilableScriptFunctionData skippedFunction = null;
         try {
             // Create a new function block.
             body = newBlock();
             assert functionNode != null;
             final int functionId = functionNode.getId();
-            parseBody = reparsedFunction == null || functionId <= reparsedFunction.getFunctionNodeId();
+            parseBody = reparsedFunction == null || functionId <= reparsedFunction.getFunctionNodeId() || !canSkipFunctionBody(functionNode);
             // Nashorn extension: expression closures
             if ((env.syntaxExtensions || functionNode.getKind() == FunctionNode.Kind.ARROW) && type != LBRACE) {
                 /*
@@ -4617,7 +4620,10 @@ loop:
                 bodyFinish = finish;
             } else {
                 expectDontAdvance(LBRACE);
-                if (parseBody || !skipFunctionBody(functionNode)) {
+                if (!parseBody) {
+                    skippedFunction = skipFunctionBody(functionNode);
+                }
+                if (skippedFunction == null) {
                     next();
                     // Gather the function elements.
                     final List<Statement> prevFunctionDecls = functionDeclarations;
@@ -4629,23 +4635,21 @@ loop:
                         functionDeclarations = prevFunctionDecls;
                     }
 
-                    if (parseBody) {
-                        // Since the lexer can read ahead and lexify some number of tokens in advance and have
-                        // them buffered in the TokenStream, we need to produce a lexer state as it was just
-                        // before it lexified RBRACE, and not whatever is its current (quite possibly well read
-                        // ahead) state.
-                        endParserState = new ParserState(Token.descPosition(token), line, linePosition);
-
-                        // NOTE: you might wonder why do we capture/restore parser state before RBRACE instead of
-                        // after RBRACE; after all, we could skip the below "expect(RBRACE);" if we captured the
-                        // state after it. The reason is that RBRACE is a well-known token that we can expect and
-                        // will never involve us getting into a weird lexer state, and as such is a great reparse
-                        // point. Typical example of a weird lexer state after RBRACE would be:
-                        //     function this_is_skipped() { ... } "use strict";
-                        // because lexer is doing weird off-by-one maneuvers around string literal quotes. Instead
-                        // of compensating for the possibility of a string literal (or similar) after RBRACE,
-                        // we'll rather just restart parsing from this well-known, friendly token instead.
-                    }
+                    // Since the lexer can read ahead and lexify some number of tokens in advance and have
+                    // them buffered in the TokenStream, we need to produce a lexer state as it was just
+                    // before it lexified RBRACE, and not whatever is its current (quite possibly well read
+                    // ahead) state.
+                    endParserState = new ParserState(Token.descPosition(token), line, linePosition);
+
+                    // NOTE: you might wonder why do we capture/restore parser state before RBRACE instead of
+                    // after RBRACE; after all, we could skip the below "expect(RBRACE);" if we captured the
+                    // state after it. The reason is that RBRACE is a well-known token that we can expect and
+                    // will never involve us getting into a weird lexer state, and as such is a great reparse
+                    // point. Typical example of a weird lexer state after RBRACE would be:
+                    //     function this_is_skipped() { ... } "use strict";
+                    // because lexer is doing weird off-by-one maneuvers around string literal quotes. Instead
+                    // of compensating for the possibility of a string literal (or similar) after RBRACE,
+                    // we'll rather just restart parsing from this well-known, friendly token instead.
                 }
                 bodyFinish = Token.descPosition(token) + Token.descLength(token);
                 functionNode.setLastToken(token);
@@ -4659,13 +4663,20 @@ loop:
 
         if (parseBody) {
             functionNode.setEndParserState(endParserState);
-        } else if (!body.getStatements().isEmpty()) {
-            // This is to ensure the body is empty when !parseBody but we couldn't skip parsing it (see
-            // skipFunctionBody() for possible reasons). While it is not strictly necessary for correctness to
-            // enforce empty bodies in nested functions that were supposed to be skipped, we do assert it as
-            // an invariant in few places in the compiler pipeline, so for consistency's sake we'll throw away
-            // nested bodies early if we were supposed to skip 'em.
-            body.setStatements(Collections.<Statement>emptyList());
+        } else {
+            if (skippedFunction == null) {
+                // The statements of a body that could not be skipped (see skipFunctionBody()) are kept:
+                // early errors that are only detected on the IR, e.g. conflicting lexical declarations,
+                // are then still reported for the enclosing code. The body is dropped when translating.
+                // What is recorded here lets the parse of this function skip its nested bodies.
+                skippedFunction = new SkippedFunction(functionNode.getId(), functionNode.getFlags(), (ParserState) endParserState, functionNode.getSkippedFunctions());
+                addSkippedFunction(functionNode, skippedFunction);
+            } else if ((skippedFunction.getFunctionFlags() & (FunctionNode.HAS_EVAL | FunctionNode.HAS_NESTED_EVAL)) != 0) {
+                // compensates for the missing markEval() in the enclosing functions
+                markNestedEval(lc);
+            }
+            functionNode.setFlag(FunctionNode.HAS_SKIPPED_BODY);
+            functionNode.setEndParserState(skippedFunction);
         }
 
         if (reparsedFunction != null) {
@@ -4690,18 +4701,42 @@ loop:
         return functionBody;
     }
 
-    private boolean skipFunctionBody(final ParserContextFunctionNode functionNode) {
+    /**
+     * Is this parser reparsing a single function (as opposed to pre-parsing a whole program)?
+     */
+    private boolean isReparsingFunction() {
+        return reparsedFunction != null && reparsedFunction.getFunctionNodeId() >= 0;
+    }
+
+    /**
+     * Can the body of this nested function be skipped? Only functions whose source can be reparsed
+     * on its own as a function statement qualify; methods, accessors, class constructors and arrow
+     * functions depend on their enclosing syntax and are always parsed.
+     */
+    private static boolean canSkipFunctionBody(final ParserContextFunctionNode functionNode) {
+        final FunctionNode.Kind kind = functionNode.getKind();
+        if (kind != FunctionNode.Kind.NORMAL && kind != FunctionNode.Kind.GENERATOR) {
+            return false;
+        }
+        return !functionNode.isMethod() && !functionNode.isClassConstructor();
+    }
+
+    /**
+     * Skips the body of a nested function whose end parser state was recorded by an earlier parse.
+     *
+     * @return the recorded data of the skipped function, or {@code null} if the body must be parsed
+     */
+    private RecompilableScriptFunctionData skipFunctionBody(final ParserContextFunctionNode functionNode) {
         if (reparsedFunction == null) {
             // Not reparsing, so don't skip any function body.
-            return false;
+            return null;
         }
         // Skip to the RBRACE of this function, and continue parsing from there.
         final RecompilableScriptFunctionData data = reparsedFunction.getScriptFunctionData(functionNode.getId());
         if (data == null) {
-            // Nested function is not known to the reparsed function. This can happen if the FunctionNode was
-            // in dead code that was removed. Both FoldConstants and Lower prune dead code. In that case, the
-            // FunctionNode was dropped before a RecompilableScriptFunctionData could've been created for it.
-            return false;
+            // Nested function is not known to the reparsed function. This is the case when a script is
+            // pre-parsed: nothing has been recorded yet, so the body is parsed and its end state recorded.
+            return null;
         }
         final ParserState parserState = (ParserState)data.getEndParserState();
         assert parserState != null;
@@ -4715,13 +4750,13 @@ loop:
                     type = Token.descType(token);
                     next();
                     assert type == RBRACE && start == parserState.position;
-                    return true;
+                    return data;
                 }
             }
         }
 
         stream.reset();
-        lexer = parserState.createLexer(source, lexer, stream, scripting, isES6(), shebang, isModule, allowBigInt);
+        lexer = parserState.createLexer(lexer, stream, scripting, isES6(), shebang, isModule, allowBigInt);
         line = parserState.line;
         linePosition = parserState.linePosition;
         // Doesn't really matter, but it's safe to treat it as if there were a semicolon before
@@ -4729,7 +4764,60 @@ loop:
         type = SEMICOLON;
         scanFirstToken();
 
-        return true;
+        return data;
+    }
+
+    /**
+     * Adds a skipped function to the nearest enclosing function that is skipped as well, the parse
+     * of that function can then skip the nested body.
+     */
+    private void addSkippedFunction(final ParserContextFunctionNode functionNode, final RecompilableScriptFunctionData skippedFunction) {
+        final Iterator<ParserContextFunctionNode> iter = lc.getFunctions();
+        while (iter.hasNext()) {
+            final ParserContextFunctionNode fn = iter.next();
+            if (fn != functionNode && canSkipFunctionBody(fn)) {
+                fn.addSkippedFunction(skippedFunction);
+                break;
+            }
+        }
+    }
+
+    /**
+     * What the pre-parse of a skipped function recorded: its flags, the parser state before its
+     * closing brace and the skipped functions nested in it.
+     */
+    private static final class SkippedFunction implements RecompilableScriptFunctionData {
+        private final int functionNodeId;
+        private final int functionFlags;
+        private final ParserState endParserState;
+        private final Map<Integer, RecompilableScriptFunctionData> nestedFunctions;
+
+        SkippedFunction(final int functionNodeId, final int functionFlags, final ParserState endParserState, final Map<Integer, RecompilableScriptFunctionData> nestedFunctions) {
+            this.functionNodeId = functionNodeId;
+            this.functionFlags = functionFlags;
+            this.endParserState = endParserState;
+            this.nestedFunctions = nestedFunctions;
+        }
+
+        @Override
+        public RecompilableScriptFunctionData getScriptFunctionData(final int functionId) {
+            return nestedFunctions.get(functionId);
+        }
+
+        @Override
+        public int getFunctionNodeId() {
+            return functionNodeId;
+        }
+
+        @Override
+        public int getFunctionFlags() {
+            return functionFlags;
+        }
+
+        @Override
+        public Object getEndParserState() {
+            return endParserState;
+        }
     }
 
     /**
@@ -4747,8 +4835,8 @@ loop:
             this.linePosition = linePosition;
         }
 
-        Lexer createLexer(final Source source, final Lexer lexer, final TokenStream stream, final boolean scripting, final boolean es6, final boolean shebang, final boolean isModule, final boolean allowBigInt) {
-            final Lexer newLexer = new Lexer(source, position, lexer.limit - position, stream, scripting, es6, shebang, isModule, true, allowBigInt);
+        Lexer createLexer(final Lexer lexer, final TokenStream stream, final boolean scripting, final boolean es6, final boolean shebang, final boolean isModule, final boolean allowBigInt) {
+            final Lexer newLexer = new Lexer(lexer, position, lexer.limit - position, stream, scripting, es6, shebang, isModule, true, allowBigInt);
             newLexer.restoreState(new Lexer.State(position, Integer.MAX_VALUE, line, -1, linePosition, SEMICOLON));
             return newLexer;
         }
@@ -6160,6 +6248,21 @@ loop:
         }
     }
 
+    private static void markNestedEval(final ParserContext lc) {
+        final Iterator<ParserContextFunctionNode> iter = lc.getFunctions();
+        // skip the current function
+        iter.next();
+        while (iter.hasNext()) {
+            final ParserContextFunctionNode fn = iter.next();
+            fn.setFlag(FunctionNode.HAS_NESTED_EVAL);
+            final ParserContextBlockNode body = lc.getFunctionBody(fn);
+            if (body != null) {
+                body.setFlag(Block.NEEDS_SCOPE);
+            }
+            fn.setFlag(FunctionNode.HAS_SCOPE_BLOCK);
+        }
+    }
+
     private void prependStatement(final Statement statement) {
         lc.prependStatementToCurrentNode(statement);
     }
@@ -42,8 +42,10 @@ package com.oracle.js.parser;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import com.oracle.js.parser.ir.Block;
 import com.oracle.js.parser.ir.Expression;
@@ -88,6 +90,9 @@ class ParserContextFunctionNode extends ParserContextBaseNode {
     /** Opaque node for parser end state, see {@link Parser} */
     private Object endParserState;
 
+    /** Skipped functions nested in this function, by function id, see {@link Parser} */
+    private Map<Integer, RecompilableScriptFunctionData> skippedFunctions;
+
     private int length;
     private int parameterCount;
     private HashSet<String> parameterBoundNames;
@@ -240,6 +245,27 @@ class ParserContextFunctionNode extends ParserContextBaseNode {
         this.endParserState = endParserState;
     }
 
+    /**
+     * Records a nested function whose body was skipped.
+     *
+     * @param skippedFunction what was recorded about the skipped function
+     */
+    public void addSkippedFunction(final RecompilableScriptFunctionData skippedFunction) {
+        if (skippedFunctions == null) {
+            skippedFunctions = new HashMap<>();
+        }
+        skippedFunctions.put(skippedFunction.getFunctionNodeId(), skippedFunction);
+    }
+
+    /**
+     * Returns the skipped functions nested in this function.
+     *
+     * @return the skipped functions by function id
+     */
+    public Map<Integer, RecompilableScriptFunctionData> getSkippedFunctions() {
+        return skippedFunctions == null ? Collections.<Integer, RecompilableScriptFunctionData>emptyMap() : skippedFunctions;
+    }
+
     /**
      * Returns the if of this function
      *
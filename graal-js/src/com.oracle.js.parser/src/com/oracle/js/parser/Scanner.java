@@ -50,6 +50,9 @@ public class Scanner {
     /** Characters to scan. */
     protected final char[] content;
 
+    /** Position of the first character of {@link #content}. */
+    protected final int offset;
+
     /** Position in content. */
     protected int position;
 
@@ -77,7 +80,21 @@ public class Scanner {
      * @param length  length of input
      */
     protected Scanner(final char[] content, final int line, final int start, final int length) {
+        this(content, 0, line, start, length);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param content content to scan
+     * @param offset  position of the first character of content
+     * @param line    start line number
+     * @param start   position where to start
+     * @param length  length of input
+     */
+    protected Scanner(final char[] content, final int offset, final int line, final int start, final int length) {
         this.content  = content;
+        this.offset   = offset;
         this.position = start;
         this.limit    = start + length;
         this.line     = line;
@@ -93,6 +110,7 @@ public class Scanner {
      */
     Scanner(final Scanner scanner, final State state) {
         content  = scanner.content;
+        offset   = scanner.offset;
         position = state.position;
         limit    = state.limit;
         line     = state.line;
@@ -170,7 +188,7 @@ public class Scanner {
      */
     protected final char charAt(final int i) {
         // Get a character from the content, '\0' if beyond the end of file.
-        return i < limit ? content[i] : '\0';
+        return i < limit ? content[i - offset] : '\0';
     }
 
     /**
@@ -234,6 +234,13 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
     /** Flag indicating that this function has a non-simple parameter list. */
     public static final int HAS_NON_SIMPLE_PARAMETER_LIST = 1 << 26;
 
+    /**
+     * Was the body of this function skipped by the parser? If so, the function has to be reparsed
+     * from its source range before it can be translated. Its end parser state is then the
+     * {@link com.oracle.js.parser.RecompilableScriptFunctionData} to reparse it with.
+     */
+    public static final int HAS_SKIPPED_BODY = 1 << 27;
+
     /**
      * Constructor
      *
@@ -709,6 +716,10 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         return !getFlag(HAS_NON_SIMPLE_PARAMETER_LIST);
     }
 
+    public boolean hasSkippedBody() {
+        return getFlag(HAS_SKIPPED_BODY);
+    }
+
     public boolean isAnalyzed() {
         return analyzed;
     }
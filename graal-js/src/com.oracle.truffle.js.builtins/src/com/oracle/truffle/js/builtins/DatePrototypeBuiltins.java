@@ -385,7 +385,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 if (isNaN.profile(Double.isNaN(t))) {
                     return JSDate.INVALID_DATE_STRING;
                 }
-                return JSDate.formatUTC(JSDate.getJSDateUTCFormat(), t);
+                return JSDate.toUTCString(t);
             } else {
                 return JSDate.toString(t, getContext());
             }
@@ -448,7 +448,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
             if (isNaN.profile(Double.isNaN(t))) {
                 return JSDate.INVALID_DATE_STRING;
             }
-            return JSDate.formatLocal(JSDate.getJSShortDateFormat(), t, getContext());
+            return JSDate.toDateString(t, getContext());
         }
     }
 
@@ -464,7 +464,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
             if (isNaN.profile(Double.isNaN(t))) {
                 return JSDate.INVALID_DATE_STRING;
             }
-            return JSDate.formatLocal(JSDate.getJSShortTimeFormat(), t, getContext());
+            return JSDate.toTimeString(t, getContext());
         }
     }
 
@@ -584,7 +584,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 return JSDate.yearFromTime((long) t);
             } else {
                 int daysAfter1970 = localDayNode.execute((long) t);
-                return JSDate.yearFromDays(daysAfter1970);
+                return getContext().getDateCache().yearFromDays(daysAfter1970);
             }
         }
     }
@@ -604,7 +604,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 return Double.NaN;
             }
             int daysAfter1970 = localDayNode.execute((long) t);
-            return JSDate.yearFromDays(daysAfter1970) - 1900;
+            return getContext().getDateCache().yearFromDays(daysAfter1970) - 1900;
         }
     }
 
@@ -626,14 +626,12 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 return JSDate.monthFromTime(t);
             } else {
                 int daysAfter1970 = localDayNode.execute((long) t);
-                return JSDate.monthFromDays(daysAfter1970);
+                return getContext().getDateCache().monthFromDays(daysAfter1970);
             }
         }
     }
 
     public abstract static class JSDateGetDateNode extends JSDateOperation {
-        private static final int DAYS_FROM_1970_TO_1901 = JSDate.dayFromYear(1901);
-        private static final int DAYS_FROM_1970_TO_2100 = JSDate.dayFromYear(2100);
         @Child protected LocalDayNode localDayNode;
 
         public JSDateGetDateNode(JSContext context, JSBuiltin builtin, boolean isUTC) {
@@ -651,12 +649,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 return JSDate.dateFromTime(t);
             } else {
                 int daysAfter1970 = localDayNode.execute((long) t);
-                if (DAYS_FROM_1970_TO_1901 <= daysAfter1970 && daysAfter1970 <= DAYS_FROM_1970_TO_2100) {
-                    // There are regular leap years between 1.1.1901 and 1.1.2100
-                    return JSDate.dateFromDaysRegularLeapYears(daysAfter1970);
-                } else {
-                    return JSDate.dateFromDays(daysAfter1970);
-                }
+                return getContext().getDateCache().dateFromDays(daysAfter1970);
             }
         }
     }
@@ -1005,7 +998,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 return iday;
             } else {
                 dstNeededProfile.enter();
-                timeInDay += JSDate.daylightSavingTA(context.getLocalTimeZoneId(), t);
+                timeInDay += JSDate.daylightSavingTA(context, t);
                 return (timeInDay < JSDate.MS_PER_DAY) ? iday : (iday + 1);
             }
         }
@@ -63,6 +63,7 @@ import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugArrayTypeNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugAssertIntNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugBackgroundTranslationStatsNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugClassNameNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugClassNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugCompileFunctionNodeGen;
@@ -71,6 +72,7 @@ import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugCreateLargeInteg
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugCreateLazyStringNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDumpCountersNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDumpFunctionTreeNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugEvalCacheStatsNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugHeapDumpNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugInspectNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugIsHolesArrayNodeGen;
@@ -79,6 +81,7 @@ import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugLoadModuleNodeGe
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugNeverPartOfCompilationNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugPrintObjectNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugPrintSourceAttributionNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugRegexCacheStatsNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugShapeNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugStringCompareNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugSystemGCNodeGen;
@@ -118,6 +121,8 @@ import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.BackgroundTranslationPool;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 import com.oracle.truffle.object.DynamicObjectImpl;
 
 /**
@@ -154,7 +159,10 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         systemProperty(1),
         systemProperties(0),
         neverPartOfCompilation(0),
-        dumpHeap(2);
+        dumpHeap(2),
+        evalCacheStats(0),
+        regexCacheStats(0),
+        backgroundTranslationStats(0);
 
         private final int length;
 
@@ -226,6 +234,12 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
 
             case dumpHeap:
                 return DebugHeapDumpNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
+            case evalCacheStats:
+                return DebugEvalCacheStatsNodeGen.create(context, builtin, args().createArgumentNodes(context));
+            case regexCacheStats:
+                return DebugRegexCacheStatsNodeGen.create(context, builtin, args().createArgumentNodes(context));
+            case backgroundTranslationStats:
+                return DebugBackgroundTranslationStatsNodeGen.create(context, builtin, args().createArgumentNodes(context));
         }
         return null;
     }
@@ -698,6 +712,81 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         }
     }
 
+    /**
+     * Returns the size and hit/miss counters of the eval cache, or undefined if it is disabled.
+     */
+    public abstract static class DebugEvalCacheStatsNode extends JSBuiltinNode {
+
+        public DebugEvalCacheStatsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object evalCacheStats() {
+            return createCacheStats(getContext(), getContext().getEvalCache());
+        }
+
+        static Object createCacheStats(JSContext context, LRUCache<?, ?> cache) {
+            if (cache == null) {
+                return Undefined.instance;
+            }
+            DynamicObject result = JSUserObject.create(context);
+            JSObject.set(result, "size", cache.size());
+            JSObject.set(result, "capacity", cache.getCapacity());
+            JSObject.set(result, "hits", (double) cache.getHits());
+            JSObject.set(result, "misses", (double) cache.getMisses());
+            return result;
+        }
+    }
+
+    /**
+     * Returns the size and hit/miss counters of the compiled RegExp cache, or undefined if it is
+     * disabled.
+     */
+    public abstract static class DebugRegexCacheStatsNode extends JSBuiltinNode {
+
+        public DebugRegexCacheStatsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object regexCacheStats() {
+            return DebugEvalCacheStatsNode.createCacheStats(getContext(), getContext().getRegexCache());
+        }
+    }
+
+    /**
+     * Returns the counters of the background function translation pool, or undefined if it is
+     * disabled.
+     */
+    public abstract static class DebugBackgroundTranslationStatsNode extends JSBuiltinNode {
+
+        public DebugBackgroundTranslationStatsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object backgroundTranslationStats() {
+            BackgroundTranslationPool pool = getContext().getBackgroundTranslationPool();
+            if (pool == null) {
+                return Undefined.instance;
+            }
+            DynamicObject result = JSUserObject.create(getContext());
+            JSObject.set(result, "threads", pool.getThreads());
+            JSObject.set(result, "submitted", (double) pool.getSubmitted());
+            JSObject.set(result, "translated", (double) pool.getTranslated());
+            JSObject.set(result, "alreadyTranslated", (double) pool.getAlreadyTranslated());
+            JSObject.set(result, "failed", (double) pool.getFailed());
+            JSObject.set(result, "translationTimeMs", pool.getTranslationNanos() / 1e6);
+            JSObject.set(result, "called", (double) pool.getCalled());
+            JSObject.set(result, "savedTimeMs", pool.getSavedNanos() / 1e6);
+            return result;
+        }
+    }
+
     public abstract static class DebugSystemProperty extends JSBuiltinNode {
 
         public DebugSystemProperty(JSContext context, JSBuiltin builtin) {
@@ -53,6 +53,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseNodeGen;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyNodeGen;
 import com.oracle.truffle.js.builtins.helper.JSONData;
+import com.oracle.truffle.js.builtins.helper.JSONStreamWriter;
 import com.oracle.truffle.js.builtins.helper.JSONStringifyStringNode;
 import com.oracle.truffle.js.builtins.helper.TruffleJSONParser;
 import com.oracle.truffle.js.nodes.access.PropertySetNode;
@@ -238,6 +239,11 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
 
         @Specialization(guards = "isArray(replacerObj)")
         protected Object stringifyReplacerArray(Object value, DynamicObject replacerObj, Object spaceParam) {
+            return stringifyIntl(value, spaceParam, null, createReplacerList(replacerObj));
+        }
+
+        @TruffleBoundary
+        private static List<String> createReplacerList(DynamicObject replacerObj) {
             int len = (int) JSRuntime.toLength(JSObject.get(replacerObj, JSArray.LENGTH));
             List<String> replacerList = new ArrayList<>();
             for (int i = 0; i < len; i++) {
@@ -247,18 +253,13 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
                 if (JSRuntime.isString(v)) {
                     item = JSRuntime.toStringIsString(v);
                 } else if (JSRuntime.isNumber(v) || JSNumber.isJSNumber(v) || JSString.isJSString(v)) {
-                    item = toString(v);
+                    item = JSRuntime.toString(v);
+                }
+                if (!replacerList.contains(item)) {
+                    replacerList.add(item);
                 }
-                addToReplacer(replacerList, item);
-            }
-            return stringifyIntl(value, spaceParam, null, replacerList);
-        }
-
-        @TruffleBoundary
-        private static void addToReplacer(List<String> replacerList, String item) {
-            if (!replacerList.contains(item)) {
-                replacerList.add(item);
             }
+            return replacerList;
         }
 
         @SuppressWarnings("unused")
@@ -303,6 +304,38 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             }
         }
 
+        /**
+         * Creates the stringify state for the given replacer and space arguments without node
+         * caches, for callers that serialize to a {@link JSONStreamWriter}.
+         */
+        @TruffleBoundary
+        static JSONData createJSONData(Object replacer, Object spaceParam, JSONStreamWriter output) {
+            DynamicObject replacerFnObj = null;
+            List<String> replacerList = null;
+            if (JSObject.isDynamicObject(replacer)) {
+                if (JSRuntime.isCallable(replacer)) {
+                    replacerFnObj = (DynamicObject) replacer;
+                } else if (JSRuntime.isArray(replacer)) {
+                    replacerList = createReplacerList((DynamicObject) replacer);
+                }
+            }
+            Object space = spaceParam;
+            if (JSNumber.isJSNumber(space)) {
+                space = JSRuntime.toNumber(space);
+            } else if (JSString.isJSString(space)) {
+                space = JSRuntime.toString(space);
+            }
+            String gap;
+            if (JSRuntime.isNumber(space)) {
+                gap = makeGap((int) Math.max(0, Math.min(10, JSRuntime.toInteger(space))));
+            } else if (JSRuntime.isString(space)) {
+                gap = makeGap(JSRuntime.toStringIsString(space));
+            } else {
+                gap = "";
+            }
+            return new JSONData(gap, replacerFnObj, replacerList, output);
+        }
+
         @TruffleBoundary
         private static String makeGap(String spaceStr) {
             if (spaceStr.length() <= 10) {
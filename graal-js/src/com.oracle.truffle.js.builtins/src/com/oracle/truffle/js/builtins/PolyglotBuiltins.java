@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,8 +41,13 @@
 package com.oracle.truffle.js.builtins;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.NoSuchFileException;
 
@@ -80,12 +85,18 @@ import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotIsExecutab
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotIsInstantiableNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotIsNullNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotKeysNodeGen;
+import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotParseJSONNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotReadNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotRemoveNodeGen;
+import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotStringifyJSONNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotToJSValueNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotToPolyglotValueNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotUnboxValueNodeGen;
 import com.oracle.truffle.js.builtins.PolyglotBuiltinsFactory.PolyglotWriteNodeGen;
+import com.oracle.truffle.js.builtins.helper.JSONData;
+import com.oracle.truffle.js.builtins.helper.JSONStreamWriter;
+import com.oracle.truffle.js.builtins.helper.JSONStringifyStringNode;
+import com.oracle.truffle.js.builtins.helper.TruffleJSONStreamParser;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.nodes.interop.ExportValueNode;
@@ -94,9 +105,13 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.Evaluator;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
@@ -111,7 +126,9 @@ public final class PolyglotBuiltins extends JSBuiltinsContainer.SwitchEnum<Polyg
         // external
         export(2),
         import_(1),
-        eval(2);
+        eval(2),
+        parseJSON(1),
+        stringifyJSON(2);
 
         private final int length;
 
@@ -134,6 +151,10 @@ public final class PolyglotBuiltins extends JSBuiltinsContainer.SwitchEnum<Polyg
                 return PolyglotImportNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
             case eval:
                 return PolyglotEvalNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
+            case parseJSON:
+                return PolyglotParseJSONNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
+            case stringifyJSON:
+                return PolyglotStringifyJSONNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context));
         }
         return null;
     }
@@ -855,6 +876,82 @@ public final class PolyglotBuiltins extends JSBuiltinsContainer.SwitchEnum<Polyg
         }
     }
 
+    /**
+     * Parses JSON incrementally from a host {@link Reader}, a UTF-8 encoded host
+     * {@link InputStream} or {@link ByteBuffer}, or a UTF-8 encoded {@code ArrayBuffer}, without
+     * materializing the input as a string.
+     */
+    abstract static class PolyglotParseJSONNode extends JSBuiltinNode {
+
+        PolyglotParseJSONNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization(guards = "isJSHeapArrayBuffer(arrayBuffer)")
+        protected Object parseHeapArrayBuffer(DynamicObject arrayBuffer) {
+            return TruffleJSONStreamParser.parse(getContext(), ByteBuffer.wrap(JSAbstractBuffer.getByteArray(arrayBuffer)));
+        }
+
+        @Specialization(guards = "isJSDirectArrayBuffer(arrayBuffer)")
+        protected Object parseDirectArrayBuffer(DynamicObject arrayBuffer) {
+            return TruffleJSONStreamParser.parse(getContext(), JSArrayBuffer.getDirectByteBuffer(arrayBuffer));
+        }
+
+        @Specialization(guards = {"!isJSHeapArrayBuffer(input)", "!isJSDirectArrayBuffer(input)"})
+        @TruffleBoundary
+        protected Object parse(Object input) {
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            if (input instanceof TruffleObject && env.isHostObject(input)) {
+                Object hostObject = env.asHostObject(input);
+                if (hostObject instanceof Reader) {
+                    return TruffleJSONStreamParser.parse(getContext(), (Reader) hostObject);
+                } else if (hostObject instanceof InputStream) {
+                    return TruffleJSONStreamParser.parse(getContext(), (InputStream) hostObject);
+                } else if (hostObject instanceof ByteBuffer) {
+                    return TruffleJSONStreamParser.parse(getContext(), (ByteBuffer) hostObject);
+                }
+            }
+            throw Errors.createTypeError("Expected a Reader, InputStream, ByteBuffer, or ArrayBuffer");
+        }
+    }
+
+    /**
+     * Like {@code JSON.stringify(value, replacer, space)}, but writes the result as UTF-8 to a host
+     * {@link OutputStream} or {@link WritableByteChannel} and returns the number of bytes written
+     * (or {@code undefined} if the value is not serializable).
+     */
+    abstract static class PolyglotStringifyJSONNode extends JSBuiltinNode {
+
+        @Child private JSONStringifyStringNode jsonStringifyStringNode;
+
+        PolyglotStringifyJSONNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+            this.jsonStringifyStringNode = JSONStringifyStringNode.create(context);
+        }
+
+        @Specialization
+        protected Object stringify(Object value, Object output, Object replacer, Object spaceParam) {
+            JSONData data = JSONBuiltins.JSONStringifyNode.createJSONData(replacer, spaceParam, toStreamWriter(output));
+            DynamicObject wrapper = JSUserObject.create(getContext());
+            JSRuntime.createDataProperty(wrapper, "", value);
+            return jsonStringifyStringNode.execute(data, "", wrapper);
+        }
+
+        @TruffleBoundary
+        private JSONStreamWriter toStreamWriter(Object output) {
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            if (output instanceof TruffleObject && env.isHostObject(output)) {
+                Object hostObject = env.asHostObject(output);
+                if (hostObject instanceof OutputStream) {
+                    return new JSONStreamWriter((OutputStream) hostObject);
+                } else if (hostObject instanceof WritableByteChannel) {
+                    return new JSONStreamWriter((WritableByteChannel) hostObject);
+                }
+            }
+            throw Errors.createTypeError("Expected an OutputStream or WritableByteChannel");
+        }
+    }
+
     abstract static class PolyglotHasKeysNode extends JSBuiltinNode {
 
         PolyglotHasKeysNode(JSContext context, JSBuiltin builtin) {
@@ -601,13 +601,11 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected Object charCodeAtLazyString(JSLazyString thisStr, int index,
-                        @Cached("createBinaryProfile()") ConditionProfile flatten) {
+        protected Object charCodeAtLazyString(JSLazyString thisStr, int index) {
             if (indexOutOfBounds.profile(0 > index || index >= thisStr.length())) {
                 return Double.NaN;
             } else {
-                String s = thisStr.toString(flatten);
-                return Integer.valueOf(s.charAt(index));
+                return Integer.valueOf(thisStr.charAt(index));
             }
         }
 
@@ -674,8 +672,20 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             super(context, builtin);
         }
 
+        @Specialization(guards = "thisStr.isSubstring()")
+        protected CharSequence substringOfSubstring(JSLazyString thisStr, int start, int end) {
+            int len = thisStr.length();
+            int finalStart = within(start, 0, len);
+            int finalEnd = within(end, 0, len);
+            if (startLowerEnd.profile(finalStart <= finalEnd)) {
+                return JSLazyString.createSubstring(thisStr, finalStart, finalEnd);
+            } else {
+                return JSLazyString.createSubstring(thisStr, finalEnd, finalStart);
+            }
+        }
+
         @Specialization
-        protected String substring(String thisStr, int start, int end) {
+        protected CharSequence substring(String thisStr, int start, int end) {
             int len = thisStr.length();
             int finalStart = within(start, 0, len);
             int finalEnd = within(end, 0, len);
@@ -683,23 +693,23 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization(guards = "isUndefined(end)")
-        protected String substringStart(String thisStr, int start, @SuppressWarnings("unused") Object end) {
+        protected CharSequence substringStart(String thisStr, int start, @SuppressWarnings("unused") Object end) {
             int len = thisStr.length();
             int finalStart = within(start, 0, len);
             int finalEnd = len;
             return substringIntl(thisStr, finalStart, finalEnd);
         }
 
-        private String substringIntl(String thisStr, int start, int end) {
+        private CharSequence substringIntl(String thisStr, int start, int end) {
             if (startLowerEnd.profile(start <= end)) {
-                return Boundaries.substring(thisStr, start, end);
+                return JSLazyString.createSubstring(thisStr, start, end);
             } else {
-                return Boundaries.substring(thisStr, end, start);
+                return JSLazyString.createSubstring(thisStr, end, start);
             }
         }
 
-        @Specialization(replaces = {"substring", "substringStart"})
-        protected String substringGeneric(Object thisObj, Object start, Object end,
+        @Specialization(replaces = {"substringOfSubstring", "substring", "substringStart"})
+        protected CharSequence substringGeneric(Object thisObj, Object start, Object end,
                         @Cached("create()") JSToNumberNode toNumber2Node,
                         @Cached("createBinaryProfile()") ConditionProfile startUndefined,
                         @Cached("createBinaryProfile()") ConditionProfile endUndefined) {
@@ -733,7 +743,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
             @Override
             @Specialization
-            protected String substringGeneric(Object thisObj, Object start, Object end,
+            protected CharSequence substringGeneric(Object thisObj, Object start, Object end,
                             @Cached("create()") JSToNumberNode toNumber2Node,
                             @Cached("createBinaryProfile()") ConditionProfile startUndefined,
                             @Cached("createBinaryProfile()") ConditionProfile endUndefined) {
@@ -766,13 +776,29 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             super(context, builtin);
         }
 
+        @Specialization(guards = "!thisStr.isFlat()")
+        protected int indexOfLazyString(JSLazyString thisStr, Object[] args) {
+            String searchStr = toString(JSRuntime.getArgOrUndefined(args, 0));
+            int startPos;
+            if (hasPos.profile(args.length >= 2)) {
+                startPos = Math.min(toInteger(args[1]), thisStr.length());
+            } else {
+                startPos = 0;
+            }
+            return thisStr.indexOf(searchStr, startPos);
+        }
+
         @Specialization
         protected int indexOf(String thisStr, Object[] args) {
             String searchStr = toString(JSRuntime.getArgOrUndefined(args, 0));
             return indexOfIntl(args, thisStr, searchStr);
         }
 
-        @Specialization(replaces = "indexOf")
+        /**
+         * Does not replace {@link #indexOfLazyString}, so that ropes keep being searched without
+         * flattening after other receivers made this node generic.
+         */
+        @Specialization(guards = "!isUnflattenedLazyString(thisObj)", replaces = "indexOf")
         protected int indexOfGeneric(Object thisObj, Object[] args,
                         @Cached("create()") JSToStringNode toString2Node) {
             requireObjectCoercible(thisObj);
@@ -998,18 +1024,18 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
             @TruffleBoundary
             private static Object[] regularSplitIntl(String input, int limit, String separator, int endParam, JSStringSplitNode parent) {
-                SimpleArrayList<String> splits = SimpleArrayList.create(limit);
+                SimpleArrayList<CharSequence> splits = SimpleArrayList.create(limit);
                 int start = 0;
                 int end = endParam;
                 while (end != -1) {
-                    splits.add(input.substring(start, end), parent.growProfile);
+                    splits.add(JSLazyString.createSubstring(input, start, end), parent.growProfile);
                     if (splits.size() == limit) {
                         return splits.toArray();
                     }
                     start = end + separator.length();
                     end = input.indexOf(separator, start);
                 }
-                splits.add(input.substring(start), parent.growProfile);
+                splits.add(JSLazyString.createSubstring(input, start, input.length()), parent.growProfile);
                 return splits.toArray();
             }
 
@@ -1059,7 +1085,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                         result = parent.matchIgnoreLastIndex(regExp, input, start + 1);
                         continue;
                     }
-                    String split = Boundaries.substring(input, start, matchStart);
+                    CharSequence split = JSLazyString.createSubstring(input, start, matchStart);
                     splits.add(split, parent.growProfile);
                     int count = Math.min(parent.getCompiledRegexAccessor().groupCount(JSRegExp.getCompiledRegex(regExp)) - 1, limit - splits.size());
                     for (int i = 1; i <= count; i++) {
@@ -1067,7 +1093,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                         if (groupStart == TRegexUtil.Constants.CAPTURE_GROUP_NO_MATCH) {
                             splits.add(Undefined.instance, parent.growProfile);
                         } else {
-                            splits.add(Boundaries.substring(input, groupStart, parent.getResultAccessor().captureGroupEnd(result, i)), parent.growProfile);
+                            splits.add(JSLazyString.createSubstring(input, groupStart, parent.getResultAccessor().captureGroupEnd(result, i)), parent.growProfile);
                         }
                     }
                     if (splits.size() == limit) {
@@ -1076,7 +1102,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     start = matchEnd + (matchEnd == start ? 1 : 0);
                     result = parent.matchIgnoreLastIndex(regExp, input, start);
                 }
-                splits.add(Boundaries.substring(input, start), parent.growProfile);
+                splits.add(JSLazyString.createSubstring(input, start, input.length()), parent.growProfile);
                 return splits.toArray();
             }
         }
@@ -1491,7 +1517,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                         Boundaries.builderAppend(sb, '$');
                         break;
                     case '&':
-                        Boundaries.builderAppend(sb, (String) resultMaterializer.materializeGroup(result, 0, input));
+                        Boundaries.builderAppend(sb, (CharSequence) resultMaterializer.materializeGroup(result, 0, input));
                         break;
                     case '`':
                         Boundaries.builderAppend(sb, input, 0, resultAccessor.captureGroupStart(result, 0));
@@ -1525,7 +1551,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     Boundaries.builderAppend(sb, digit);
                     return 1;
                 }
-                String group = (String) resultMaterializer.materializeGroup(result, groupNr, input);
+                CharSequence group = (CharSequence) resultMaterializer.materializeGroup(result, groupNr, input);
                 Boundaries.builderAppend(sb, group);
                 return (groupNr > 9) ? 2 : 1;
             }
@@ -1834,17 +1860,17 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String substrInt(String thisStr, int start, int length) {
+        protected CharSequence substrInt(String thisStr, int start, int length) {
             return substrIntl(thisStr, start, length);
         }
 
         @Specialization(guards = "isUndefined(length)")
-        protected String substrLenUndef(String thisStr, int start, @SuppressWarnings("unused") Object length) {
+        protected CharSequence substrLenUndef(String thisStr, int start, @SuppressWarnings("unused") Object length) {
             return substrIntl(thisStr, start, thisStr.length());
         }
 
         @Specialization(replaces = {"substrInt", "substrLenUndef"})
-        protected String substr(Object thisObj, Object start, Object length) {
+        protected CharSequence substr(Object thisObj, Object start, Object length) {
             requireObjectCoercible(thisObj);
             String thisStr = toString(thisObj);
             int startInt = toInteger(start);
@@ -1852,7 +1878,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             return substrIntl(thisStr, startInt, len);
         }
 
-        private String substrIntl(String thisStr, int start, int length) {
+        private CharSequence substrIntl(String thisStr, int start, int length) {
             int startInt = start;
             if (startInt < 0) {
                 startNegativeBranch.enter();
@@ -1863,7 +1889,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                 finalLenEmptyBranch.enter();
                 return "";
             }
-            return Boundaries.substring(thisStr, startInt, startInt + finalLen);
+            return JSLazyString.createSubstring(thisStr, startInt, startInt + finalLen);
         }
     }
 
@@ -1976,10 +2002,10 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             if (match.profile(!resultAccessor.isMatch(result))) {
                 return Null.instance;
             }
-            List<String> matches = new ArrayList<>();
+            List<Object> matches = new ArrayList<>();
             int lastIndex = 0;
             while (resultAccessor.isMatch(result)) {
-                Boundaries.listAdd(matches, (String) resultMaterializer.materializeGroup(result, 0, input));
+                Boundaries.listAdd(matches, resultMaterializer.materializeGroup(result, 0, input));
 
                 int thisIndex = resultAccessor.captureGroupEnd(result, 0);
                 lastIndex = thisIndex + (thisIndex == lastIndex ? 1 : 0);
@@ -2142,26 +2168,38 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             super(context, builtin);
         }
 
+        @Specialization(guards = "str.isSubstring()")
+        protected CharSequence sliceSubstring(JSLazyString str, int start, int end) {
+            int len = str.length();
+            int istart = JSRuntime.getOffset(start, len, offsetProfile1);
+            int iend = JSRuntime.getOffset(end, len, offsetProfile2);
+            if (canReturnEmpty.profile(iend > istart)) {
+                return JSLazyString.createSubstring(str, istart, iend);
+            } else {
+                return "";
+            }
+        }
+
         @Specialization
-        protected String sliceString(String str, int start, int end) {
+        protected CharSequence sliceString(String str, int start, int end) {
             int len = str.length();
             int istart = JSRuntime.getOffset(start, len, offsetProfile1);
             int iend = JSRuntime.getOffset(end, len, offsetProfile2);
             if (canReturnEmpty.profile(iend > istart)) {
-                return Boundaries.substring(str, istart, iend);
+                return JSLazyString.createSubstring(str, istart, iend);
             } else {
                 return "";
             }
         }
 
-        @Specialization(replaces = "sliceString")
-        protected String sliceObject(Object thisObj, int start, int end) {
+        @Specialization(replaces = {"sliceSubstring", "sliceString"})
+        protected CharSequence sliceObject(Object thisObj, int start, int end) {
             requireObjectCoercible(thisObj);
             return sliceString(toString(thisObj), start, end);
         }
 
-        @Specialization(replaces = {"sliceString", "sliceObject"})
-        protected String slice(Object thisObj, Object start, Object end) {
+        @Specialization(replaces = {"sliceSubstring", "sliceString", "sliceObject"})
+        protected CharSequence slice(Object thisObj, Object start, Object end) {
             requireObjectCoercible(thisObj);
             String s = toString(thisObj);
 
@@ -2169,7 +2207,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             long istart = JSRuntime.getOffset(toInteger(start), len, offsetProfile1);
             long iend = isUndefined.profile(end == Undefined.instance) ? len : JSRuntime.getOffset(toInteger(end), len, offsetProfile2);
             if (canReturnEmpty.profile(iend > istart)) {
-                return Boundaries.substring(s, (int) istart, (int) iend);
+                return JSLazyString.createSubstring(s, (int) istart, (int) iend);
             } else {
                 return "";
             }
@@ -2187,6 +2225,11 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
         private final BranchProfile noStringBranch = BranchProfile.create();
 
+        @Specialization(guards = {"!thisObj.isFlat()", "isUndefined(position)"})
+        protected boolean startsWithLazyString(JSLazyString thisObj, String searchStr, @SuppressWarnings("unused") DynamicObject position) {
+            return thisObj.regionMatches(0, searchStr);
+        }
+
         @Specialization(guards = "isUndefined(position)")
         protected boolean startsWithString(String thisObj, String searchStr, @SuppressWarnings("unused") DynamicObject position) {
             if (searchStr.length() <= 0) {
@@ -2237,6 +2280,11 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
         private final BranchProfile noStringBranch = BranchProfile.create();
 
+        @Specialization(guards = {"!thisObj.isFlat()", "isUndefined(position)"})
+        protected boolean endsWithLazyString(JSLazyString thisObj, String searchStr, @SuppressWarnings("unused") DynamicObject position) {
+            return thisObj.regionMatches(thisObj.length() - searchStr.length(), searchStr);
+        }
+
         @Specialization
         protected boolean endsWith(Object thisObj, Object searchString, Object position,
                         @Cached("create()") JSToStringNode toString2Node,
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,13 +53,19 @@ public class JSONData {
     private final String gap;
     private final List<String> propertyList;
     private final DynamicObject replacerFnObj;
+    private final JSONStreamWriter output;
 
     private static final int MAX_STACK_SIZE = 1000;
 
     public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList) {
+        this(gap, replacerFnObj, replacerList, null);
+    }
+
+    public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList, JSONStreamWriter output) {
         this.gap = gap;
         this.replacerFnObj = replacerFnObj;
         this.propertyList = replacerList;
+        this.output = output;
     }
 
     public String getGap() {
@@ -82,6 +88,13 @@ public class JSONData {
         return replacerFnObj;
     }
 
+    /**
+     * The stream the result is written to, or {@code null} if it is returned as a string.
+     */
+    public JSONStreamWriter getOutput() {
+        return output;
+    }
+
     public void pushStack(TruffleObject value) {
         stack.add(value);
     }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
+
+/**
+ * Creates the objects and arrays of a JSON parse once all their members or elements are known.
+ *
+ * Members and elements are collected on stacks shared by all nesting levels. Objects are allocated
+ * directly with the shape of all their members; the shape of the last created object is cached, so
+ * that homogeneous records (e.g. the elements of an array of objects) skip the shape transitions
+ * altogether. Arrays of numbers get an int or double backing store right away.
+ */
+final class JSONParseBuilder {
+    private static final int MAX_INTERNED_KEY_LENGTH = 64;
+    private static final int MAX_INTERNED_KEYS = 4096;
+
+    private final JSContext context;
+
+    private final List<String> memberKeys = new ArrayList<>();
+    private final List<Object> memberValues = new ArrayList<>();
+    private final List<Object> elements = new ArrayList<>();
+    private final Map<String, String> internedKeys = new HashMap<>();
+
+    /** Member names and resulting shape of the last object created with a precomputed shape. */
+    private String[] lastKeys;
+    private Shape lastShape;
+
+    JSONParseBuilder(JSContext context) {
+        this.context = context;
+    }
+
+    int startObject() {
+        return memberKeys.size();
+    }
+
+    void addMember(String key, Object value) {
+        memberKeys.add(internKey(key));
+        memberValues.add(value);
+    }
+
+    DynamicObject finishObject(int start) {
+        int end = memberKeys.size();
+        DynamicObject object = null;
+        if (!context.isMultiContext()) {
+            Shape shape = lastShape;
+            if (shape == null || !shape.isValid() || !matchesLastKeys(start, end) || !canStoreAll(shape, start, end)) {
+                shape = computeShape(start, end);
+                if (shape != null) {
+                    lastShape = shape;
+                    lastKeys = memberKeys.subList(start, end).toArray(new String[end - start]);
+                }
+            }
+            if (shape != null) {
+                object = JSObject.create(context, shape);
+                for (int i = start; i < end; i++) {
+                    shape.getProperty(memberKeys.get(i)).setSafe(object, memberValues.get(i), null);
+                }
+            }
+        }
+        if (object == null) {
+            object = JSUserObject.create(context);
+            for (int i = start; i < end; i++) {
+                JSObjectUtil.defineDataProperty(context, object, memberKeys.get(i), memberValues.get(i), JSAttributes.getDefault());
+            }
+        }
+        memberKeys.subList(start, end).clear();
+        memberValues.subList(start, end).clear();
+        return object;
+    }
+
+    private boolean matchesLastKeys(int start, int end) {
+        String[] keys = lastKeys;
+        if (keys.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (!keys[i].equals(memberKeys.get(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Follows the shape transitions for the given members, or returns {@code null} if the members
+     * cannot be stored with a precomputed shape (e.g. duplicate member names).
+     */
+    private Shape computeShape(int start, int end) {
+        Shape shape = context.getRealm().getInitialUserObjectShape();
+        int flags = JSAttributes.getDefault();
+        for (int i = start; i < end; i++) {
+            int propertyCount = shape.getPropertyCount();
+            shape = JSObjectUtil.shapeDefineDataProperty(context, shape, memberKeys.get(i), memberValues.get(i), flags);
+            if (shape.getPropertyCount() == propertyCount) {
+                // duplicate member name; the last one wins
+                return null;
+            }
+        }
+        if (!shape.isValid() || !canStoreAll(shape, start, end)) {
+            return null;
+        }
+        return shape;
+    }
+
+    private boolean canStoreAll(Shape shape, int start, int end) {
+        for (int i = start; i < end; i++) {
+            Property property = shape.getProperty(memberKeys.get(i));
+            if (property == null || !property.getLocation().canStore(memberValues.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int startArray() {
+        return elements.size();
+    }
+
+    void addElement(Object value) {
+        elements.add(value);
+    }
+
+    DynamicObject finishArray(int start) {
+        int end = elements.size();
+        int length = end - start;
+        if (length == 0) {
+            return JSArray.createEmptyZeroLength(context);
+        }
+        boolean allInt = true;
+        boolean allNumber = true;
+        for (int i = start; i < end; i++) {
+            Object value = elements.get(i);
+            if (value instanceof Integer) {
+                continue;
+            } else if (value instanceof Double) {
+                allInt = false;
+            } else {
+                allInt = false;
+                allNumber = false;
+                break;
+            }
+        }
+        DynamicObject array;
+        if (allInt) {
+            int[] ints = new int[length];
+            for (int i = 0; i < length; i++) {
+                ints[i] = (int) elements.get(start + i);
+            }
+            array = JSArray.createZeroBasedIntArray(context, ints);
+        } else if (allNumber) {
+            double[] doubles = new double[length];
+            for (int i = 0; i < length; i++) {
+                doubles[i] = ((Number) elements.get(start + i)).doubleValue();
+            }
+            array = JSArray.createZeroBasedDoubleArray(context, doubles);
+        } else {
+            array = JSArray.createZeroBasedObjectArray(context, elements.subList(start, end).toArray());
+        }
+        elements.subList(start, end).clear();
+        return array;
+    }
+
+    /**
+     * Returns a canonical instance for short member names, so that repeated records share them.
+     */
+    private String internKey(String key) {
+        if (key.length() > MAX_INTERNED_KEY_LENGTH) {
+            return key;
+        }
+        String interned = internedKeys.get(key);
+        if (interned != null) {
+            return interned;
+        }
+        if (internedKeys.size() < MAX_INTERNED_KEYS) {
+            internedKeys.put(key, key);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.util.DelimitedStringBuilder;
+
+/**
+ * Destination of a streaming {@code JSON.stringify}. The text produced by
+ * {@link JSONStringifyStringNode} is encoded as UTF-8 and written in chunks of at most
+ * {@link #CHUNK_SIZE} bytes, so neither the complete result string nor a growing builder has to
+ * be kept in memory. Writes block until the channel has accepted the whole chunk, which throttles
+ * serialization to the speed of the consumer.
+ */
+public final class JSONStreamWriter {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final Flushable flushable;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(
+                    CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+    private long bytesWritten;
+
+    public JSONStreamWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.flushable = channel instanceof Flushable ? (Flushable) channel : null;
+    }
+
+    public JSONStreamWriter(OutputStream out) {
+        this.channel = Channels.newChannel(out);
+        this.flushable = out;
+    }
+
+    /**
+     * Writes out and clears the contents of the builder.
+     */
+    @TruffleBoundary
+    void write(DelimitedStringBuilder builder) {
+        builder.drainTo(this::encode);
+    }
+
+    /**
+     * Writes out the rest of the builder and flushes the destination.
+     *
+     * @return the total number of bytes written
+     */
+    @TruffleBoundary
+    long finish(DelimitedStringBuilder builder) {
+        write(builder);
+        if (flushable != null) {
+            try {
+                flushable.flush();
+            } catch (IOException e) {
+                throw writeError(e);
+            }
+        }
+        return bytesWritten;
+    }
+
+    private void encode(CharSequence chars) {
+        CharBuffer in = CharBuffer.wrap(chars);
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(in, bytes, true);
+            if (result.isOverflow()) {
+                writeBytes();
+            }
+        } while (result.isOverflow());
+        while (encoder.flush(bytes).isOverflow()) {
+            writeBytes();
+        }
+        writeBytes();
+    }
+
+    private void writeBytes() {
+        bytes.flip();
+        try {
+            while (bytes.hasRemaining()) {
+                bytesWritten += channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw writeError(e);
+        }
+        bytes.clear();
+    }
+
+    private static RuntimeException writeError(IOException e) {
+        return Errors.createError("Cannot write JSON output: " + e.getMessage());
+    }
+}
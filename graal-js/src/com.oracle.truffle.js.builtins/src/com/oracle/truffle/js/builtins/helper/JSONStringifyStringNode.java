@@ -113,6 +113,10 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             }
             DelimitedStringBuilder builder = new DelimitedStringBuilder();
             jsonStrExecute(builder, data, value);
+            JSONStreamWriter output = data.getOutput();
+            if (output != null) {
+                return (double) output.finish(builder);
+            }
             return builder.toString();
         } catch (StackOverflowError ex) {
             throwStackError();
@@ -120,6 +124,17 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         }
     }
 
+    /**
+     * When streaming, hands the text produced so far to the output once it reaches the chunk size.
+     * Called only after a complete member or element, so a chunk never ends inside a string.
+     */
+    private static void flushOutput(DelimitedStringBuilder builder, JSONData data) {
+        JSONStreamWriter output = data.getOutput();
+        if (output != null && builder.length() >= JSONStreamWriter.CHUNK_SIZE) {
+            output.write(builder);
+        }
+    }
+
     private static boolean isStringifyable(Object value) {
         return value != Undefined.instance && !JSFunction.isJSFunction(value) && !(value instanceof Symbol);
     }
@@ -306,6 +321,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                     builder.append(' ', sbAppendProfile);
                 }
                 jsonStrExecute(builder, data, strPPrepared);
+                flushOutput(builder, data);
                 hasContent = true;
             }
         }
@@ -363,6 +379,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             } else {
                 builder.append(Null.NAME, sbAppendProfile);
             }
+            flushOutput(builder, data);
         }
 
         concatEnd(builder, data, stepback, ']', len > 0);
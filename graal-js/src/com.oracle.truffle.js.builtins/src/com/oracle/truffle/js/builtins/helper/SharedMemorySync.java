@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -43,6 +43,9 @@ package com.oracle.truffle.js.builtins.helper;
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetArrayType;
 
 import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -80,6 +83,8 @@ public final class SharedMemorySync {
         }
 
         private static final Unsafe UNSAFE = getTheUnsafe();
+        private static final long BUFFER_ADDRESS_OFFSET = getBufferAddressOffset();
+        private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
 
         @SuppressWarnings("restriction")
         private static Unsafe getTheUnsafe() {
@@ -91,6 +96,14 @@ public final class SharedMemorySync {
                 throw new RuntimeException();
             }
         }
+
+        private static long getBufferAddressOffset() {
+            try {
+                return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+            } catch (NoSuchFieldException | SecurityException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     // ##### Getters and setters with ordering and memory barriers
@@ -128,55 +141,102 @@ public final class SharedMemorySync {
     }
 
     // ##### Atomic CAS primitives
-    @TruffleBoundary
-    public static boolean compareAndSwapInt(JSContext cx, DynamicObject target, int intArrayOffset, int initial, int result) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            int value = doVolatileGet(target, intArrayOffset);
-            if (value == initial) {
-                doVolatilePut(target, intArrayOffset, result);
-                return true;
+
+    /*
+     * Compare-and-exchange is done with a hardware CAS directly on the memory of the (always
+     * direct) shared buffer. Elements narrower than an int are exchanged by a CAS on the enclosing
+     * aligned int. The agent's atomic section (a lock per buffer) is only used as a fallback for
+     * buffers whose memory is not suitably aligned.
+     */
+
+    /**
+     * Returns the native address of the element at {@code index}, or {@code 0} if the element
+     * cannot be accessed with a hardware CAS.
+     */
+    private static long getElementAddress(DynamicObject target, TypedArray array, int index) {
+        boolean condition = JSArrayBufferView.isJSArrayBufferView(target);
+        if (!array.isDirect()) {
+            return 0;
+        }
+        ByteBuffer buffer = JSArrayBufferView.typedArrayGetByteBuffer(target, condition);
+        long base = SyncUtils.UNSAFE.getLong(buffer, SyncUtils.BUFFER_ADDRESS_OFFSET);
+        int size = array.bytesPerElement();
+        long address = base + array.getOffset(target, condition) + (long) index * size;
+        if (size >= Integer.BYTES) {
+            return (address & (size - 1)) == 0 ? address : 0;
+        } else {
+            // the enclosing int must lie within the buffer
+            long wordAddress = address & ~(Integer.BYTES - 1L);
+            return (wordAddress >= base && wordAddress + Integer.BYTES <= base + buffer.capacity()) ? address : 0;
+        }
+    }
+
+    private static int compareAndExchangeInt(long address, int expected, int replacement) {
+        while (true) {
+            int read = SyncUtils.UNSAFE.getIntVolatile(null, address);
+            if (read != expected || SyncUtils.UNSAFE.compareAndSwapInt(null, address, read, replacement)) {
+                return read;
             }
-            return false;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
         }
     }
 
-    @TruffleBoundary
-    public static boolean compareAndSwapBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt initial, BigInt result) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            BigInt value = doVolatileGetBigInt(target, intArrayOffset);
-            if (value.compareTo(initial) == 0) {
-                doVolatilePutBigInt(target, intArrayOffset, result);
-                return true;
+    private static long compareAndExchangeLong(long address, long expected, long replacement) {
+        while (true) {
+            long read = SyncUtils.UNSAFE.getLongVolatile(null, address);
+            if (read != expected || SyncUtils.UNSAFE.compareAndSwapLong(null, address, read, replacement)) {
+                return read;
             }
-            return false;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
         }
     }
 
-    // ##### Atomic Fetch-or-Get primitives
-    @TruffleBoundary
-    public static long atomicFetchOrGetUnsigned(JSContext cx, DynamicObject target, int intArrayOffset, Object expected, Object replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        long read = JSRuntime.toUInt32(doVolatileGet(target, intArrayOffset));
-        if (read == JSRuntime.toUInt32(expected)) {
-            doVolatilePut(target, intArrayOffset, (int) JSRuntime.toUInt32(replacement));
+    /**
+     * Compare-and-exchange of a byte or short element by a CAS on the enclosing aligned int.
+     *
+     * @return the (zero-extended) element value read
+     */
+    private static int compareAndExchangeSubword(long address, int bits, int expected, int replacement) {
+        long wordAddress = address & ~(Integer.BYTES - 1L);
+        int shift = (int) (address - wordAddress) * Byte.SIZE;
+        if (SyncUtils.BIG_ENDIAN) {
+            shift = Integer.SIZE - bits - shift;
+        }
+        int elementMask = (1 << bits) - 1;
+        int mask = elementMask << shift;
+        int expectedBits = (expected & elementMask) << shift;
+        int replacementBits = (replacement & elementMask) << shift;
+        while (true) {
+            int word = SyncUtils.UNSAFE.getIntVolatile(null, wordAddress);
+            if ((word & mask) != expectedBits) {
+                return (word & mask) >>> shift;
+            }
+            if (SyncUtils.UNSAFE.compareAndSwapInt(null, wordAddress, word, (word & ~mask) | replacementBits)) {
+                return expected & elementMask;
+            }
         }
-        cx.getJSAgent().atomicSectionLeave(target);
-        return read;
     }
 
-    @TruffleBoundary
-    public static long atomicFetchOrGetLong(JSContext cx, DynamicObject target, int intArrayOffset, long expected, long replacement) {
+    /**
+     * Compare-and-exchange of an element of an integer typed array of any width.
+     *
+     * @return the element value read, zero-extended for byte and short elements
+     */
+    private static int compareAndExchange(JSContext cx, DynamicObject target, int index, int expected, int replacement) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int size = array.bytesPerElement();
+        long address = getElementAddress(target, array, index);
+        if (address != 0) {
+            if (size == Integer.BYTES) {
+                return compareAndExchangeInt(address, expected, replacement);
+            } else {
+                return compareAndExchangeSubword(address, size * Byte.SIZE, expected, replacement);
+            }
+        }
+        int mask = size == Integer.BYTES ? -1 : (1 << (size * Byte.SIZE)) - 1;
         cx.getJSAgent().atomicSectionEnter(target);
         try {
-            int read = doVolatileGet(target, intArrayOffset);
-            if (read == expected) {
-                doVolatilePut(target, intArrayOffset, (int) replacement);
+            int read = doVolatileGet(target, index) & mask;
+            if (read == (expected & mask)) {
+                doVolatilePut(target, index, replacement);
             }
             return read;
         } finally {
@@ -184,13 +244,22 @@ public final class SharedMemorySync {
         }
     }
 
-    @TruffleBoundary
-    public static int atomicFetchOrGetInt(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement) {
+    /**
+     * Compare-and-exchange of an element of a BigInt64 or BigUint64 typed array.
+     *
+     * @return the raw 64 bits of the element read
+     */
+    private static long compareAndExchangeBigInt(JSContext cx, DynamicObject target, int index, long expected, long replacement) {
+        TypedArray array = typedArrayGetArrayType(target);
+        long address = getElementAddress(target, array, index);
+        if (address != 0) {
+            return compareAndExchangeLong(address, expected, replacement);
+        }
         cx.getJSAgent().atomicSectionEnter(target);
         try {
-            int read = doVolatileGet(target, intArrayOffset);
+            long read = doVolatileGetBigInt(target, index).longValue();
             if (read == expected) {
-                doVolatilePut(target, intArrayOffset, replacement);
+                doVolatilePutBigInt(target, index, BigInt.valueOf(replacement));
             }
             return read;
         } finally {
@@ -198,49 +267,50 @@ public final class SharedMemorySync {
         }
     }
 
+    private static BigInt toBigInt(DynamicObject target, long bits) {
+        return typedArrayGetArrayType(target) instanceof TypedArray.DirectBigUint64Array ? BigInt.valueOfUnsigned(bits) : BigInt.valueOf(bits);
+    }
+
+    @TruffleBoundary
+    public static boolean compareAndSwapInt(JSContext cx, DynamicObject target, int intArrayOffset, int initial, int result) {
+        int size = typedArrayGetArrayType(target).bytesPerElement();
+        int mask = size == Integer.BYTES ? -1 : (1 << (size * Byte.SIZE)) - 1;
+        return compareAndExchange(cx, target, intArrayOffset, initial, result) == (initial & mask);
+    }
+
+    @TruffleBoundary
+    public static boolean compareAndSwapBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt initial, BigInt result) {
+        long expected = initial.longValue();
+        return compareAndExchangeBigInt(cx, target, intArrayOffset, expected, result.longValue()) == expected;
+    }
+
+    // ##### Atomic Fetch-or-Get primitives
+    @TruffleBoundary
+    public static long atomicFetchOrGetUnsigned(JSContext cx, DynamicObject target, int intArrayOffset, Object expected, Object replacement) {
+        int read = compareAndExchange(cx, target, intArrayOffset, (int) JSRuntime.toUInt32(expected), (int) JSRuntime.toUInt32(replacement));
+        return read & 0xFFFFFFFFL;
+    }
+
+    @TruffleBoundary
+    public static int atomicFetchOrGetInt(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement) {
+        return compareAndExchange(cx, target, intArrayOffset, expected, replacement);
+    }
+
     @TruffleBoundary
     public static int atomicFetchOrGetShort(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        int read = doVolatileGet(target, intArrayOffset);
-        read = sign ? read : read & 0xFFFF;
-        int expectedChopped = sign ? (short) expected : expected & 0xFFFF;
-        if (read == expectedChopped) {
-            int signed = sign ? replacement : replacement & 0xFFFF;
-            SharedMemorySync.doVolatilePut(target, intArrayOffset, (short) signed);
-        }
-        cx.getJSAgent().atomicSectionLeave(target);
-        return read;
+        int read = compareAndExchange(cx, target, intArrayOffset, expected, replacement);
+        return sign ? (short) read : read;
     }
 
     @TruffleBoundary
     public static int atomicFetchOrGetByte(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            int read = doVolatileGet(target, intArrayOffset);
-            read = sign ? read : read & 0xFF;
-            int expectedChopped = sign ? (byte) expected : expected & 0xFF;
-            if (read == expectedChopped) {
-                int signed = sign ? replacement : replacement & 0xFF;
-                SharedMemorySync.doVolatilePut(target, intArrayOffset, (byte) signed);
-            }
-            return read;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
-        }
+        int read = compareAndExchange(cx, target, intArrayOffset, expected, replacement);
+        return sign ? (byte) read : read;
     }
 
     @TruffleBoundary
     public static BigInt atomicFetchOrGetBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt expected, BigInt replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            BigInt read = doVolatileGetBigInt(target, intArrayOffset);
-            if (read.compareTo(expected) == 0) {
-                doVolatilePutBigInt(target, intArrayOffset, replacement);
-            }
-            return read;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
-        }
+        return toBigInt(target, compareAndExchangeBigInt(cx, target, intArrayOffset, expected.longValue(), replacement.longValue()));
     }
 
     // ##### Thread Wake/Park primitives
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,20 +41,16 @@
 package com.oracle.truffle.js.builtins.helper;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRuntime;
-import com.oracle.truffle.js.runtime.array.ScriptArray;
-import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
-import com.oracle.truffle.js.runtime.builtins.JSArray;
-import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.Null;
 
 public class TruffleJSONParser {
 
     protected final JSContext context;
+    private final JSONParseBuilder builder;
     protected int pos;
     protected int len;
     protected String parseStr;
@@ -69,6 +65,7 @@ public class TruffleJSONParser {
 
     public TruffleJSONParser(JSContext context) {
         this.context = context;
+        this.builder = new JSONParseBuilder(context);
     }
 
     public Object parse(String value) {
@@ -144,49 +141,47 @@ public class TruffleJSONParser {
         assert isObject(get());
         incDepth();
         read(); // parseJSONValue ensures this char is a "{"
-        DynamicObject object = JSUserObject.create(context);
+        int start = builder.startObject();
         if (get() != '}') {
-            parseJSONMemberList(object);
+            parseJSONMemberList();
             if (get() != '}') {
                 error("closing quote } expected");
             }
         }
         read('}');
         decDepth();
-        return object;
+        return builder.finishObject(start);
     }
 
-    private void parseJSONMemberList(DynamicObject object) {
-        Member member = parseJSONMember();
-        JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+    private void parseJSONMemberList() {
+        parseJSONMember();
         while (get() == ',') {
             read();
-            member = parseJSONMember();
-            JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+            parseJSONMember();
         }
     }
 
-    private Member parseJSONMember() {
+    private void parseJSONMember() {
         String jsonString = parseJSONString();
         read(':');
         Object jsonValue = parseJSONValue();
-        return new Member(jsonString, jsonValue);
+        builder.addMember(jsonString, jsonValue);
     }
 
     private Object parseJSONArray() {
         assert isArray(get());
         incDepth();
         read(); // parseJSONValue ensures this is a "["
-        DynamicObject array = JSArray.createEmptyZeroLength(context);
+        int start = builder.startArray();
         if (get() != ']') {
-            parseJSONElementList(array);
+            parseJSONElementList();
             if (get() != ']') {
                 error("closing quote ] expected");
             }
         }
         read(']');
         decDepth();
-        return array;
+        return builder.finishArray(start);
     }
 
     private void incDepth() {
@@ -208,17 +203,12 @@ public class TruffleJSONParser {
         this.parseDepth--;
     }
 
-    protected ScriptArray parseJSONElementList(DynamicObject arrayObject) {
-        int index = 0;
-        ScriptArray scriptArray = JSAbstractArray.arrayGetArrayType(arrayObject);
-        scriptArray = scriptArray.setElement(arrayObject, index, parseJSONValue(), false);
+    protected void parseJSONElementList() {
+        builder.addElement(parseJSONValue());
         while (get() == ',') {
             read();
-            index++;
-            scriptArray = scriptArray.setElement(arrayObject, index, parseJSONValue(), false);
+            builder.addElement(parseJSONValue());
         }
-        JSAbstractArray.arraySetArrayType(arrayObject, scriptArray);
-        return scriptArray;
     }
 
     protected String parseJSONString() {
@@ -552,22 +542,4 @@ public class TruffleJSONParser {
         }
         return true;
     }
-
-    protected final class Member {
-        private final String key;
-        private final Object value;
-
-        public Member(String key, Object value) {
-            this.key = key;
-            this.value = value;
-        }
-
-        public String getKey() {
-            return key;
-        }
-
-        public Object getValue() {
-            return value;
-        }
-    }
 }
@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.objects.Null;
+
+/**
+ * JSON parser that reads its input incrementally from a {@link Reader}, so that large JSON
+ * documents never have to be materialized as a {@link String}. The result is the same as that of
+ * {@code JSON.parse} without a reviver.
+ *
+ * Objects and arrays are created by a {@link JSONParseBuilder}.
+ */
+public final class TruffleJSONStreamParser {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+
+    private final JSContext context;
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLimit;
+    /** Number of characters consumed before the current buffer, for error messages. */
+    private long consumed;
+    private int parseDepth;
+
+    private final StringBuilder stringBuilder = new StringBuilder();
+    private final JSONParseBuilder builder;
+
+    private TruffleJSONStreamParser(JSContext context, Reader reader) {
+        this.context = context;
+        this.reader = reader;
+        this.builder = new JSONParseBuilder(context);
+    }
+
+    @TruffleBoundary
+    public static Object parse(JSContext context, Reader reader) {
+        return new TruffleJSONStreamParser(context, reader).parse();
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON from the input stream.
+     */
+    @TruffleBoundary
+    public static Object parse(JSContext context, InputStream in) {
+        return parse(context, new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON from the remaining bytes of the buffer, which is decoded in place.
+     */
+    @TruffleBoundary
+    public static Object parse(JSContext context, ByteBuffer bytes) {
+        return parse(context, new ByteBufferReader(bytes.duplicate()));
+    }
+
+    private Object parse() {
+        try {
+            Object result = parseValue();
+            if (skipWhitespace() != EOF) {
+                throw unexpectedToken();
+            }
+            return result;
+        } catch (StackOverflowError ex) {
+            throw Errors.createRangeError("Cannot parse JSON constructs nested that deep");
+        }
+    }
+
+    private Object parseValue() {
+        int c = skipWhitespace();
+        switch (c) {
+            case '{':
+                return parseObject();
+            case '[':
+                return parseArray();
+            case '"':
+                next();
+                return parseString();
+            case 't':
+                expectLiteral("true");
+                return true;
+            case 'f':
+                expectLiteral("false");
+                return false;
+            case 'n':
+                expectLiteral("null");
+                return Null.instance;
+            default:
+                if (c == '-' || JSRuntime.isAsciiDigit((char) c)) {
+                    return parseNumber();
+                }
+                throw unexpectedToken();
+        }
+    }
+
+    private Object parseObject() {
+        next(); // '{'
+        incDepth();
+        int start = builder.startObject();
+        int c = skipWhitespace();
+        if (c != '}') {
+            while (true) {
+                if (c != '"') {
+                    throw unexpectedToken();
+                }
+                next();
+                String key = parseString();
+                if (skipWhitespace() != ':') {
+                    throw unexpectedToken();
+                }
+                next();
+                builder.addMember(key, parseValue());
+                c = skipWhitespace();
+                if (c == ',') {
+                    next();
+                    c = skipWhitespace();
+                } else if (c == '}') {
+                    break;
+                } else {
+                    throw unexpectedToken();
+                }
+            }
+        }
+        next(); // '}'
+        parseDepth--;
+        return builder.finishObject(start);
+    }
+
+    private Object parseArray() {
+        next(); // '['
+        incDepth();
+        int start = builder.startArray();
+        int c = skipWhitespace();
+        if (c != ']') {
+            while (true) {
+                builder.addElement(parseValue());
+                c = skipWhitespace();
+                if (c == ',') {
+                    next();
+                } else if (c == ']') {
+                    break;
+                } else {
+                    throw unexpectedToken();
+                }
+            }
+        }
+        next(); // ']'
+        parseDepth--;
+        return builder.finishArray(start);
+    }
+
+    /**
+     * Parses the characters of a string after the opening quote, up to and including the closing
+     * quote. Strings that lie within the current buffer and have no escapes are copied only once.
+     */
+    private String parseString() {
+        int start = bufferPos;
+        for (int i = start; i < bufferLimit; i++) {
+            char c = buffer[i];
+            if (c == '"') {
+                bufferPos = i + 1;
+                return new String(buffer, start, i - start);
+            } else if (c == '\\' || c < ' ') {
+                break;
+            }
+        }
+        StringBuilder sb = stringBuilder;
+        sb.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return sb.toString();
+            } else if (c == '\\') {
+                sb.append(parseEscape());
+            } else if (c == EOF) {
+                throw unexpectedEnd();
+            } else if (c < ' ') {
+                bufferPos--;
+                throw unexpectedToken();
+            } else {
+                sb.append((char) c);
+            }
+        }
+    }
+
+    private char parseEscape() {
+        int c = next();
+        switch (c) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = next();
+                    int hex = digit == EOF ? -1 : JSRuntime.valueInHex((char) digit);
+                    if (hex < 0) {
+                        throw digit == EOF ? unexpectedEnd() : Errors.createSyntaxError("Invalid JSON: bad Unicode escape at position " + (position() - 1));
+                    }
+                    value = (value << 4) | hex;
+                }
+                return (char) value;
+            }
+            case EOF:
+                throw unexpectedEnd();
+            default:
+                throw Errors.createSyntaxError("Invalid JSON: bad escaped character at position " + (position() - 1));
+        }
+    }
+
+    private Number parseNumber() {
+        StringBuilder sb = stringBuilder;
+        sb.setLength(0);
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            sb.append((char) next());
+        }
+        int c = peek();
+        if (c == '0') {
+            sb.append((char) next());
+        } else if (c >= '1' && c <= '9') {
+            appendDigits(sb);
+        } else {
+            throw c == EOF ? unexpectedEnd() : unexpectedToken();
+        }
+        int integerLength = sb.length();
+        boolean isDouble = false;
+        if (peek() == '.') {
+            isDouble = true;
+            sb.append((char) next());
+            if (!JSRuntime.isAsciiDigit((char) peek())) {
+                throw peek() == EOF ? unexpectedEnd() : unexpectedToken();
+            }
+            appendDigits(sb);
+        }
+        c = peek();
+        if (c == 'e' || c == 'E') {
+            isDouble = true;
+            sb.append((char) next());
+            c = peek();
+            if (c == '+' || c == '-') {
+                sb.append((char) next());
+            }
+            if (!JSRuntime.isAsciiDigit((char) peek())) {
+                throw peek() == EOF ? unexpectedEnd() : unexpectedToken();
+            }
+            appendDigits(sb);
+        }
+        // up to 18 characters always fit into a long, which converts to double exactly rounded
+        if (!isDouble && integerLength <= 18) {
+            long value = Long.parseLong(sb.toString());
+            if (value == 0 && negative) {
+                return -0.0;
+            } else if ((int) value == value) {
+                return (int) value;
+            }
+            return (double) value;
+        }
+        return Double.parseDouble(sb.toString());
+    }
+
+    private void appendDigits(StringBuilder sb) {
+        while (JSRuntime.isAsciiDigit((char) peek())) {
+            sb.append((char) next());
+        }
+    }
+
+    private void expectLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            int c = next();
+            if (c != literal.charAt(i)) {
+                if (c == EOF) {
+                    throw unexpectedEnd();
+                }
+                bufferPos--;
+                throw unexpectedToken();
+            }
+        }
+    }
+
+    private void incDepth() {
+        if (++parseDepth > TruffleJSONParser.MAX_PARSE_DEPTH) {
+            TruffleJSONParser.throwStackError();
+        }
+    }
+
+    private RuntimeException unexpectedToken() {
+        int c = peek();
+        if (c == EOF) {
+            return unexpectedEnd();
+        }
+        return Errors.createSyntaxError("Unexpected token " + (char) c + " in JSON at position " + position());
+    }
+
+    private RuntimeException unexpectedEnd() {
+        return Errors.createSyntaxError(context.isOptionV8CompatibilityMode() ? "Unexpected end of JSON input" : "Unexpected end of input");
+    }
+
+    // ************************* Input Buffer ****************************************//
+
+    private long position() {
+        return consumed + bufferPos;
+    }
+
+    private int skipWhitespace() {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                bufferPos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int peek() {
+        if (bufferPos == bufferLimit && !fill()) {
+            return EOF;
+        }
+        return buffer[bufferPos];
+    }
+
+    private int next() {
+        if (bufferPos == bufferLimit && !fill()) {
+            return EOF;
+        }
+        return buffer[bufferPos++];
+    }
+
+    private boolean fill() {
+        consumed += bufferLimit;
+        bufferPos = 0;
+        bufferLimit = 0;
+        try {
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            bufferLimit = read;
+            return true;
+        } catch (IOException e) {
+            throw Errors.createError("Cannot read JSON input: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes UTF-8 from a {@link ByteBuffer} without copying it first.
+     */
+    private static final class ByteBufferReader extends Reader {
+        private final ByteBuffer bytes;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private boolean flushed;
+
+        ByteBufferReader(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (flushed) {
+                return -1;
+            }
+            CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+            decoder.decode(bytes, out, true);
+            if (!bytes.hasRemaining() && out.hasRemaining()) {
+                flushed = decoder.flush(out).isUnderflow();
+            }
+            int read = out.position() - off;
+            return read == 0 && flushed ? -1 : read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,8 +40,15 @@
  */
 package com.oracle.truffle.js.parser;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
 
+import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.codec.BinaryDecoder;
 import com.oracle.truffle.js.codec.NodeDecoder;
@@ -52,12 +59,46 @@ import com.oracle.truffle.js.runtime.JSContext;
 public class BinarySnapshotProvider implements SnapshotProvider {
     public static final int MAGIC = 0x314e4942;
     private final ByteBuffer buffer;
+    private final boolean lazyFunctions;
 
     public BinarySnapshotProvider(ByteBuffer buffer) {
+        this(buffer, true);
+    }
+
+    /**
+     * @param buffer the snapshot; may be a direct or memory-mapped buffer, which is decoded in
+     *            place without copying it to the heap.
+     * @param lazyFunctions if {@code true}, function bodies are decoded on first call.
+     */
+    public BinarySnapshotProvider(ByteBuffer buffer, boolean lazyFunctions) {
         this.buffer = buffer;
+        this.lazyFunctions = lazyFunctions;
         assert checkFormat(new BinaryDecoder(buffer));
     }
 
+    /**
+     * Maps the snapshot file into memory. The mapping stays valid as long as the provider or any
+     * not yet decoded function of it is reachable.
+     */
+    public static BinarySnapshotProvider map(Path file, boolean lazyFunctions) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinarySnapshotProvider(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), lazyFunctions);
+        }
+    }
+
+    /**
+     * Maps the snapshot file into memory if it is on the default file system, and reads it into the
+     * heap otherwise.
+     */
+    public static BinarySnapshotProvider map(TruffleFile file, boolean lazyFunctions) throws IOException {
+        try (SeekableByteChannel channel = file.newByteChannel(EnumSet.of(StandardOpenOption.READ))) {
+            if (channel instanceof FileChannel) {
+                return new BinarySnapshotProvider(((FileChannel) channel).map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), lazyFunctions);
+            }
+        }
+        return new BinarySnapshotProvider(ByteBuffer.wrap(file.readAllBytes()), lazyFunctions);
+    }
+
     private static boolean checkFormat(BinaryDecoder decoder) {
         int magic = decoder.getInt32();
         if (magic != MAGIC) {
@@ -84,6 +125,6 @@ public class BinarySnapshotProvider implements SnapshotProvider {
         if (code.length() != sourceLength || code.hashCode() != sourceHash) {
             throw new IllegalArgumentException("Snapshot verification failed");
         }
-        return new JSNodeDecoder().decodeNode(new NodeDecoder.DecoderState(decoder), nodeFactory, context, source);
+        return new JSNodeDecoder(lazyFunctions).decodeNode(new NodeDecoder.DecoderState(decoder), nodeFactory, context, source);
     }
 }
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.nodes.JSNodeDecoder;
+import com.oracle.truffle.js.nodes.NodeFactory;
+import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.nodes.function.FunctionRootNode;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+
+/**
+ * Persistent cache of translated scripts in the binary snapshot format.
+ *
+ * Entries are stored in a content-addressed directory layout ({@code <dir>/<xx>/<hash>.bin}),
+ * keyed by a digest of the source code, the parser options, and the {@link JSNodeDecoder} checksum,
+ * so that entries written by a different version of the engine are never used. Entries are
+ * memory-mapped when loaded, written atomically, and evicted least recently used first once the
+ * directory exceeds its configured size.
+ *
+ * All file access goes through the {@link TruffleFile} API of the context, so the cache obeys the
+ * IO policy and file system of the embedder: without IO access, scripts are simply translated.
+ */
+public final class CodeCache {
+    private static final ConcurrentMap<String, CodeCache> CACHES = new ConcurrentHashMap<>();
+    private static final SnapshotRecorder RECORDER = loadRecorder();
+
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String directory;
+    private final long maxSize;
+    /** Size of all entries, or -1 before the directory has been scanned. Guarded by this. */
+    private long totalSize = -1;
+
+    private CodeCache(String directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cache of the given directory. Caches of the same directory with different size
+     * limits are distinct instances, each of them evicting down to its own limit.
+     */
+    public static CodeCache getInstance(String directory, long maxSize) {
+        String key = maxSize + ":" + directory;
+        CodeCache cache = CACHES.get(key);
+        if (cache == null) {
+            cache = new CodeCache(directory, maxSize);
+            CodeCache existing = CACHES.putIfAbsent(key, cache);
+            if (existing != null) {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    private static SnapshotRecorder loadRecorder() {
+        Iterator<SnapshotRecorder> recorders = ServiceLoader.load(SnapshotRecorder.class, CodeCache.class.getClassLoader()).iterator();
+        return recorders.hasNext() ? recorders.next() : null;
+    }
+
+    /**
+     * Returns the script node for the given source, loading it from the cache if possible, and
+     * otherwise translating the source and recording it for later runs.
+     */
+    public ScriptNode parseScriptNode(JSContext context, TruffleLanguage.Env env, Source source, boolean isStrict) {
+        TruffleFile entry = getEntryFile(env, source, context.getParserOptions().hashCode(), isStrict);
+        if (entry == null) {
+            return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, source, isStrict);
+        }
+        ScriptNode cached = load(context, source, entry);
+        if (cached != null) {
+            return cached;
+        }
+        if (RECORDER == null || JSTruffleOptions.LazyTranslation || context.getContextOptions().isLazyParsing()) {
+            // lazily translated functions cannot be recorded
+            return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, source, isStrict);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScriptNode program = RECORDER.translateAndRecord(context, source, isStrict, out);
+        store(entry, out);
+        return program;
+    }
+
+    private ScriptNode load(JSContext context, Source source, TruffleFile entry) {
+        try {
+            Object root = BinarySnapshotProvider.map(entry, true).apply(NodeFactory.getInstance(context), context, source);
+            touch(entry);
+            return ScriptNode.fromFunctionRoot(context, (FunctionRootNode) root);
+        } catch (IOException | SecurityException e) {
+            // not cached yet, or not readable
+            return null;
+        } catch (RuntimeException e) {
+            // stale or corrupt entry; drop it and translate from source
+            long size = sizeQuietly(entry);
+            if (deleteQuietly(entry)) {
+                entryRemoved(size);
+            }
+            return null;
+        }
+    }
+
+    private void store(TruffleFile entry, ByteArrayOutputStream contents) {
+        TruffleFile temp = null;
+        try {
+            TruffleFile parent = entry.getParent();
+            parent.createDirectories();
+            temp = parent.resolve(entry.getName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+            try (OutputStream out = temp.newOutputStream(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                contents.writeTo(out);
+            }
+            long replacedSize = sizeQuietly(entry);
+            temp.move(entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+            entryAdded(entry, contents.size() - replacedSize);
+        } catch (IOException | SecurityException e) {
+            // the cache is best effort only
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private synchronized void entryAdded(TruffleFile entry, long sizeDelta) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (totalSize < 0) {
+            // first store of this process: account for the entries of earlier runs
+            TruffleFile root = entry.getParent().getParent();
+            evict(root);
+        } else {
+            totalSize += sizeDelta;
+            if (totalSize > maxSize) {
+                evict(entry.getParent().getParent());
+            }
+        }
+    }
+
+    private synchronized void entryRemoved(long size) {
+        if (totalSize >= 0 && size > 0) {
+            totalSize = Math.max(0, totalSize - size);
+        }
+    }
+
+    private static final class CachedFile {
+        final TruffleFile file;
+        final long size;
+        final long lastModified;
+
+        CachedFile(TruffleFile file, long size, long lastModified) {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Scans the cache directory, which also picks up entries written by other processes, and
+     * deletes the least recently used entries until the total size is below the configured
+     * maximum. Only called when the tracked size exceeds the maximum (or is not known yet), so a
+     * store does not cost a directory scan.
+     */
+    private void evict(TruffleFile root) {
+        assert Thread.holdsLock(this);
+        List<CachedFile> files = new ArrayList<>();
+        long size = 0;
+        try (DirectoryStream<TruffleFile> subdirs = root.newDirectoryStream()) {
+            for (TruffleFile subdir : subdirs) {
+                if (!subdir.isDirectory()) {
+                    continue;
+                }
+                try (DirectoryStream<TruffleFile> entries = subdir.newDirectoryStream()) {
+                    for (TruffleFile entry : entries) {
+                        if (entry.getName().endsWith(ENTRY_SUFFIX)) {
+                            long entrySize = entry.size();
+                            files.add(new CachedFile(entry, entrySize, entry.getLastModifiedTime().toMillis()));
+                            size += entrySize;
+                        }
+                    }
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            return;
+        }
+        if (size > maxSize) {
+            files.sort((a, b) -> Long.compare(a.lastModified, b.lastModified));
+            for (CachedFile file : files) {
+                if (size <= maxSize) {
+                    break;
+                }
+                if (deleteQuietly(file.file)) {
+                    size -= file.size;
+                }
+            }
+        }
+        totalSize = size;
+    }
+
+    private TruffleFile getEntryFile(TruffleLanguage.Env env, Source source, int parserOptionsHash, boolean isStrict) {
+        if (env == null) {
+            return null;
+        }
+        String key = computeKey(source.getCharacters(), parserOptionsHash, isStrict);
+        try {
+            return env.getTruffleFile(directory).getAbsoluteFile().resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+        } catch (SecurityException e) {
+            // no IO access
+            return null;
+        }
+    }
+
+    static String computeKey(CharSequence code, int parserOptionsHash, boolean isStrict) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] header = new byte[9];
+        putInt(header, 0, JSNodeDecoder.getChecksum());
+        putInt(header, 4, parserOptionsHash);
+        header[8] = (byte) (isStrict ? 1 : 0);
+        digest.update(header);
+
+        byte[] chunk = new byte[8192];
+        int pos = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            chunk[pos++] = (byte) c;
+            chunk[pos++] = (byte) (c >>> 8);
+            if (pos == chunk.length) {
+                digest.update(chunk, 0, pos);
+                pos = 0;
+            }
+        }
+        digest.update(chunk, 0, pos);
+
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(hash[i] >>> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static void putInt(byte[] array, int offset, int value) {
+        array[offset] = (byte) value;
+        array[offset + 1] = (byte) (value >>> 8);
+        array[offset + 2] = (byte) (value >>> 16);
+        array[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static void touch(TruffleFile entry) {
+        try {
+            entry.setLastModifiedTime(FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException | SecurityException e) {
+            // only affects eviction order
+        }
+    }
+
+    private static long sizeQuietly(TruffleFile file) {
+        try {
+            return file.exists() ? file.size() : 0;
+        } catch (IOException | SecurityException e) {
+            return 0;
+        }
+    }
+
+    private static boolean deleteQuietly(TruffleFile file) {
+        try {
+            file.delete();
+            return true;
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+}
@@ -54,6 +54,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -110,6 +111,7 @@ import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
 import com.oracle.truffle.js.runtime.objects.JSModuleRecord.Status;
 import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 import com.oracle.truffle.js.runtime.util.Pair;
 
 /**
@@ -135,11 +137,6 @@ public final class GraalJSEvaluator implements JSParser {
      */
     @Override
     public ScriptNode parseFunction(JSContext context, String parameterList, String body, boolean generatorFunction, boolean asyncFunction, String sourceName) {
-        try {
-            GraalJSParserHelper.checkFunctionSyntax(context, (GraalJSParserOptions) context.getParserOptions(), parameterList, body, generatorFunction, asyncFunction);
-        } catch (com.oracle.js.parser.ParserException e) {
-            throw parserToJSError(null, e);
-        }
         StringBuilder code = new StringBuilder();
         if (asyncFunction) {
             code.append("(async function");
@@ -165,9 +162,30 @@ public final class GraalJSEvaluator implements JSParser {
         code.append(body);
         code.append(JSRuntime.LINE_SEPARATOR);
         code.append("})");
-        Source source = Source.newBuilder(JavaScriptLanguage.ID, code.toString(), sourceName).build();
-
-        return parseEval(context, null, null, source, false);
+        String functionCode = code.toString();
+
+        // a cached translation has already passed the syntax check
+        LRUCache<Object, ScriptNode> evalCache = context.getEvalCache();
+        EvalCacheKey key = null;
+        if (evalCache != null) {
+            key = new EvalCacheKey(functionCode, sourceName, null, false);
+            ScriptNode cached = evalCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        try {
+            GraalJSParserHelper.checkFunctionSyntax(context, (GraalJSParserOptions) context.getParserOptions(), parameterList, body, generatorFunction, asyncFunction);
+        } catch (com.oracle.js.parser.ParserException e) {
+            throw parserToJSError(null, e);
+        }
+        Source source = Source.newBuilder(JavaScriptLanguage.ID, functionCode, sourceName).build();
+        context.checkEvalAllowed();
+        ScriptNode scriptNode = translateEval(context, null, null, source, false);
+        if (evalCache != null) {
+            evalCache.put(key, scriptNode);
+        }
+        return scriptNode;
     }
 
     /**
@@ -214,6 +232,20 @@ public final class GraalJSEvaluator implements JSParser {
 
     private static ScriptNode parseEval(JSContext context, Node lastNode, Environment env, Source source, boolean isStrict) {
         context.checkEvalAllowed();
+        LRUCache<Object, ScriptNode> evalCache = context.getEvalCache();
+        if (evalCache == null) {
+            return translateEval(context, lastNode, env, source, isStrict);
+        }
+        EvalCacheKey key = new EvalCacheKey(source.getCharacters().toString(), source.getName(), env, isStrict);
+        ScriptNode scriptNode = evalCache.get(key);
+        if (scriptNode == null) {
+            scriptNode = translateEval(context, lastNode, env, source, isStrict);
+            evalCache.put(key, scriptNode);
+        }
+        return scriptNode;
+    }
+
+    private static ScriptNode translateEval(JSContext context, Node lastNode, Environment env, Source source, boolean isStrict) {
         NodeFactory nodeFactory = NodeFactory.getInstance(context);
         EvalEnvironment evalEnv = new EvalEnvironment(env, nodeFactory, context, env != null);
         try {
@@ -255,12 +287,61 @@ public final class GraalJSEvaluator implements JSParser {
     public ScriptNode evalCompile(JSContext context, String sourceCode, String name) {
         try {
             context.checkEvalAllowed();
-            return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, Source.newBuilder(JavaScriptLanguage.ID, sourceCode, name).build(), false);
+            LRUCache<Object, ScriptNode> evalCache = context.getEvalCache();
+            if (evalCache == null) {
+                return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, Source.newBuilder(JavaScriptLanguage.ID, sourceCode, name).build(), false);
+            }
+            EvalCacheKey key = new EvalCacheKey(sourceCode, name, EvalCacheKey.SCRIPT, false);
+            ScriptNode scriptNode = evalCache.get(key);
+            if (scriptNode == null) {
+                scriptNode = JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, Source.newBuilder(JavaScriptLanguage.ID, sourceCode, name).build(), false);
+                evalCache.put(key, scriptNode);
+            }
+            return scriptNode;
         } catch (com.oracle.js.parser.ParserException e) {
             throw Errors.createSyntaxError(e.getMessage());
         }
     }
 
+    /**
+     * Key of a translation in the {@linkplain JSContext#getEvalCache() eval cache}. Direct eval code
+     * is translated against the environment of its call site and can only be reused there, so the
+     * environment is part of the key; it is {@code null} for indirect eval and Function().
+     */
+    private static final class EvalCacheKey {
+        /** Scope of code translated as a top-level script rather than as eval code. */
+        static final Object SCRIPT = new Object();
+
+        private final String code;
+        private final String name;
+        private final Object scope;
+        private final boolean strict;
+
+        EvalCacheKey(String code, String name, Object scope, boolean strict) {
+            this.code = code;
+            this.name = name;
+            this.scope = scope;
+            this.strict = strict;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof EvalCacheKey)) {
+                return false;
+            }
+            EvalCacheKey other = (EvalCacheKey) obj;
+            return scope == other.scope && strict == other.strict && code.equals(other.code) && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (code.hashCode() * 31 + Objects.hashCode(name)) * 31 + System.identityHashCode(scope) + (strict ? 1 : 0);
+        }
+    }
+
     @Override
     public Object parseJSON(JSContext context, String jsonString) {
         CompilerAsserts.neverPartOfCompilation();
@@ -275,6 +356,10 @@ public final class GraalJSEvaluator implements JSParser {
         if (MODULE_MIME_TYPE.equals(source.getMimeType()) || source.getName().endsWith(MODULE_SOURCE_NAME_SUFFIX)) {
             return fakeScriptForModule(context, source);
         }
+        String codeCacheDir = context.getContextOptions().getCodeCacheDir();
+        if (!codeCacheDir.isEmpty()) {
+            return CodeCache.getInstance(codeCacheDir, context.getContextOptions().getCodeCacheMaxSize()).parseScriptNode(context, context.getRealm().getEnv(), source, po.isStrict());
+        }
         return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, source, po.isStrict());
     }
 
@@ -337,6 +422,27 @@ public final class GraalJSEvaluator implements JSParser {
         }
     }
 
+    @TruffleBoundary
+    @Override
+    public Object preparseModule(JSContext context, Source source) {
+        try {
+            return JavaScriptTranslator.parseModule(context, source);
+        } catch (com.oracle.js.parser.ParserException e) {
+            throw Errors.createSyntaxError(e.getMessage(), e, null);
+        }
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader, Object preparsedModule) {
+        return JavaScriptTranslator.translateModule(NodeFactory.getInstance(context), context, source, moduleLoader, (com.oracle.js.parser.ir.FunctionNode) preparsedModule);
+    }
+
+    @Override
+    public List<String> getRequestedModules(JSModuleRecord moduleRecord) {
+        return ((Module) moduleRecord.getModule()).getRequestedModules();
+    }
+
     @TruffleBoundary
     @Override
     public JSModuleRecord hostResolveImportedModule(JSContext context, ScriptOrModule referrer, String specifier) {
@@ -48,6 +48,7 @@ import com.oracle.js.parser.Lexer.LexerToken;
 import com.oracle.js.parser.Lexer.RegexToken;
 import com.oracle.js.parser.Parser;
 import com.oracle.js.parser.ParserException;
+import com.oracle.js.parser.RecompilableScriptFunctionData;
 import com.oracle.js.parser.ScriptEnvironment;
 import com.oracle.js.parser.ScriptEnvironment.FunctionStatementBehavior;
 import com.oracle.js.parser.Token;
@@ -55,6 +56,7 @@ import com.oracle.js.parser.TokenType;
 import com.oracle.js.parser.ir.Expression;
 import com.oracle.js.parser.ir.FunctionNode;
 import com.oracle.js.parser.ir.LexicalContext;
+import com.oracle.js.parser.ir.visitor.NodeVisitor;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.js.builtins.helper.TruffleJSONParser;
@@ -66,6 +68,7 @@ import com.oracle.truffle.js.runtime.GraalJSParserOptions;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.RegexCompilerInterface;
 
 public final class GraalJSParserHelper {
@@ -104,7 +107,10 @@ public final class GraalJSParserHelper {
         }
         errors.setLimit(0);
 
-        Parser parser = createParser(context, env, source, errors, parserOptions);
+        Parser parser = createParser(context, env, source, errors, parserOptions, 0);
+        if (!parseModule && !eval && JSTruffleOptions.LazyFunctionData && context.getContextOptions().isLazyParsing()) {
+            parser.setReparsedFunction(new SkippedFunctionData(PROGRAM_FUNCTION_ID));
+        }
         FunctionNode parsed = parseModule ? parser.parseModule(":module") : parser.parse();
         if (errors.hasErrors()) {
             throwErrors(truffleSource, errors);
@@ -112,6 +118,84 @@ public final class GraalJSParserHelper {
         return parsed;
     }
 
+    /**
+     * Parses a function whose body has been skipped when its enclosing code was parsed. The bodies
+     * of the functions nested in it are skipped using the end parser states recorded by that parse,
+     * so they are not parsed again.
+     *
+     * @param skippedFunction the function node with the skipped body
+     * @return the fully parsed function node
+     */
+    public static FunctionNode parseSkippedFunction(JSContext context, com.oracle.truffle.api.source.Source truffleSource, GraalJSParserOptions parserOptions, FunctionNode skippedFunction) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        assert skippedFunction.hasSkippedBody() : skippedFunction;
+        com.oracle.js.parser.Source source = com.oracle.js.parser.Source.sourceFor(truffleSource.getName(), truffleSource.getCharacters(), false);
+
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions);
+        ErrorManager errors = new ErrorManager.StringBuilderErrorManager();
+        errors.setLimit(0);
+
+        int functionId = skippedFunction.getId();
+        Parser parser = createParser(context, env, source, errors, parserOptions, skippedFunction.getLineNumber() - 1);
+        parser.setReparsedFunction((RecompilableScriptFunctionData) skippedFunction.getEndParserState());
+        FunctionNode program = parser.parse(":program", functionId, skippedFunction.getFinish() - functionId, 0);
+        if (errors.hasErrors()) {
+            throwErrors(truffleSource, errors);
+        }
+
+        FunctionNode[] found = new FunctionNode[1];
+        program.accept(new NodeVisitor<LexicalContext>(new LexicalContext()) {
+            @Override
+            public boolean enterFunctionNode(FunctionNode functionNode) {
+                if (functionNode.getId() == functionId) {
+                    found[0] = functionNode;
+                    return false;
+                }
+                return found[0] == null;
+            }
+        });
+        FunctionNode parsed = found[0];
+        assert parsed != null && !parsed.hasSkippedBody();
+        GraalJSTranslator.functionVarDeclarationPass(parsed, parserOptions);
+        return parsed;
+    }
+
+    private static final int PROGRAM_FUNCTION_ID = -1;
+
+    /**
+     * Tells the parser to pre-parse a whole script: the bodies of the nested functions are checked
+     * for early errors and their end parser states are recorded, see
+     * {@link #parseSkippedFunction}.
+     */
+    private static final class SkippedFunctionData implements RecompilableScriptFunctionData {
+        private final int functionNodeId;
+
+        SkippedFunctionData(int functionNodeId) {
+            this.functionNodeId = functionNodeId;
+        }
+
+        @Override
+        public RecompilableScriptFunctionData getScriptFunctionData(int functionId) {
+            // nothing has been recorded yet
+            return null;
+        }
+
+        @Override
+        public int getFunctionNodeId() {
+            return functionNodeId;
+        }
+
+        @Override
+        public int getFunctionFlags() {
+            return 0;
+        }
+
+        @Override
+        public Object getEndParserState() {
+            return null;
+        }
+    }
+
     public static Expression parseExpression(JSContext context, com.oracle.truffle.api.source.Source truffleSource, GraalJSParserOptions parserOptions) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         CharSequence code = truffleSource.getCharacters();
@@ -121,7 +205,7 @@ public final class GraalJSParserHelper {
         ErrorManager errors = new ErrorManager.ThrowErrorManager();
         errors.setLimit(0);
 
-        Parser parser = createParser(context, env, source, errors, parserOptions);
+        Parser parser = createParser(context, env, source, errors, parserOptions, 0);
         Expression expression = parser.parseExpression();
         if (errors.hasErrors()) {
             throwErrors(truffleSource, errors);
@@ -138,8 +222,8 @@ public final class GraalJSParserHelper {
         return expression;
     }
 
-    private static Parser createParser(JSContext context, ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, GraalJSParserOptions parserOptions) {
-        return new Parser(env, source, errors) {
+    private static Parser createParser(JSContext context, ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, GraalJSParserOptions parserOptions, int lineOffset) {
+        return new Parser(env, source, errors, parserOptions.isStrict(), lineOffset) {
             @Override
             protected void validateLexerToken(LexerToken lexerToken) {
                 if (lexerToken instanceof RegexToken) {
@@ -187,9 +271,9 @@ public final class GraalJSParserHelper {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         ScriptEnvironment env = makeScriptEnvironment(parserOptions);
         ErrorManager errors = new com.oracle.js.parser.ErrorManager.ThrowErrorManager();
-        Parser parser = createParser(context, env, com.oracle.js.parser.Source.sourceFor(Evaluator.FUNCTION_SOURCE_NAME, parameterList), errors, parserOptions);
+        Parser parser = createParser(context, env, com.oracle.js.parser.Source.sourceFor(Evaluator.FUNCTION_SOURCE_NAME, parameterList), errors, parserOptions, 0);
         parser.parseFormalParameterList();
-        parser = createParser(context, env, com.oracle.js.parser.Source.sourceFor(Evaluator.FUNCTION_SOURCE_NAME, body), errors, parserOptions);
+        parser = createParser(context, env, com.oracle.js.parser.Source.sourceFor(Evaluator.FUNCTION_SOURCE_NAME, body), errors, parserOptions, 0);
         parser.parseFunctionBody(generator, async);
     }
 
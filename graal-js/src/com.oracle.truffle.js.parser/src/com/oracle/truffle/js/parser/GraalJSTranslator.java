@@ -164,10 +164,12 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSErrorType;
 import com.oracle.truffle.js.runtime.JSFrameUtil;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.RegexCompilerInterface;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.objects.Dead;
 import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
+import com.oracle.truffle.js.runtime.util.BackgroundTranslationPool;
 import com.oracle.truffle.js.runtime.util.Pair;
 
 abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.TranslatorNodeVisitor<LexicalContext, JavaScriptNode> {
@@ -189,6 +191,11 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
     protected final Source source;
     private final boolean isParentStrict;
 
+    /** Function that is called right where it is defined, e.g. {@code (function() {...})()}. */
+    private FunctionNode immediatelyInvokedFunction;
+    /** Lazily initialized functions to translate in the background once this translation is done. */
+    private List<JSFunctionData> backgroundTranslations;
+
     protected GraalJSTranslator(NodeFactory factory, JSContext context, Source source, Environment environment, boolean isParentStrict) {
         super(new LexicalContext());
         this.context = context;
@@ -257,6 +264,7 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
             throw new IllegalArgumentException("root function node is not a script");
         }
         JSFunctionExpressionNode functionExpression = (JSFunctionExpressionNode) transformFunction(functionNode);
+        submitBackgroundTranslations();
         return ScriptNode.fromFunctionRoot(context, functionExpression.getFunctionNode());
     }
 
@@ -318,7 +326,8 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         }
         boolean functionMode = !isGlobal || (isStrict && isIndirectEval);
 
-        boolean lazyTranslation = JSTruffleOptions.LazyTranslation && functionMode && !functionNode.isProgram() && !inDirectEval;
+        boolean skippedBody = functionNode.hasSkippedBody();
+        boolean lazyTranslation = skippedBody || (JSTruffleOptions.LazyTranslation && functionMode && !functionNode.isProgram() && !inDirectEval);
 
         String functionName = getFunctionName(functionNode);
         JSFunctionData functionData;
@@ -326,19 +335,41 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         if (lazyTranslation) {
             assert functionMode && !functionNode.isProgram();
 
-            // function needs parent frame analysis has already been done
-            boolean needsParentFrame = functionNode.usesAncestorScope();
+            boolean needsParentFrame;
+            if (skippedBody) {
+                // the skipped body may use variables of any enclosing function
+                needsParentFrame = true;
+                for (FunctionEnvironment parent = currentFunction(); parent.getParentFunction() != null && !parent.isFrozen(); parent = parent.getParentFunction()) {
+                    parent.setNeedsParentFrame(true);
+                }
+            } else {
+                // function needs parent frame analysis has already been done
+                needsParentFrame = functionNode.usesAncestorScope();
+            }
 
             functionData = factory.createFunctionData(context, functionNode.getLength(), functionName, isConstructor, isDerivedConstructor, isStrict, isBuiltin,
                             needsParentFrame, isGeneratorFunction, isAsyncFunction, isClassConstructor, strictFunctionProperties, needsNewTarget);
 
             Environment parentEnv = environment;
+            boolean isNamedFunctionExpression = functionNode.isNamedFunctionExpression();
+            // a skipped body is parsed again on demand, so only its source range and the end states
+            // the parser recorded for its nested functions are retained
+            FunctionNode lazyFunctionNode = skippedBody ? dropBody(functionNode) : functionNode;
             functionData.setLazyInit(fd -> {
+                FunctionNode parsedFunctionNode = lazyFunctionNode;
+                if (skippedBody) {
+                    GraalJSParserOptions parserOptions = ((GraalJSParserOptions) context.getParserOptions()).putStrict(isStrict);
+                    parsedFunctionNode = GraalJSParserHelper.parseSkippedFunction(context, source, parserOptions, lazyFunctionNode);
+                }
                 GraalJSTranslator translator = newTranslator(parentEnv);
-                translator.translateFunctionOnDemand(functionNode, fd, isStrict, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, isGlobal,
-                                needsNewTarget, needsParentFrame, functionName);
+                translator.translateFunctionOnDemand(parsedFunctionNode, fd, isStrict, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, isGlobal,
+                                needsNewTarget, needsParentFrame, functionName, isNamedFunctionExpression);
             });
             functionRoot = null;
+
+            if (functionNode == immediatelyInvokedFunction || (currentFunction().isGlobal() && isExportedFunction(functionNode))) {
+                addBackgroundTranslation(functionData);
+            }
         } else {
             try (EnvironmentCloseable functionEnv = enterFunctionEnvironment(isStrict, isArrowFunction, isGeneratorFunction, isDerivedConstructor, isAsyncFunction, isGlobal)) {
                 FunctionEnvironment currentFunction = currentFunction();
@@ -440,12 +471,14 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
     }
 
     private FunctionRootNode translateFunctionOnDemand(FunctionNode functionNode, JSFunctionData functionData, boolean isStrict, boolean isArrowFunction, boolean isGeneratorFunction,
-                    boolean isAsyncFunction, boolean isDerivedConstructor, boolean isGlobal, boolean needsNewTarget, boolean needsParentFrame, String functionName) {
+                    boolean isAsyncFunction, boolean isDerivedConstructor, boolean isGlobal, boolean needsNewTarget, boolean needsParentFrame, String functionName,
+                    boolean isNamedFunctionExpression) {
         try (EnvironmentCloseable functionEnv = enterFunctionEnvironment(isStrict, isArrowFunction, isGeneratorFunction, isDerivedConstructor, isAsyncFunction, isGlobal)) {
             FunctionEnvironment currentFunction = currentFunction();
             currentFunction.setFunctionName(functionName);
             currentFunction.setInternalFunctionName(!functionName.isEmpty() ? functionName : functionNode.getIdent().getName());
-            currentFunction.setNamedFunctionExpression(functionNode.isNamedFunctionExpression());
+            // a reparsed function expression is parsed as a function statement
+            currentFunction.setNamedFunctionExpression(isNamedFunctionExpression);
 
             currentFunction.setNeedsParentFrame(needsParentFrame);
 
@@ -463,7 +496,9 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
             try {
                 JavaScriptNode body = translateFunctionBody(functionNode, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, needsNewTarget,
                                 currentFunction, Collections.emptyList());
-                return createFunctionRoot(functionNode, functionData, currentFunction, body);
+                FunctionRootNode functionRoot = createFunctionRoot(functionNode, functionData, currentFunction, body);
+                submitBackgroundTranslations();
+                return functionRoot;
             } finally {
                 getLexicalContext().pop(functionNode);
             }
@@ -1000,7 +1035,7 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
 
             @Override
             public boolean enterFunctionNode(FunctionNode functionNode) {
-                if (functionNode.hasEval()) {
+                if (functionNode.hasEval() || functionNode.hasSkippedBody()) {
                     markUsesAncestorScopeUntil(null, false);
                 }
                 // TODO if function does not have nested functions we can skip it
@@ -1229,6 +1264,57 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         return false;
     }
 
+    /**
+     * Is this top-level function declaration exported from the module being translated?
+     */
+    @SuppressWarnings("unused")
+    protected boolean isExportedFunction(FunctionNode functionNode) {
+        return false;
+    }
+
+    private static FunctionNode dropBody(FunctionNode functionNode) {
+        Block body = functionNode.getBody();
+        return functionNode.setBody(null, new Block(body.getToken(), body.getFinish(), Block.IS_BODY));
+    }
+
+    private void addBackgroundTranslation(JSFunctionData functionData) {
+        if (context.getContextOptions().getBackgroundTranslationThreads() > 0) {
+            if (backgroundTranslations == null) {
+                backgroundTranslations = new ArrayList<>();
+            }
+            backgroundTranslations.add(functionData);
+        }
+    }
+
+    /**
+     * Hands the functions likely to be called soon to the background translation pool. Must only be
+     * called after the enclosing function environments have been frozen.
+     */
+    protected final void submitBackgroundTranslations() {
+        if (backgroundTranslations != null) {
+            BackgroundTranslationPool pool = context.getBackgroundTranslationPool();
+            // reparsing a lazily parsed body validates its regular expression literals
+            RegexCompilerInterface.prepareValidation(context);
+            for (JSFunctionData functionData : backgroundTranslations) {
+                pool.submit(functionData);
+            }
+            backgroundTranslations = null;
+        }
+    }
+
+    private static FunctionNode getImmediatelyInvokedFunction(Expression function) {
+        if (function instanceof FunctionNode) {
+            return (FunctionNode) function;
+        } else if (function instanceof AccessNode && ((AccessNode) function).getBase() instanceof FunctionNode) {
+            // (function() {...}).call(this)
+            String property = ((AccessNode) function).getProperty();
+            if (property.equals("call") || property.equals("apply")) {
+                return (FunctionNode) ((AccessNode) function).getBase();
+            }
+        }
+        return null;
+    }
+
     @SuppressWarnings("unused")
     protected List<JavaScriptNode> setupModuleEnvironment(FunctionNode functionNode) {
         throw new UnsupportedOperationException();
@@ -2182,7 +2268,9 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
 
     @Override
     public JavaScriptNode enterCallNode(CallNode callNode) {
+        immediatelyInvokedFunction = getImmediatelyInvokedFunction(callNode.getFunction());
         JavaScriptNode function = transform(callNode.getFunction());
+        immediatelyInvokedFunction = null;
         JavaScriptNode[] args = transformArgs(callNode.getArgs());
         JavaScriptNode call;
         if (callNode.isEval() && args.length >= 1) {
@@ -120,7 +120,14 @@ public final class JavaScriptTranslator extends GraalJSTranslator {
     }
 
     public static JSModuleRecord translateModule(NodeFactory factory, JSContext context, Source source, JSModuleLoader moduleLoader) {
-        FunctionNode parsed = GraalJSParserHelper.parseModule(context, source, ((GraalJSParserOptions) context.getParserOptions()).putStrict(true));
+        return translateModule(factory, context, source, moduleLoader, parseModule(context, source));
+    }
+
+    public static FunctionNode parseModule(JSContext context, Source source) {
+        return GraalJSParserHelper.parseModule(context, source, ((GraalJSParserOptions) context.getParserOptions()).putStrict(true));
+    }
+
+    public static JSModuleRecord translateModule(NodeFactory factory, JSContext context, Source source, JSModuleLoader moduleLoader, FunctionNode parsed) {
         JavaScriptTranslator translator = new JavaScriptTranslator(factory, context, source, null, true, parsed.getModule());
         JSModuleRecord moduleRecord = new JSModuleRecord(parsed.getModule(), context, moduleLoader, source, () -> translator.translateModule(parsed));
         translator.scriptOrModule = moduleRecord;
@@ -135,6 +142,7 @@ public final class JavaScriptTranslator extends GraalJSTranslator {
         FunctionRootNode functionRoot = functionExpression.getFunctionNode();
         JSModuleRecord moduleRecord = (JSModuleRecord) scriptOrModule;
         moduleRecord.setFunctionData(functionRoot.getFunctionData());
+        submitBackgroundTranslations();
         return moduleRecord;
     }
 
@@ -192,6 +200,20 @@ public final class JavaScriptTranslator extends GraalJSTranslator {
         }
     }
 
+    @Override
+    protected boolean isExportedFunction(FunctionNode functionNode) {
+        if (moduleNode == null || !functionNode.isDeclared()) {
+            return false;
+        }
+        String name = functionNode.getIdent().getName();
+        for (ExportEntry exportEntry : moduleNode.getLocalExportEntries()) {
+            if (name.equals(exportEntry.getLocalName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void verifyModuleLocalExports(Block bodyBlock) {
         for (ExportEntry exportEntry : moduleNode.getLocalExportEntries()) {
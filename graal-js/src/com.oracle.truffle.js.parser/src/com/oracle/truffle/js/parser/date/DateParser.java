@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -155,7 +155,66 @@ public class DateParser {
      * @return true if the string could be parsed as date
      */
     public boolean parse() {
-        return parseEcmaDate() || parseLegacyDate();
+        return parseSimpleIsoDate() || parseEcmaDate() || parseLegacyDate();
+    }
+
+    /**
+     * Fast path for the most common forms of ES5 15.9.1.15 date strings, <tt>yyyy-MM-dd</tt>
+     * and <tt>yyyy-MM-ddThh:mm:ss.sssZ</tt> (as produced by <tt>Date.prototype.toISOString</tt>),
+     * that reads the fields at their fixed positions. Produces the same fields as
+     * {@link #parseEcmaDate()} and leaves the parser untouched for any other string.
+     * @return true if the string has one of these forms
+     */
+    private boolean parseSimpleIsoDate() {
+        if (length != 10 && length != 24) {
+            return false;
+        }
+        final int year = readFixedDigits(0, 4);
+        final int month = readFixedDigits(5, 2);
+        final int day = readFixedDigits(8, 2);
+        if (year < 0 || string.charAt(4) != '-' || !isMonth(month) || string.charAt(7) != '-' || !isDay(day)) {
+            return false;
+        }
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millisecond = 0;
+        if (length == 24) {
+            hour = readFixedDigits(11, 2);
+            minute = readFixedDigits(14, 2);
+            second = readFixedDigits(17, 2);
+            millisecond = readFixedDigits(20, 3);
+            if (string.charAt(10) != 'T' || !isHour(hour) || string.charAt(13) != ':' || !isMinuteOrSecond(minute) ||
+                    string.charAt(16) != ':' || !isMinuteOrSecond(second) || string.charAt(19) != '.' || millisecond < 0 || string.charAt(23) != 'Z') {
+                return false;
+            }
+            // 24 hour value is only allowed if all other time values are zero
+            if (hour == 24 && (minute != 0 || second != 0 || millisecond != 0)) {
+                return false;
+            }
+        }
+        set(YEAR, year);
+        set(MONTH, month - 1);
+        set(DAY, day);
+        set(HOUR, hour);
+        set(MINUTE, minute);
+        set(SECOND, second);
+        set(MILLISECOND, millisecond);
+        set(TIMEZONE, 0);
+        return true;
+    }
+
+    // Returns the value of the ASCII digits at the given position, or -1 if there are none
+    private int readFixedDigits(final int start, final int count) {
+        int n = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = string.charAt(i);
+            if (!isAsciiDigit(c)) {
+                return -1;
+            }
+            n = n * 10 + c - '0';
+        }
+        return n;
     }
 
     /**
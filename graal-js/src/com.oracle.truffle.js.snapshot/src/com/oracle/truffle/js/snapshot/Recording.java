@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -51,6 +51,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -1697,7 +1699,12 @@ public class Recording {
             encodeMethod(encoder, ENTRY_METHOD_NAME, insts, Collections.emptyList());
         }
         try {
-            outs.write(byteBufferToByteArray(sink.getBuffer()));
+            // write the encoded buffer directly, FileOutputStreams get a FileChannel
+            WritableByteChannel channel = Channels.newChannel(outs);
+            ByteBuffer buffer = sink.getBuffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -1709,12 +1716,6 @@ public class Recording {
         return sink.getBuffer();
     }
 
-    private static byte[] byteBufferToByteArray(ByteBuffer buffer) {
-        byte[] bytes = new byte[buffer.remaining()];
-        buffer.get(bytes);
-        return bytes;
-    }
-
     private void saveAsJava(String fileName, OutputStream outs) {
         String qualifiedClassName = mangleFileName(fileName);
         String packageName = qualifiedClassName.substring(0, qualifiedClassName.lastIndexOf('.'));
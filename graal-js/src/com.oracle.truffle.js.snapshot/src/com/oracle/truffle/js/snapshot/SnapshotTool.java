@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -43,6 +43,7 @@ package com.oracle.truffle.js.snapshot;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -55,6 +56,8 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
 import com.oracle.truffle.js.nodes.NodeFactory;
 import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.nodes.function.FunctionRootNode;
+import com.oracle.truffle.js.parser.BinarySnapshotProvider;
 import com.oracle.truffle.js.parser.JavaScriptTranslator;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRealm;
@@ -74,6 +77,7 @@ public class SnapshotTool {
         assert !JSTruffleOptions.LazyTranslation;
 
         boolean binary = true;
+        int loadBenchmarkIterations = 0;
         String outDir = null;
         String inDir = null;
         List<String> srcFiles = new ArrayList<>();
@@ -83,6 +87,10 @@ public class SnapshotTool {
                     binary = false;
                 } else if (arg.equals("--binary")) {
                     binary = true;
+                } else if (arg.equals("--load-benchmark")) {
+                    loadBenchmarkIterations = 10;
+                } else if (arg.startsWith("--load-benchmark=")) {
+                    loadBenchmarkIterations = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
                 } else if (arg.startsWith("--file=")) {
                     srcFiles.add(arg.substring(arg.indexOf('=') + 1));
                 } else if (arg.startsWith("--outdir=")) {
@@ -94,7 +102,13 @@ public class SnapshotTool {
         }
 
         SnapshotTool snapshotTool = new SnapshotTool();
-        if (!srcFiles.isEmpty() && outDir != null) {
+        if (!srcFiles.isEmpty() && outDir != null && loadBenchmarkIterations > 0) {
+            for (String srcFile : srcFiles) {
+                File sourceFile = inDir == null ? new File(srcFile) : Paths.get(inDir, srcFile).toFile();
+                Path snapshotFile = Paths.get(outDir, srcFile + ".bin");
+                benchmarkLoad(srcFile, sourceFile, snapshotFile, loadBenchmarkIterations);
+            }
+        } else if (!srcFiles.isEmpty() && outDir != null) {
             try (Context polyglotContext = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).build()) {
                 polyglotContext.initialize(JavaScriptLanguage.ID);
                 polyglotContext.enter();
@@ -110,7 +124,7 @@ public class SnapshotTool {
                 polyglotContext.leave();
             }
         } else {
-            System.out.println("Usage: [--java|--binary] --outdir=DIR [--indir=DIR] --file=FILE [--file=FILE ...]");
+            System.out.println("Usage: [--java|--binary|--load-benchmark[=ITERATIONS]] --outdir=DIR [--indir=DIR] --file=FILE [--file=FILE ...]");
         }
     }
 
@@ -140,6 +154,37 @@ public class SnapshotTool {
         }
     }
 
+    /**
+     * Measures the startup time of a binary snapshot, i.e. mapping, decoding, and running it, with
+     * function bodies decoded eagerly vs. lazily on first call. Every iteration uses a new context.
+     */
+    private static void benchmarkLoad(String fileName, File sourceFile, Path snapshotFile, int iterations) throws IOException {
+        for (boolean lazy : new boolean[]{false, true}) {
+            long decodeTime = 0;
+            long runTime = 0;
+            for (int i = 0; i < iterations; i++) {
+                try (Context polyglotContext = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).build()) {
+                    polyglotContext.initialize(JavaScriptLanguage.ID);
+                    polyglotContext.enter();
+                    JSRealm realm = JavaScriptLanguage.getCurrentJSRealm();
+                    JSContext context = realm.getContext();
+                    Source source = Source.newBuilder(JavaScriptLanguage.ID, realm.getEnv().getTruffleFile(sourceFile.getPath())).name(fileName).build();
+                    long startTime = System.nanoTime();
+                    BinarySnapshotProvider provider = BinarySnapshotProvider.map(snapshotFile, lazy);
+                    ScriptNode program = ScriptNode.fromFunctionRoot(context, (FunctionRootNode) provider.apply(NodeFactory.getInstance(context), context, source));
+                    long decodedTime = System.nanoTime();
+                    program.run(realm);
+                    long endTime = System.nanoTime();
+                    decodeTime += decodedTime - startTime;
+                    runTime += endTime - decodedTime;
+                    polyglotContext.leave();
+                }
+            }
+            System.out.printf("%s (%s): decode %.02f ms, run %.02f ms, total %.02f ms (average of %d)\n", fileName, lazy ? "lazy" : "eager",
+                            decodeTime / 1e6 / iterations, runTime / 1e6 / iterations, (decodeTime + runTime) / 1e6 / iterations, iterations);
+        }
+    }
+
     private interface TimerCloseable extends AutoCloseable {
         @Override
         void close();
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.threading;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+/**
+ * Several agents updating elements of all widths of one SharedArrayBuffer concurrently. Neighboring
+ * byte and short elements share the same int word, so lost updates would show up in the sums.
+ */
+public class AtomicsContentionTest {
+
+    private static final int AGENTS = 4;
+    private static final int ITERATIONS = 8000;
+
+    private static final String AGENT_SOURCE = "$262.agent.receiveBroadcast(function(sab) {" +
+                    "  var u8 = new Uint8Array(sab, 0, 8);" +
+                    "  var i16 = new Int16Array(sab, 8, 4);" +
+                    "  var i32 = new Int32Array(sab, 16, 2);" +
+                    "  var i64 = new BigInt64Array(sab, 24, 1);" +
+                    "  for (var k = 0; k < " + ITERATIONS + "; k++) {" +
+                    "    Atomics.add(u8, k & 7, 1);" +
+                    "    Atomics.sub(i16, k & 3, 1);" +
+                    "    Atomics.add(i32, 0, 1);" +
+                    "    var old;" +
+                    "    do {" +
+                    "      old = Atomics.load(i32, 1);" +
+                    "    } while (Atomics.compareExchange(i32, 1, old, old + 2) !== old);" +
+                    "    Atomics.add(i64, 0, 1n);" +
+                    "  }" +
+                    "  $262.agent.report('done');" +
+                    "  $262.agent.leaving();" +
+                    "});";
+
+    private static final String MAIN_SOURCE = "(function(agentSource, agents) {" +
+                    "  for (var i = 0; i < agents; i++) {" +
+                    "    $262.agent.start(agentSource);" +
+                    "  }" +
+                    "  var sab = new SharedArrayBuffer(32);" +
+                    "  $262.agent.broadcast(sab);" +
+                    "  var done = 0;" +
+                    "  while (done < agents) {" +
+                    "    if ($262.agent.getReport() !== null) {" +
+                    "      done++;" +
+                    "    } else {" +
+                    "      $262.agent.sleep(10);" +
+                    "    }" +
+                    "  }" +
+                    "  return [Array.from(new Uint8Array(sab, 0, 8))," +
+                    "          Array.from(new Int16Array(sab, 8, 4))," +
+                    "          Array.from(new Int32Array(sab, 16, 2))," +
+                    "          String(new BigInt64Array(sab, 24, 1)[0])].join(';');" +
+                    "})";
+
+    @Test(timeout = 120000)
+    public void allWidthsUnderContention() {
+        try (Context context = Context.newBuilder("js").allowExperimentalOptions(true).option("js.test262-mode", "true").build()) {
+            Value main = context.eval("js", MAIN_SOURCE);
+            String result = main.execute(AGENT_SOURCE, AGENTS).asString();
+
+            int total = AGENTS * ITERATIONS;
+            int perByte = (total / 8) & 0xFF;
+            int perShort = (short) -(total / 4);
+            String expected = String.join(";",
+                            repeat(perByte, 8),
+                            repeat(perShort, 4),
+                            total + "," + (2 * total),
+                            String.valueOf(total));
+            assertEquals(expected, result);
+        }
+    }
+
+    private static String repeat(int value, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+}
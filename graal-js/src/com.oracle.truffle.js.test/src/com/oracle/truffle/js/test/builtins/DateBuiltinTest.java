@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Local time getters, string conversion and parsing of Date.
+ */
+public class DateBuiltinTest {
+
+    private static final String LOCAL_FIELDS = "(function(t) {\n" +
+                    "  var d = new Date(t);\n" +
+                    "  return [d.getFullYear(), d.getMonth() + 1, d.getDate(), d.getHours(), d.getMinutes(), -d.getTimezoneOffset()].join();\n" +
+                    "})";
+
+    private static void testZone(String zone, long from, long to, long step) {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).option(JSContextOptions.TIME_ZONE_NAME, zone).build()) {
+            Value localFields = context.eval(JavaScriptLanguage.ID, LOCAL_FIELDS);
+            ZoneId zoneId = ZoneId.of(zone);
+            for (long t = from; t <= to; t += step) {
+                ZonedDateTime local = Instant.ofEpochMilli(t).atZone(zoneId);
+                String expected = local.getYear() + "," + local.getMonthValue() + "," + local.getDayOfMonth() + "," + local.getHour() + "," + local.getMinute() + "," +
+                                local.getOffset().getTotalSeconds() / 60;
+                assertEquals(zone + " at " + t, expected, localFields.execute(t).asString());
+            }
+        }
+    }
+
+    @Test
+    public void testDaylightSavingTransitions() {
+        // 2019-03-30 to 2019-04-01 and 2019-10-26 to 2019-10-28, in steps of 7 minutes
+        long step = 7 * 60 * 1000;
+        testZone("Europe/Prague", 1553904000000L, 1554076800000L, step);
+        testZone("Europe/Prague", 1572048000000L, 1572220800000L, step);
+        testZone("America/New_York", 1552089600000L, 1552262400000L, step);
+        testZone("America/New_York", 1572652800000L, 1572825600000L, step);
+    }
+
+    @Test
+    public void testSetters() {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).option(JSContextOptions.TIME_ZONE_NAME, "Europe/Prague").build()) {
+            String code = "var d = new Date(2019, 2, 31, 1, 30);\n" +
+                            "d.setHours(3);\n" +
+                            "var r = [d.getHours(), d.getMinutes(), d.getTimezoneOffset()];\n" +
+                            "d.setMonth(9, 27);\n" +
+                            "r.push(d.getMonth(), d.getDate(), d.getHours(), d.getTimezoneOffset(), new Date(-1).getMilliseconds(), new Date(-1).getSeconds());\n" +
+                            "r.join();";
+            assertEquals("3,30,-120,9,27,3,-60,999,59", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+
+    @Test
+    public void testFormatting() {
+        DateTimeFormatter toStringFormat = DateTimeFormatter.ofPattern("EEE MMM dd uuuu HH:mm:ss 'GMT'Z (z)", Locale.US);
+        DateTimeFormatter toUTCStringFormat = DateTimeFormatter.ofPattern("EEE, dd MMM uuuu HH:mm:ss 'GMT'", Locale.US);
+        DateTimeFormatter isoFormat = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        DateTimeFormatter isoExtendedFormat = DateTimeFormatter.ofPattern("uuuuuu-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        long[] times = {0, -1, 1553995800123L, 1572141600999L, -62167219200001L, -62167219200000L, 253402300799999L, 253402300800000L, -8640000000000000L, 8640000000000000L,
+                        -2208988800000L, 951782400000L};
+        ZoneId zone = ZoneId.of("Europe/Prague");
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).option(JSContextOptions.TIME_ZONE_NAME, zone.getId()).build()) {
+            Value format = context.eval(JavaScriptLanguage.ID, "(function(t) { var d = new Date(t); return [d.toString(), d.toUTCString(), d.toISOString(), d.toDateString(), d.toTimeString()]; })");
+            for (long t : times) {
+                ZonedDateTime local = Instant.ofEpochMilli(t).atZone(zone);
+                ZonedDateTime utc = Instant.ofEpochMilli(t).atZone(ZoneOffset.UTC);
+                String localString = local.format(toStringFormat);
+                String iso = t >= 253402300800000L ? "+" + utc.format(isoExtendedFormat) : utc.format(t < -62167219200000L ? isoExtendedFormat : isoFormat);
+                Value result = format.execute(t);
+                assertEquals(localString, result.getArrayElement(0).asString());
+                assertEquals(utc.format(toUTCStringFormat), result.getArrayElement(1).asString());
+                assertEquals(iso, result.getArrayElement(2).asString());
+                assertEquals(localString.substring(0, localString.indexOf(':') - 3), result.getArrayElement(3).asString());
+                assertEquals(localString.substring(localString.indexOf(':') - 2), result.getArrayElement(4).asString());
+            }
+        }
+    }
+
+    @Test
+    public void testParseISOString() {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).option(JSContextOptions.TIME_ZONE_NAME, "Europe/Prague").build()) {
+            String code = "[Date.parse('2019-03-31T01:30:15.250Z'), Date.parse('2019-03-31'), Date.parse('2019-03-31T24:00:00.000Z'), Date.parse('2019-03-31T24:00:00.001Z'),\n" +
+                            " Date.parse('2019-13-31T00:00:00.000Z'), Date.parse('2019-03-31T01:30:15.250+01:00'), Date.parse('0000-01-01'), new Date('-000001-01-01T00:00:00.000Z').toISOString()].join();";
+            assertEquals("1553995815250,1553990400000,1554076800000,NaN,NaN,1553992215250,-62167219200000,-000001-01-01T00:00:00.000Z", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+}
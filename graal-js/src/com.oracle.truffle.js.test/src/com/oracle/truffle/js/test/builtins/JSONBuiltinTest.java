@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Tests for the JSON builtin.
+ */
+public class JSONBuiltinTest extends JSTest {
+
+    @Test
+    public void testParseHomogeneousRecords() {
+        assertEquals("[{\"a\":1,\"b\":\"x\"},{\"a\":2,\"b\":\"y\"},{\"a\":3,\"b\":\"z\"}]",
+                        testHelper.run("JSON.stringify(JSON.parse('[{\"a\":1,\"b\":\"x\"},{\"a\":2,\"b\":\"y\"},{\"a\":3,\"b\":\"z\"}]'))"));
+        // same member names, but values of different types
+        assertEquals("[{\"a\":1,\"b\":2},{\"a\":1.5,\"b\":null},{\"a\":\"s\",\"b\":{\"c\":[]}},{\"a\":true,\"b\":-0.5}]",
+                        testHelper.run("JSON.stringify(JSON.parse('[{\"a\":1,\"b\":2},{\"a\":1.5,\"b\":null},{\"a\":\"s\",\"b\":{\"c\":[]}},{\"a\":true,\"b\":-0.5}]'))"));
+        // same member names in a different order
+        assertEquals("[{\"a\":1,\"b\":2},{\"b\":3,\"a\":4}]", testHelper.run("JSON.stringify(JSON.parse('[{\"a\":1,\"b\":2},{\"b\":3,\"a\":4}]'))"));
+        // objects of a parsed layout remain independent
+        assertEquals("1,5,true", testHelper.run("var r = JSON.parse('[{\"a\":1},{\"a\":2}]'); r[1].a = 5; r[1].c = true; [r[0].a, r[1].a, r[1].c].join()"));
+    }
+
+    @Test
+    public void testParseDuplicateMembers() {
+        assertEquals("{\"a\":3,\"b\":2}", testHelper.run("JSON.stringify(JSON.parse('{\"a\":1,\"b\":2,\"a\":3}'))"));
+        assertEquals("{\"1\":\"y\",\"b\":\"x\"}", testHelper.run("JSON.stringify(JSON.parse('{\"b\":\"x\",\"1\":\"y\"}'))"));
+        assertEquals("true", testHelper.run("var o = JSON.parse('{\"__proto__\":1}'); '' + (Object.getPrototypeOf(o) === Object.prototype && o.__proto__ === 1)"));
+    }
+
+    @Test
+    public void testParseNumericArrays() {
+        assertEquals("1,2,3,4", testHelper.run("JSON.parse('[1,2,3]').concat(4).join()"));
+        assertEquals("1,2.5,-0", testHelper.run("var a = JSON.parse('[1,2.5,-0]'); [a[0], a[1], 1 / a[2] === -Infinity ? '-0' : a[2]].join()"));
+        assertEquals("1,x,3", testHelper.run("var a = JSON.parse('[1,2,3]'); a[1] = 'x'; a.join()"));
+        assertEquals("4,1,", testHelper.run("var a = JSON.parse('[1,2,3,4,5]'); a.length = 2; a[3] = undefined; [a.length, a[0], a[3]].join()"));
+        assertEquals("[1,\"2\",null,[3]]", testHelper.run("JSON.stringify(JSON.parse('[1,\"2\",null,[3]]'))"));
+    }
+}
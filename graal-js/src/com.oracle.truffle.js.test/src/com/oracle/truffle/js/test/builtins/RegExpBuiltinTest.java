@@ -47,6 +47,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
 
 public class RegExpBuiltinTest {
 
@@ -64,4 +65,61 @@ public class RegExpBuiltinTest {
         }
     }
 
+    @Test
+    public void testBackreferences() {
+        // patterns with backreferences deep enough to grow the backtrack stack
+        try (Context context = Context.create()) {
+            String code = "var s = 'ab'.repeat(500) + 'x';\n" +
+                            "[/^((a)(b))+x$/.exec(s)[1], /(\\w+)-\\1/.exec('foo-bar bar-bar')[0], /(a|b)\\1+/.exec('abbba')[0],\n" +
+                            " /^(?:(a)|b)*?\\1?x$/.test(s), /(?<=\\$)\\d+/.exec('cost $42')[0]].join();";
+            Assert.assertEquals("ab,bar-bar,bbb,true,42", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+
+    @Test
+    public void testBackreferencesExploded() {
+        // per-pattern Joni byte code (sticky, ignore case, lookaround, multiline, non-Latin-1
+        // classes) and a counted repeat that falls back to the shared matcher
+        try (Context context = Context.create()) {
+            String code = "var re = /(\\w)\\1/y;\n" +
+                            "re.lastIndex = 2;\n" +
+                            "var sticky = re.exec('abccdd')[0];\n" +
+                            "re.lastIndex = 1;\n" +
+                            "[sticky, re.exec('abccdd'), /(a)\\1/i.exec('xaA')[0], /(?<!\\$)\\b(\\d+)\\1/.exec('$4242 1717')[1],\n" +
+                            " /^(\\w+)$\\n^\\1$/m.exec('x\\nab\\nab')[1], /([\\u0100-\\u017f])\\1/.exec('a\\u0100\\u0100b').index,\n" +
+                            " /(.+?)\\1/.exec('xabab')[0], /(a)(?!\\1)./.exec('aab')[0], /(?:(ab)){2,100}\\1/.exec('xababab')[0],\n" +
+                            " /\\b(\\w+)\\s\\1\\b/.exec('the the cat')[0]].join();";
+            Assert.assertEquals("cc,,aA,17,ab,1,abab,ab,ababab,the the", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+
+    @Test
+    public void testBackreferencesExplodedSearch() {
+        // start positions narrowed by the exact string of the pattern (bounded and unbounded
+        // distance) and by a char map
+        try (Context context = Context.create()) {
+            String code = "var s = 'lorem ipsum '.repeat(200);\n" +
+                            "[/foo(\\d+)\\1/.exec(s + 'foo12 foo1212')[0], /(\\w+)@example\\.com/.exec(s + 'me@example.com')[1],\n" +
+                            " /(a|b).*\\1x/.exec(s + 'bax bbx').index, /[xy](\\d)\\1/.exec(s + 'x12 y33')[0], /foo(\\d)\\1/.test(s)].join();";
+            Assert.assertEquals("foo1212,me,2400,y33,false", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+
+    @Test
+    public void testCompiledRegexCache() {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(
+                        JSContextOptions.REGEX_CACHE_SIZE_NAME, "16").build()) {
+            String code = "function compile(p) { return new RegExp(p); }\n" +
+                            "var before = Debug.regexCacheStats(), matches = 0, errors = 0;\n" +
+                            "for (var i = 0; i < 30; i++) { if (compile('x' + (i % 10) + '+').test('ax' + (i % 10) + 'b')) matches++; }\n" +
+                            "for (var i = 0; i < 2; i++) { try { compile('('); } catch (e) { errors++; } }\n" +
+                            "var after = Debug.regexCacheStats();\n" +
+                            "[matches, errors, after.misses - before.misses, after.hits - before.hits].join();";
+            Assert.assertEquals("30,2,12,20", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(
+                        JSContextOptions.REGEX_CACHE_SIZE_NAME, "0").build()) {
+            Assert.assertEquals("undefined,true", context.eval(JavaScriptLanguage.ID, "[typeof Debug.regexCacheStats(), /a/.test('a')].join()").asString());
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Evaluation of scripts with {@code js.code-cache-dir}.
+ */
+public class CodeCacheTest {
+
+    private static final String CODE = "function fib(n) { return n < 2 ? n : fib(n - 1) + fib(n - 2); }\n" +
+                    "var o = {a: [1, 2, 3], s: 'x' + `${fib(10)}`};\n" +
+                    "o.s + o.a.reduce((x, y) => x + y, 0);";
+
+    private static String eval(Path cacheDir, String code) {
+        return eval(Context.newBuilder(JavaScriptLanguage.ID).allowIO(true), cacheDir, code);
+    }
+
+    private static String eval(Context.Builder builder, Path cacheDir, String code) {
+        try (Context context = builder.allowExperimentalOptions(true).option(JSContextOptions.CODE_CACHE_DIR_NAME, cacheDir.toString()).build()) {
+            return context.eval(Source.create(JavaScriptLanguage.ID, code)).asString();
+        }
+    }
+
+    private static List<Path> listEntries(Path cacheDir) throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testRepeatedRuns() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        assertEquals("x556", eval(cacheDir, CODE));
+        assertEquals("x556", eval(cacheDir, CODE));
+        assertEquals("x556", eval(cacheDir, CODE));
+    }
+
+    @Test
+    public void testCorruptEntry() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        assertEquals("x556", eval(cacheDir, CODE));
+        for (Path entry : listEntries(cacheDir)) {
+            Files.write(entry, "garbage".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("x556", eval(cacheDir, CODE));
+        assertEquals("x556", eval(cacheDir, CODE));
+    }
+
+    @Test
+    public void testDifferentSources() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        assertEquals("x556", eval(cacheDir, CODE));
+        assertEquals("y", eval(cacheDir, "'y'"));
+        assertEquals("x556", eval(cacheDir, CODE));
+    }
+
+    @Test
+    public void testNoIOAccess() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        assertEquals("x556", eval(Context.newBuilder(JavaScriptLanguage.ID).allowIO(false), cacheDir, CODE));
+        assertEquals("x556", eval(Context.newBuilder(JavaScriptLanguage.ID).allowIO(false), cacheDir, CODE));
+        assertTrue(listEntries(cacheDir).isEmpty());
+    }
+
+    @Test
+    public void testMaxSize() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        long maxSize = 1;
+        for (int i = 0; i < 3; i++) {
+            Context.Builder builder = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).option(JSContextOptions.CODE_CACHE_MAX_SIZE_NAME, String.valueOf(maxSize));
+            assertEquals("y" + i, eval(builder, cacheDir, "'y' + " + i));
+        }
+        long size = 0;
+        for (Path entry : listEntries(cacheDir)) {
+            size += Files.size(entry);
+        }
+        assertTrue(size <= maxSize);
+    }
+}
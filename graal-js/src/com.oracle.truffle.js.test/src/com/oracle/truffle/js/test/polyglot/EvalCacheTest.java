@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Reuse of eval() and Function() translations with {@code js.eval-cache-size}.
+ */
+public class EvalCacheTest {
+
+    private static String eval(String code, int cacheSize) {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(
+                        JSContextOptions.EVAL_CACHE_SIZE_NAME, String.valueOf(cacheSize)).build()) {
+            return context.eval(JavaScriptLanguage.ID, code).asString();
+        }
+    }
+
+    @Test
+    public void testFunctionConstructor() {
+        String code = "var r = 0;\n" +
+                        "for (var i = 0; i < 10; i++) { r += (function(k) { return new Function('a', 'b', 'return a * b + ' + k); })(i % 2)(i, 2); }\n" +
+                        "var s = Debug.evalCacheStats();\n" +
+                        "[r, s.size, s.misses].join();";
+        assertEquals("95,2,2", eval(code, 16));
+    }
+
+    @Test
+    public void testDirectEval() {
+        // same code at two call sites must not share the translation
+        String code = "function f(x) { return eval('x + 1'); }\n" +
+                        "function g() { var x = 'g'; return eval('x + 1'); }\n" +
+                        "var r = [];\n" +
+                        "for (var i = 0; i < 3; i++) { r.push(f(i), g()); }\n" +
+                        "var s = Debug.evalCacheStats();\n" +
+                        "[r.join(' '), s.size, s.hits, s.misses].join();";
+        assertEquals("1 g1 2 g1 3 g1,2,4,2", eval(code, 16));
+    }
+
+    @Test
+    public void testStrictness() {
+        String code = "var r = [];\n" +
+                        "for (var i = 0; i < 2; i++) {\n" +
+                        "  r.push((function() { return eval('typeof this'); }).call(1));\n" +
+                        "  r.push((function() { 'use strict'; return eval('typeof this'); }).call(1));\n" +
+                        "}\n" +
+                        "r.join();";
+        assertEquals("object,number,object,number", eval(code, 16));
+    }
+
+    @Test
+    public void testEviction() {
+        String code = "for (var i = 0; i < 10; i++) { (0, eval)('' + i); }\n" +
+                        "for (var i = 9; i >= 0; i--) { (0, eval)('' + i); }\n" +
+                        "var s = Debug.evalCacheStats();\n" +
+                        "[s.size, s.capacity, s.hits, s.misses].join();";
+        assertEquals("4,4,4,16", eval(code, 4));
+    }
+
+    @Test
+    public void testDisabled() {
+        assertEquals("undefined,3", eval("[typeof Debug.evalCacheStats(), new Function('return 3')()].join();", 0));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Loading of module graphs with {@code js.module-parse-threads}.
+ */
+public class ModuleParseThreadsTest {
+
+    private static final int LEAVES = 50;
+
+    private static Path createModuleGraph() throws IOException {
+        Path dir = Files.createTempDirectory("module-graph");
+        StringBuilder main = new StringBuilder();
+        StringBuilder sum = new StringBuilder("0");
+        for (int i = 0; i < LEAVES; i++) {
+            // every leaf imports the shared module, which imports the first leaf (cycle)
+            write(dir, "leaf" + i + ".mjs", "import { base } from './shared.mjs';\nexport function f" + i + "() { return base + " + i + "; }\n");
+            main.append("import { f").append(i).append(" } from './leaf").append(i).append(".mjs';\n");
+            sum.append(" + f").append(i).append("()");
+        }
+        write(dir, "shared.mjs", "import { f0 } from './leaf0.mjs';\nexport const base = 1;\nexport function g() { return f0(); }\n");
+        main.append("globalThis.result = ").append(sum).append(";\n");
+        write(dir, "main.mjs", main.toString());
+        return dir;
+    }
+
+    private static void write(Path dir, String name, String content) throws IOException {
+        Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int evalMain(File mainFile, int threads) throws IOException {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).allowExperimentalOptions(true).option(JSContextOptions.MODULE_PARSE_THREADS_NAME,
+                        String.valueOf(threads)).build()) {
+            context.eval(Source.newBuilder(JavaScriptLanguage.ID, mainFile).mimeType(JavaScriptLanguage.MODULE_MIME_TYPE).build());
+            return context.getBindings(JavaScriptLanguage.ID).getMember("result").asInt();
+        }
+    }
+
+    @Test
+    public void testSameResult() throws IOException {
+        File mainFile = createModuleGraph().resolve("main.mjs").toFile();
+        int expected = LEAVES + LEAVES * (LEAVES - 1) / 2;
+        assertEquals(expected, evalMain(mainFile, 0));
+        assertEquals(expected, evalMain(mainFile, 4));
+    }
+
+    @Test
+    public void testSyntaxErrorInImportedModule() throws IOException {
+        Path dir = createModuleGraph();
+        write(dir, "leaf7.mjs", "export function f7() { return +; }\n");
+        try {
+            evalMain(dir.resolve("main.mjs").toFile(), 4);
+            assertTrue("SyntaxError expected", false);
+        } catch (PolyglotException e) {
+            assertTrue(e.getMessage(), e.isSyntaxError());
+        }
+    }
+
+    @Test
+    public void testRegExpLiterals() throws IOException {
+        // regular expression literals are validated by the parser, i.e. on the worker threads
+        Path dir = Files.createTempDirectory("module-graph");
+        StringBuilder main = new StringBuilder();
+        StringBuilder sum = new StringBuilder("0");
+        for (int i = 0; i < LEAVES; i++) {
+            write(dir, "leaf" + i + ".mjs", "export function f" + i + "() { return /^(a+)b\\1$/.test('aba') ? " + i + " : -1; }\n");
+            main.append("import { f").append(i).append(" } from './leaf").append(i).append(".mjs';\n");
+            sum.append(" + f").append(i).append("()");
+        }
+        main.append("globalThis.result = ").append(sum).append(";\n");
+        write(dir, "main.mjs", main.toString());
+        int expected = LEAVES * (LEAVES - 1) / 2;
+        assertEquals(expected, evalMain(dir.resolve("main.mjs").toFile(), 0));
+        assertEquals(expected, evalMain(dir.resolve("main.mjs").toFile(), 4));
+
+        write(dir, "leaf7.mjs", "export function f7() { return /(a/.test(''); }\n");
+        try {
+            evalMain(dir.resolve("main.mjs").toFile(), 4);
+            assertTrue("SyntaxError expected", false);
+        } catch (PolyglotException e) {
+            assertTrue(e.getMessage(), e.isSyntaxError());
+        }
+    }
+}
@@ -43,6 +43,12 @@ package com.oracle.truffle.js.test.polyglot;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
@@ -100,6 +106,39 @@ public class PolyglotBuiltinTest extends JSTest {
         test("Polyglot.import({});", "Invalid identifier");
     }
 
+    @Test
+    public void testParseJSON() {
+        String json = "{\"a\": [1, -0, 2.5, 1e3, 12345678901], \"b\": {\"s\": \"x\\u0041\\n\", \"t\": true, \"n\": null}, \"a\": \"\u00e9\u20ac\"}";
+        String expected = test("JSON.stringify(JSON.parse(arg));", null, true, json);
+        assertEquals(expected, test("JSON.stringify(Polyglot.parseJSON(arg));", null, true, new StringReader(json)));
+        assertEquals(expected, test("JSON.stringify(Polyglot.parseJSON(arg));", null, true, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(expected, test("JSON.stringify(Polyglot.parseJSON(arg));", null, true, ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("[1,{\"a\":2}]", test("JSON.stringify(Polyglot.parseJSON(new Uint8Array([91, 49, 44, 123, 34, 97, 34, 58, 50, 125, 93]).buffer));"));
+        assertEquals("true", test("''+(1/Polyglot.parseJSON(arg) === -Infinity);", null, true, new StringReader("-0")));
+
+        test("Polyglot.parseJSON(arg);", "Unexpected token", true, new StringReader("[1, 2,]"));
+        test("Polyglot.parseJSON(arg);", "Unexpected end", true, new StringReader("{\"a\": "));
+        test("Polyglot.parseJSON('[]');", "Expected a Reader");
+    }
+
+    @Test
+    public void testStringifyJSON() {
+        String value = "({a: [1, 2.5, 'x\u00e9\u20ac\\n'], b: {c: null, d: undefined}, e: 'y'.repeat(100000)})";
+        String expected = test("JSON.stringify(" + value + ", ['a', 'b', 'c'], 2);");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String written = test("'' + Polyglot.stringifyJSON(" + value + ", arg, ['a', 'b', 'c'], 2);", null, true, out);
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(String.valueOf(out.size()), written);
+
+        out.reset();
+        String large = "Array.from({length: 50000}, (_, i) => ({i, s: 'v' + i}))";
+        test("Polyglot.stringifyJSON(" + large + ", arg);", null, true, out);
+        assertEquals(test("JSON.stringify(" + large + ");"), new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        assertEquals("undefined", test("'' + Polyglot.stringifyJSON(undefined, arg);", null, true, new ByteArrayOutputStream()));
+        test("Polyglot.stringifyJSON({}, {});", "Expected an OutputStream");
+    }
+
     @Test
     public void testIsExecutable() {
         assertEquals("true", test("''+Polyglot.isExecutable(x=>x+1);"));
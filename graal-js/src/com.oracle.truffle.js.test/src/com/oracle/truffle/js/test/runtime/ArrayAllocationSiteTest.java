@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Arrays allocated at sites that have learned an element kind and capacity from earlier arrays.
+ */
+public class ArrayAllocationSiteTest {
+
+    private static String eval(String code, boolean allocationSites) {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.ARRAY_ALLOCATION_SITES_NAME,
+                        String.valueOf(allocationSites)).build()) {
+            return context.eval(JavaScriptLanguage.ID, code).toString();
+        }
+    }
+
+    /** Evaluates {@code code} with and without allocation sites and checks both results. */
+    private static void assertResult(String expected, String code) {
+        assertEquals(expected, eval(code, true));
+        assertEquals(expected, eval(code, false));
+    }
+
+    @Test
+    public void testHoles() {
+        assertResult("5,false,false,1.5,true,undefined", "function make(n) { return new Array(n); }" +
+                        "for (var i = 0; i < 10; i++) { var a = make(5); a[0] = 1.5; a[4] = 2.5; }" +
+                        "var b = make(5); b[0] = 1.5;" +
+                        "[b.length, 1 in b, 4 in b, b[0], 0 in b, String(b[3])].join()");
+    }
+
+    @Test
+    public void testHolesInLiteral() {
+        assertResult("3,false,0", "function make() { return []; }" +
+                        "for (var i = 0; i < 10; i++) { var a = make(); for (var j = 0; j < 100; j++) { a.push(j); } }" +
+                        "var b = make(); b[2] = 0;" +
+                        "[b.length, 1 in b, b[2]].join()");
+    }
+
+    @Test
+    public void testWidening() {
+        assertResult("1,2,3|1.5,2,3|x,2,3|1,2,3", "function make(first) { var a = []; a.push(first, 2, 3); return a; }" +
+                        "var r = [make(1)];" +
+                        "for (var i = 0; i < 5; i++) { make(1.5); } r.push(make(1.5));" +
+                        "for (var i = 0; i < 5; i++) { make('x'); } r.push(make('x'));" +
+                        "r.push(make(1));" +
+                        "r.map(function(a) { return a.join(); }).join('|')");
+    }
+
+    @Test
+    public void testWideningNewArray() {
+        assertResult("0,0.5,1|0,x,2|0,1,2", "function make(v) { var a = new Array(3); for (var i = 0; i < 3; i++) { a[i] = i * v; } return a; }" +
+                        "var r = [];" +
+                        "for (var i = 0; i < 5; i++) { make(1); } r.push(make(0.5));" +
+                        "var b = make(1); b[1] = 'x'; r.push(b);" +
+                        "r.push(make(1));" +
+                        "r.map(function(a) { return a.join(); }).join('|')");
+    }
+
+    @Test
+    public void testSparse() {
+        assertResult("1000001,1,undefined,3,true", "function make() { return []; }" +
+                        "for (var i = 0; i < 5; i++) { var a = make(); a[0] = 1; a[1000000] = 2; }" +
+                        "var b = make(); b.push(1, 2, 3);" +
+                        "var c = make(); c[1000000] = 1;" +
+                        "[c.length, c[1000000], String(c[0]), b.length, Array.isArray(b)].join()");
+    }
+
+    @Test
+    public void testSpeciesCreate() {
+        assertResult("2,4,6|2|1,4,5|2,3|1,2,3", "var src = [1, 2, 3];" +
+                        "var r;" +
+                        "for (var i = 0; i < 10; i++) {" +
+                        "  var s = src.slice();" +
+                        "  r = [s.map(function(x) { return x * 2; }).join(), s.filter(function(x) { return x % 2 === 0; }).join()];" +
+                        "  var removed = s.splice(1, 2, 4, 5);" +
+                        "  r.push(s.join(), removed.join(), src.concat().join());" +
+                        "}" +
+                        "r.join('|')");
+    }
+
+    @Test
+    public void testSpeciesCreateWidening() {
+        assertResult("2,4,6|0.5,1,1.5|a,b,c|", "function twice(a, f) { return a.map(f); }" +
+                        "var r = [];" +
+                        "for (var i = 0; i < 5; i++) { twice([1, 2, 3], function(x) { return x * 2; }); }" +
+                        "r.push(twice([1, 2, 3], function(x) { return x * 2; }));" +
+                        "r.push(twice([1, 2, 3], function(x) { return x / 2; }));" +
+                        "r.push(twice([1, 2, 3], function(x) { return 'abc'[x - 1]; }));" +
+                        "r.push([].filter(function() { return true; }));" +
+                        "r.map(function(a) { return a.join(); }).join('|')");
+    }
+
+    @Test
+    public void testLargeThenSmall() {
+        assertResult("5000,0,3,1,2,3", "function make(n) { var a = []; for (var i = 0; i < n; i++) { a.push(i + 1); } return a; }" +
+                        "var big = make(5000);" +
+                        "var small;" +
+                        "for (var i = 0; i < 100; i++) { small = make(3); }" +
+                        "[big.length, make(0).length, small.length, small.join()].join()");
+    }
+}
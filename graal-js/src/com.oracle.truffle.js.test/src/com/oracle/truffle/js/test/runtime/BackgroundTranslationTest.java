@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Translation of immediately invoked functions on {@code js.background-translation-threads}.
+ */
+public class BackgroundTranslationTest {
+
+    private static String eval(String code, int threads) {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(
+                        JSContextOptions.LAZY_PARSING_NAME, "true").option(JSContextOptions.BACKGROUND_TRANSLATION_THREADS_NAME, String.valueOf(threads)).build()) {
+            return context.eval(JavaScriptLanguage.ID, code).toString();
+        }
+    }
+
+    @Test
+    public void testImmediatelyInvokedFunctions() {
+        String code = "var r = (function() {\n" +
+                        "  var a = 2;\n" +
+                        "  return (function(b) { return a * b; }).call(this, 21);\n" +
+                        "})();\n" +
+                        "function notInvoked() { return 1; }\n" +
+                        "var s = Debug.backgroundTranslationStats();\n" +
+                        "[r, s.threads, s.submitted].join();";
+        assertEquals("42,2,2", eval(code, 2));
+    }
+
+    @Test
+    public void testParallelTranslation() {
+        // many immediately invoked functions, translated by several workers while the main thread
+        // calls them; the inner functions are submitted by the workers
+        StringBuilder code = new StringBuilder("var sum = 0;\n");
+        for (int i = 0; i < 40; i++) {
+            code.append("sum += (function(x) { var y = x * 2; return (function() { return y + ").append(i).append("; })(); })(1);\n");
+        }
+        code.append("var s = Debug.backgroundTranslationStats();\n");
+        code.append("[sum, s.threads, s.submitted > 0, s.called <= s.translated, s.savedTimeMs <= s.translationTimeMs, s.failed].join();");
+        assertEquals("860,4,true,true,true,0", eval(code.toString(), 4));
+    }
+
+    @Test
+    public void testRegExpInImmediatelyInvokedFunction() {
+        // the body is reparsed on the worker, which validates the literal without entering the
+        // context
+        String code = "var r = (function() {\n" +
+                        "  return /^(a+)b\\1$/.test('aba');\n" +
+                        "})();\n" +
+                        "var s = Debug.backgroundTranslationStats();\n" +
+                        "[r, s.submitted, s.failed].join();";
+        assertEquals("true,1,0", eval(code, 1));
+    }
+
+    @Test
+    public void testDisabled() {
+        assertEquals("undefined,3", eval("[typeof Debug.backgroundTranslationStats(), (function() { return 3; })()].join();", 0));
+    }
+}
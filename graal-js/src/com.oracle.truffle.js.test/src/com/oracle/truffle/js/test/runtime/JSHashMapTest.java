@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+
+public class JSHashMapTest {
+
+    private static List<Object> keys(JSHashMap.Cursor cursor) {
+        List<Object> keys = new ArrayList<>();
+        while (cursor.advance()) {
+            keys.add(cursor.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testBasic() {
+        JSHashMap map = new JSHashMap();
+        map.put(1, "int");
+        map.put(1.5, "double");
+        map.put("1", "string");
+        map.put(true, "boolean");
+        assertEquals(4, map.size());
+        assertEquals("int", map.get(1));
+        assertEquals("double", map.get(1.5));
+        assertEquals("string", map.get("1"));
+        assertEquals("boolean", map.get(true));
+        assertNull(map.get(2));
+        assertNull(map.get(Double.NaN));
+
+        map.put(Double.NaN, "nan");
+        assertEquals("nan", map.get(Double.NaN));
+
+        map.put(1, "int2");
+        assertEquals(5, map.size());
+        assertEquals(Arrays.asList(1, 1.5, "1", true, Double.NaN), keys(map.getEntries()));
+
+        assertTrue(map.remove("1"));
+        assertFalse(map.remove("1"));
+        assertFalse(map.has("1"));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void testStringKeys() {
+        JSHashMap map = new JSHashMap();
+        // "Aa" and "BB" have the same hash code
+        map.put("Aa", 1);
+        map.put("BB", 2);
+        map.put(new StringBuilder("A").append('a').toString(), 3);
+        assertEquals(2, map.size());
+        assertEquals(3, map.get("Aa"));
+        assertEquals(2, map.get(new String("BB")));
+        assertNull(map.get("Ab"));
+        // a generic key with the same hash code as a string key
+        Object other = new Object() {
+            @Override
+            public int hashCode() {
+                return "Aa".hashCode();
+            }
+        };
+        map.put(other, 4);
+        assertEquals(4, map.get(other));
+        assertEquals(3, map.get("Aa"));
+        assertTrue(map.remove("BB"));
+        assertEquals(Arrays.asList("Aa", other), keys(map.getEntries()));
+    }
+
+    @Test
+    public void testInsertionOrderAcrossRehash() {
+        JSHashMap map = new JSHashMap();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            map.put("k" + i, i);
+            expected.add(i);
+            expected.add("k" + i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(map.remove(i));
+            expected.remove((Object) i);
+        }
+        // re-added keys go to the end
+        map.put(0, 0);
+        expected.add(0);
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, keys(map.getEntries()));
+        for (int i = 1; i < 1000; i += 2) {
+            assertEquals(i, map.get(i));
+            assertEquals(i, map.get("k" + i));
+        }
+    }
+
+    @Test
+    public void testCursorDuringMutation() {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        JSHashMap.Cursor cursor = map.getEntries();
+        List<Object> visited = new ArrayList<>();
+        while (cursor.advance()) {
+            int key = (int) cursor.getKey();
+            visited.add(key);
+            if (key < 90) {
+                // removes enough entries to shrink the table while iterating
+                map.remove(key + 1);
+                map.remove(key);
+            }
+            if (key == 99) {
+                map.put(100, 100);
+            }
+        }
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 90; i += 2) {
+            expected.add(i);
+        }
+        for (int i = 90; i <= 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, visited);
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    public void testCursorAfterClear() {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < 5; i++) {
+            map.put(i, i);
+        }
+        JSHashMap.Cursor cursor = map.getEntries();
+        assertTrue(cursor.advance());
+        assertTrue(cursor.advance());
+        JSHashMap.Cursor copy = cursor.copy();
+        map.clear();
+        map.put("a", 1);
+        map.put("b", 2);
+        assertEquals(Arrays.asList("a", "b"), keys(cursor));
+        assertEquals(Arrays.asList("a", "b"), keys(copy));
+    }
+}
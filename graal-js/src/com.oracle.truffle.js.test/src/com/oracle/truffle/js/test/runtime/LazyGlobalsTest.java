@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Global builtin objects that are only created on first access.
+ */
+public class LazyGlobalsTest {
+
+    private static String eval(String code) {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.INTL_402_NAME, "true").build()) {
+            return context.eval(JavaScriptLanguage.ID, code).toString();
+        }
+    }
+
+    @Test
+    public void testRead() {
+        assertEquals("{\"a\":[1]}", eval("JSON.stringify({a: [1]})"));
+        assertEquals("3", eval("Reflect.apply(Math.max, null, [1, 3, 2])"));
+        assertEquals("true", eval("typeof Intl.NumberFormat === 'function' && Intl === this.Intl"));
+    }
+
+    @Test
+    public void testDescriptor() {
+        assertEquals("object,true,false,true", eval("var d = Object.getOwnPropertyDescriptor(this, 'Reflect'); [typeof d.value, d.writable, d.enumerable, d.configurable].join()"));
+        assertEquals("true", eval("Object.getOwnPropertyNames(this).indexOf('JSON') >= 0"));
+    }
+
+    @Test
+    public void testWriteBeforeRead() {
+        assertEquals("42", eval("JSON = 42; JSON"));
+        assertEquals("undefined", eval("delete Reflect; typeof Reflect"));
+        assertEquals("1", eval("Object.defineProperty(this, 'Intl', {value: 1}); Intl"));
+    }
+
+    @Test
+    public void testFrozenGlobal() {
+        assertEquals("object,false", eval("Object.freeze(this); JSON = 1; [typeof JSON, Object.getOwnPropertyDescriptor(this, 'JSON').writable].join()"));
+    }
+
+    @Test
+    public void testIntlConstructors() {
+        // instances created before Intl itself is accessed
+        assertEquals("true", eval("var s = (1234.5).toLocaleString(); Object.getPrototypeOf(new Intl.Collator()) === Intl.Collator.prototype"));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Inner functions that are only pre-parsed and parsed in full when first called.
+ */
+public class LazyParsingTest {
+
+    private static String eval(String code) {
+        try (Context context = Context.newBuilder(JavaScriptLanguage.ID).allowExperimentalOptions(true).option(JSContextOptions.LAZY_PARSING_NAME, "true").build()) {
+            return context.eval(JavaScriptLanguage.ID, code).toString();
+        }
+    }
+
+    @Test
+    public void testClosures() {
+        assertEquals("3", eval("(function outer() { var a = 1; function mid() { var b = 2; function inner() { return a + b; } return inner(); } return mid(); })()"));
+        assertEquals("6", eval("var o = { m() { var x = 3; return function() { return x * 2; }; } }; o.m()()"));
+        // the method is parsed eagerly as part of make() and must keep the frame of make()
+        assertEquals("4", eval("function make() { var y = 4; return { m() { return function() { return y; }; } }; } make().m()()"));
+        assertEquals("7", eval("({v: 7, f: function() { return (() => this.v)(); }}).f()"));
+        assertEquals("9", eval("function e() { var z = 9; return (function() { return eval('z'); })(); } e()"));
+    }
+
+    @Test
+    public void testFunctionKinds() {
+        assertEquals("120,function", eval("var f = function fact(n) { return n <= 1 ? 1 : n * fact(n - 1); }; [f(5), (function g() { g = 1; return typeof g; })()].join()"));
+        assertEquals("1,2", eval("function* gen() { yield 1; yield 2; } [...gen()].join()"));
+        assertEquals("true", eval("async function af() { return await 5; } af() instanceof Promise"));
+        assertEquals("true", eval("'use strict'; function s() { return this; } s() === undefined"));
+        assertEquals("3", eval("function args() { return arguments.length; } args(1, 2, 3)"));
+        assertEquals("function t(a) { return a; }", eval("function t(a) { return a; } t.toString()"));
+    }
+
+    @Test
+    public void testLineNumbers() {
+        assertEquals("true", eval("function thrower() {\n\n  throw new Error('x');\n}\ntry { thrower(); } catch (e) { e.stack.indexOf(':3:') > 0 }"));
+    }
+
+    @Test
+    public void testNestedBodiesSkippedOnFirstCall() {
+        // the bodies of mid() and inner() are skipped using the end states recorded by the pre-parse
+        assertEquals("2", eval("function outer() { var v = 1; function mid() { return (() => { function inner() { return eval('v') + 1; } return inner(); })(); } return mid(); } outer()"));
+        assertEquals("true", eval("function outer() {\n  function skipped() {\n    return `${ {a: 1}.a }`;\n  }\n  throw new Error(/}/.source + skipped());\n}\n" +
+                        "try { outer(); } catch (e) { e.message === '}1' && e.stack.indexOf(':5:') > 0 }"));
+    }
+
+    @Test
+    public void testSyntaxErrorInSkippedBody() {
+        try {
+            eval("function neverCalled() { function nested() { return 1 +; } }");
+            fail("expected a SyntaxError");
+        } catch (PolyglotException e) {
+            assertTrue(e.getMessage(), e.isSyntaxError());
+        }
+    }
+
+    @Test
+    public void testEarlyErrorsInSkippedBody() {
+        String[] codes = {
+                        "function neverCalled() { let x; var x; }",
+                        "function neverCalled() { { let y; let y; } }",
+                        "function neverCalled() { while (true) { break missing; } }",
+                        "function neverCalled() { 'use strict'; var eval = 1; }",
+                        "'use strict'; function neverCalled() { with ({}) {} }",
+                        "function neverCalled() { /(a/; }",
+        };
+        for (String code : codes) {
+            try {
+                eval(code);
+                fail("expected a SyntaxError: " + code);
+            } catch (PolyglotException e) {
+                assertTrue(e.getMessage(), e.isSyntaxError());
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
+
+/**
+ * Operations on lazy strings that do not flatten them.
+ */
+public class LazyStringTest {
+
+    private static JSLazyString append(int count, String segment) {
+        CharSequence result = segment;
+        for (int i = 0; i < count; i++) {
+            result = JSLazyString.create(result, segment + i);
+        }
+        return (JSLazyString) result;
+    }
+
+    @Test
+    public void testRopeAccess() {
+        Assume.assumeTrue(JSTruffleOptions.LazyStrings);
+        String segment = "a-longer-segment-of-a-rope-made-by-appending-";
+        JSLazyString rope = append(500, segment);
+        String expected = new StringBuilder(rope).toString();
+        assertFalse(rope.isFlat());
+
+        for (int i = 0; i < expected.length(); i += 7) {
+            assertEquals(expected.charAt(i), rope.charAt(i));
+        }
+        assertTrue(rope.regionMatches(0, segment + segment + "0"));
+        assertTrue(rope.regionMatches(expected.length() - 3, "499"));
+        assertFalse(rope.regionMatches(1, segment));
+        assertEquals(expected.indexOf("rope-42"), rope.indexOf("rope-42", 0));
+        assertEquals(expected.indexOf("-rope-1", 100), rope.indexOf("-rope-1", 100));
+        assertEquals(-1, rope.indexOf("missing", 0));
+        assertEquals(0, JSLazyString.compare(rope, expected));
+        assertTrue(JSLazyString.compare(rope, expected + "x") < 0);
+        assertTrue(JSLazyString.compare(rope, "t") < 0);
+        assertFalse(rope.isFlat());
+
+        assertEquals(expected, rope.toString());
+        assertTrue(rope.isFlat());
+    }
+
+    @Test
+    public void testSubSequence() {
+        Assume.assumeTrue(JSTruffleOptions.LazyStrings);
+        JSLazyString rope = append(500, "a-longer-segment-of-a-rope-made-by-appending-");
+        String expected = new StringBuilder(rope).toString();
+        int[][] ranges = {{0, expected.length()}, {3, 4}, {10, 400}, {100, 12000}, {expected.length() - 200, expected.length()}, {50, 50}};
+        for (int[] range : ranges) {
+            CharSequence sub = rope.subSequence(range[0], range[1]);
+            assertEquals(expected.substring(range[0], range[1]), sub.toString());
+        }
+        assertFalse(rope.isFlat());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException, ExecutionException {
+        Assume.assumeTrue(JSTruffleOptions.LazyStrings);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                JSLazyString rope = append(300, "segment-" + round + "-");
+                String expected = new StringBuilder(rope).toString();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = thread; i < expected.length(); i += 3) {
+                            assertEquals(expected.charAt(i), rope.charAt(i));
+                            if (thread == 3 && i > expected.length() / 2) {
+                                assertEquals(expected, rope.toString());
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLatin1Flattening() {
+        Assume.assumeTrue(JSTruffleOptions.LazyStrings);
+        JSLazyString ascii = append(50, "plain ascii text, ");
+        assertTrue(ascii.isLatin1());
+        String expected = new StringBuilder(ascii).toString();
+        assertEquals(expected, ascii.toString());
+
+        JSLazyString wide = (JSLazyString) JSLazyString.create(ascii, "\u20ac and \u00e9");
+        assertFalse(wide.isLatin1());
+        assertEquals(expected + "\u20ac and \u00e9", wide.toString());
+
+        JSLazyString latin1 = (JSLazyString) JSLazyString.create(append(50, "caf\u00e9 "), "\u00ff");
+        assertTrue(latin1.isLatin1());
+        assertTrue(latin1.toString().endsWith("\u00e9 49\u00ff"));
+    }
+
+    @Test
+    public void testStringBuiltins() {
+        try (Context context = Context.create(JavaScriptLanguage.ID)) {
+            String code = "var s = ''; for (var i = 0; i < 1000; i++) { s += 'line ' + i + ' of a long text\\n'; }" +
+                            "[s.charCodeAt(12341), s[502], s.startsWith('line 0 '), s.endsWith('999 of a long text\\n'), s.indexOf('line 998'), s < 'line 1', s > s + 'x'].join()";
+            assertEquals("116,2,true,true,23842,true,false", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+
+    @Test
+    public void testIndexOfAfterGeneric() {
+        try (Context context = Context.create(JavaScriptLanguage.ID)) {
+            String code = "function find(s, x) { return String.prototype.indexOf.call(s, x); }" +
+                            "var s = ''; for (var i = 0; i < 1000; i++) { s += 'line ' + i + ' of a long text\\n'; }" +
+                            "[find(12345, '34'), find('abc', 'c'), find(s, 'line 998')].join()";
+            assertEquals("2,2,23842", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+}
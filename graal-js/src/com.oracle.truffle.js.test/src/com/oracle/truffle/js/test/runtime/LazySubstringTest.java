@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
+
+/**
+ * Substrings that share the characters of their parent string.
+ */
+public class LazySubstringTest {
+
+    private static String repeat(String str, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(str);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testCreateSubstring() {
+        String parent = repeat("0123456789", 2 * JSTruffleOptions.MinLazySubstringLength);
+        int begin = 3;
+        int end = begin + JSTruffleOptions.MinLazySubstringLength;
+        CharSequence view = JSLazyString.createSubstring(parent, begin, end);
+        if (JSTruffleOptions.LazyStrings && JSTruffleOptions.LazySubstringMaxRetention >= 20) {
+            assertTrue(view instanceof JSLazyString);
+            assertTrue(((JSLazyString) view).isSubstring());
+        }
+        assertEquals(end - begin, view.length());
+        assertEquals(parent.charAt(begin + 5), view.charAt(5));
+
+        CharSequence nested = JSLazyString.createSubstring(view, 1, view.length());
+        assertEquals(parent.substring(begin + 1, end), nested.toString());
+
+        assertEquals(parent.substring(begin, end), view.toString());
+        if (view instanceof JSLazyString) {
+            assertTrue(((JSLazyString) view).isFlat());
+            assertFalse(((JSLazyString) view).isSubstring());
+        }
+    }
+
+    @Test
+    public void testShortSubstringIsCopied() {
+        String parent = repeat("x", JSTruffleOptions.MinLazySubstringLength * 2);
+        assertTrue(JSLazyString.createSubstring(parent, 0, JSTruffleOptions.MinLazySubstringLength - 1) instanceof String);
+        assertTrue(JSLazyString.createSubstring(parent, 0, parent.length()) == parent);
+    }
+
+    @Test
+    public void testStringBuiltins() {
+        try (Context context = Context.create(JavaScriptLanguage.ID)) {
+            String code = "var s = 'abcdefghij'.repeat(50);" +
+                            "var a = s.substring(5, 205), b = s.slice(-295, -95), c = s.substr(5, 200);" +
+                            "var parts = (s + '\\n' + s).split('\\n');" +
+                            "[a === b, a === c, a.slice(10, 150) === s.substring(15, 155), a.length, parts[1] === s, /(b.{120})/.exec(s)[1].length, a + c === c + b].join()";
+            assertEquals("true,true,true,200,true,121,true", context.eval(JavaScriptLanguage.ID, code).asString());
+        }
+    }
+}
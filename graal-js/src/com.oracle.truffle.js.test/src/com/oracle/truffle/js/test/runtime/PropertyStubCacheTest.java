@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+
+/**
+ * Megamorphic property accesses answered by the per-context property stub cache.
+ */
+public class PropertyStubCacheTest {
+
+    /** Defines {@code objs}, objects of 10 different shapes, all with an own property {@code x}. */
+    private static final String SHAPES = "var objs = [];" +
+                    "for (var i = 0; i < 10; i++) { var o = {}; o['p' + i] = i; o.x = i; objs.push(o); }" +
+                    "function getX(o) { return o.x; }" +
+                    "function setX(o, v) { o.x = v; }" +
+                    "function sumX() { var s = 0; for (var i = 0; i < objs.length; i++) { s += getX(objs[i]); } return s; }";
+
+    private static String eval(String code) {
+        try (Context context = Context.create(JavaScriptLanguage.ID)) {
+            return context.eval(JavaScriptLanguage.ID, SHAPES + code).toString();
+        }
+    }
+
+    @Test
+    public void testOwnProperty() {
+        assertEquals("45,45", eval("[sumX(), sumX()].join()"));
+    }
+
+    @Test
+    public void testSet() {
+        assertEquals("10,20", eval("sumX(); objs.forEach(function(o) { setX(o, 1); }); var r = [sumX()];" +
+                        "objs.forEach(function(o) { setX(o, 2); }); r.push(sumX()); r.join()"));
+    }
+
+    @Test
+    public void testSetNotWritable() {
+        assertEquals("45,true", eval("objs.forEach(function(o) { setX(o, o.x); }); Object.freeze(objs[3]); setX(objs[3], 100);" +
+                        "[sumX(), Object.isFrozen(objs[3])].join()"));
+    }
+
+    @Test
+    public void testPrototypeChange() {
+        assertEquals("a,a,b,c,d", eval("var proto = {y: 'a'}, os = [];" +
+                        "for (var i = 0; i < 10; i++) { var o = Object.create(proto); o['p' + i] = i; os.push(o); }" +
+                        "function getY(o) { return o.y; }" +
+                        "var r = [getY(os[0]), getY(os[9])];" +
+                        "proto.y = 'b'; r.push(getY(os[0]));" +
+                        "os[0].y = 'c'; r.push(getY(os[0]));" +
+                        "Object.setPrototypeOf(os[1], {y: 'd'}); r.push(getY(os[1]));" +
+                        "r.join()"));
+    }
+
+    @Test
+    public void testShadowingPrototype() {
+        assertEquals("1,2,1", eval("var base = {z: 1}, mid = Object.create(base), os = [];" +
+                        "for (var i = 0; i < 10; i++) { var o = Object.create(mid); o['p' + i] = i; os.push(o); }" +
+                        "function getZ(o) { return o.z; }" +
+                        "var r = [getZ(os[5])]; mid.z = 2; r.push(getZ(os[5])); delete mid.z; r.push(getZ(os[5])); r.join()"));
+    }
+
+    @Test
+    public void testAccessor() {
+        assertEquals("p0,p9", eval("var proto = { get name() { return Object.keys(this)[0]; } }, os = [];" +
+                        "for (var i = 0; i < 10; i++) { var o = Object.create(proto); o['p' + i] = i; os.push(o); }" +
+                        "function getName(o) { return o.name; }" +
+                        "[getName(os[0]), getName(os[9])].join()"));
+    }
+
+    @Test
+    public void testKeyed() {
+        assertEquals("3,1,2,true", eval("var dict = {}, text = 'a b a 0 c a 1 0 toString'.split(' ');" +
+                        "for (var i = 0; i < text.length; i++) { var w = text[i]; dict[w] = (dict[w] | 0) + 1; }" +
+                        "[dict.a, dict['1'], dict[0], typeof dict.toString === 'number'].join()"));
+    }
+
+    @Test
+    public void testKeyedInherited() {
+        assertEquals("function,true,undefined,2", eval("var dict = {}, key = 'constructor';" +
+                        "for (var i = 0; i < 10; i++) { dict['k' + i] = i; }" +
+                        "var o = Object.create(null); o['y' + 1] = 2;" +
+                        "[typeof dict[key], dict[key] === Object, o[key], o['y' + 1]].join()"));
+    }
+
+    @Test
+    public void testSharedEngine() {
+        try (Engine engine = Engine.create()) {
+            for (int i = 0; i < 3; i++) {
+                try (Context context = Context.newBuilder(JavaScriptLanguage.ID).engine(engine).build()) {
+                    assertEquals("45,45", context.eval(JavaScriptLanguage.ID, SHAPES + "[sumX(), sumX()].join()").toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExoticObjects() {
+        assertEquals("3,5,undefined,7", eval("var p = new Proxy({}, { get: function(t, k) { return 7; } });" +
+                        "function getLength(o) { return o.length; }" +
+                        "for (var i = 0; i < 10; i++) { getX(objs[i]); getLength(objs[i]); }" +
+                        "[getLength([1, 2, 3]), getLength('hello'), getLength({}), getLength(p)].join()"));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.SortedLongMap;
+
+public class SortedLongMapTest {
+
+    private static List<Long> keys(SortedLongMap map) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = map.firstKey(); key != SortedLongMap.NO_KEY; key = map.higherKey(key)) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static void assertSameContents(TreeMap<Long, Object> expected, SortedLongMap map) {
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.keySet()), keys(map));
+        for (Map.Entry<Long, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testBasic() {
+        SortedLongMap map = new SortedLongMap();
+        assertTrue(map.isEmpty());
+        assertEquals(SortedLongMap.NO_KEY, map.firstKey());
+        assertEquals(SortedLongMap.NO_KEY, map.lastKey());
+
+        assertNull(map.put(10, "a"));
+        assertNull(map.put(4294967294L, "b"));
+        assertNull(map.put(3, "c"));
+        assertEquals("a", map.put(10, "d"));
+        assertEquals(3, map.size());
+        assertEquals("d", map.get(10));
+        assertNull(map.get(11));
+
+        assertEquals(3, map.firstKey());
+        assertEquals(4294967294L, map.lastKey());
+        assertEquals(10, map.higherKey(3));
+        assertEquals(3, map.higherKey(-1));
+        assertEquals(SortedLongMap.NO_KEY, map.higherKey(4294967294L));
+        assertEquals(10, map.lowerKey(11));
+        assertEquals(SortedLongMap.NO_KEY, map.lowerKey(3));
+
+        assertEquals("c", map.remove(3));
+        assertNull(map.remove(3));
+        assertFalse(map.containsKey(3));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(42);
+        SortedLongMap map = new SortedLongMap();
+        TreeMap<Long, Object> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(5000) * 7L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        assertSameContents(expected, map);
+        for (long key = -1; key < 5000 * 7L; key += 3) {
+            Long higher = expected.higherKey(key);
+            Long lower = expected.lowerKey(key);
+            assertEquals(higher == null ? SortedLongMap.NO_KEY : higher, map.higherKey(key));
+            assertEquals(lower == null ? SortedLongMap.NO_KEY : lower, map.lowerKey(key));
+        }
+
+        map.truncate(20000);
+        expected.tailMap(20000L).clear();
+        assertSameContents(expected, map);
+    }
+
+    @Test
+    public void testShiftKeys() {
+        SortedLongMap map = new SortedLongMap();
+        TreeMap<Long, Object> expected = new TreeMap<>();
+        for (long key = 0; key < 1000; key += 2) {
+            map.put(key, key);
+            if (key < 100) {
+                expected.put(key, key);
+            } else if (key >= 200) {
+                long shifted = key - 100;
+                expected.put(shifted >= 500 ? shifted + 1000 : shifted, key);
+            }
+        }
+        for (long key = 100; key < 200; key += 2) {
+            map.remove(key);
+        }
+        map.shiftKeys(200, -100);
+        map.shiftKeys(500, 1000);
+        assertSameContents(expected, map);
+    }
+}
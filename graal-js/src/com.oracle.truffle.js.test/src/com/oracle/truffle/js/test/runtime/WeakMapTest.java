@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+
+/**
+ * WeakMap entries stored in the per-key ephemeron tables.
+ */
+public class WeakMapTest {
+
+    private static String eval(String code) {
+        try (Context context = Context.create(JavaScriptLanguage.ID)) {
+            return context.eval(JavaScriptLanguage.ID, code).toString();
+        }
+    }
+
+    @Test
+    public void testSingleMap() {
+        assertEquals("1,true,undefined,false,2", eval("var k = {}, m = new WeakMap(); m.set(k, 1); var r = [m.get(k), m.delete(k), m.get(k), m.has(k)];" +
+                        "m.set(k, 2); r.push(m.get(k)); r.join()"));
+    }
+
+    @Test
+    public void testManyMaps() {
+        // one key in many maps, with every third entry deleted again
+        assertEquals("66,true", eval("var k = {}, maps = [];" +
+                        "for (var i = 0; i < 100; i++) { var m = new WeakMap(); m.set(k, i); maps.push(m); }" +
+                        "for (var i = 0; i < 100; i += 3) { maps[i].delete(k); }" +
+                        "var n = 0, ok = true;" +
+                        "for (var i = 0; i < 100; i++) { if (maps[i].has(k)) { n++; ok = ok && maps[i].get(k) === i; } else { ok = ok && i % 3 === 0; } }" +
+                        "[n, ok].join()"));
+    }
+
+    @Test
+    public void testReinsert() {
+        assertEquals("b,c,a", eval("var k = {}, m1 = new WeakMap(), m2 = new WeakMap(), m3 = new WeakMap();" +
+                        "m1.set(k, 'a'); m2.set(k, 'b'); m1.delete(k); m3.set(k, 'c'); m1.set(k, 'a');" +
+                        "[m2.get(k), m3.get(k), m1.get(k)].join()"));
+    }
+
+    @Test
+    public void testNonExtensibleKey() {
+        assertEquals("1,2,true,false", eval("var k = Object.freeze({}), m1 = new WeakMap(), m2 = new WeakMap(); m1.set(k, 1); m2.set(k, 2);" +
+                        "[m1.get(k), m2.get(k), Object.isFrozen(k), Object.isExtensible(k)].join()"));
+    }
+
+    @Test
+    public void testWeakSet() {
+        assertEquals("true,false,true", eval("var k = {}, s = new WeakSet(), m = new WeakMap(); s.add(k); m.set(k, 1);" +
+                        "var r = [s.has(k)]; s.delete(k); r.push(s.has(k), m.has(k)); r.join()"));
+    }
+}
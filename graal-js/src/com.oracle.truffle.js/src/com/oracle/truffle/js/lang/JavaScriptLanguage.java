@@ -442,6 +442,9 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
 
     @Override
     protected void disposeContext(JSRealm realm) {
+        realm.getContext().clearPropertyStubCache();
+        realm.shutdownModuleParserPool();
+        realm.getContext().realmDisposed();
     }
 
     @Override
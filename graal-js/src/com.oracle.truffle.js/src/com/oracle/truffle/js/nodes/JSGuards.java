@@ -334,6 +334,14 @@ public final class JSGuards {
         return JSRuntime.isString(operand);
     }
 
+    public static boolean isLazyString(Object operand) {
+        return operand instanceof JSLazyString;
+    }
+
+    public static boolean isUnflattenedLazyString(Object operand) {
+        return operand instanceof JSLazyString && !((JSLazyString) operand).isFlat();
+    }
+
     public static boolean isBoolean(Object operand) {
         return operand instanceof Boolean;
     }
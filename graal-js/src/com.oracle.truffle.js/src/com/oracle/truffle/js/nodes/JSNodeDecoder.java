@@ -139,6 +139,20 @@ public class JSNodeDecoder {
         return GEN.getChecksum();
     }
 
+    private final boolean lazyFunctions;
+
+    public JSNodeDecoder() {
+        this(true);
+    }
+
+    /**
+     * @param lazyFunctions if {@code true}, function bodies are only decoded when the function is
+     *            first called; otherwise all functions are decoded upfront.
+     */
+    public JSNodeDecoder(boolean lazyFunctions) {
+        this.lazyFunctions = lazyFunctions;
+    }
+
     public Object decodeNode(NodeDecoder.DecoderState state, NodeFactory nodeFactory, JSContext context, Source source) {
         while (state.hasRemaining()) {
             Bytecode bc = Bytecode.bcValues[state.getBytecode()];
@@ -288,9 +302,12 @@ public class JSNodeDecoder {
                     }
                     JSFunctionData functionData = (JSFunctionData) state.getObject();
                     final Object[] arguments = getObjectArray(state);
+                    final ByteBuffer buffer = ((ByteBuffer) state.getBuffer().duplicate().position(position));
+                    if (!lazyFunctions) {
+                        decodeNode(new NodeDecoder.DecoderState(new BinaryDecoder(buffer), arguments), nodeFactory, context, source);
+                        break;
+                    }
                     functionData.setLazyInit(new JSFunctionData.Initializer() {
-                        private final ByteBuffer buffer = ((ByteBuffer) state.getBuffer().duplicate().position(position));
-
                         @Override
                         public void initializeRoot(JSFunctionData fd) {
                             if (VERBOSE) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -47,6 +47,8 @@ import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.array.TrackingArrayAllocationSite;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 
 /**
@@ -55,9 +57,11 @@ import com.oracle.truffle.js.runtime.builtins.JSArray;
 @ImportStatic({JSRuntime.class, Integer.class})
 public abstract class ArrayCreateNode extends JavaScriptBaseNode {
     private final JSContext context;
+    private final TrackingArrayAllocationSite allocationSite;
 
     protected ArrayCreateNode(JSContext context) {
         this.context = context;
+        this.allocationSite = TrackingArrayAllocationSite.create(context);
     }
 
     public static ArrayCreateNode create(JSContext context) {
@@ -66,6 +70,12 @@ public abstract class ArrayCreateNode extends JavaScriptBaseNode {
 
     @Specialization(guards = {"isValidArrayLength(length)", "length <= MAX_VALUE"})
     protected DynamicObject doDefault(long length) {
+        if (allocationSite != null) {
+            if (allocationSite.isTyped() && length <= JSTruffleOptions.MaxFlatArraySize) {
+                return JSArray.createEmptyFromAllocationSite(context, allocationSite, (int) length);
+            }
+            return JSArray.createConstantEmptyArray(context, allocationSite, (int) length);
+        }
         return JSArray.createEmptyChecked(context, length);
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -62,6 +62,7 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.array.TrackingArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractConstantArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantDoubleArray;
@@ -530,18 +531,24 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
 
     private static final class ConstantEmptyArrayLiteralNode extends ArrayLiteralNode {
 
+        private final TrackingArrayAllocationSite allocationSite;
+
         ConstantEmptyArrayLiteralNode(JSContext context) {
             super(context);
+            this.allocationSite = TrackingArrayAllocationSite.create(context);
         }
 
         @Override
         public DynamicObject executeDynamicObject(VirtualFrame frame) {
-            return JSArray.createConstantEmptyArray(context);
+            if (allocationSite != null && allocationSite.isTyped()) {
+                return JSArray.createEmptyFromAllocationSite(context, allocationSite, 0);
+            }
+            return JSArray.createConstantEmptyArray(context, allocationSite);
         }
 
         @Override
         protected JavaScriptNode copyUninitialized() {
-            return copy();
+            return new ConstantEmptyArrayLiteralNode(context);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -52,6 +52,7 @@ import com.oracle.truffle.js.nodes.cast.ToArrayIndexNode;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.PropertyStubCache;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
 
 @ReportPolymorphism
@@ -103,7 +104,17 @@ abstract class CachedGetPropertyNode extends JavaScriptBaseNode {
     Object doGeneric(DynamicObject target, Object key, Object defaultValue,
                     @Cached("create()") ToArrayIndexNode toArrayIndexNode,
                     @Cached("createBinaryProfile()") ConditionProfile getType,
-                    @Cached("create()") JSClassProfile jsclassProfile) {
+                    @Cached("create()") JSClassProfile jsclassProfile,
+                    @Cached("createBinaryProfile()") ConditionProfile stubCacheHit) {
+        if (key instanceof String) {
+            PropertyStubCache stubCache = context.getPropertyStubCache();
+            if (stubCache != null) {
+                Object value = stubCache.getElement(target, (String) key);
+                if (stubCacheHit.profile(value != null)) {
+                    return value;
+                }
+            }
+        }
         Object arrayIndex = toArrayIndexNode.execute(key);
         if (getType.profile(arrayIndex instanceof Long)) {
             return JSObject.getOrDefault(target, (long) arrayIndex, defaultValue, jsclassProfile);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -55,6 +55,7 @@ import com.oracle.truffle.js.runtime.builtins.JSClass;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
+import com.oracle.truffle.js.runtime.objects.PropertyStubCache;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
 
 @ReportPolymorphism
@@ -122,7 +123,14 @@ abstract class CachedSetPropertyNode extends JavaScriptBaseNode {
     void doGeneric(DynamicObject target, Object key, Object value,
                     @Cached("create()") ToArrayIndexNode toArrayIndexNode,
                     @Cached("createBinaryProfile()") ConditionProfile getType,
-                    @Cached("create()") JSClassProfile jsclassProfile) {
+                    @Cached("create()") JSClassProfile jsclassProfile,
+                    @Cached("createBinaryProfile()") ConditionProfile stubCacheHit) {
+        if (!setOwn && key instanceof String) {
+            PropertyStubCache stubCache = context.getPropertyStubCache();
+            if (stubCacheHit.profile(stubCache != null && stubCache.setElement(target, (String) key, value, strict))) {
+                return;
+            }
+        }
         Object arrayIndex = toArrayIndexNode.execute(key);
         if (getType.profile(arrayIndex instanceof Long)) {
             long index = (long) arrayIndex;
@@ -110,6 +110,7 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PropertyStubCache;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.TRegexMaterializeResultNode;
@@ -1019,6 +1020,7 @@ public class PropertyGetNode extends PropertyCacheNode<PropertyGetNode.GetCacheN
         @Child private GetPropertyFromJSObjectNode getFromJSObjectNode;
         private final ConditionProfile isJSObject = ConditionProfile.createBinaryProfile();
         private final ConditionProfile isForeignObject = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile stubCacheHit = ConditionProfile.createBinaryProfile();
         private final BranchProfile notAJSObjectBranch = BranchProfile.create();
         private final BranchProfile fallbackBranch = BranchProfile.create();
 
@@ -1065,6 +1067,14 @@ public class PropertyGetNode extends PropertyCacheNode<PropertyGetNode.GetCacheN
                     return getFallback(thisObj, root);
                 }
             } else {
+                JSContext context = root.getContext();
+                PropertyStubCache stubCache = context.getPropertyStubCache();
+                if (stubCache != null && !(root.isMethod() && context.isOptionNashornCompatibilityMode())) {
+                    Object value = stubCache.get(thisObj, root.getKey(), receiver);
+                    if (stubCacheHit.profile(value != null)) {
+                        return value;
+                    }
+                }
                 if (getFromJSObjectNode == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     getFromJSObjectNode = insert(GetPropertyFromJSObjectNode.create(root.getKey(), root.isRequired()));
@@ -1329,24 +1329,24 @@ public class ReadElementNode extends JSTargetableNode implements ReadNode {
 
         @Override
         protected Object executeWithTargetAndIndexUnchecked(Object target, Object index, Object defaultValue) {
-            String charSequence = ((JSLazyString) target).toString(isFlatProfile);
+            JSLazyString lazyString = (JSLazyString) target;
             Object convertedIndex = toArrayIndexNode.execute(index);
             if (arrayIndexProfile.profile(convertedIndex instanceof Long)) {
                 int intIndex = ((Long) convertedIndex).intValue();
-                if (stringIndexInBounds.profile(intIndex >= 0 && intIndex < charSequence.length())) {
-                    return String.valueOf(charSequence.charAt(intIndex));
+                if (stringIndexInBounds.profile(intIndex >= 0 && intIndex < lazyString.length())) {
+                    return String.valueOf(lazyString.charAt(intIndex));
                 }
             }
-            return JSObject.getOrDefault(JSString.create(context, charSequence), toPropertyKey(index), defaultValue, jsclassProfile);
+            return JSObject.getOrDefault(JSString.create(context, lazyString.toString(isFlatProfile)), toPropertyKey(index), defaultValue, jsclassProfile);
         }
 
         @Override
         protected Object executeWithTargetAndIndexUnchecked(Object target, int index, Object defaultValue) {
-            String charSequence = ((JSLazyString) target).toString(isFlatProfile);
-            if (stringIndexInBounds.profile(index >= 0 && index < charSequence.length())) {
-                return String.valueOf(charSequence.charAt(index));
+            JSLazyString lazyString = (JSLazyString) target;
+            if (stringIndexInBounds.profile(index >= 0 && index < lazyString.length())) {
+                return String.valueOf(lazyString.charAt(index));
             } else {
-                return JSObject.getOrDefault(JSString.create(context, charSequence), index, defaultValue, jsclassProfile);
+                return JSObject.getOrDefault(JSString.create(context, lazyString.toString(isFlatProfile)), index, defaultValue, jsclassProfile);
             }
         }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -50,6 +50,7 @@ import com.oracle.truffle.js.runtime.BigInt;
 import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.LargeInteger;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
 
 @NodeInfo(shortName = ">=")
 public abstract class JSGreaterOrEqualNode extends JSCompareNode {
@@ -93,6 +94,11 @@ public abstract class JSGreaterOrEqualNode extends JSCompareNode {
         return a >= b;
     }
 
+    @Specialization(guards = "isLazyString(a) || isLazyString(b)")
+    protected boolean doLazyString(CharSequence a, CharSequence b) {
+        return JSLazyString.compare(a, b) >= 0;
+    }
+
     @Specialization
     protected boolean doString(String a, String b) {
         return Boundaries.stringCompareTo(a, b) >= 0;
@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.js.runtime;
 
+import java.util.List;
+
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -85,6 +87,25 @@ public interface Evaluator {
 
     JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader);
 
+    /**
+     * Parses a module without translating it. Does not modify any context or realm state and can
+     * therefore be called from threads that have not entered the context, provided that
+     * {@link RegexCompilerInterface#prepareValidation(JSContext)} has been called before on one
+     * that has. The result is passed to
+     * {@link #parseModule(JSContext, Source, JSModuleLoader, Object)}.
+     */
+    Object preparseModule(JSContext context, Source source);
+
+    /**
+     * Creates the module record of a module parsed by {@link #preparseModule(JSContext, Source)}.
+     */
+    JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader, Object preparsedModule);
+
+    /**
+     * Returns the specifiers of the modules imported or re-exported by the module, in source order.
+     */
+    List<String> getRequestedModules(JSModuleRecord moduleRecord);
+
     JSModuleRecord hostResolveImportedModule(JSContext context, ScriptOrModule referencingScriptOrModule, String specifier);
 
     void moduleInstantiation(JSModuleRecord moduleRecord);
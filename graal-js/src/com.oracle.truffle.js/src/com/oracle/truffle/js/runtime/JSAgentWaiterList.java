@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -63,7 +63,11 @@ public class JSAgentWaiterList {
     }
 
     public JSAgentWaiterListEntry getListForIndex(int indexPos) {
-        JSAgentWaiterListEntry list = Boundaries.mapPutIfAbsent(waiters, indexPos, new JSAgentWaiterListEntry());
+        JSAgentWaiterListEntry list = Boundaries.mapGet(waiters, indexPos);
+        if (list != null) {
+            return list;
+        }
+        list = Boundaries.mapPutIfAbsent(waiters, indexPos, new JSAgentWaiterListEntry());
         if (list == null) {
             return Boundaries.mapGet(waiters, indexPos);
         } else {
@@ -71,6 +75,10 @@ public class JSAgentWaiterList {
         }
     }
 
+    /**
+     * Lock of the whole buffer, only used for atomic operations that cannot be done by a hardware
+     * CAS on the buffer's memory.
+     */
     public void lock() {
         globalMonitor.lock();
     }
@@ -76,6 +76,7 @@ import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.nodes.ScriptNode;
 import com.oracle.truffle.js.nodes.access.GetPrototypeNode;
 import com.oracle.truffle.js.nodes.cast.JSToObjectNode;
 import com.oracle.truffle.js.runtime.array.TypedArray;
@@ -133,11 +134,15 @@ import com.oracle.truffle.js.runtime.objects.JSPrototypeData;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.JSShapeData;
 import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PropertyStubCache;
 import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.BackgroundTranslationPool;
 import com.oracle.truffle.js.runtime.util.CompilableBiFunction;
 import com.oracle.truffle.js.runtime.util.CompilableFunction;
+import com.oracle.truffle.js.runtime.util.DateCache;
 import com.oracle.truffle.js.runtime.util.DebugJSAgent;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 import com.oracle.truffle.js.runtime.util.TimeProfiler;
 
 public class JSContext {
@@ -263,6 +268,17 @@ public class JSContext {
 
     private volatile Map<Shape, JSShapeData> shapeDataMap;
 
+    /** Translated eval() and Function() code, see {@link #getEvalCache()}. */
+    private volatile LRUCache<Object, ScriptNode> evalCache;
+    /** Compiled regular expressions, see {@link #getRegexCache()}. */
+    private volatile LRUCache<String, Object> regexCache;
+    /** Megamorphic property lookup cache, see {@link #getPropertyStubCache()}. */
+    private volatile PropertyStubCache propertyStubCache;
+    /** Background function translation, see {@link #getBackgroundTranslationPool()}. */
+    private volatile BackgroundTranslationPool backgroundTranslationPool;
+    /** Realms created and not disposed yet, see {@link #realmDisposed()}. */
+    private int liveRealmCount;
+
     final Assumption noChildRealmsAssumption;
     private final Assumption singleRealmAssumption;
     private final boolean isMultiContext;
@@ -599,6 +615,9 @@ public class JSContext {
         truffleLanguageEnv = env;
         JSRealm newRealm = new JSRealm(this, env);
         newRealm.setupGlobals();
+        synchronized (this) {
+            liveRealmCount++;
+        }
 
         if (isTop) {
             newRealm.initRealmBuiltinObject();
@@ -661,6 +680,10 @@ public class JSContext {
         return getLocalTimeZoneHolder().localTZA;
     }
 
+    public final DateCache getDateCache() {
+        return getLocalTimeZoneHolder().dateCache;
+    }
+
     public final Map<String, Symbol> getSymbolRegistry() {
         if (symbolRegistry == null) {
             createSymbolRegistry();
@@ -987,7 +1010,10 @@ public class JSContext {
     }
 
     @TruffleBoundary
-    private Object createTRegexEngine() {
+    private synchronized Object createTRegexEngine() {
+        if (tRegexEngine != null) {
+            return tRegexEngine;
+        }
         TruffleObject regexEngineBuilder = (TruffleObject) getRealm().getEnv().parse(Source.newBuilder(REGEX_LANGUAGE_ID, "", "TRegex Engine Builder Request").build()).call();
         String regexOptions = createRegexEngineOptions();
         JoniRegexEngine fallbackCompiler = new JoniRegexEngine(null);
@@ -1001,10 +1027,12 @@ public class JSContext {
     private static class LocalTimeZoneHolder {
         final ZoneId localTimeZoneId;
         final long localTZA;
+        final DateCache dateCache;
 
         LocalTimeZoneHolder(ZoneId zoneId) {
             this.localTimeZoneId = zoneId;
             this.localTZA = JSDate.getLocalTZA(zoneId);
+            this.dateCache = new DateCache(zoneId);
         }
 
         LocalTimeZoneHolder() {
@@ -1033,6 +1061,138 @@ public class JSContext {
         return map;
     }
 
+    /**
+     * Returns the cache of translated eval() and Function() code, or {@code null} if disabled.
+     */
+    public LRUCache<Object, ScriptNode> getEvalCache() {
+        LRUCache<Object, ScriptNode> cache = evalCache;
+        if (cache == null) {
+            int size = contextOptions.getEvalCacheSize();
+            if (size <= 0) {
+                return null;
+            }
+            cache = createEvalCache(size);
+        }
+        return cache;
+    }
+
+    private synchronized LRUCache<Object, ScriptNode> createEvalCache(int size) {
+        LRUCache<Object, ScriptNode> cache = evalCache;
+        if (cache == null) {
+            cache = new LRUCache<>(size);
+            evalCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cache of compiled regular expressions shared by all RegExp call sites, or
+     * {@code null} if disabled. Keys are built by {@link RegexCompilerInterface}.
+     */
+    public LRUCache<String, Object> getRegexCache() {
+        LRUCache<String, Object> cache = regexCache;
+        if (cache == null) {
+            int size = contextOptions.getRegexCacheSize();
+            if (size <= 0) {
+                return null;
+            }
+            cache = createRegexCache(size);
+        }
+        return cache;
+    }
+
+    private synchronized LRUCache<String, Object> createRegexCache(int size) {
+        LRUCache<String, Object> cache = regexCache;
+        if (cache == null) {
+            cache = new LRUCache<>(size);
+            regexCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the property lookup cache shared by the generic property access nodes, or
+     * {@code null} if disabled.
+     */
+    public PropertyStubCache getPropertyStubCache() {
+        PropertyStubCache cache = propertyStubCache;
+        if (cache == null) {
+            if (JSTruffleOptions.PropertyStubCacheSize <= 0) {
+                return null;
+            }
+            CompilerDirectives.transferToInterpreter();
+            cache = createPropertyStubCache();
+        }
+        return cache;
+    }
+
+    @TruffleBoundary
+    private synchronized PropertyStubCache createPropertyStubCache() {
+        PropertyStubCache cache = propertyStubCache;
+        if (cache == null) {
+            cache = new PropertyStubCache(JSTruffleOptions.PropertyStubCacheSize);
+            propertyStubCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Drops all entries of the property lookup cache, which would otherwise keep shapes and
+     * prototypes of a disposed realm alive.
+     */
+    public void clearPropertyStubCache() {
+        PropertyStubCache cache = propertyStubCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the pool translating lazily initialized functions ahead of their first call, or
+     * {@code null} if disabled.
+     */
+    public BackgroundTranslationPool getBackgroundTranslationPool() {
+        BackgroundTranslationPool pool = backgroundTranslationPool;
+        if (pool == null) {
+            if (contextOptions.getBackgroundTranslationThreads() <= 0) {
+                return null;
+            }
+            pool = createBackgroundTranslationPool();
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the background translation pool if it has been created, {@code null} otherwise.
+     */
+    public BackgroundTranslationPool getExistingBackgroundTranslationPool() {
+        return backgroundTranslationPool;
+    }
+
+    private synchronized BackgroundTranslationPool createBackgroundTranslationPool() {
+        BackgroundTranslationPool pool = backgroundTranslationPool;
+        if (pool == null) {
+            pool = new BackgroundTranslationPool(contextOptions.getBackgroundTranslationThreads());
+            backgroundTranslationPool = pool;
+        }
+        return pool;
+    }
+
+    /**
+     * Called when a realm of this context is disposed. The background translation pool is shut down
+     * with the last realm; it is created again if another realm is created later on (shared engine).
+     */
+    public synchronized void realmDisposed() {
+        assert liveRealmCount > 0;
+        if (--liveRealmCount == 0) {
+            BackgroundTranslationPool pool = backgroundTranslationPool;
+            if (pool != null) {
+                pool.shutdown();
+                backgroundTranslationPool = null;
+            }
+        }
+    }
+
     public JavaScriptLanguage getLanguage() {
         return language;
     }
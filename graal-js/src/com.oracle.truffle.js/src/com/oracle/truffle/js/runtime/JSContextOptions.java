@@ -325,6 +325,39 @@ public final class JSContextOptions {
     public static final OptionKey<Boolean> VALIDATE_REGEXP_LITERALS = new OptionKey<>(true);
     @CompilationFinal private boolean validateRegExpLiterals;
 
+    public static final String MODULE_PARSE_THREADS_NAME = JS_OPTION_PREFIX + "module-parse-threads";
+    @Option(name = MODULE_PARSE_THREADS_NAME, category = OptionCategory.EXPERT, help = "Number of threads used to parse the modules of an ES module graph concurrently (0: parse on the loading thread).") //
+    public static final OptionKey<Integer> MODULE_PARSE_THREADS = new OptionKey<>(0);
+
+    public static final String CODE_CACHE_DIR_NAME = JS_OPTION_PREFIX + "code-cache-dir";
+    @Option(name = CODE_CACHE_DIR_NAME, category = OptionCategory.EXPERT, help = "Directory used to persist the translated code of parsed scripts across runs (empty: disabled). Requires IO access; accessed through the file system of the context.") //
+    public static final OptionKey<String> CODE_CACHE_DIR = new OptionKey<>("");
+
+    public static final String CODE_CACHE_MAX_SIZE_NAME = JS_OPTION_PREFIX + "code-cache-max-size";
+    @Option(name = CODE_CACHE_MAX_SIZE_NAME, category = OptionCategory.EXPERT, help = "Maximum size of the code cache directory in bytes; least recently used entries are evicted beyond it (0: unlimited).") //
+    public static final OptionKey<Long> CODE_CACHE_MAX_SIZE = new OptionKey<>(256L * 1024 * 1024);
+
+    public static final String EVAL_CACHE_SIZE_NAME = JS_OPTION_PREFIX + "eval-cache-size";
+    @Option(name = EVAL_CACHE_SIZE_NAME, category = OptionCategory.EXPERT, help = "Number of eval() and Function() compilations kept for reuse per context (0: disabled).") //
+    public static final OptionKey<Integer> EVAL_CACHE_SIZE = new OptionKey<>(128);
+
+    public static final String REGEX_CACHE_SIZE_NAME = JS_OPTION_PREFIX + "regex-cache-size";
+    @Option(name = REGEX_CACHE_SIZE_NAME, category = OptionCategory.EXPERT, help = "Number of compiled regular expressions kept for reuse per context (0: disabled).") //
+    public static final OptionKey<Integer> REGEX_CACHE_SIZE = new OptionKey<>(512);
+
+    public static final String LAZY_PARSING_NAME = JS_OPTION_PREFIX + "lazy-parsing";
+    @Option(name = LAZY_PARSING_NAME, category = OptionCategory.EXPERT, help = "Only pre-parse the inner functions of scripts and parse and translate them when they are first called. The pre-parse reports early errors and records where the inner functions end, so that parsing a function on its first call skips the bodies of its own inner functions.") //
+    public static final OptionKey<Boolean> LAZY_PARSING = new OptionKey<>(false);
+
+    public static final String BACKGROUND_TRANSLATION_THREADS_NAME = JS_OPTION_PREFIX + "background-translation-threads";
+    @Option(name = BACKGROUND_TRANSLATION_THREADS_NAME, category = OptionCategory.EXPERT, help = "Number of background threads translating lazily initialized functions that are likely to be called soon, e.g. IIFEs (0: translate on first call only).") //
+    public static final OptionKey<Integer> BACKGROUND_TRANSLATION_THREADS = new OptionKey<>(0);
+
+    public static final String ARRAY_ALLOCATION_SITES_NAME = JS_OPTION_PREFIX + "array-allocation-sites";
+    @Option(name = ARRAY_ALLOCATION_SITES_NAME, category = OptionCategory.EXPERT, help = "Let array literals and new Array start in the element kind and capacity observed for earlier arrays of the same allocation site.") //
+    public static final OptionKey<Boolean> ARRAY_ALLOCATION_SITES = new OptionKey<>(true);
+    @CompilationFinal private boolean arrayAllocationSites;
+
     public JSContextOptions(ParserOptions parserOptions) {
         this.parserOptions = parserOptions;
         cacheOptions();
@@ -386,6 +419,7 @@ public final class JSContextOptions {
         this.test262Mode = readBooleanOption(TEST262_MODE, TEST262_MODE_NAME);
         this.testV8Mode = readBooleanOption(TESTV8_MODE, TESTV8_MODE_NAME);
         this.validateRegExpLiterals = readBooleanOption(VALIDATE_REGEXP_LITERALS, VALIDATE_REGEXP_LITERALS_NAME);
+        this.arrayAllocationSites = readBooleanOption(ARRAY_ALLOCATION_SITES, ARRAY_ALLOCATION_SITES_NAME);
     }
 
     private boolean patchBooleanOption(OptionKey<Boolean> key, String name, boolean oldValue, Consumer<String> invalidate) {
@@ -652,6 +686,38 @@ public final class JSContextOptions {
         return validateRegExpLiterals;
     }
 
+    public int getModuleParseThreads() {
+        return MODULE_PARSE_THREADS.getValue(optionValues);
+    }
+
+    public String getCodeCacheDir() {
+        return CODE_CACHE_DIR.getValue(optionValues);
+    }
+
+    public long getCodeCacheMaxSize() {
+        return CODE_CACHE_MAX_SIZE.getValue(optionValues);
+    }
+
+    public int getEvalCacheSize() {
+        return EVAL_CACHE_SIZE.getValue(optionValues);
+    }
+
+    public int getRegexCacheSize() {
+        return REGEX_CACHE_SIZE.getValue(optionValues);
+    }
+
+    public boolean isLazyParsing() {
+        return LAZY_PARSING.getValue(optionValues);
+    }
+
+    public int getBackgroundTranslationThreads() {
+        return BACKGROUND_TRANSLATION_THREADS.getValue(optionValues);
+    }
+
+    public boolean isArrayAllocationSites() {
+        return arrayAllocationSites;
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
@@ -683,6 +749,7 @@ public final class JSContextOptions {
         hash = 53 * hash + (this.test262Mode ? 1 : 0);
         hash = 53 * hash + (this.testV8Mode ? 1 : 0);
         hash = 53 * hash + (this.validateRegExpLiterals ? 1 : 0);
+        hash = 53 * hash + (this.arrayAllocationSites ? 1 : 0);
         return hash;
     }
 
@@ -779,6 +846,9 @@ public final class JSContextOptions {
         if (this.validateRegExpLiterals != other.validateRegExpLiterals) {
             return false;
         }
+        if (this.arrayAllocationSites != other.arrayAllocationSites) {
+            return false;
+        }
         return Objects.equals(this.parserOptions, other.parserOptions);
     }
 }
@@ -40,17 +40,17 @@
  */
 package com.oracle.truffle.js.runtime;
 
-import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.SplittableRandom;
 import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import org.graalvm.options.OptionValues;
 
@@ -60,12 +60,11 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleContext;
-import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
-import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
 import com.oracle.truffle.js.runtime.array.TypedArray;
 import com.oracle.truffle.js.runtime.array.TypedArrayFactory;
@@ -115,12 +114,13 @@ import com.oracle.truffle.js.runtime.builtins.SIMDType.SIMDTypeFactory;
 import com.oracle.truffle.js.runtime.java.JavaImporter;
 import com.oracle.truffle.js.runtime.java.JavaPackage;
 import com.oracle.truffle.js.runtime.objects.Accessor;
+import com.oracle.truffle.js.runtime.objects.DefaultModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSModuleLoader;
-import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
-import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
+import com.oracle.truffle.js.runtime.objects.PropertyProxy;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.PrintWriterWrapper;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
@@ -170,13 +170,13 @@ public class JSRealm {
     private final JSConstructor bigIntConstructor;
     private final JSConstructor stringConstructor;
     private final JSConstructor regExpConstructor;
-    private final JSConstructor collatorConstructor;
-    private final JSConstructor numberFormatConstructor;
-    private final JSConstructor pluralRulesConstructor;
-    private final JSConstructor listFormatConstructor;
-    private final JSConstructor dateTimeFormatConstructor;
-    private final JSConstructor relativeTimeFormatConstructor;
-    private final JSConstructor segmenterConstructor;
+    @CompilationFinal private JSConstructor collatorConstructor;
+    @CompilationFinal private JSConstructor numberFormatConstructor;
+    @CompilationFinal private JSConstructor pluralRulesConstructor;
+    @CompilationFinal private JSConstructor listFormatConstructor;
+    @CompilationFinal private JSConstructor dateTimeFormatConstructor;
+    @CompilationFinal private JSConstructor relativeTimeFormatConstructor;
+    @CompilationFinal private JSConstructor segmenterConstructor;
     private final JSConstructor dateConstructor;
     @CompilationFinal(dimensions = 1) private final JSConstructor[] errorConstructors;
     private final JSConstructor callSiteConstructor;
@@ -213,7 +213,7 @@ public class JSRealm {
     private final DynamicObject arrayIteratorPrototype;
     private final DynamicObject setIteratorPrototype;
     private final DynamicObject mapIteratorPrototype;
-    private final DynamicObject segmentIteratorPrototype;
+    @CompilationFinal private DynamicObject segmentIteratorPrototype;
     private final DynamicObject stringIteratorPrototype;
     private final DynamicObject regExpStringIteratorPrototype;
     private final DynamicObject enumerateIteratorPrototype;
@@ -281,6 +281,8 @@ public class JSRealm {
 
     @CompilationFinal private JSConsoleUtil consoleUtil;
     private JSModuleLoader moduleLoader;
+    /** Parses the modules of an import graph concurrently, see {@link #getModuleParserPool()}. */
+    private ForkJoinPool moduleParserPool;
 
     /**
      * List of realms (for Realm built-in). The list is available in top-level realm only (not in
@@ -379,14 +381,7 @@ public class JSRealm {
         this.stringIteratorPrototype = es6 ? createStringIteratorPrototype() : null;
         this.regExpStringIteratorPrototype = JSTruffleOptions.MaxECMAScriptVersion >= JSTruffleOptions.ECMAScript2019 ? createRegExpStringIteratorPrototype() : null;
 
-        this.collatorConstructor = JSCollator.createConstructor(this);
-        this.numberFormatConstructor = JSNumberFormat.createConstructor(this);
-        this.dateTimeFormatConstructor = JSDateTimeFormat.createConstructor(this);
-        this.pluralRulesConstructor = JSPluralRules.createConstructor(this);
-        this.listFormatConstructor = JSListFormat.createConstructor(this);
-        this.relativeTimeFormatConstructor = JSRelativeTimeFormat.createConstructor(this);
-        this.segmenterConstructor = JSSegmenter.createConstructor(this);
-        this.segmentIteratorPrototype = JSSegmenter.createSegmentIteratorPrototype(context, this);
+        // Intl constructors are created on first use, see initializeIntlConstructors()
 
         this.generatorFunctionConstructor = es6 ? JSFunction.createGeneratorFunctionConstructor(this) : null;
         this.generatorObjectPrototype = es6 ? (DynamicObject) generatorFunctionConstructor.getPrototype().get(JSObject.PROTOTYPE, null) : null;
@@ -523,26 +518,50 @@ public class JSRealm {
     }
 
     public final JSConstructor getCollatorConstructor() {
+        if (collatorConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return collatorConstructor;
     }
 
     public final JSConstructor getNumberFormatConstructor() {
+        if (numberFormatConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return numberFormatConstructor;
     }
 
     public final JSConstructor getPluralRulesConstructor() {
+        if (pluralRulesConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return pluralRulesConstructor;
     }
 
     public final JSConstructor getListFormatConstructor() {
+        if (listFormatConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return listFormatConstructor;
     }
 
     public final JSConstructor getRelativeTimeFormatConstructor() {
+        if (relativeTimeFormatConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return relativeTimeFormatConstructor;
     }
 
     public final JSConstructor getDateTimeFormatConstructor() {
+        if (dateTimeFormatConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return dateTimeFormatConstructor;
     }
 
@@ -551,6 +570,10 @@ public class JSRealm {
     }
 
     public final JSConstructor getSegmenterConstructor() {
+        if (segmenterConstructor == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return segmenterConstructor;
     }
 
@@ -746,9 +769,43 @@ public class JSRealm {
     }
 
     public DynamicObject getSegmentIteratorPrototype() {
+        if (segmentIteratorPrototype == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            initializeIntlConstructors();
+        }
         return segmentIteratorPrototype;
     }
 
+    /**
+     * Creates the ECMA-402 constructors. Most scripts never use them, so this is deferred until one
+     * is requested. Everything is created before any field is assigned, so a failure part way
+     * through leaves the realm untouched and the next request tries again.
+     */
+    @TruffleBoundary
+    private void initializeIntlConstructors() {
+        if (segmentIteratorPrototype != null) {
+            return;
+        }
+        JSConstructor collator = JSCollator.createConstructor(this);
+        JSConstructor numberFormat = JSNumberFormat.createConstructor(this);
+        JSConstructor dateTimeFormat = JSDateTimeFormat.createConstructor(this);
+        JSConstructor pluralRules = JSPluralRules.createConstructor(this);
+        JSConstructor listFormat = JSListFormat.createConstructor(this);
+        JSConstructor relativeTimeFormat = JSRelativeTimeFormat.createConstructor(this);
+        JSConstructor segmenter = JSSegmenter.createConstructor(this);
+        DynamicObject segmentIterator = JSSegmenter.createSegmentIteratorPrototype(context, this);
+
+        this.collatorConstructor = collator;
+        this.numberFormatConstructor = numberFormat;
+        this.dateTimeFormatConstructor = dateTimeFormat;
+        this.pluralRulesConstructor = pluralRules;
+        this.listFormatConstructor = listFormat;
+        this.relativeTimeFormatConstructor = relativeTimeFormat;
+        this.segmenterConstructor = segmenter;
+        // assigned last: it is the guard of this method
+        this.segmentIteratorPrototype = segmentIterator;
+    }
+
     /**
      * This function is used whenever a function is required that throws a TypeError. It is used by
      * some of the builtins that provide accessor functions that should not be called (e.g., as a
@@ -790,7 +847,7 @@ public class JSRealm {
         putGlobalProperty(JSBoolean.CLASS_NAME, getBooleanConstructor().getFunctionObject());
         putGlobalProperty(JSRegExp.CLASS_NAME, getRegExpConstructor().getFunctionObject());
         putGlobalProperty(JSMath.CLASS_NAME, mathObject);
-        putGlobalProperty(JSON.CLASS_NAME, JSON.create(this));
+        putLazyGlobalProperty(JSON.CLASS_NAME, () -> JSON.create(this));
 
         JSObjectUtil.putDataProperty(context, global, JSRuntime.NAN_STRING, Double.NaN);
         JSObjectUtil.putDataProperty(context, global, JSRuntime.INFINITY_STRING, Double.POSITIVE_INFINITY);
@@ -813,11 +870,7 @@ public class JSRealm {
         putGlobalProperty(JSDataView.CLASS_NAME, getDataViewConstructor().getFunctionObject());
 
         if (context.getContextOptions().isSIMDjs()) {
-            DynamicObject simdObject = JSObject.createInit(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
-            for (SIMDTypeFactory<? extends SIMDType> factory : SIMDType.FACTORIES) {
-                JSObjectUtil.putDataProperty(context, simdObject, factory.getName(), getSIMDTypeConstructor(factory).getFunctionObject(), JSAttributes.getDefaultNotEnumerable());
-            }
-            putGlobalProperty(JSSIMD.SIMD_OBJECT_NAME, simdObject);
+            putLazyGlobalProperty(JSSIMD.SIMD_OBJECT_NAME, this::createSIMDObject);
         }
         if (context.getContextOptions().isBigInt()) {
             putGlobalProperty(JSBigInt.CLASS_NAME, getBigIntConstructor().getFunctionObject());
@@ -837,7 +890,7 @@ public class JSRealm {
             setupPolyglot();
         }
         if (context.isOptionDebugBuiltin()) {
-            putGlobalProperty(JSTruffleOptions.DebugPropertyName, createDebugObject());
+            putLazyGlobalProperty(JSTruffleOptions.DebugPropertyName, this::createDebugObject);
         }
         if (context.getContextOptions().isTest262Mode()) {
             putGlobalProperty(JSTest262.GLOBAL_PROPERTY_NAME, JSTest262.create(this));
@@ -858,10 +911,12 @@ public class JSRealm {
             putGlobalProperty(JSSymbol.CLASS_NAME, getSymbolConstructor().getFunctionObject());
             setupPredefinedSymbols(getSymbolConstructor().getFunctionObject());
 
-            DynamicObject reflectObject = createReflect();
-            putGlobalProperty(REFLECT_CLASS_NAME, reflectObject);
-            this.reflectApplyFunctionObject = JSObject.get(reflectObject, "apply");
-            this.reflectConstructFunctionObject = JSObject.get(reflectObject, "construct");
+            putLazyGlobalProperty(REFLECT_CLASS_NAME, () -> {
+                DynamicObject reflectObject = createReflect();
+                this.reflectApplyFunctionObject = JSObject.get(reflectObject, "apply");
+                this.reflectConstructFunctionObject = JSObject.get(reflectObject, "construct");
+                return reflectObject;
+            });
 
             putGlobalProperty(JSProxy.CLASS_NAME, getProxyConstructor().getFunctionObject());
             putGlobalProperty(JSPromise.CLASS_NAME, getPromiseConstructor());
@@ -871,16 +926,16 @@ public class JSRealm {
             putGlobalProperty(SHARED_ARRAY_BUFFER_CLASS_NAME, getSharedArrayBufferConstructor().getFunctionObject());
         }
         if (context.isOptionAtomics()) {
-            putGlobalProperty(ATOMICS_CLASS_NAME, createAtomics());
+            putLazyGlobalProperty(ATOMICS_CLASS_NAME, this::createAtomics);
         }
         if (context.getEcmaScriptVersion() >= JSTruffleOptions.ECMAScript2019) {
             putGlobalProperty("globalThis", global);
         }
         if (context.getContextOptions().isGraalBuiltin()) {
-            putGraalObject();
+            putLazyGlobalProperty("Graal", this::createGraalObject);
         }
         if (context.getContextOptions().isPerformance()) {
-            putGlobalProperty(PERFORMANCE_CLASS_NAME, createPerformance());
+            putLazyGlobalProperty(PERFORMANCE_CLASS_NAME, this::createPerformance);
         }
         if (JSTruffleOptions.ProfileTime) {
             System.out.println("SetupGlobals: " + (System.nanoTime() - time) / 1000000);
@@ -945,27 +1000,31 @@ public class JSRealm {
 
     private void addIntlGlobal() {
         if (context.isOptionIntl402()) {
-            DynamicObject intlObject = JSIntl.create(this);
-            DynamicObject collatorFn = getCollatorConstructor().getFunctionObject();
-            DynamicObject numberFormatFn = getNumberFormatConstructor().getFunctionObject();
-            DynamicObject dateTimeFormatFn = getDateTimeFormatConstructor().getFunctionObject();
-            DynamicObject pluralRulesFn = getPluralRulesConstructor().getFunctionObject();
-            DynamicObject listFormatFn = getListFormatConstructor().getFunctionObject();
-            DynamicObject relativeTimeFormatFn = getRelativeTimeFormatConstructor().getFunctionObject();
-            DynamicObject segmenterFn = getSegmenterConstructor().getFunctionObject();
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(collatorFn), collatorFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(numberFormatFn), numberFormatFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(dateTimeFormatFn), dateTimeFormatFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(pluralRulesFn), pluralRulesFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(listFormatFn), listFormatFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(relativeTimeFormatFn), relativeTimeFormatFn, JSAttributes.getDefaultNotEnumerable());
-            JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(segmenterFn), segmenterFn, JSAttributes.getDefaultNotEnumerable());
-
-            putGlobalProperty(JSIntl.CLASS_NAME, intlObject);
-        }
-    }
-
-    private void putGraalObject() {
+            putLazyGlobalProperty(JSIntl.CLASS_NAME, this::createIntlObject);
+        }
+    }
+
+    private DynamicObject createIntlObject() {
+        DynamicObject intlObject = JSIntl.create(this);
+        DynamicObject collatorFn = getCollatorConstructor().getFunctionObject();
+        DynamicObject numberFormatFn = getNumberFormatConstructor().getFunctionObject();
+        DynamicObject dateTimeFormatFn = getDateTimeFormatConstructor().getFunctionObject();
+        DynamicObject pluralRulesFn = getPluralRulesConstructor().getFunctionObject();
+        DynamicObject listFormatFn = getListFormatConstructor().getFunctionObject();
+        DynamicObject relativeTimeFormatFn = getRelativeTimeFormatConstructor().getFunctionObject();
+        DynamicObject segmenterFn = getSegmenterConstructor().getFunctionObject();
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(collatorFn), collatorFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(numberFormatFn), numberFormatFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(dateTimeFormatFn), dateTimeFormatFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(pluralRulesFn), pluralRulesFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(listFormatFn), listFormatFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(relativeTimeFormatFn), relativeTimeFormatFn, JSAttributes.getDefaultNotEnumerable());
+        JSObjectUtil.putDataProperty(context, intlObject, JSFunction.getName(segmenterFn), segmenterFn, JSAttributes.getDefaultNotEnumerable());
+
+        return intlObject;
+    }
+
+    private DynamicObject createGraalObject() {
         DynamicObject graalObject = JSUserObject.createInit(this);
         int flags = JSAttributes.notConfigurableEnumerableNotWritable();
         JSObjectUtil.putDataProperty(context, graalObject, "language", JavaScriptLanguage.NAME, flags);
@@ -974,7 +1033,7 @@ public class JSRealm {
             JSObjectUtil.putDataProperty(context, graalObject, "versionJS", GRAALVM_VERSION, flags);
         }
         JSObjectUtil.putDataProperty(context, graalObject, "isGraalRuntime", JSFunction.create(this, isGraalRuntimeFunction(context)), flags);
-        putGlobalProperty("Graal", graalObject);
+        return graalObject;
     }
 
     private static JSFunctionData isGraalRuntimeFunction(JSContext context) {
@@ -991,6 +1050,14 @@ public class JSRealm {
         }), 0, "isGraalRuntime");
     }
 
+    private DynamicObject createSIMDObject() {
+        DynamicObject simdObject = JSObject.createInit(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
+        for (SIMDTypeFactory<? extends SIMDType> factory : SIMDType.FACTORIES) {
+            JSObjectUtil.putDataProperty(context, simdObject, factory.getName(), getSIMDTypeConstructor(factory).getFunctionObject(), JSAttributes.getDefaultNotEnumerable());
+        }
+        return simdObject;
+    }
+
     public JSConstructor getSIMDTypeConstructor(SIMDTypeFactory<? extends SIMDType> factory) {
         return simdTypeConstructors[factory.getFactoryIndex()];
     }
@@ -1006,6 +1073,52 @@ public class JSRealm {
         JSObjectUtil.putDataProperty(getContext(), getGlobalObject(), key, value, attributes);
     }
 
+    /**
+     * Defines a global property whose value is only created when the property is first read or
+     * described, see {@link LazyGlobalProperty}.
+     */
+    private void putLazyGlobalProperty(String key, Supplier<DynamicObject> factory) {
+        JSObjectUtil.defineProxyProperty(getGlobalObject(), key, new LazyGlobalProperty(key, factory), JSAttributes.getDefaultNotEnumerable());
+    }
+
+    /**
+     * Placeholder for a builtin global object (e.g. {@code JSON}, {@code Reflect}, {@code Intl})
+     * that most scripts never touch. It behaves like a data property; the first read materializes
+     * the value and replaces the placeholder with an ordinary data property with the same
+     * attributes, a write replaces it with the written value. The placeholder is stored in the
+     * global object rather than in its shape, so realms of the same context still share shapes.
+     */
+    private static final class LazyGlobalProperty implements PropertyProxy {
+        private final String key;
+        private final Supplier<DynamicObject> factory;
+
+        LazyGlobalProperty(String key, Supplier<DynamicObject> factory) {
+            this.key = key;
+            this.factory = factory;
+        }
+
+        @TruffleBoundary
+        @Override
+        public Object get(DynamicObject store) {
+            DynamicObject value = factory.get();
+            replace(store, value);
+            return value;
+        }
+
+        @TruffleBoundary
+        @Override
+        public boolean set(DynamicObject store, Object value) {
+            replace(store, value);
+            return true;
+        }
+
+        private void replace(DynamicObject store, Object value) {
+            Property property = store.getShape().getProperty(key);
+            assert property != null && JSProperty.isProxy(property);
+            JSObjectUtil.defineDataProperty(store, key, value, property.getFlags() & JSAttributes.ATTRIBUTES_MASK);
+        }
+    }
+
     private void putProperty(DynamicObject receiver, Object key, Object value) {
         JSObjectUtil.putDataProperty(getContext(), receiver, key, value, JSAttributes.getDefaultNotEnumerable());
     }
@@ -1039,13 +1152,7 @@ public class JSRealm {
 
     private void setupJavaInterop() {
         assert isJavaInteropEnabled();
-        DynamicObject java = JSObject.createInit(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
-        JSObjectUtil.putDataProperty(context, java, Symbol.SYMBOL_TO_STRING_TAG, JAVA_CLASS_NAME, JSAttributes.configurableNotEnumerableNotWritable());
-        JSObjectUtil.putFunctionsFromContainer(this, java, JAVA_CLASS_NAME);
-        if (context.isOptionNashornCompatibilityMode()) {
-            JSObjectUtil.putFunctionsFromContainer(this, java, JAVA_CLASS_NAME_NASHORN_COMPAT);
-        }
-        putGlobalProperty(JAVA_CLASS_NAME, java);
+        putLazyGlobalProperty(JAVA_CLASS_NAME, this::createJavaObject);
 
         if (getEnv() != null && getEnv().isHostLookupAllowed()) {
             if (JSContextOptions.JAVA_PACKAGE_GLOBALS.getValue(getEnv().getOptions())) {
@@ -1064,7 +1171,21 @@ public class JSRealm {
         }
     }
 
+    private DynamicObject createJavaObject() {
+        DynamicObject java = JSObject.createInit(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
+        JSObjectUtil.putDataProperty(context, java, Symbol.SYMBOL_TO_STRING_TAG, JAVA_CLASS_NAME, JSAttributes.configurableNotEnumerableNotWritable());
+        JSObjectUtil.putFunctionsFromContainer(this, java, JAVA_CLASS_NAME);
+        if (context.isOptionNashornCompatibilityMode()) {
+            JSObjectUtil.putFunctionsFromContainer(this, java, JAVA_CLASS_NAME_NASHORN_COMPAT);
+        }
+        return java;
+    }
+
     private void setupPolyglot() {
+        putLazyGlobalProperty(POLYGLOT_CLASS_NAME, this::createPolyglotObject);
+    }
+
+    private DynamicObject createPolyglotObject() {
         DynamicObject polyglotObject = JSObject.createInit(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
         JSObjectUtil.putFunctionsFromContainer(this, polyglotObject, POLYGLOT_CLASS_NAME);
 
@@ -1074,18 +1195,21 @@ public class JSRealm {
             // already loaded above when `debug-builtin` is true
             JSObjectUtil.putDataProperty(context, polyglotObject, "evalFile", lookupFunction(POLYGLOT_INTERNAL_CLASS_NAME, "evalFile"), JSAttributes.getDefaultNotEnumerable());
         }
-        putGlobalProperty(POLYGLOT_CLASS_NAME, polyglotObject);
+        return polyglotObject;
     }
 
     private void addConsoleGlobals() {
         if (context.getContextOptions().isConsole()) {
-            DynamicObject console = JSUserObject.createInit(this);
-            JSObjectUtil.putFunctionsFromContainer(this, console, CONSOLE_CLASS_NAME);
-
-            putGlobalProperty("console", console);
+            putLazyGlobalProperty("console", this::createConsole);
         }
     }
 
+    private DynamicObject createConsole() {
+        DynamicObject console = JSUserObject.createInit(this);
+        JSObjectUtil.putFunctionsFromContainer(this, console, CONSOLE_CLASS_NAME);
+        return console;
+    }
+
     private DynamicObject createPerformance() {
         DynamicObject obj = JSUserObject.createInit(this);
         JSObjectUtil.putFunctionsFromContainer(this, obj, PERFORMANCE_CLASS_NAME);
@@ -1516,53 +1640,28 @@ public class JSRealm {
     @TruffleBoundary
     private synchronized void createModuleLoader() {
         if (moduleLoader == null) {
-            moduleLoader = new JSModuleLoader() {
-                private final Map<String, JSModuleRecord> moduleMap = new HashMap<>();
-
-                @Override
-                public JSModuleRecord resolveImportedModule(ScriptOrModule referrer, String specifier) {
-                    String refPath = referrer == null ? null : referrer.getSource().getPath();
-                    try {
-                        TruffleFile moduleFile;
-                        if (refPath == null) {
-                            // Importing module source does not originate from a file.
-                            moduleFile = getEnv().getTruffleFile(specifier).getCanonicalFile();
-                        } else {
-                            TruffleFile refFile = getEnv().getTruffleFile(refPath);
-                            moduleFile = refFile.resolveSibling(specifier).getCanonicalFile();
-                        }
-                        String canonicalPath = moduleFile.getPath();
-                        JSModuleRecord existingModule = moduleMap.get(canonicalPath);
-                        if (existingModule != null) {
-                            return existingModule;
-                        }
-                        Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
-                        JSModuleRecord newModule = getContext().getEvaluator().parseModule(getContext(), source, this);
-                        moduleMap.put(canonicalPath, newModule);
-                        return newModule;
-                    } catch (IOException | SecurityException e) {
-                        throw Errors.createErrorFromException(e);
-                    }
-                }
+            moduleLoader = new DefaultModuleLoader(this);
+        }
+    }
 
-                @Override
-                public JSModuleRecord loadModule(Source source) {
-                    String path = source.getPath();
-                    String canonicalPath;
-                    if (path == null) {
-                        // Source does not originate from a file.
-                        canonicalPath = source.getName();
-                    } else {
-                        try {
-                            TruffleFile moduleFile = getEnv().getTruffleFile(path);
-                            canonicalPath = moduleFile.getCanonicalFile().getPath();
-                        } catch (IOException | SecurityException e) {
-                            throw Errors.createErrorFromException(e);
-                        }
-                    }
-                    return moduleMap.computeIfAbsent(canonicalPath, (key) -> getContext().getEvaluator().parseModule(getContext(), source, this));
-                }
-            };
+    /**
+     * Returns the pool used by {@link DefaultModuleLoader} to parse modules concurrently. The pool
+     * is owned by this realm and shut down when the realm is disposed.
+     */
+    @TruffleBoundary
+    public synchronized ForkJoinPool getModuleParserPool() {
+        assert context.getContextOptions().getModuleParseThreads() > 0;
+        if (moduleParserPool == null) {
+            moduleParserPool = new ForkJoinPool(context.getContextOptions().getModuleParseThreads());
+        }
+        return moduleParserPool;
+    }
+
+    @TruffleBoundary
+    public synchronized void shutdownModuleParserPool() {
+        if (moduleParserPool != null) {
+            moduleParserPool.shutdown();
+            moduleParserPool = null;
         }
     }
 
@@ -77,6 +77,8 @@ public final class JSTruffleOptions {
     // Inline cache configuration
     public static int PropertyCacheLimit = integerOption("PropertyCacheLimit", 5);
     public static int FunctionCacheLimit = integerOption("FunctionCacheLimit", 4);
+    /** Entries of the per-context megamorphic property lookup cache (0: disabled). */
+    public static final int PropertyStubCacheSize = integerOption("PropertyStubCacheSize", 1024);
 
     public static final boolean AssertFinalPropertySpecialization = booleanOption("AssertFinalPropertySpecialization", false);
     /** Try to cache by function object instead of call target. */
@@ -99,6 +101,12 @@ public final class JSTruffleOptions {
     public static final boolean RestrictForceSplittingBuiltins = booleanOption("RestrictForceSplittingBuiltins", true);
     public static final int MinLazyStringLength = integerOption("MinLazyStringLength", 20);
     public static final int ConcatToLeafLimit = integerOption("ConcatToLeafLimit", MinLazyStringLength / 2);
+    /** Lazy strings deeper than this are rebalanced or flattened on indexed access. */
+    public static final int MaxLazyStringDepth = integerOption("MaxLazyStringDepth", 64);
+    /** Substrings shorter than this are always copied. */
+    public static final int MinLazySubstringLength = integerOption("MinLazySubstringLength", 64);
+    /** Substrings are copied if their parent is more than this many times longer (0 = never). */
+    public static final int LazySubstringMaxRetention = integerOption("LazySubstringMaxRetention", 8);
     public static final int MaxLoadCacheLength = integerOption("MaxLoadCacheLength", 0);
     public static final int MaxCompiledRegexCacheLength = integerOption("MaxCompiledRegexCacheLength", 4);
     public static final boolean TrimLoadCache = booleanOption("TrimLoadCache", false);
@@ -122,7 +130,7 @@ public final class JSTruffleOptions {
     public static final int InitialArraySize = integerOption("array.InitialArraySize", 8);
     public static final int MaxArrayHoleSize = integerOption("array.MaxArrayHoleSize", 5000);
     public static final int MaxFlatArraySize = integerOption("array.MaxFlatArraySize", 1000000);
-    public static final boolean TrackArrayAllocationSites = booleanOption("array.TrackAllocationSites", false);
+    public static final boolean TrackArrayAllocationSites = booleanOption("array.TrackAllocationSites", true);
     public static final int BigArrayThreshold = integerOption("array.BigArrayThreshold", 10000);
     public static final boolean MarkElementsNonNull = booleanOption("array.MarkElementsNonNull", true);
     /** Use DirectByteBuffer for typed arrays by default. */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -46,6 +46,7 @@ import java.util.regex.PatternSyntaxException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleException;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.regex.nashorn.regexp.RegExpScanner;
 
@@ -58,8 +59,21 @@ public final class RegexCompilerInterface {
         // RegexLanguage does its own validation of the flags. This call to validateFlags only
         // serves the purpose of mimicking the error messages of Nashorn and V8.
         validateFlags(flags, context.getEcmaScriptVersion());
+        LRUCache<String, Object> cache = context.getRegexCache();
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = cacheKey(pattern, flags);
+            Object cached = cacheGet(cache, cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
-            return compileRegexNode.execute(context.getRegexEngine(), pattern, flags);
+            Object compiledRegex = compileRegexNode.execute(context.getRegexEngine(), pattern, flags);
+            if (cache != null) {
+                cachePut(cache, cacheKey, compiledRegex);
+            }
+            return compiledRegex;
         } catch (RuntimeException e) {
             CompilerDirectives.transferToInterpreter();
             if (e instanceof TruffleException && ((TruffleException) e).isSyntaxError()) {
@@ -69,6 +83,34 @@ public final class RegexCompilerInterface {
         }
     }
 
+    @TruffleBoundary
+    private static String cacheKey(String pattern, String flags) {
+        // valid flags never contain '/'
+        return flags + '/' + pattern;
+    }
+
+    @TruffleBoundary
+    private static Object cacheGet(LRUCache<String, Object> cache, String key) {
+        return cache.get(key);
+    }
+
+    @TruffleBoundary
+    private static void cachePut(LRUCache<String, Object> cache, String key, Object compiledRegex) {
+        cache.put(key, compiledRegex);
+    }
+
+    /**
+     * Creates the regex engine used by {@link #validate}, which needs the realm. Must be called on a
+     * thread that has entered the context before regular expressions are validated on threads that
+     * have not, e.g. by parsers running on a worker pool.
+     */
+    @TruffleBoundary
+    public static void prepareValidation(JSContext context) {
+        if (!JSTruffleOptions.NashornCompatibilityMode && context.getContextOptions().isValidateRegExpLiterals()) {
+            context.getTRegexEngine();
+        }
+    }
+
     @TruffleBoundary
     public static void validate(JSContext context, String pattern, String flags, int ecmaScriptVersion) {
         // We cannot use the TRegex parser in Nashorn compatibility mode, since the Nashorn
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -46,18 +46,15 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetLength;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.SortedLongMap;
 
 /**
- * Array that stores its elements in a HashMap-like structure, e.g. in a TreeMap.
+ * Array that stores its elements in a sorted map from index to value, see {@link SortedLongMap}.
  */
 public final class SparseArray extends DynamicArray {
 
@@ -72,7 +69,7 @@ public final class SparseArray extends DynamicArray {
     }
 
     public static SparseArray makeSparseArray(DynamicObject object, long length) {
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        SortedLongMap arrayMap = createArrayMap();
         arraySetLength(object, length);
         arraySetArray(object, arrayMap);
         return createSparseArray();
@@ -82,7 +79,7 @@ public final class SparseArray extends DynamicArray {
         if (fromArray instanceof SparseArray) {
             return (SparseArray) fromArray;
         }
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        SortedLongMap arrayMap = createArrayMap();
         copyArrayToMap(object, fromArray, arrayMap);
         arraySetLength(object, fromArray.length(object));
         arraySetArray(object, arrayMap);
@@ -90,20 +87,20 @@ public final class SparseArray extends DynamicArray {
     }
 
     @TruffleBoundary
-    public static TreeMap<Long, Object> createArrayMap() {
-        return new TreeMap<>();
+    public static SortedLongMap createArrayMap() {
+        return new SortedLongMap();
     }
 
-    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, Map<Long, Object> toMap) {
+    @TruffleBoundary
+    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, SortedLongMap toMap) {
         for (long index = fromArray.firstElementIndex(object); index <= fromArray.lastElementIndex(object); index = fromArray.nextElementIndex(object, index)) {
             assert fromArray.hasElement(object, index);
-            Boundaries.mapPut(toMap, index, fromArray.getElement(object, index));
+            toMap.put(index, fromArray.getElement(object, index));
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static TreeMap<Long, Object> arrayMap(DynamicObject object, boolean condition) {
-        return (TreeMap<Long, Object>) arrayGetArray(object, condition);
+    private static SortedLongMap arrayMap(DynamicObject object, boolean condition) {
+        return (SortedLongMap) arrayGetArray(object, condition);
     }
 
     @TruffleBoundary
@@ -149,42 +146,34 @@ public final class SparseArray extends DynamicArray {
     @Override
     public SparseArray setLengthImpl(DynamicObject object, long len, boolean condition, ProfileHolder profile) {
         arraySetLength(object, len);
-        arrayMap(object, condition).tailMap(len).clear();
+        arrayMap(object, condition).truncate(len);
         return this;
     }
 
     @TruffleBoundary
     @Override
     public long firstElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).firstKey();
-        } catch (NoSuchElementException ex) {
-            return 0;
-        }
+        SortedLongMap arrayMap = arrayMap(object, condition);
+        return arrayMap.isEmpty() ? 0 : arrayMap.firstKey();
     }
 
     @TruffleBoundary
     @Override
     public long lastElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).lastKey();
-        } catch (NoSuchElementException ex) {
-            return -1;
-        }
+        return arrayMap(object, condition).lastKey();
     }
 
     @TruffleBoundary
     @Override
     public long nextElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).higherKey(index);
-        return nextIndex != null ? nextIndex.longValue() : JSRuntime.MAX_SAFE_INTEGER_LONG;
+        long nextIndex = arrayMap(object, condition).higherKey(index);
+        return nextIndex != SortedLongMap.NO_KEY ? nextIndex : JSRuntime.MAX_SAFE_INTEGER_LONG;
     }
 
     @TruffleBoundary
     @Override
     public long previousElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).lowerKey(index);
-        return nextIndex != null ? nextIndex.longValue() : -1;
+        return arrayMap(object, condition).lowerKey(index);
     }
 
     @Override
@@ -223,44 +212,33 @@ public final class SparseArray extends DynamicArray {
         return true;
     }
 
+    @TruffleBoundary
     @Override
     public ScriptArray removeRangeImpl(DynamicObject object, long start, long end) {
         assert start <= end;
         assert start >= 0;
         assert end < length(object);
 
-        long delta = end - start + 1;
-        long pos = start;
-        if (!hasElement(object, pos)) {
-            pos = nextElementIndex(object, pos, arrayCondition());
-        }
+        SortedLongMap arrayMap = arrayMap(object, arrayCondition());
         // delete the elements in the removed range
-        while (pos <= end) {
-            deleteElementImpl(object, pos, false, arrayCondition());
-            pos = nextElementIndex(object, pos, arrayCondition());
-        }
-        // move all element higher downwards
-        while (pos < length(object)) {
-            setElement(object, pos - delta, getElement(object, pos), false);
-            deleteElementImpl(object, pos, false, arrayCondition());
-            pos = nextElementIndex(object, pos, arrayCondition());
+        for (long pos = arrayMap.higherKey(start - 1); pos != SortedLongMap.NO_KEY && pos <= end; pos = arrayMap.higherKey(pos)) {
+            arrayMap.remove(pos);
         }
+        // move all elements higher downwards
+        arrayMap.shiftKeys(end + 1, -(end - start + 1));
         return this;
     }
 
+    @TruffleBoundary
     @Override
     public ScriptArray addRangeImpl(DynamicObject object, long offset, int size) {
         assert offset < length(object);
 
-        long pos = length(object);
-        if (!hasElement(object, pos)) {
-            pos = previousElementIndex(object, pos, arrayCondition());
-        }
-        // move all element higher upwardswards
-        while (pos >= offset) {
-            setElement(object, pos + size, getElement(object, pos), false);
-            deleteElementImpl(object, pos, false, arrayCondition());
-            pos = previousElementIndex(object, pos, arrayCondition());
+        SortedLongMap arrayMap = arrayMap(object, arrayCondition());
+        // move all elements higher upwards
+        arrayMap.shiftKeys(offset, size);
+        if (arrayMap.lastKey() >= length(object)) {
+            arraySetLength(object, arrayMap.lastKey() + 1);
         }
         return this;
     }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractJSObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedJSObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedObjectArray;
+
+/**
+ * Allocation site of array literals and {@code new Array}. Remembers the most general element kind
+ * the arrays allocated here transitioned to (int, double, object or JSObject) and the length they
+ * grew to, so that later allocations can start in the final zero-based array type with storage of
+ * the right size. The capacity estimate is halved after every {@value #CAPACITY_DECAY_INTERVAL}
+ * allocations in which no array outgrew it, so that a single large array does not make all later
+ * arrays of the site large.
+ *
+ * Transitions and allocations are only counted in the interpreter; compiled code reads a snapshot
+ * of the capacity estimate and never writes to the site. The element kind is guarded by an
+ * assumption that is invalidated whenever it is widened; the lattice is shallow, so an allocation
+ * site is invalidated at most four times. Arrays that become sparse disable the site.
+ */
+public final class TrackingArrayAllocationSite implements ArrayAllocationSite {
+
+    private static final ScriptArray UNINIT_ARRAY_TYPE = ScriptArray.createConstantEmptyArray();
+
+    /** Upper bound for the pre-allocated capacity, so that one big array does not inflate all. */
+    private static final int MAX_INITIAL_CAPACITY = 4096;
+    private static final int CAPACITY_DECAY_INTERVAL = 16;
+
+    @CompilationFinal private ScriptArray initialArrayType = UNINIT_ARRAY_TYPE;
+    @CompilationFinal private Assumption assumption = Truffle.getRuntime().createAssumption("Array allocation site (untyped)");
+    @CompilationFinal private int initialCapacity;
+    private int allocationsSinceGrowth;
+
+    private TrackingArrayAllocationSite() {
+    }
+
+    /**
+     * Creates a new allocation site, or returns {@code null} if allocation site tracking is
+     * disabled.
+     */
+    public static TrackingArrayAllocationSite create(JSContext context) {
+        if (JSTruffleOptions.TrackArrayAllocationSites && context.getContextOptions().isArrayAllocationSites()) {
+            return new TrackingArrayAllocationSite();
+        }
+        return null;
+    }
+
+    public boolean isTyped() {
+        return assumption.isValid() && initialArrayType != UNINIT_ARRAY_TYPE && initialArrayType != null;
+    }
+
+    @Override
+    public ScriptArray getInitialArrayType() {
+        if (isTyped()) {
+            return initialArrayType;
+        }
+        return null;
+    }
+
+    /**
+     * Capacity estimate for arrays allocated at this site, at least
+     * {@link JSTruffleOptions#InitialArraySize}. Compiled code uses the estimate it was compiled
+     * with; only allocations in the interpreter count towards its decay.
+     */
+    public int getInitialCapacity() {
+        if (CompilerDirectives.inInterpreter()) {
+            countAllocation();
+        }
+        return Math.max(initialCapacity, JSTruffleOptions.InitialArraySize);
+    }
+
+    /**
+     * Halves the capacity estimate after {@value #CAPACITY_DECAY_INTERVAL} allocations in which no
+     * array outgrew it. Allocations on other threads may overwrite the count, which only delays the
+     * decay; the estimate itself always stays within bounds.
+     */
+    private void countAllocation() {
+        CompilerAsserts.neverPartOfCompilation();
+        int capacity = initialCapacity;
+        if (capacity > JSTruffleOptions.InitialArraySize && ++allocationsSinceGrowth >= CAPACITY_DECAY_INTERVAL) {
+            allocationsSinceGrowth = 0;
+            initialCapacity = capacity >> 1;
+        }
+    }
+
+    @Override
+    public void notifyArrayTransition(ScriptArray arrayType, int length) {
+        CompilerAsserts.neverPartOfCompilation("do not notify array transitions from compiled code");
+        if (length > initialCapacity) {
+            initialCapacity = Math.min(length, MAX_INITIAL_CAPACITY);
+            allocationsSinceGrowth = 0;
+        }
+        if (initialArrayType == null) {
+            return;
+        }
+        ScriptArray newArrayType;
+        if (arrayType instanceof AbstractWritableArray) {
+            newArrayType = generalize(initialArrayType, zeroBasedArrayType(arrayType));
+        } else if (arrayType instanceof SparseArray) {
+            newArrayType = null;
+        } else {
+            // still constant or empty
+            return;
+        }
+        if (newArrayType != initialArrayType) {
+            initialArrayType = newArrayType;
+            assumption.invalidate("Array allocation site type change");
+            if (newArrayType != null) {
+                assumption = Truffle.getRuntime().createAssumption("Array allocation site (typed)");
+            }
+        }
+    }
+
+    private static ScriptArray zeroBasedArrayType(ScriptArray arrayType) {
+        if (arrayType instanceof AbstractIntArray) {
+            return ZeroBasedIntArray.createZeroBasedIntArray();
+        } else if (arrayType instanceof AbstractDoubleArray) {
+            return ZeroBasedDoubleArray.createZeroBasedDoubleArray();
+        } else if (arrayType instanceof AbstractJSObjectArray) {
+            return ZeroBasedJSObjectArray.createZeroBasedJSObjectArray();
+        } else {
+            assert arrayType instanceof AbstractObjectArray;
+            return ZeroBasedObjectArray.createZeroBasedObjectArray();
+        }
+    }
+
+    /**
+     * Least upper bound of two element kinds: int < double < object and JSObject < object.
+     */
+    private static ScriptArray generalize(ScriptArray current, ScriptArray next) {
+        if (current == UNINIT_ARRAY_TYPE || current == next) {
+            return next;
+        }
+        ScriptArray intArray = ZeroBasedIntArray.createZeroBasedIntArray();
+        ScriptArray doubleArray = ZeroBasedDoubleArray.createZeroBasedDoubleArray();
+        if ((current == intArray && next == doubleArray) || (current == doubleArray && next == intArray)) {
+            return doubleArray;
+        }
+        return ZeroBasedObjectArray.createZeroBasedObjectArray();
+    }
+}
@@ -152,7 +152,7 @@ public abstract class TypedArray extends ScriptArray {
         return isDirect() ? getByteBuffer(object, condition) : getByteArray(object, condition);
     }
 
-    protected final int getOffset(DynamicObject object, boolean condition) {
+    public final int getOffset(DynamicObject object, boolean condition) {
         if (offset) {
             return typedArrayGetOffset(object, condition);
         } else {
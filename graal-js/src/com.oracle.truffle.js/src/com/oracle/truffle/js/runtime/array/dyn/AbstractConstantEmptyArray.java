@@ -42,11 +42,9 @@ package com.oracle.truffle.js.runtime.array.dyn;
 
 import java.util.Arrays;
 
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
-import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
@@ -252,11 +250,6 @@ public abstract class AbstractConstantEmptyArray extends AbstractConstantArray {
     }
 
     private void notifyAllocationSite(DynamicObject object, ScriptArray newArray) {
-        if (JSTruffleOptions.TrackArrayAllocationSites && CompilerDirectives.inInterpreter()) {
-            ArrayAllocationSite site = JSAbstractArray.arrayGetAllocationSite(object);
-            if (site != null) {
-                site.notifyArrayTransition(newArray, lengthInt(object));
-            }
-        }
+        JSAbstractArray.arrayNotifyAllocationSite(object, newArray, lengthInt(object));
     }
 }
@@ -277,6 +277,7 @@ public abstract class AbstractWritableArray extends DynamicArray {
                 }
             }
             resizeArray(object, (int) newCapacity, capacity, offset, condition);
+            JSAbstractArray.arrayNotifyAllocationSite(object, this, minCapacity);
             return offset;
         }
     }
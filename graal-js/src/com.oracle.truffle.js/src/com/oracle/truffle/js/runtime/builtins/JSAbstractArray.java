@@ -49,9 +49,9 @@ import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -81,6 +81,7 @@ import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DefinePropertyUtil;
 import com.oracle.truffle.js.runtime.util.IteratorUtil;
+import com.oracle.truffle.js.runtime.util.SortedLongMap;
 
 public abstract class JSAbstractArray extends JSBuiltinObject {
 
@@ -171,6 +172,9 @@ public abstract class JSAbstractArray extends JSBuiltinObject {
     }
 
     public static void arraySetArrayType(DynamicObject thisObj, ScriptArray arrayType) {
+        if (JSTruffleOptions.TrackArrayAllocationSites && CompilerDirectives.inInterpreter() && JSArray.isJSArray(thisObj) && arrayGetArrayType(thisObj) != arrayType) {
+            arrayNotifyAllocationSite(thisObj, arrayType, arrayGetLength(thisObj));
+        }
         ARRAY_TYPE_PROPERTY.setSafe(thisObj, arrayType, null);
     }
 
@@ -205,7 +209,7 @@ public abstract class JSAbstractArray extends JSBuiltinObject {
 
     public static void arraySetArray(DynamicObject thisObj, Object array) {
         assert JSObject.hasArray(thisObj);
-        assert array != null && (array.getClass().isArray() || array instanceof TreeMap<?, ?>);
+        assert array != null && (array.getClass().isArray() || array instanceof SortedLongMap);
         JSAbstractArray.ARRAY_PROPERTY.setSafe(thisObj, array, null);
     }
 
@@ -229,6 +233,19 @@ public abstract class JSAbstractArray extends JSBuiltinObject {
         return (ArrayAllocationSite) ALLOCATION_SITE_PROPERTY.get(thisObj, arrayCondition);
     }
 
+    /**
+     * Reports an array type transition or growth to the allocation site of the array, if any. Only
+     * effective in the interpreter.
+     */
+    public static void arrayNotifyAllocationSite(DynamicObject thisObj, ScriptArray arrayType, long length) {
+        if (JSTruffleOptions.TrackArrayAllocationSites && CompilerDirectives.inInterpreter() && JSArray.isJSArray(thisObj)) {
+            ArrayAllocationSite site = arrayGetAllocationSite(thisObj);
+            if (site != null) {
+                site.notifyArrayTransition(arrayType, (int) Math.min(length, Integer.MAX_VALUE));
+            }
+        }
+    }
+
     public static TruffleObject arrayGetRegexResult(DynamicObject thisObj) {
         return arrayGetRegexResult(thisObj, JSArray.isJSArray(thisObj) && JSArray.arrayGetArrayType(thisObj) == LazyRegexResultArray.LAZY_REGEX_RESULT_ARRAY);
     }
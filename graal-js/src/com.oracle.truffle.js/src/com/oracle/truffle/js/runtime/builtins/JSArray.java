@@ -62,6 +62,8 @@ import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.SparseArray;
+import com.oracle.truffle.js.runtime.array.TrackingArrayAllocationSite;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantDoubleArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantEmptyPrototypeArray;
@@ -305,6 +307,21 @@ public final class JSArray extends JSAbstractArray implements JSConstructorFacto
         return create(context, arrayType, ScriptArray.EMPTY_OBJECT_ARRAY, site, capacity, 0, 0, 0, 0);
     }
 
+    /**
+     * Creates an empty array of the given length in the element kind learned by the allocation site.
+     * Storage is allocated for the requested length or, if it is zero, for the capacity the arrays of
+     * this site grew to.
+     */
+    public static DynamicObject createEmptyFromAllocationSite(JSContext context, TrackingArrayAllocationSite site, int length) {
+        assert length <= JSTruffleOptions.MaxFlatArraySize;
+        ScriptArray arrayType = site.getInitialArrayType();
+        if (arrayType == null) {
+            return createConstantEmptyArray(context, site, length);
+        }
+        Object array = ((AbstractWritableArray) arrayType).allocateArray(length > 0 ? length : site.getInitialCapacity());
+        return create(context, arrayType, array, site, length, 0, 0, 0, 0);
+    }
+
     public static DynamicObject createConstantByteArray(JSContext context, byte[] byteArray) {
         ScriptArray arrayType = ConstantByteArray.createConstantByteArray();
         return create(context, arrayType, byteArray, byteArray.length);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -63,21 +63,15 @@ import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.util.DateFormatter;
 
 public final class JSDate extends JSBuiltinObject implements JSConstructorFactory.Default.WithFunctions, PrototypeSupplier {
 
     public static final String CLASS_NAME = "Date";
     public static final String PROTOTYPE_NAME = "Date.prototype";
 
-    private static DateTimeFormatter jsDateFormat;
-    private static DateTimeFormatter jsDateFormatBeforeYear0;
-    private static DateTimeFormatter jsDateFormatAfterYear9999;
-    private static DateTimeFormatter jsDateFormatISO;
-    private static DateTimeFormatter jsShortDateFormat;
     private static DateTimeFormatter jsShortDateLocalFormat;
-    private static DateTimeFormatter jsShortTimeFormat;
     private static DateTimeFormatter jsShortTimeLocalFormat;
-    private static DateTimeFormatter jsDateToStringFormat;
     public static final JSDate INSTANCE = new JSDate();
 
     private static final HiddenKey TIME_MILLIS_ID = new HiddenKey("timeMillis");
@@ -441,37 +435,42 @@ public final class JSDate extends JSBuiltinObject implements JSConstructorFactor
         return offset;
     }
 
+    /**
+     * Daylight Saving Time Adjustment of the local time zone, in milliseconds, using the date cache
+     * of the context.
+     */
+    public static long daylightSavingTA(JSContext context, double t) {
+        long offset = context.getDateCache().getDaylightSavings((long) t);
+        assert 0 <= offset && offset <= MS_MAX_DST;
+        return offset;
+    }
+
     // 15.9.1.9
-    @TruffleBoundary
     public static double localTime(double t, JSContext context) {
         long localTZA = context.getLocalTZA();
-        return t + localTZA + daylightSavingTA(context.getLocalTimeZoneId(), t);
+        return t + localTZA + daylightSavingTA(context, t);
     }
 
     private static double utc(double t, JSContext context) {
         long localTZA = context.getLocalTZA();
-        return t - localTZA - daylightSavingTA(context.getLocalTimeZoneId(), t - localTZA);
+        return t - localTZA - daylightSavingTA(context, t - localTZA);
     }
 
-    // 15.9.1.10
-    @TruffleBoundary
+    // 15.9.1.10 (time values are integral, so long arithmetic suffices)
     public static double hourFromTime(double t) {
-        return (int) secureNegativeModulo(floor(t / MS_PER_HOUR), HOURS_PER_DAY);
+        return Math.floorMod(Math.floorDiv((long) t, MS_PER_HOUR), HOURS_PER_DAY);
     }
 
-    @TruffleBoundary
     public static double minFromTime(double t) {
-        return (int) secureNegativeModulo(floor(t / MS_PER_MINUTE), MINUTES_PER_HOUR);
+        return Math.floorMod(Math.floorDiv((long) t, MS_PER_MINUTE), MINUTES_PER_HOUR);
     }
 
-    @TruffleBoundary
     public static double secFromTime(double t) {
-        return (int) secureNegativeModulo(floor(t / MS_PER_SECOND), SECONDS_PER_MINUTE);
+        return Math.floorMod(Math.floorDiv((long) t, MS_PER_SECOND), SECONDS_PER_MINUTE);
     }
 
-    @TruffleBoundary
     public static double msFromTime(double t) {
-        return (long) secureNegativeModulo(t, MS_PER_SECOND);
+        return Math.floorMod((long) t, MS_PER_SECOND);
     }
 
     private static double secureNegativeModulo(double value, double modulo) {
@@ -684,75 +683,39 @@ public final class JSDate extends JSBuiltinObject implements JSConstructorFactor
         return Instant.ofEpochMilli((long) time).atZone(context.getLocalTimeZoneId()).format(format);
     }
 
-    @TruffleBoundary
-    public static String formatUTC(DateTimeFormatter format, double time) {
-        return Instant.ofEpochMilli((long) time).atZone(ZoneOffset.UTC).format(format);
-    }
-
-    @TruffleBoundary
     public static String toString(double time, JSContext context) {
         if (Double.isNaN(time)) {
             return INVALID_DATE_STRING;
         }
-        return formatLocal(getDateToStringFormat(), time, context);
+        return DateFormatter.toString(time, context.getDateCache());
     }
 
-    @TruffleBoundary
     public static String toISOStringIntl(double time) {
-        return formatUTC(getJSDateFormat(time), time);
+        return DateFormatter.toISOString(time);
     }
 
-    public static boolean isTimeValid(double time) {
-        return !(Double.isNaN(time) || Double.isInfinite(time));
+    public static String toUTCString(double time) {
+        return DateFormatter.toUTCString(time);
     }
 
-    private static double localTime(double time, boolean isUTC, JSContext context) {
-        return isUTC ? time : localTime(time, context);
+    public static String toDateString(double time, JSContext context) {
+        return DateFormatter.toDateString(time, context.getDateCache());
     }
 
-    private static double utc(double time, boolean isUTC, JSContext context) {
-        return isUTC ? time : utc(time, context);
+    public static String toTimeString(double time, JSContext context) {
+        return DateFormatter.toTimeString(time, context.getDateCache());
     }
 
-    public static DateTimeFormatter getJSDateFormat(double time) {
-        long milliseconds = (long) time;
-        if (milliseconds < -62167219200000L) {
-            if (jsDateFormatBeforeYear0 == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                jsDateFormatBeforeYear0 = DateTimeFormatter.ofPattern("uuuuuu-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
-            }
-            return jsDateFormatBeforeYear0;
-        } else if (milliseconds >= 253402300800000L) {
-            if (jsDateFormatAfterYear9999 == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                jsDateFormatAfterYear9999 = DateTimeFormatter.ofPattern("+uuuuuu-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
-            }
-            return jsDateFormatAfterYear9999;
-        } else {
-            if (jsDateFormat == null) {
-                // UTC
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                jsDateFormat = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
-            }
-            return jsDateFormat;
-        }
+    public static boolean isTimeValid(double time) {
+        return !(Double.isNaN(time) || Double.isInfinite(time));
     }
 
-    public static DateTimeFormatter getJSDateUTCFormat() {
-        if (jsDateFormatISO == null) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            jsDateFormatISO = DateTimeFormatter.ofPattern("EEE, dd MMM uuuu HH:mm:ss 'GMT'", Locale.US);
-        }
-        return jsDateFormatISO;
+    private static double localTime(double time, boolean isUTC, JSContext context) {
+        return isUTC ? time : localTime(time, context);
     }
 
-    public static DateTimeFormatter getJSShortDateFormat() {
-        if (jsShortDateFormat == null) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            // no UTC
-            jsShortDateFormat = DateTimeFormatter.ofPattern("EEE MMM dd uuuu", Locale.US);
-        }
-        return jsShortDateFormat;
+    private static double utc(double time, boolean isUTC, JSContext context) {
+        return isUTC ? time : utc(time, context);
     }
 
     public static DateTimeFormatter getJSShortDateLocalFormat() {
@@ -764,15 +727,6 @@ public final class JSDate extends JSBuiltinObject implements JSConstructorFactor
         return jsShortDateLocalFormat;
     }
 
-    public static DateTimeFormatter getJSShortTimeFormat() {
-        if (jsShortTimeFormat == null) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            // no UTC
-            jsShortTimeFormat = DateTimeFormatter.ofPattern("HH:mm:ss 'GMT'Z (z)", Locale.US);
-        }
-        return jsShortTimeFormat;
-    }
-
     public static DateTimeFormatter getJSShortTimeLocalFormat() {
         if (jsShortTimeLocalFormat == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -782,14 +736,6 @@ public final class JSDate extends JSBuiltinObject implements JSConstructorFactor
         return jsShortTimeLocalFormat;
     }
 
-    public static DateTimeFormatter getDateToStringFormat() {
-        if (jsDateToStringFormat == null) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            jsDateToStringFormat = DateTimeFormatter.ofPattern("EEE MMM dd uuuu HH:mm:ss 'GMT'Z (z)", Locale.US);
-        }
-        return jsDateToStringFormat;
-    }
-
     @TruffleBoundary
     @Override
     public String safeToString(DynamicObject obj, int depth) {
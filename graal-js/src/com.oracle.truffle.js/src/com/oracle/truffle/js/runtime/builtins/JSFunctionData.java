@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,6 +53,7 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.util.BackgroundTranslationPool;
 
 public final class JSFunctionData {
 
@@ -343,21 +344,42 @@ public final class JSFunctionData {
         return lazyInit != null;
     }
 
-    private CallTarget ensureInitialized(Target target) {
+    /**
+     * Initializes the root call target of a lazily initialized function (i.e. translates its body)
+     * if that has not happened yet. Call targets are still created on demand. Different functions
+     * can be initialized in parallel; a thread that initializes a function that is being initialized
+     * by another thread waits for it.
+     *
+     * @return {@code true} if the root call target was initialized by this call
+     */
+    public boolean initializeRoot() {
         CompilerAsserts.neverPartOfCompilation();
-        Initializer init = lazyInit;
-        assert init != null;
+        assert lazyInit != null;
         if (rootTarget == null) {
-            // synchronizing on context so we do not need one lock per function
-            synchronized (context) {
+            // not synchronizing on context, so that other functions can be translated meanwhile
+            synchronized (this) {
                 if (rootTarget == null) {
+                    Initializer init = lazyInit;
                     init.initializeRoot(this);
                     if (!(init instanceof CallTargetInitializer)) {
-                        lazyInit = init = (CallTargetInitializer) ((RootCallTarget) rootTarget).getRootNode();
+                        lazyInit = (CallTargetInitializer) ((RootCallTarget) rootTarget).getRootNode();
                     }
+                    return true;
                 }
             }
         }
+        return false;
+    }
+
+    private CallTarget ensureInitialized(Target target) {
+        CompilerAsserts.neverPartOfCompilation();
+        BackgroundTranslationPool backgroundTranslation = context.getExistingBackgroundTranslationPool();
+        if (backgroundTranslation == null) {
+            initializeRoot();
+        } else {
+            backgroundTranslation.initializeRootForCall(this);
+        }
+        Initializer init = lazyInit;
         AtomicReferenceFieldUpdater<JSFunctionData, CallTarget> updater = target.getUpdater();
         CallTarget result = updater.get(this);
         if (result != null) {
@@ -65,7 +65,8 @@ import com.oracle.truffle.regex.nashorn.regexp.joni.exception.SyntaxException;
 public final class JoniRegexEngine implements TruffleObject {
 
     private final TruffleLanguage<?> language;
-    // For Joni, we want to share call targets to avoid excessive splitting.
+    // For Joni, we want to share call targets to avoid excessive splitting. Only RegExps that
+    // cannot be exploded use these, the others get a call target of their own.
     private CallTarget searchSimpleCallTarget;
     private CallTarget searchGroupCallTarget;
     private CallTarget matchSimpleCallTarget;
@@ -110,7 +111,9 @@ public final class JoniRegexEngine implements TruffleObject {
             Regex implementation = createJoniRegex(pattern, parsedFlags);
             CallTarget callTarget;
             boolean group = PatternAnalyzer.containsGroup(pattern);
-            if (parsedFlags.isSticky()) {
+            if (implementation.isExplodable()) {
+                callTarget = Truffle.getRuntime().createCallTarget(new JoniRegexExecRootNode.Exploded(language, pattern, implementation, parsedFlags.isSticky(), group));
+            } else if (parsedFlags.isSticky()) {
                 callTarget = group ? getMatchGroupCallTarget() : getMatchSimpleCallTarget();
             } else {
                 callTarget = group ? getSearchGroupCallTarget() : getSearchSimpleCallTarget();
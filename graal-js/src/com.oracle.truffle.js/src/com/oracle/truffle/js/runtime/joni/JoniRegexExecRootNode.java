@@ -51,18 +51,20 @@ import com.oracle.truffle.js.runtime.joni.result.JoniNoMatchResult;
 import com.oracle.truffle.js.runtime.joni.result.JoniRegexResult;
 import com.oracle.truffle.js.runtime.joni.result.JoniSingleResult;
 import com.oracle.truffle.js.runtime.joni.result.JoniStartsEndsIndexArrayResult;
+import com.oracle.truffle.regex.nashorn.regexp.joni.ExplodedByteCodeMachine;
 import com.oracle.truffle.regex.nashorn.regexp.joni.Matcher;
 import com.oracle.truffle.regex.nashorn.regexp.joni.Regex;
 import com.oracle.truffle.regex.nashorn.regexp.joni.Region;
 
 /**
- * These nodes are instantiated only once and used for all Joni-RegExp. Therefore, we do not gain
- * anything from using ConditionProfiles.
+ * The {@link Simple} and {@link Groups} nodes are instantiated only once and used for all Joni
+ * RegExps whose byte code cannot be exploded. Therefore, we do not gain anything from using
+ * ConditionProfiles. {@link Exploded} nodes are created per RegExp.
  */
 public abstract class JoniRegexExecRootNode extends RootNode {
 
     private final SourceSection pseudoSource;
-    private final boolean sticky;
+    protected final boolean sticky;
 
     private static final FrameDescriptor SHARED_EMPTY_FRAMEDESCRIPTOR = new FrameDescriptor();
 
@@ -81,11 +83,19 @@ public abstract class JoniRegexExecRootNode extends RootNode {
         String input = (String) args[1];
         int fromIndex = (int) args[2];
         Regex impl = compiledRegex.getJoniRegex();
-        Matcher matcher = sticky ? match(impl, input, fromIndex) : search(impl, input, fromIndex);
+        Matcher matcher = findMatch(impl, input, fromIndex);
 
         return (matcher != null) ? getMatchResult(matcher) : JoniNoMatchResult.getInstance();
     }
 
+    /**
+     * Returns the matcher of the first match starting at or after {@code fromIndex}, or
+     * {@code null} if there is no match.
+     */
+    protected Matcher findMatch(Regex impl, String input, int fromIndex) {
+        return sticky ? match(impl, input, fromIndex) : search(impl, input, fromIndex);
+    }
+
     @TruffleBoundary
     private static Matcher search(Regex regex, String input, int fromIndex) {
         Matcher matcher = regex.matcher(input);
@@ -117,7 +127,10 @@ public abstract class JoniRegexExecRootNode extends RootNode {
     protected abstract JoniRegexResult getMatchResult(Matcher matcher);
 
     private static SourceSection createPseudoSource(String name) {
-        String patternSrc = "/[" + name + "]/";
+        return createSource("/[" + name + "]/");
+    }
+
+    private static SourceSection createSource(String patternSrc) {
         return Source.newBuilder("regex", patternSrc, patternSrc).build().createSection(0, patternSrc.length());
     }
 
@@ -143,4 +156,37 @@ public abstract class JoniRegexExecRootNode extends RootNode {
             return new JoniStartsEndsIndexArrayResult(reg.beg, reg.end);
         }
     }
+
+    /**
+     * Root node of a single RegExp. The Joni byte code of the RegExp is partially evaluated, see
+     * {@link ExplodedByteCodeMachine}.
+     */
+    public static final class Exploded extends JoniRegexExecRootNode {
+        private final Regex regex;
+        private final boolean groups;
+
+        public Exploded(TruffleLanguage<?> language, String pattern, Regex regex, boolean sticky, boolean groups) {
+            super(language, createSource("/" + pattern + "/"), sticky);
+            assert regex.isExplodable();
+            this.regex = regex;
+            this.groups = groups;
+        }
+
+        @Override
+        protected Matcher findMatch(Regex impl, String input, int fromIndex) {
+            assert impl == regex;
+            ExplodedByteCodeMachine matcher = regex.explodedMatcher(input);
+            int result = sticky ? matcher.matchExploded(regex, fromIndex, regex.getOptions()) : matcher.searchExploded(regex, fromIndex, regex.getOptions());
+            return result > -1 ? matcher : null;
+        }
+
+        @Override
+        protected JoniRegexResult getMatchResult(Matcher matcher) {
+            if (groups) {
+                Region reg = matcher.getRegion();
+                return new JoniStartsEndsIndexArrayResult(reg.beg, reg.end);
+            }
+            return new JoniSingleResult(matcher.getBegin(), matcher.getEnd());
+        }
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.Evaluator;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.RegexCompilerInterface;
+
+/**
+ * Module loader of a realm, loading modules from the file system.
+ *
+ * If {@code js.module-parse-threads} is set, the whole import graph of a newly loaded module is
+ * discovered and parsed on a pool of worker threads before the module is instantiated. Only
+ * parsing is done concurrently; module records are created and linked on the loading thread. A
+ * module that fails to load or parse on a worker is left to the regular (synchronous) resolution,
+ * which then reports the error at the right time. The worker pool is owned by the realm.
+ */
+public final class DefaultModuleLoader implements JSModuleLoader {
+
+    private final JSRealm realm;
+    private final Map<String, JSModuleRecord> moduleMap = new HashMap<>();
+
+    public DefaultModuleLoader(JSRealm realm) {
+        this.realm = realm;
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord resolveImportedModule(ScriptOrModule referrer, String specifier) {
+        try {
+            TruffleFile moduleFile = resolveModuleFile(referrer, specifier);
+            String canonicalPath = moduleFile.getPath();
+            JSModuleRecord existingModule = moduleMap.get(canonicalPath);
+            if (existingModule != null) {
+                return existingModule;
+            }
+            Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
+            JSModuleRecord newModule = realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this);
+            moduleMap.put(canonicalPath, newModule);
+            parseModuleGraph(newModule);
+            return newModule;
+        } catch (IOException | SecurityException e) {
+            throw Errors.createErrorFromException(e);
+        }
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord loadModule(Source source) {
+        String path = source.getPath();
+        String canonicalPath;
+        if (path == null) {
+            // Source does not originate from a file.
+            canonicalPath = source.getName();
+        } else {
+            try {
+                TruffleFile moduleFile = realm.getEnv().getTruffleFile(path);
+                canonicalPath = moduleFile.getCanonicalFile().getPath();
+            } catch (IOException | SecurityException e) {
+                throw Errors.createErrorFromException(e);
+            }
+        }
+        JSModuleRecord existingModule = moduleMap.get(canonicalPath);
+        if (existingModule != null) {
+            return existingModule;
+        }
+        JSModuleRecord newModule = realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this);
+        moduleMap.put(canonicalPath, newModule);
+        parseModuleGraph(newModule);
+        return newModule;
+    }
+
+    private TruffleFile resolveModuleFile(ScriptOrModule referrer, String specifier) throws IOException {
+        String refPath = referrer == null ? null : referrer.getSource().getPath();
+        if (refPath == null) {
+            // Importing module source does not originate from a file.
+            return realm.getEnv().getTruffleFile(specifier).getCanonicalFile();
+        } else {
+            TruffleFile refFile = realm.getEnv().getTruffleFile(refPath);
+            return refFile.resolveSibling(specifier).getCanonicalFile();
+        }
+    }
+
+    /**
+     * Parses all modules reachable from {@code root} that are not loaded yet, using the parser pool.
+     */
+    private void parseModuleGraph(JSModuleRecord root) {
+        JSContext context = realm.getContext();
+        if (context.getContextOptions().getModuleParseThreads() <= 0) {
+            return;
+        }
+        Evaluator evaluator = context.getEvaluator();
+        ForkJoinPool pool = realm.getModuleParserPool();
+        // the parser validates regular expression literals with the regex engine, which has to be
+        // created here: the workers have not entered the context
+        RegexCompilerInterface.prepareValidation(context);
+        Map<String, Future<PreparsedModule>> pending = new LinkedHashMap<>();
+        Set<String> scheduled = new HashSet<>();
+        Deque<JSModuleRecord> parsed = new ArrayDeque<>();
+        parsed.add(root);
+        while (true) {
+            while (!parsed.isEmpty()) {
+                JSModuleRecord moduleRecord = parsed.poll();
+                for (String specifier : evaluator.getRequestedModules(moduleRecord)) {
+                    TruffleFile moduleFile;
+                    try {
+                        moduleFile = resolveModuleFile(moduleRecord, specifier);
+                    } catch (IOException | SecurityException e) {
+                        continue;
+                    }
+                    String canonicalPath = moduleFile.getPath();
+                    if (moduleMap.containsKey(canonicalPath) || !scheduled.add(canonicalPath)) {
+                        continue;
+                    }
+                    pending.put(canonicalPath, pool.submit(() -> preparseModule(context, moduleFile, specifier)));
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            // modules are taken in discovery order, so that the pool keeps parsing ahead of us
+            Iterator<Map.Entry<String, Future<PreparsedModule>>> iterator = pending.entrySet().iterator();
+            Map.Entry<String, Future<PreparsedModule>> next = iterator.next();
+            iterator.remove();
+            PreparsedModule preparsed;
+            try {
+                preparsed = next.getValue().get();
+            } catch (ExecutionException e) {
+                // reported by resolveImportedModule
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            JSModuleRecord moduleRecord = evaluator.parseModule(context, preparsed.source, this, preparsed.ast);
+            moduleMap.put(next.getKey(), moduleRecord);
+            parsed.add(moduleRecord);
+        }
+    }
+
+    private static PreparsedModule preparseModule(JSContext context, TruffleFile moduleFile, String specifier) throws IOException {
+        Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
+        return new PreparsedModule(source, context.getEvaluator().preparseModule(context, source));
+    }
+
+    private static final class PreparsedModule {
+        final Source source;
+        final Object ast;
+
+        PreparsedModule(Source source, Object ast) {
+            this.source = source;
+            this.ast = ast;
+        }
+    }
+}
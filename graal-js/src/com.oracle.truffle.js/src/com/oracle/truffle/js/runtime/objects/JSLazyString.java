@@ -40,6 +40,12 @@
  */
 package com.oracle.truffle.js.runtime.objects;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -114,7 +120,7 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         assert assertChecked(left, right, length);
         CharSequence ll = left.left;
         CharSequence lr = left.right;
-        if (lr != null && lr instanceof String && lr.length() + right.length() <= JSTruffleOptions.ConcatToLeafLimit) {
+        if (ll != null && lr != null && lr instanceof String && lr.length() + right.length() <= JSTruffleOptions.ConcatToLeafLimit) {
             return createChecked(ll, lr.toString().concat(right), length);
         }
         return null;
@@ -131,6 +137,41 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         return null;
     }
 
+    /**
+     * Returns the substring of {@code parent} from {@code begin} (inclusive) to {@code end}
+     * (exclusive). Sufficiently long substrings are represented as a view that shares the
+     * characters of the parent until it is flattened; short substrings, and substrings that would
+     * keep a much larger parent alive, are copied.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static CharSequence createSubstring(String parent, int begin, int end) {
+        assert 0 <= begin && begin <= end && end <= parent.length();
+        int length = end - begin;
+        if (JSTruffleOptions.LazyStrings && length >= JSTruffleOptions.MinLazySubstringLength && length < parent.length() &&
+                        (long) length * JSTruffleOptions.LazySubstringMaxRetention >= parent.length()) {
+            return new JSLazyString(parent, begin, length);
+        }
+        return parent.substring(begin, end);
+    }
+
+    /**
+     * Like {@link #createSubstring(String, int, int)}, but does not flatten {@code str} if it is
+     * itself a substring view; the result then shares the characters of the original parent.
+     */
+    @TruffleBoundary
+    public static CharSequence createSubstring(CharSequence str, int begin, int end) {
+        if (str instanceof JSLazyString) {
+            JSLazyString lazyString = (JSLazyString) str;
+            CharSequence parent = lazyString.right;
+            if (lazyString.left == null && parent != null) {
+                assert begin <= end && end <= lazyString.length;
+                int offset = lazyString.offset;
+                return createSubstring((String) parent, offset + begin, offset + end);
+            }
+        }
+        return createSubstring(str.toString(), begin, end);
+    }
+
     /**
      * Only use when invariants are checked already, e.g. from specializing nodes. Converts the
      * right int param lazily.
@@ -159,21 +200,67 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         return new JSLazyString(new JSLazyIntWrapper(left), right);
     }
 
+    /**
+     * A concatenation has both {@code left} and {@code right}; a flat string has only
+     * {@code left}. A substring view has no {@code left} and refers to the characters of its
+     * parent {@code right} starting at {@code offset}.
+     *
+     * Strings may be read by several threads. The only change of these fields after construction
+     * is {@link #flatten()}, which first stores the flat string in {@code left} and then clears
+     * {@code right}. Readers therefore load {@code right} before {@code left}; if they see a
+     * stale {@code right}, {@code left} is either the old child or the flat string, which covers
+     * all characters and is handled like a left child of full length.
+     */
     private CharSequence left;
     private CharSequence right;
+    private int offset;
     private final int length;
+    /** Upper bound of the number of concatenations on any path from this node to a leaf. */
+    private int depth;
+    /** The leaf found by the last indexed access that was not served by the previous one. */
+    private LeafCursor cursor;
+    /** Balanced tree over the leaves of this rope, used for lookups once it got too deep. */
+    private JSLazyString rebalanced;
+    /** Whether all characters are Latin-1: one of {@link #LATIN1_UNKNOWN}, YES or NO. */
+    private byte latin1;
+
+    /**
+     * Whether the JDK stores Latin-1 strings one byte per character (compact strings, JDK 9 and
+     * later). Only then is it worth flattening into a {@code byte[]}.
+     */
+    private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version").startsWith("1.");
+
+    private static final byte LATIN1_UNKNOWN = 0;
+    private static final byte LATIN1_YES = 1;
+    private static final byte LATIN1_NO = 2;
 
     private JSLazyString(CharSequence left, CharSequence right, int length) {
         assert left.length() > 0 && right.length() > 0 && length == left.length() + right.length();
         this.left = left;
         this.right = right;
         this.length = length;
+        this.depth = Math.max(depth(left), depth(right)) + 1;
+        byte leftLatin1 = latin1(left);
+        byte rightLatin1 = latin1(right);
+        if (leftLatin1 == LATIN1_NO || rightLatin1 == LATIN1_NO) {
+            this.latin1 = LATIN1_NO;
+        } else if (leftLatin1 == LATIN1_YES && rightLatin1 == LATIN1_YES) {
+            this.latin1 = LATIN1_YES;
+        }
     }
 
     private JSLazyString(CharSequence left, CharSequence right) {
         this(left, right, left.length() + right.length());
     }
 
+    private JSLazyString(String parent, int offset, int length) {
+        assert length > 0 && offset >= 0 && offset + length <= parent.length();
+        this.left = null;
+        this.right = parent;
+        this.offset = offset;
+        this.length = length;
+    }
+
     @Override
     public int length() {
         return length;
@@ -198,15 +285,42 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         return right == null;
     }
 
+    /**
+     * Returns true if this string is a substring view that still refers to its parent string.
+     */
+    public boolean isSubstring() {
+        return left == null;
+    }
+
     @TruffleBoundary
     private void flatten() {
-        char[] dst = new char[length];
-        flatten(this, 0, length, dst, 0);
-        left = new String(dst);
+        if (isSubstring()) {
+            left = ((String) right).substring(offset, offset + length);
+        } else if (COMPACT_STRINGS && isLatin1()) {
+            // avoids the UTF-16 intermediate copy
+            byte[] dst = new byte[length];
+            flatten(this, 0, length, dst, 0);
+            left = new String(dst, StandardCharsets.ISO_8859_1);
+        } else {
+            char[] dst = new char[length];
+            flatten(this, 0, length, dst, 0);
+            left = new String(dst);
+        }
         right = null;
+        depth = 0;
+        cursor = null;
+        rebalanced = null;
     }
 
-    private static void flatten(CharSequence src, int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+    private static int depth(CharSequence str) {
+        return str instanceof JSLazyString ? ((JSLazyString) str).depth : 0;
+    }
+
+    /**
+     * Copies the characters of {@code src} into {@code dst}, which is either a {@code char[]} or,
+     * if all characters are known to be Latin-1, a {@code byte[]}.
+     */
+    private static void flatten(CharSequence src, int srcBegin, int srcEnd, Object dst, int dstBegin) {
         CompilerAsserts.neverPartOfCompilation();
         CharSequence str = src;
         int from = srcBegin;
@@ -218,13 +332,18 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
                 JSLazyString lazyString = (JSLazyString) str;
                 CharSequence left = lazyString.left;
                 CharSequence right = lazyString.right;
+                if (left == null) {
+                    int offset = lazyString.offset;
+                    copy((String) right, offset + from, offset + to, dst, dstFrom);
+                    return;
+                }
                 int mid = left.length();
 
                 if (to - mid >= mid - from) {
                     // right is longer, recurse left
                     if (from < mid) {
                         if (left instanceof String) {
-                            ((String) left).getChars(from, mid, dst, dstFrom);
+                            copy((String) left, from, mid, dst, dstFrom);
                         } else {
                             flatten(left, from, mid, dst, dstFrom);
                         }
@@ -239,7 +358,7 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
                     // left is longer, recurse right
                     if (to > mid) {
                         if (right instanceof String) {
-                            ((String) right).getChars(0, to - mid, dst, dstFrom + mid - from);
+                            copy((String) right, 0, to - mid, dst, dstFrom + mid - from);
                         } else {
                             flatten(right, 0, to - mid, dst, dstFrom + mid - from);
                         }
@@ -248,24 +367,388 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
                     str = left;
                 }
             } else if (str instanceof String) {
-                ((String) str).getChars(from, to, dst, dstFrom);
+                copy((String) str, from, to, dst, dstFrom);
                 return;
             } else {
                 assert JSRuntime.isString(str) || str instanceof JSLazyIntWrapper;
-                str.toString().getChars(from, to, dst, dstFrom);
+                copy(str.toString(), from, to, dst, dstFrom);
                 return;
             }
         }
     }
 
+    @SuppressWarnings("deprecation")
+    private static void copy(String str, int from, int to, Object dst, int dstFrom) {
+        if (dst instanceof byte[]) {
+            // copies the low byte of each char, which is exact for Latin-1 strings
+            str.getBytes(from, to, (byte[]) dst, dstFrom);
+        } else {
+            str.getChars(from, to, (char[]) dst, dstFrom);
+        }
+    }
+
+    /**
+     * Returns true if all characters of this string are in the Latin-1 range. The result is
+     * cached; for concatenations it is derived from the children where they already know it.
+     */
+    public boolean isLatin1() {
+        byte known = latin1;
+        if (known == LATIN1_UNKNOWN) {
+            known = computeLatin1() ? LATIN1_YES : LATIN1_NO;
+            latin1 = known;
+        }
+        return known == LATIN1_YES;
+    }
+
+    /**
+     * Scans the nodes of this string whose status is unknown, depth first, and stores the status
+     * of every node it completes, so that a subtree shared by several ropes is scanned only once.
+     * The exit markers on the stack are exactly the ancestors of the current node; if a
+     * non-Latin-1 character is found, they are all marked as such.
+     */
+    @TruffleBoundary
+    private boolean computeLatin1() {
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            Object entry = stack.pop();
+            if (entry instanceof Latin1Exit) {
+                ((Latin1Exit) entry).node.latin1 = LATIN1_YES;
+                continue;
+            }
+            boolean result;
+            if (entry instanceof JSLazyString) {
+                JSLazyString lazyString = (JSLazyString) entry;
+                byte known = lazyString.latin1;
+                if (known == LATIN1_YES) {
+                    continue;
+                } else if (known == LATIN1_NO) {
+                    result = false;
+                } else {
+                    CharSequence r = lazyString.right;
+                    CharSequence l = lazyString.left;
+                    if (r != null && l != null && l.length() < lazyString.length) {
+                        stack.push(new Latin1Exit(lazyString));
+                        stack.push(r);
+                        stack.push(l);
+                        continue;
+                    } else if (l == null) {
+                        result = isLatin1((String) r, lazyString.offset, lazyString.offset + lazyString.length);
+                    } else {
+                        // flat, or being flattened by another thread
+                        result = isLatin1((String) l, 0, l.length());
+                    }
+                    lazyString.latin1 = result ? LATIN1_YES : LATIN1_NO;
+                }
+            } else if (entry instanceof JSLazyIntWrapper) {
+                continue;
+            } else {
+                String str = entry.toString();
+                result = isLatin1(str, 0, str.length());
+            }
+            if (!result) {
+                for (Object pending : stack) {
+                    if (pending instanceof Latin1Exit) {
+                        ((Latin1Exit) pending).node.latin1 = LATIN1_NO;
+                    }
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Marks the end of the children of a concatenation in {@link #computeLatin1()}. */
+    private static final class Latin1Exit {
+        final JSLazyString node;
+
+        Latin1Exit(JSLazyString node) {
+            this.node = node;
+        }
+    }
+
+    private static boolean isLatin1(String str, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (str.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte latin1(CharSequence str) {
+        if (str instanceof JSLazyString) {
+            return ((JSLazyString) str).latin1;
+        } else if (str instanceof JSLazyIntWrapper) {
+            return LATIN1_YES;
+        }
+        return LATIN1_UNKNOWN;
+    }
+
+    /**
+     * Returns the character at {@code index} without flattening. Consecutive accesses to the same
+     * leaf are served by a cached cursor, so a sequential scan visits every leaf only once.
+     */
     @Override
     public char charAt(int index) {
-        return toString().charAt(index);
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        CharSequence r = right;
+        CharSequence l = left;
+        if (r == null) {
+            return ((String) l).charAt(index);
+        } else if (l == null) {
+            return ((String) r).charAt(offset + index);
+        }
+        LeafCursor c = cursorAt(index);
+        return c.leaf.charAt(index + c.shift);
     }
 
+    /**
+     * Returns the index of the first occurrence of {@code search} at or after {@code fromIndex},
+     * or -1, without flattening.
+     */
+    @TruffleBoundary
+    public int indexOf(String search, int fromIndex) {
+        int from = Math.max(fromIndex, 0);
+        int searchLength = search.length();
+        if (searchLength == 0) {
+            return Math.min(from, length);
+        } else if (isFlat()) {
+            return ((String) left).indexOf(search, from);
+        }
+        char first = search.charAt(0);
+        int last = length - searchLength;
+        int i = from;
+        while (i <= last) {
+            LeafCursor c = cursorAt(i);
+            String leaf = c.leaf;
+            int shift = c.shift;
+            int leafEnd = Math.min(c.end, last + 1);
+            while (i < leafEnd && leaf.charAt(i + shift) != first) {
+                i++;
+            }
+            if (i < leafEnd) {
+                if (regionMatches(i, search)) {
+                    return i;
+                }
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the characters of this string starting at {@code thisOffset} are equal to
+     * {@code other}, without flattening. Used for prefix and suffix checks.
+     */
+    @TruffleBoundary
+    public boolean regionMatches(int thisOffset, String other) {
+        int otherLength = other.length();
+        if (thisOffset < 0 || thisOffset > length - otherLength) {
+            return false;
+        } else if (isFlat()) {
+            return ((String) left).startsWith(other, thisOffset);
+        }
+        int i = 0;
+        while (i < otherLength) {
+            LeafCursor c = cursorAt(thisOffset + i);
+            int count = Math.min(c.end - (thisOffset + i), otherLength - i);
+            if (!other.regionMatches(i, c.leaf, thisOffset + i + c.shift, count)) {
+                return false;
+            }
+            i += count;
+        }
+        return true;
+    }
+
+    /**
+     * Compares two strings lexicographically like {@link String#compareTo(String)}. Lazy strings
+     * are not flattened; the comparison stops at the first differing character.
+     */
+    @TruffleBoundary
+    public static int compare(CharSequence a, CharSequence b) {
+        if (a instanceof String && b instanceof String) {
+            return ((String) a).compareTo((String) b);
+        }
+        int aLength = a.length();
+        int bLength = b.length();
+        int n = Math.min(aLength, bLength);
+        for (int i = 0; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private LeafCursor cursorAt(int index) {
+        LeafCursor c = cursor;
+        if (c == null || index < c.start || index >= c.end) {
+            c = locate(index);
+        }
+        return c;
+    }
+
+    @TruffleBoundary
+    private LeafCursor locate(int index) {
+        assert index >= 0 && index < length;
+        CharSequence node = lookupRoot();
+        int start = 0;
+        for (;;) {
+            LeafCursor c;
+            if (node instanceof JSLazyString) {
+                JSLazyString lazyString = (JSLazyString) node;
+                CharSequence r = lazyString.right;
+                CharSequence l = lazyString.left;
+                if (r == null) {
+                    c = new LeafCursor((String) l, start, start + lazyString.length, -start);
+                } else if (l == null) {
+                    c = new LeafCursor((String) r, start, start + lazyString.length, lazyString.offset - start);
+                } else {
+                    int mid = start + l.length();
+                    if (index < mid) {
+                        node = l;
+                    } else {
+                        node = r;
+                        start = mid;
+                    }
+                    continue;
+                }
+            } else {
+                c = new LeafCursor(node.toString(), start, start + node.length(), -start);
+            }
+            cursor = c;
+            return c;
+        }
+    }
+
+    /**
+     * Returns the tree that lookups walk: this string, or a balanced copy of it if it is too deep.
+     */
+    private CharSequence lookupRoot() {
+        JSLazyString balanced = rebalanced;
+        if (balanced != null) {
+            return balanced;
+        }
+        if (depth > JSTruffleOptions.MaxLazyStringDepth) {
+            rebalance();
+            balanced = rebalanced;
+            if (balanced != null) {
+                return balanced;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Restores logarithmic access time to a rope that degenerated into a list, typically by
+     * repeated appending. The balanced tree is built from the leaves of this rope and published
+     * with a single write, so that concurrent readers see either the old or the new tree; the
+     * structure of this string itself is not changed. Ropes made of many small leaves are
+     * flattened instead, since a balanced tree over them would take more memory than the
+     * characters themselves.
+     */
+    private void rebalance() {
+        CompilerAsserts.neverPartOfCompilation();
+        List<CharSequence> leaves = new ArrayList<>();
+        Deque<CharSequence> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            CharSequence node = stack.pop();
+            CharSequence r = node instanceof JSLazyString ? ((JSLazyString) node).right : null;
+            CharSequence l = node instanceof JSLazyString ? ((JSLazyString) node).left : null;
+            if (r != null && l != null && l.length() < node.length()) {
+                stack.push(r);
+                stack.push(l);
+            } else {
+                leaves.add(node);
+                if (leaves.size() > length / Math.max(JSTruffleOptions.MinLazyStringLength, 1)) {
+                    flatten();
+                    return;
+                }
+            }
+        }
+        rebalanced = (JSLazyString) balance(leaves, 0, leaves.size());
+    }
+
+    private static CharSequence balance(List<CharSequence> leaves, int from, int to) {
+        if (to - from == 1) {
+            return leaves.get(from);
+        }
+        int mid = (from + to) >>> 1;
+        CharSequence l = balance(leaves, from, mid);
+        CharSequence r = balance(leaves, mid, to);
+        return new JSLazyString(l, r, l.length() + r.length());
+    }
+
+    /**
+     * A leaf of a rope that covers the indices {@code [start, end)}; the character at index
+     * {@code i} is {@code leaf.charAt(i + shift)}.
+     */
+    private static final class LeafCursor {
+        final String leaf;
+        final int start;
+        final int end;
+        final int shift;
+
+        LeafCursor(String leaf, int start, int end, int shift) {
+            this.leaf = leaf;
+            this.start = start;
+            this.end = end;
+            this.shift = shift;
+        }
+    }
+
+    /**
+     * Returns the characters from {@code start} to {@code end} without flattening: the result
+     * shares the leaves of this rope and, for long ranges, the characters of its leaves.
+     */
     @Override
+    @TruffleBoundary
     public CharSequence subSequence(int start, int end) {
-        return toString().subSequence(start, end);
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        } else if (start == 0 && end == length) {
+            return this;
+        }
+        return slice(lookupRoot(), start, end);
+    }
+
+    private static CharSequence slice(CharSequence str, int from, int to) {
+        CharSequence node = str;
+        int begin = from;
+        int end = to;
+        for (;;) {
+            if (begin == end) {
+                return "";
+            } else if (!(node instanceof JSLazyString)) {
+                return createSubstring(node.toString(), begin, end);
+            }
+            JSLazyString lazyString = (JSLazyString) node;
+            CharSequence r = lazyString.right;
+            CharSequence l = lazyString.left;
+            if (r == null) {
+                return createSubstring((String) l, begin, end);
+            } else if (l == null) {
+                return createSubstring((String) r, lazyString.offset + begin, lazyString.offset + end);
+            } else if (begin == 0 && end == lazyString.length) {
+                return lazyString;
+            }
+            int mid = l.length();
+            if (end <= mid) {
+                node = l;
+            } else if (begin >= mid) {
+                node = r;
+                begin -= mid;
+                end -= mid;
+            } else {
+                return create(slice(l, begin, mid), slice(r, 0, end - mid));
+            }
+        }
     }
 
     public boolean isEmpty() {
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.Symbol;
+import com.oracle.truffle.js.runtime.builtins.JSAdapter;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
+import com.oracle.truffle.js.runtime.builtins.JSModuleNamespace;
+import com.oracle.truffle.js.runtime.builtins.JSProxy;
+import com.oracle.truffle.js.runtime.builtins.JSSlowArgumentsObject;
+import com.oracle.truffle.js.runtime.builtins.JSSlowArray;
+import com.oracle.truffle.js.runtime.java.JavaImporter;
+import com.oracle.truffle.js.runtime.java.JavaPackage;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Property lookup cache shared by the generic (megamorphic) property access nodes of a context,
+ * similar to V8's megamorphic stub cache. A fixed-size, direct-mapped table maps (receiver shape,
+ * key) to the property found for the key and, for inherited properties, the prototypes up to the
+ * holder of the property. Colliding entries simply replace each other.
+ *
+ * A hit requires the receiver and every prototype on the recorded path to still have the shape
+ * they had when the entry was created. Since only prototypes stored in the shape are followed, this
+ * implies the same lookup result, so entries never need to be invalidated explicitly; stale ones
+ * just stop hitting and are eventually overwritten. Objects with non-ordinary property lookup
+ * (proxies, dictionary objects, typed arrays etc.) and array index keys are never cached.
+ *
+ * Keyed accesses ({@code obj[key]}) with string keys computed at run time share the same table.
+ * Their keys are first mapped to a canonical instance by a small table of internalized property
+ * keys, which also remembers that the key is not an array index, so that entries usually match by
+ * identity and repeated keys are neither re-parsed nor compared character by character.
+ */
+public final class PropertyStubCache {
+    private static final DebugCounter getHits = DebugCounter.create("Property stub cache get hits");
+    private static final DebugCounter getMisses = DebugCounter.create("Property stub cache get misses");
+    private static final DebugCounter setHits = DebugCounter.create("Property stub cache set hits");
+    private static final DebugCounter setMisses = DebugCounter.create("Property stub cache set misses");
+
+    /** Maximum number of prototypes between the receiver and the holder of a cached property. */
+    private static final int MAX_DEPTH = 8;
+    private static final DynamicObject[] NO_PROTOTYPES = new DynamicObject[0];
+    private static final Shape[] NO_SHAPES = new Shape[0];
+
+    private final Entry[] getEntries;
+    private final Entry[] setEntries;
+    /** Internalized string property keys, none of which is an array index. */
+    private final String[] keys;
+    private final int mask;
+
+    public PropertyStubCache(int size) {
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        this.getEntries = new Entry[capacity];
+        this.setEntries = new Entry[capacity];
+        this.keys = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Removes all entries and internalized keys.
+     */
+    @TruffleBoundary
+    public void clear() {
+        Arrays.fill(getEntries, null);
+        Arrays.fill(setEntries, null);
+        Arrays.fill(keys, null);
+    }
+
+    /**
+     * Like {@link #get}, for a keyed access with a string key that is not known to be a valid
+     * property key.
+     */
+    @TruffleBoundary
+    public Object getElement(DynamicObject thisObj, String key) {
+        String internedKey = internKey(key);
+        if (internedKey == null) {
+            return null;
+        }
+        return get(thisObj, internedKey, thisObj);
+    }
+
+    /**
+     * Like {@link #set}, for a keyed access with a string key that is not known to be a valid
+     * property key.
+     */
+    @TruffleBoundary
+    public boolean setElement(DynamicObject thisObj, String key, Object value, boolean isStrict) {
+        String internedKey = internKey(key);
+        if (internedKey == null) {
+            return false;
+        }
+        return set(thisObj, internedKey, value, isStrict);
+    }
+
+    /**
+     * Returns the canonical instance of a string key, or {@code null} if the key is an array index.
+     */
+    private String internKey(String key) {
+        int hash = key.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String cached = keys[index];
+        if (cached != null && (cached == key || cached.equals(key))) {
+            return cached;
+        }
+        if (JSRuntime.isArrayIndex(JSRuntime.propertyKeyToArrayIndex(key))) {
+            return null;
+        }
+        keys[index] = key;
+        return key;
+    }
+
+    /**
+     * Returns the value of the property {@code key} of {@code thisObj} or its prototypes, or
+     * {@code null} if the lookup cannot be answered by the cache; the caller then falls back to the
+     * full lookup.
+     */
+    @TruffleBoundary
+    public Object get(DynamicObject thisObj, Object key, Object receiver) {
+        Shape shape = thisObj.getShape();
+        int index = index(shape, key);
+        Entry entry = getEntries[index];
+        if (entry != null && entry.matches(shape, key)) {
+            DynamicObject holder = entry.getHolder(thisObj);
+            if (holder != null) {
+                getHits.inc();
+                return JSProperty.getValue(entry.property, holder, receiver, false);
+            }
+        }
+        getMisses.inc();
+        entry = lookup(thisObj, shape, key);
+        if (entry == null) {
+            return null;
+        }
+        getEntries[index] = entry;
+        return JSProperty.getValue(entry.property, entry.getHolder(thisObj), receiver, false);
+    }
+
+    /**
+     * Assigns {@code value} to the own writable data property {@code key} of {@code thisObj}.
+     * Returns {@code false} without side effects if there is no such property or it cannot be
+     * cached; the caller then falls back to the full [[Set]] operation.
+     */
+    @TruffleBoundary
+    public boolean set(DynamicObject thisObj, Object key, Object value, boolean isStrict) {
+        Shape shape = thisObj.getShape();
+        int index = index(shape, key);
+        Entry entry = setEntries[index];
+        if (entry != null && entry.matches(shape, key)) {
+            setHits.inc();
+        } else {
+            setMisses.inc();
+            entry = lookupOwnWritable(thisObj, shape, key);
+            if (entry == null) {
+                return false;
+            }
+            setEntries[index] = entry;
+        }
+        JSProperty.setValue(entry.property, thisObj, thisObj, value, shape, isStrict);
+        return true;
+    }
+
+    private int index(Shape shape, Object key) {
+        int hash = System.identityHashCode(shape) * 31 + key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static Entry lookup(DynamicObject thisObj, Shape shape, Object key) {
+        if (!isCacheableKey(key)) {
+            return null;
+        }
+        DynamicObject[] prototypes = null;
+        Shape[] prototypeShapes = null;
+        DynamicObject store = thisObj;
+        Shape storeShape = shape;
+        for (int depth = 0;; depth++) {
+            if (!isCacheable(store) || !storeShape.isValid()) {
+                return null;
+            }
+            Property property = storeShape.getProperty(key);
+            if (property != null) {
+                if (depth == 0) {
+                    return new Entry(shape, key, property, NO_PROTOTYPES, NO_SHAPES);
+                }
+                return new Entry(shape, key, property, Arrays.copyOf(prototypes, depth), Arrays.copyOf(prototypeShapes, depth));
+            }
+            if (depth == MAX_DEPTH || !JSShape.isPrototypeInShape(storeShape)) {
+                return null;
+            }
+            Object prototype = JSObject.getPrototype(store);
+            if (prototype == Null.instance) {
+                return null;
+            }
+            if (prototypes == null) {
+                prototypes = new DynamicObject[MAX_DEPTH];
+                prototypeShapes = new Shape[MAX_DEPTH];
+            }
+            store = (DynamicObject) prototype;
+            storeShape = store.getShape();
+            prototypes[depth] = store;
+            prototypeShapes[depth] = storeShape;
+        }
+    }
+
+    private static Entry lookupOwnWritable(DynamicObject thisObj, Shape shape, Object key) {
+        if (!isCacheableKey(key) || !isCacheable(thisObj) || !shape.isValid()) {
+            return null;
+        }
+        Property property = shape.getProperty(key);
+        if (property == null || !JSProperty.isData(property) || JSProperty.isProxy(property) || !JSProperty.isWritable(property)) {
+            return null;
+        }
+        return new Entry(shape, key, property, NO_PROTOTYPES, NO_SHAPES);
+    }
+
+    private static boolean isCacheableKey(Object key) {
+        return key instanceof Symbol || (key instanceof String && !JSRuntime.isArrayIndex(JSRuntime.propertyKeyToArrayIndex(key)));
+    }
+
+    /**
+     * Whether absence of a key from the shape of the object means that the object has no such own
+     * property, and presence means that the property is what the object's JSClass returns for it.
+     */
+    private static boolean isCacheable(DynamicObject obj) {
+        return JSObject.getJSClass(obj) != Null.NULL_CLASS && !JSProxy.isProxy(obj) && !JSAdapter.isJSAdapter(obj) && !JSDictionaryObject.isJSDictionaryObject(obj) &&
+                        !JSModuleNamespace.isJSModuleNamespace(obj) && !JSArrayBufferView.isJSArrayBufferView(obj) && !JSSlowArray.isJSSlowArray(obj) &&
+                        !JSSlowArgumentsObject.isJSSlowArgumentsObject(obj) && !JavaPackage.isJavaPackage(obj) && !JavaImporter.isJavaImporter(obj);
+    }
+
+    private static final class Entry {
+        final Shape shape;
+        final Object key;
+        final Property property;
+        /** Prototypes from the receiver's prototype up to the holder; empty for own properties. */
+        final DynamicObject[] prototypes;
+        final Shape[] prototypeShapes;
+
+        Entry(Shape shape, Object key, Property property, DynamicObject[] prototypes, Shape[] prototypeShapes) {
+            this.shape = shape;
+            this.key = key;
+            this.property = property;
+            this.prototypes = prototypes;
+            this.prototypeShapes = prototypeShapes;
+        }
+
+        boolean matches(Shape receiverShape, Object otherKey) {
+            return shape == receiverShape && (key == otherKey || key.equals(otherKey));
+        }
+
+        /**
+         * Returns the object holding the property, or {@code null} if a prototype on the way has
+         * changed its shape since the entry was created.
+         */
+        DynamicObject getHolder(DynamicObject thisObj) {
+            DynamicObject holder = thisObj;
+            for (int i = 0; i < prototypes.length; i++) {
+                holder = prototypes[i];
+                if (holder.getShape() != prototypeShapes[i]) {
+                    return null;
+                }
+            }
+            return holder;
+        }
+    }
+}
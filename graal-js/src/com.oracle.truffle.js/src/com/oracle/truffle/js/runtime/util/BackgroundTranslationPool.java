@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.js.runtime.GraalJSException;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+
+/**
+ * Translates the bodies of lazily initialized functions on background threads, ahead of their
+ * first call. Functions are taken roughly in submission order and translated in parallel; each
+ * function is translated under its own lock (see {@link JSFunctionData#initializeRoot()}), so a
+ * function that is called while it is being translated waits for it instead of translating it
+ * again.
+ *
+ * The pool must not touch realm state: the worker threads have not entered the context. Regular
+ * expression literals are validated with the regex engine created by the submitting thread.
+ */
+public final class BackgroundTranslationPool {
+
+    private final ForkJoinPool pool;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong translated = new AtomicLong();
+    private final AtomicLong alreadyTranslated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong translationNanos = new AtomicLong();
+    private final AtomicLong called = new AtomicLong();
+    private final AtomicLong savedNanos = new AtomicLong();
+
+    /** Translation time of the functions translated in the background and not called yet. */
+    private final Map<JSFunctionData, Long> notCalledYet = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public BackgroundTranslationPool(int threads) {
+        assert threads > 0;
+        this.pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    public void submit(JSFunctionData functionData) {
+        assert functionData.hasLazyInit();
+        try {
+            pool.execute(() -> translate(functionData));
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            // shut down; the function is translated when it is called
+        }
+    }
+
+    private void translate(JSFunctionData functionData) {
+        long start = System.nanoTime();
+        try {
+            if (functionData.initializeRoot()) {
+                long nanos = System.nanoTime() - start;
+                translationNanos.addAndGet(nanos);
+                translated.incrementAndGet();
+                notCalledYet.put(functionData, nanos);
+            } else {
+                alreadyTranslated.incrementAndGet();
+            }
+        } catch (GraalJSException | StackOverflowError e) {
+            // early error in a lazily parsed body or nesting too deep for the worker: reported when
+            // the function is called and translated again on the main thread
+            failed.incrementAndGet();
+        } catch (Throwable e) {
+            failed.incrementAndGet();
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * Initializes the root call target of a function that is about to be called. If the function
+     * has been translated in the background, the translation time minus the time spent waiting for
+     * the translation to finish is counted as saved. A function whose background translation
+     * finishes just as it is called may not be counted.
+     */
+    public void initializeRootForCall(JSFunctionData functionData) {
+        long start = System.nanoTime();
+        if (functionData.initializeRoot()) {
+            // translated by the calling thread
+            return;
+        }
+        Long nanos = notCalledYet.remove(functionData);
+        if (nanos != null) {
+            long waited = System.nanoTime() - start;
+            called.incrementAndGet();
+            savedNanos.addAndGet(Math.max(0, nanos - waited));
+        }
+    }
+
+    /** Stops the workers once the already submitted functions are translated. */
+    public void shutdown() {
+        pool.shutdown();
+        notCalledYet.clear();
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /** Number of functions submitted for translation. */
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    /** Number of functions translated on a background thread. */
+    public long getTranslated() {
+        return translated.get();
+    }
+
+    /** Number of submitted functions that had already been translated when their turn came. */
+    public long getAlreadyTranslated() {
+        return alreadyTranslated.get();
+    }
+
+    /** Number of background translations that failed. */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /** Time spent translating on background threads, including functions that are never called. */
+    public long getTranslationNanos() {
+        return translationNanos.get();
+    }
+
+    /** Number of functions translated on a background thread that have been called since. */
+    public long getCalled() {
+        return called.get();
+    }
+
+    /**
+     * Translation time taken off the calling threads: the background translation time of the
+     * functions that have been called, less the time the callers waited for those translations.
+     */
+    public long getSavedNanos() {
+        return savedNanos.get();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.builtins.JSDate;
+
+/**
+ * Memoizes the time zone lookups of Date local time conversions: the offset interval containing
+ * the last queried time, and the year/month/day decomposition of the last queried local day.
+ * Lookups that hit the cache do not cross a {@link TruffleBoundary}.
+ *
+ * The cached entries are immutable and replaced as a whole, so the cache can be shared by all
+ * threads using a context without locking.
+ */
+public final class DateCache {
+
+    /** Times beyond this bound (in either direction) are not cached. */
+    private static final long MAX_CACHED_TIME = (long) JSDate.MAX_DATE + 2L * JSDate.MS_PER_DAY;
+
+    private final ZoneId zoneId;
+    private final ZoneRules rules;
+
+    private OffsetInterval offsetInterval;
+    private YearMonthDay yearMonthDay;
+    private String standardTimeName;
+    private String daylightSavingTimeName;
+
+    public DateCache(ZoneId zoneId) {
+        this.zoneId = zoneId;
+        this.rules = zoneId.getRules();
+    }
+
+    /**
+     * Daylight saving time adjustment in milliseconds at time {@code t}.
+     */
+    public long getDaylightSavings(long t) {
+        return getOffsetInterval(t).daylightSavings;
+    }
+
+    /**
+     * Total offset from UTC in milliseconds at time {@code t}.
+     */
+    public long getOffset(long t) {
+        return getOffsetInterval(t).offset;
+    }
+
+    /**
+     * Short name of the time zone at time {@code t}, e.g. "CET" or "CEST".
+     */
+    @TruffleBoundary
+    public String getTimeZoneName(long t) {
+        boolean daylightSavingTime = getDaylightSavings(t) != 0;
+        String name = daylightSavingTime ? daylightSavingTimeName : standardTimeName;
+        if (name == null) {
+            // the name only depends on whether daylight saving time is in effect
+            name = DateTimeFormatter.ofPattern("z", Locale.US).format(Instant.ofEpochMilli(t).atZone(zoneId));
+            if (daylightSavingTime) {
+                daylightSavingTimeName = name;
+            } else {
+                standardTimeName = name;
+            }
+        }
+        return name;
+    }
+
+    private OffsetInterval getOffsetInterval(long t) {
+        OffsetInterval interval = offsetInterval;
+        if (interval != null && interval.start <= t && t < interval.end) {
+            return interval;
+        }
+        return lookupOffsetInterval(t);
+    }
+
+    @TruffleBoundary
+    private OffsetInterval lookupOffsetInterval(long t) {
+        Instant instant = Instant.ofEpochMilli(t);
+        long daylightSavings = rules.getDaylightSavings(instant).getSeconds() * 1000L;
+        long offset = rules.getOffset(instant).getTotalSeconds() * 1000L;
+        if (-MAX_CACHED_TIME <= t && t <= MAX_CACHED_TIME) {
+            // transitions are at whole seconds; the previous transition of t + 1 is at or before t
+            ZoneOffsetTransition previous = rules.previousTransition(Instant.ofEpochMilli(t + 1));
+            ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(t));
+            long start = previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli();
+            long end = next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli();
+            assert start <= t && t < end;
+            // the standard offset may change without a wall clock transition (rare)
+            if (rules.getStandardOffset(Instant.ofEpochMilli(Math.max(start, -MAX_CACHED_TIME))).equals(
+                            rules.getStandardOffset(Instant.ofEpochMilli(Math.min(end - 1, MAX_CACHED_TIME))))) {
+                OffsetInterval interval = new OffsetInterval(start, end, daylightSavings, offset);
+                offsetInterval = interval;
+                return interval;
+            }
+        }
+        return new OffsetInterval(t, t + 1, daylightSavings, offset);
+    }
+
+    /**
+     * Year of the day {@code daysAfter1970}.
+     */
+    public int yearFromDays(int daysAfter1970) {
+        return getYearMonthDay(daysAfter1970).year;
+    }
+
+    /**
+     * Month (0-11) of the day {@code daysAfter1970}.
+     */
+    public int monthFromDays(int daysAfter1970) {
+        return getYearMonthDay(daysAfter1970).month;
+    }
+
+    /**
+     * Day of the month (1-31) of the day {@code daysAfter1970}.
+     */
+    public int dateFromDays(int daysAfter1970) {
+        return getYearMonthDay(daysAfter1970).date;
+    }
+
+    private YearMonthDay getYearMonthDay(int daysAfter1970) {
+        YearMonthDay ymd = yearMonthDay;
+        if (ymd != null && ymd.days == daysAfter1970) {
+            return ymd;
+        }
+        return computeYearMonthDay(daysAfter1970);
+    }
+
+    @TruffleBoundary
+    private YearMonthDay computeYearMonthDay(int daysAfter1970) {
+        int year = JSDate.yearFromDays(daysAfter1970);
+        int dayInYear = daysAfter1970 - JSDate.dayFromYear(year);
+        YearMonthDay ymd = new YearMonthDay(daysAfter1970, year, JSDate.monthFromDays(daysAfter1970), JSDate.dateFromDayInYear(year, dayInYear));
+        yearMonthDay = ymd;
+        return ymd;
+    }
+
+    private static final class OffsetInterval {
+        /** Start of the interval (inclusive). */
+        final long start;
+        /** End of the interval (exclusive). */
+        final long end;
+        final long daylightSavings;
+        final long offset;
+
+        OffsetInterval(long start, long end, long daylightSavings, long offset) {
+            this.start = start;
+            this.end = end;
+            this.daylightSavings = daylightSavings;
+            this.offset = offset;
+        }
+    }
+
+    private static final class YearMonthDay {
+        final int days;
+        final int year;
+        final int month;
+        final int date;
+
+        YearMonthDay(int days, int year, int month, int date) {
+            this.days = days;
+            this.year = year;
+            this.month = month;
+            this.date = date;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.builtins.JSDate;
+
+/**
+ * Formats time values into the fixed Date string formats of ECMAScript directly from the date
+ * fields, writing the characters into a buffer of the exact result length. Produces the same output
+ * as the equivalent {@link java.time.format.DateTimeFormatter} patterns in the US locale:
+ * <ul>
+ * <li>{@link #toISOString}: {@code uuuu-MM-dd'T'HH:mm:ss.SSS'Z'} (with a six digit extended year
+ * outside of years 0 to 9999),</li>
+ * <li>{@link #toUTCString}: {@code EEE, dd MMM uuuu HH:mm:ss 'GMT'},</li>
+ * <li>{@link #toString}: {@code EEE MMM dd uuuu HH:mm:ss 'GMT'Z (z)},</li>
+ * <li>{@link #toDateString}: {@code EEE MMM dd uuuu},</li>
+ * <li>{@link #toTimeString}: {@code HH:mm:ss 'GMT'Z (z)}.</li>
+ * </ul>
+ */
+public final class DateFormatter {
+
+    private static final String[] WEEK_DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    private static final String GMT = " GMT";
+
+    private DateFormatter() {
+    }
+
+    @TruffleBoundary
+    public static String toISOString(double time) {
+        Fields f = new Fields((long) time);
+        boolean extendedYear = f.year < 0 || f.year > 9999;
+        char[] buf = new char[extendedYear ? 27 : 24];
+        int pos = 0;
+        if (extendedYear) {
+            buf[pos++] = f.year < 0 ? '-' : '+';
+            pos = putDigits(buf, pos, Math.abs(f.year), 6);
+        } else {
+            pos = putDigits(buf, pos, f.year, 4);
+        }
+        buf[pos++] = '-';
+        pos = putDigits(buf, pos, f.month + 1, 2);
+        buf[pos++] = '-';
+        pos = putDigits(buf, pos, f.date, 2);
+        buf[pos++] = 'T';
+        pos = putTime(buf, pos, f);
+        buf[pos++] = '.';
+        pos = putDigits(buf, pos, f.millis, 3);
+        buf[pos++] = 'Z';
+        assert pos == buf.length;
+        return new String(buf);
+    }
+
+    @TruffleBoundary
+    public static String toUTCString(double time) {
+        Fields f = new Fields((long) time);
+        char[] buf = new char[5 + 3 + 4 + yearLength(f.year) + 9 + GMT.length()];
+        int pos = putString(buf, 0, WEEK_DAYS[f.weekDay]);
+        buf[pos++] = ',';
+        buf[pos++] = ' ';
+        pos = putDigits(buf, pos, f.date, 2);
+        buf[pos++] = ' ';
+        pos = putString(buf, pos, MONTHS[f.month]);
+        buf[pos++] = ' ';
+        pos = putYear(buf, pos, f.year);
+        buf[pos++] = ' ';
+        pos = putTime(buf, pos, f);
+        pos = putString(buf, pos, GMT);
+        assert pos == buf.length;
+        return new String(buf);
+    }
+
+    @TruffleBoundary
+    public static String toString(double time, DateCache dateCache) {
+        long t = (long) time;
+        long offset = dateCache.getOffset(t);
+        String zoneName = dateCache.getTimeZoneName(t);
+        Fields f = new Fields(t + offset);
+        char[] buf = new char[dateLength(f.year) + 1 + timeLength(zoneName)];
+        int pos = putDate(buf, 0, f);
+        buf[pos++] = ' ';
+        pos = putTimeWithZone(buf, pos, f, offset, zoneName);
+        assert pos == buf.length;
+        return new String(buf);
+    }
+
+    @TruffleBoundary
+    public static String toDateString(double time, DateCache dateCache) {
+        long t = (long) time;
+        Fields f = new Fields(t + dateCache.getOffset(t));
+        char[] buf = new char[dateLength(f.year)];
+        int pos = putDate(buf, 0, f);
+        assert pos == buf.length;
+        return new String(buf);
+    }
+
+    @TruffleBoundary
+    public static String toTimeString(double time, DateCache dateCache) {
+        long t = (long) time;
+        long offset = dateCache.getOffset(t);
+        String zoneName = dateCache.getTimeZoneName(t);
+        Fields f = new Fields(t + offset);
+        char[] buf = new char[timeLength(zoneName)];
+        int pos = putTimeWithZone(buf, 0, f, offset, zoneName);
+        assert pos == buf.length;
+        return new String(buf);
+    }
+
+    /** Length of {@code EEE MMM dd uuuu}. */
+    private static int dateLength(int year) {
+        return 4 + 4 + 3 + yearLength(year);
+    }
+
+    /** Length of {@code HH:mm:ss 'GMT'Z (z)}. */
+    private static int timeLength(String zoneName) {
+        return 8 + GMT.length() + 5 + 2 + zoneName.length() + 1;
+    }
+
+    /** Length of the year in the {@code uuuu} format. */
+    private static int yearLength(int year) {
+        if (year < 0) {
+            return 1 + Math.max(4, digitCount(-year));
+        } else if (year > 9999) {
+            return 1 + digitCount(year);
+        } else {
+            return 4;
+        }
+    }
+
+    private static int digitCount(int value) {
+        int count = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int putDate(char[] buf, int start, Fields f) {
+        int pos = putString(buf, start, WEEK_DAYS[f.weekDay]);
+        buf[pos++] = ' ';
+        pos = putString(buf, pos, MONTHS[f.month]);
+        buf[pos++] = ' ';
+        pos = putDigits(buf, pos, f.date, 2);
+        buf[pos++] = ' ';
+        return putYear(buf, pos, f.year);
+    }
+
+    private static int putTime(char[] buf, int start, Fields f) {
+        int pos = putDigits(buf, start, f.hours, 2);
+        buf[pos++] = ':';
+        pos = putDigits(buf, pos, f.minutes, 2);
+        buf[pos++] = ':';
+        return putDigits(buf, pos, f.seconds, 2);
+    }
+
+    private static int putTimeWithZone(char[] buf, int start, Fields f, long offset, String zoneName) {
+        int pos = putTime(buf, start, f);
+        pos = putString(buf, pos, GMT);
+        // the Z pattern prints hours and minutes of the offset only
+        buf[pos++] = offset < 0 ? '-' : '+';
+        int offsetMinutes = (int) Math.abs(offset / JSDate.MS_PER_MINUTE);
+        pos = putDigits(buf, pos, offsetMinutes / 60, 2);
+        pos = putDigits(buf, pos, offsetMinutes % 60, 2);
+        buf[pos++] = ' ';
+        buf[pos++] = '(';
+        pos = putString(buf, pos, zoneName);
+        buf[pos++] = ')';
+        return pos;
+    }
+
+    private static int putYear(char[] buf, int start, int year) {
+        int pos = start;
+        if (year < 0) {
+            buf[pos++] = '-';
+            return putDigits(buf, pos, -year, Math.max(4, digitCount(-year)));
+        } else if (year > 9999) {
+            buf[pos++] = '+';
+            return putDigits(buf, pos, year, digitCount(year));
+        } else {
+            return putDigits(buf, pos, year, 4);
+        }
+    }
+
+    /**
+     * Writes the {@code width} least significant decimal digits of a non-negative value.
+     */
+    private static int putDigits(char[] buf, int start, int value, int width) {
+        int v = value;
+        for (int i = start + width - 1; i >= start; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        return start + width;
+    }
+
+    private static int putString(char[] buf, int start, String str) {
+        str.getChars(0, str.length(), buf, start);
+        return start + str.length();
+    }
+
+    /**
+     * Calendar fields of a (local or UTC) time value.
+     */
+    private static final class Fields {
+        final int year;
+        /** Zero-based month. */
+        final int month;
+        final int date;
+        /** Zero-based day of the week, starting with Sunday. */
+        final int weekDay;
+        final int hours;
+        final int minutes;
+        final int seconds;
+        final int millis;
+
+        Fields(long t) {
+            int days = (int) Math.floorDiv(t, JSDate.MS_PER_DAY);
+            int timeInDay = (int) Math.floorMod(t, JSDate.MS_PER_DAY);
+            this.year = JSDate.yearFromDays(days);
+            this.month = JSDate.monthFromDays(days);
+            this.date = JSDate.dateFromDayInYear(year, days - JSDate.dayFromYear(year));
+            this.weekDay = Math.floorMod(days + 4, 7);
+            this.hours = timeInDay / 3600000;
+            this.minutes = (timeInDay / 60000) % 60;
+            this.seconds = (timeInDay / 1000) % 60;
+            this.millis = timeInDay % 1000;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,6 +40,9 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
+import java.util.function.Consumer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.Errors;
@@ -111,4 +114,16 @@ public final class DelimitedStringBuilder {
     public int length() {
         return builder.length();
     }
+
+    /**
+     * Hands the current contents to {@code consumer} and empties this builder, keeping its
+     * capacity. The consumer must not retain the passed sequence.
+     */
+    @TruffleBoundary
+    public void drainTo(Consumer<CharSequence> consumer) {
+        if (builder.length() != 0) {
+            consumer.accept(builder);
+            builder.setLength(0);
+        }
+    }
 }
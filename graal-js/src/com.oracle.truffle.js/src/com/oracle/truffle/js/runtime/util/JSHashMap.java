@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,12 +40,20 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 /**
  * ES6-compliant hash map implementation.
+ *
+ * Entries are stored in insertion order in dense arrays and chained into hash buckets by index
+ * (an "ordered hash table"), so no per-entry objects are allocated. Removed entries are left as
+ * holes until the next rehash, which compacts the entries. A rehash retires the old table and
+ * records where its holes were, which allows live cursors to find their position in the new table.
+ *
+ * Lookups and inserts of int, double and string keys do not need a boundary; all other keys are
+ * hashed and compared behind a single boundary. The hash of a key is computed once per operation.
  */
 public final class JSHashMap {
     public interface Cursor {
@@ -72,188 +80,367 @@ public final class JSHashMap {
         Cursor copy();
     }
 
-    private final HashMap<Object, Node> map = new HashMap<>();
-    private final Node head = new Node(null, null, null, null);
-    private Node tail = head;
+    private static final int NO_ENTRY = -1;
+    private static final int INITIAL_BUCKETS = 2;
+    /** Number of entries per bucket. */
+    private static final int LOAD_FACTOR = 2;
+
+    private Table table;
+    private int size;
 
     public JSHashMap() {
+        this.table = new Table(INITIAL_BUCKETS);
     }
 
     public int size() {
-        return map.size();
+        return size;
     }
 
     /**
      * Insert new entry, if key does not already exist, otherwise update the existing entry's value.
      */
-    @TruffleBoundary
     public void put(Object key, Object value) {
-        Node newNode = new Node(key, value, null, null);
-        Node oldNode = map.putIfAbsent(key, newNode);
-        if (oldNode == null) {
-            newNode.setPrev(tail);
-            tail.setNext(newNode);
-            tail = newNode;
+        assert key != null && value != null;
+        if (isGenericKey(key)) {
+            putGeneric(key, value);
         } else {
-            oldNode.setValue(value);
+            put(key, value, hash(key));
         }
     }
 
     @TruffleBoundary
+    private void putGeneric(Object key, Object value) {
+        put(key, value, hashGeneric(key));
+    }
+
+    private void put(Object key, Object value, int hash) {
+        int entry = findEntry(key, hash);
+        if (entry != NO_ENTRY) {
+            table.values[entry] = value;
+            return;
+        }
+        Table t = table;
+        if (t.usedEntries == t.keys.length) {
+            t = growOrCompact();
+        }
+        t.append(key, value, hash);
+        size++;
+    }
+
     public Object get(Object key) {
-        Node node = map.get(key);
-        return node == null ? null : node.getValue();
+        int entry = findEntry(key);
+        return entry == NO_ENTRY ? null : table.values[entry];
     }
 
-    @TruffleBoundary
     public boolean has(Object key) {
-        return map.containsKey(key);
+        return findEntry(key) != NO_ENTRY;
     }
 
-    @TruffleBoundary
     public boolean remove(Object key) {
-        Node node = map.remove(key);
-        if (node == null) {
+        int entry = findEntry(key);
+        if (entry == NO_ENTRY) {
             return false;
-        } else {
-            unlink(node);
-            return true;
         }
+        Table t = table;
+        t.keys[entry] = null;
+        t.values[entry] = null;
+        t.deletedEntries++;
+        size--;
+        if (t.buckets.length > INITIAL_BUCKETS && size < t.keys.length / 4) {
+            rehash(t.buckets.length >> 1);
+        }
+        return true;
     }
 
-    private void unlink(Node node) {
-        Node next = node.getNext();
-        Node prev = node.getPrev();
-        prev.setNext(next);
-        if (next != null) {
-            next.setPrev(prev);
+    public void clear() {
+        Table old = table;
+        table = new Table(INITIAL_BUCKETS);
+        size = 0;
+        old.retire(table, null);
+    }
+
+    private int findEntry(Object key) {
+        if (isGenericKey(key)) {
+            return findGeneric(key);
+        }
+        return findEntry(key, hash(key));
+    }
+
+    private int findEntry(Object key, int hash) {
+        if (key instanceof Integer) {
+            return findInt((int) key, hash);
+        } else if (key instanceof Double) {
+            return findDouble((double) key, hash);
+        } else if (key instanceof String) {
+            return findString((String) key, hash);
         } else {
-            tail = prev;
+            return findGeneric(key, hash);
         }
-        node.setEmpty();
     }
 
-    @TruffleBoundary
-    public void clear() {
-        map.clear();
-        for (Node current = head.getNext(); current != null; current = current.getNext()) {
-            current.setEmpty();
+    private int findInt(int key, int hash) {
+        Table t = table;
+        for (int entry = t.firstInBucket(hash); entry != NO_ENTRY; entry = t.chain[entry]) {
+            Object k = t.keys[entry];
+            if (k instanceof Integer && (int) k == key) {
+                return entry;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    private int findDouble(double key, int hash) {
+        Table t = table;
+        long bits = Double.doubleToLongBits(key);
+        for (int entry = t.firstInBucket(hash); entry != NO_ENTRY; entry = t.chain[entry]) {
+            Object k = t.keys[entry];
+            if (k instanceof Double && Double.doubleToLongBits((double) k) == bits) {
+                return entry;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    private int findString(String key, int hash) {
+        Table t = table;
+        for (int entry = t.firstInBucket(hash); entry != NO_ENTRY; entry = t.chain[entry]) {
+            Object k = t.keys[entry];
+            if (k instanceof String && (k == key || key.equals(k))) {
+                return entry;
+            }
         }
-        head.setNext(null);
-        tail = head;
+        return NO_ENTRY;
     }
 
     @TruffleBoundary
-    @Override
-    public String toString() {
-        return map.toString();
+    private int findGeneric(Object key) {
+        return findGeneric(key, hashGeneric(key));
     }
 
-    public Cursor getEntries() {
-        return new CursorImpl(head);
+    @TruffleBoundary
+    private int findGeneric(Object key, int hash) {
+        Table t = table;
+        for (int entry = t.firstInBucket(hash); entry != NO_ENTRY; entry = t.chain[entry]) {
+            Object k = t.keys[entry];
+            if (k != null && (k == key || key.equals(k))) {
+                return entry;
+            }
+        }
+        return NO_ENTRY;
     }
 
-    private static final class CursorImpl implements Cursor {
-        private Node current;
+    /**
+     * Keys that are neither int, double nor string are hashed and compared behind a boundary.
+     */
+    private static boolean isGenericKey(Object key) {
+        return !(key instanceof Integer || key instanceof Double || key instanceof String);
+    }
 
-        CursorImpl(Node head) {
-            this.current = head;
+    private static int hash(Object key) {
+        if (key instanceof Integer) {
+            return hashInt((int) key);
+        } else if (key instanceof Double) {
+            return hashLong(Double.doubleToLongBits((double) key));
+        } else if (key instanceof String) {
+            return hashInt(((String) key).hashCode());
+        } else {
+            return hashGeneric(key);
         }
+    }
 
-        @Override
-        public boolean advance() {
-            if (current == null) {
-                return false;
+    private static int hashInt(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int hashLong(long bits) {
+        return hashInt((int) (bits ^ (bits >>> 32)));
+    }
+
+    @TruffleBoundary
+    private static int hashGeneric(Object key) {
+        return hashInt(key.hashCode());
+    }
+
+    @TruffleBoundary
+    private Table growOrCompact() {
+        Table t = table;
+        // compact in place if enough holes can be reclaimed, otherwise double the capacity
+        int bucketCount = t.deletedEntries >= (t.usedEntries >> 1) ? t.buckets.length : t.buckets.length << 1;
+        return rehash(bucketCount);
+    }
+
+    @TruffleBoundary
+    private Table rehash(int bucketCount) {
+        Table old = table;
+        Table t = new Table(bucketCount);
+        int[] holes = new int[old.deletedEntries];
+        int holeCount = 0;
+        for (int i = 0; i < old.usedEntries; i++) {
+            Object key = old.keys[i];
+            if (key == null) {
+                holes[holeCount++] = i;
             } else {
-                // if current is no longer in the map, back up to a previous node still in the map
-                while (current.isEmpty() && current.getPrev() != null) {
-                    current = current.getPrev();
-                }
-                Node next = current.getNext();
-                assert next == null || next.getKey() != null;
-                current = next;
-                return next != null;
+                t.append(key, old.values[i], hash(key));
             }
         }
+        assert holeCount == holes.length && t.usedEntries == size;
+        table = t;
+        old.retire(t, holes);
+        return t;
+    }
 
-        @Override
-        public Object getKey() {
-            Object key = current.getKey();
-            assert key != null;
-            return key;
+    @TruffleBoundary
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        Table t = table;
+        boolean first = true;
+        for (int i = 0; i < t.usedEntries; i++) {
+            if (t.keys[i] != null) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                first = false;
+                sb.append(t.keys[i]).append('=').append(t.values[i]);
+            }
         }
+        return sb.append('}').toString();
+    }
 
-        @Override
-        public Object getValue() {
-            Object value = current.getValue();
-            assert value != null;
-            return value;
-        }
+    public Cursor getEntries() {
+        return new CursorImpl(table, NO_ENTRY);
+    }
 
-        @Override
-        public String toString() {
-            return "Cursor [current=" + current + "]";
+    private static final class Table {
+        /** Index of the most recently added entry of each bucket. */
+        int[] buckets;
+        /** Index of the next entry in the same bucket. */
+        int[] chain;
+        Object[] keys;
+        Object[] values;
+        int usedEntries;
+        int deletedEntries;
+
+        /** Table that replaced this table, {@code null} while this table is in use. */
+        Table successor;
+        /** Indices of the holes at the time this table was retired, {@code null} if cleared. */
+        int[] holes;
+
+        Table(int bucketCount) {
+            assert Integer.bitCount(bucketCount) == 1;
+            int capacity = bucketCount * LOAD_FACTOR;
+            this.buckets = new int[bucketCount];
+            Arrays.fill(buckets, NO_ENTRY);
+            this.chain = new int[capacity];
+            this.keys = new Object[capacity];
+            this.values = new Object[capacity];
         }
 
-        @Override
-        public Cursor copy() {
-            return new CursorImpl(current);
+        int firstInBucket(int hash) {
+            return buckets[hash & (buckets.length - 1)];
         }
-    }
 
-    private static final class Node {
-        private Object key;
-        private Object value;
-        private Node prev;
-        private Node next;
-
-        Node(Object key, Object value, Node prev, Node next) {
-            this.key = key;
-            this.value = value;
-            this.prev = prev;
-            this.next = next;
+        void append(Object key, Object value, int hash) {
+            int entry = usedEntries++;
+            int bucket = hash & (buckets.length - 1);
+            keys[entry] = key;
+            values[entry] = value;
+            chain[entry] = buckets[bucket];
+            buckets[bucket] = entry;
         }
 
-        Object getKey() {
-            return key;
+        boolean isRetired() {
+            return successor != null;
         }
 
-        Object getValue() {
-            return value;
+        /**
+         * Marks this table as replaced by {@code newTable} and drops its storage. Only cursors still
+         * reference a retired table and use it to move to the new table.
+         */
+        void retire(Table newTable, int[] holeIndices) {
+            this.successor = newTable;
+            this.holes = holeIndices;
+            this.buckets = null;
+            this.chain = null;
+            this.keys = null;
+            this.values = null;
         }
 
-        void setValue(Object value) {
-            this.value = value;
+        /**
+         * Translates an entry index of this retired table to the index in the successor table of the
+         * last live entry at or before it.
+         */
+        int translate(int index) {
+            assert isRetired();
+            if (holes == null) {
+                // cleared
+                return NO_ENTRY;
+            }
+            // number of holes at or before index
+            int pos = Arrays.binarySearch(holes, index);
+            int holesUpTo = pos >= 0 ? pos + 1 : -(pos + 1);
+            return index - holesUpTo;
         }
+    }
 
-        Node getPrev() {
-            return prev;
-        }
+    private static final class CursorImpl implements Cursor {
+        /** Current table, or {@code null} if the cursor is exhausted. */
+        private Table table;
+        private int index;
 
-        void setPrev(Node prev) {
-            this.prev = prev;
+        CursorImpl(Table table, int index) {
+            this.table = table;
+            this.index = index;
         }
 
-        Node getNext() {
-            return next;
+        private Table currentTable() {
+            Table t = table;
+            while (t != null && t.isRetired()) {
+                index = t.translate(index);
+                t = t.successor;
+            }
+            table = t;
+            return t;
         }
 
-        void setNext(Node next) {
-            this.next = next;
+        @Override
+        public boolean advance() {
+            Table t = currentTable();
+            if (t == null) {
+                return false;
+            }
+            for (int i = index + 1; i < t.usedEntries; i++) {
+                if (t.keys[i] != null) {
+                    index = i;
+                    return true;
+                }
+            }
+            table = null;
+            return false;
         }
 
-        void setEmpty() {
-            this.key = null;
-            this.value = null;
+        @Override
+        public Object getKey() {
+            Object key = currentTable().keys[index];
+            assert key != null;
+            return key;
         }
 
-        boolean isEmpty() {
-            return this.key == null;
+        @Override
+        public Object getValue() {
+            Object value = currentTable().values[index];
+            assert value != null;
+            return value;
         }
 
         @Override
         public String toString() {
-            return "Node [key=" + key + ", value=" + value + "]";
+            return "Cursor [index=" + index + "]";
+        }
+
+        @Override
+        public Cursor copy() {
+            return new CursorImpl(table, index);
         }
     }
 }
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorted map from non-negative {@code long} keys to non-null values, used as storage of sparse
+ * arrays. Keys and values are kept in sorted chunks of primitive arrays, so there is no boxing and
+ * no per-entry allocation. Lookups do a binary search over the chunks followed by a binary search
+ * within the chunk.
+ */
+public final class SortedLongMap {
+
+    /** Returned by the key queries if there is no such key. */
+    public static final long NO_KEY = -1;
+
+    private static final int CHUNK_SIZE = 128;
+    private static final int INITIAL_CHUNK_CAPACITY = 8;
+
+    private Chunk[] chunks = new Chunk[4];
+    private int chunkCount;
+    private int size;
+
+    private static final class Chunk {
+        long[] keys;
+        Object[] values;
+        int size;
+
+        Chunk(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        long firstKey() {
+            return keys[0];
+        }
+
+        long lastKey() {
+            return keys[size - 1];
+        }
+
+        int indexOf(long key) {
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+
+        void insert(int index, long key, Object value) {
+            assert size < CHUNK_SIZE;
+            if (size == keys.length) {
+                int newCapacity = Math.min(keys.length * 2, CHUNK_SIZE);
+                keys = Arrays.copyOf(keys, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        void remove(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            values[size] = null;
+        }
+
+        void truncate(int newSize) {
+            Arrays.fill(values, newSize, size, null);
+            size = newSize;
+        }
+
+        /** Moves the upper half of this chunk into a new chunk. */
+        Chunk split() {
+            int half = size / 2;
+            Chunk upper = new Chunk(CHUNK_SIZE);
+            upper.size = size - half;
+            System.arraycopy(keys, half, upper.keys, 0, upper.size);
+            System.arraycopy(values, half, upper.values, 0, upper.size);
+            truncate(half);
+            return upper;
+        }
+    }
+
+    public SortedLongMap() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Object get(long key) {
+        int c = chunkFor(key);
+        if (c < 0) {
+            return null;
+        }
+        Chunk chunk = chunks[c];
+        int index = chunk.indexOf(key);
+        return index >= 0 ? chunk.values[index] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}.
+     *
+     * @return the previous value, or {@code null} if there was none
+     */
+    public Object put(long key, Object value) {
+        assert key >= 0 && value != null;
+        if (chunkCount == 0) {
+            insertChunk(0, new Chunk(INITIAL_CHUNK_CAPACITY));
+        }
+        int c = Math.max(chunkFor(key), 0);
+        Chunk chunk = chunks[c];
+        int index = chunk.indexOf(key);
+        if (index >= 0) {
+            Object previous = chunk.values[index];
+            chunk.values[index] = value;
+            return previous;
+        }
+        index = -index - 1;
+        if (chunk.size == CHUNK_SIZE) {
+            Chunk next;
+            if (index == CHUNK_SIZE) {
+                // appending, e.g. when filling in ascending order: keep this chunk full
+                next = new Chunk(INITIAL_CHUNK_CAPACITY);
+            } else {
+                next = chunk.split();
+            }
+            insertChunk(c + 1, next);
+            if (index >= chunk.size) {
+                index -= chunk.size;
+                chunk = next;
+            }
+        }
+        chunk.insert(index, key, value);
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the mapping for {@code key}.
+     *
+     * @return the removed value, or {@code null} if there was none
+     */
+    public Object remove(long key) {
+        int c = chunkFor(key);
+        if (c < 0) {
+            return null;
+        }
+        Chunk chunk = chunks[c];
+        int index = chunk.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object previous = chunk.values[index];
+        chunk.remove(index);
+        size--;
+        if (chunk.size == 0) {
+            removeChunks(c, c + 1);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes all keys greater than or equal to {@code fromKey}.
+     */
+    public void truncate(long fromKey) {
+        int c = chunkFor(fromKey);
+        int firstRemovedChunk;
+        if (c < 0) {
+            firstRemovedChunk = 0;
+        } else {
+            Chunk chunk = chunks[c];
+            int index = lowerBound(chunk, fromKey);
+            size -= chunk.size - index;
+            chunk.truncate(index);
+            firstRemovedChunk = index == 0 ? c : c + 1;
+        }
+        for (int i = firstRemovedChunk; i < chunkCount; i++) {
+            size -= chunks[i].size;
+        }
+        removeChunks(firstRemovedChunk, chunkCount);
+    }
+
+    /**
+     * Adds {@code delta} to all keys greater than or equal to {@code fromKey}. The resulting keys
+     * must not collide with or pass the keys below {@code fromKey}.
+     */
+    public void shiftKeys(long fromKey, long delta) {
+        assert delta >= 0 || lowerKey(fromKey) < fromKey + delta;
+        int c = Math.max(chunkFor(fromKey), 0);
+        for (int i = c; i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            int start = i == c ? lowerBound(chunk, fromKey) : 0;
+            for (int j = start; j < chunk.size; j++) {
+                chunk.keys[j] += delta;
+            }
+        }
+    }
+
+    /**
+     * @return the smallest key, or {@link #NO_KEY} if the map is empty
+     */
+    public long firstKey() {
+        return chunkCount == 0 ? NO_KEY : chunks[0].firstKey();
+    }
+
+    /**
+     * @return the largest key, or {@link #NO_KEY} if the map is empty
+     */
+    public long lastKey() {
+        return chunkCount == 0 ? NO_KEY : chunks[chunkCount - 1].lastKey();
+    }
+
+    /**
+     * @return the smallest key strictly greater than {@code key}, or {@link #NO_KEY}
+     */
+    public long higherKey(long key) {
+        int c = chunkFor(key);
+        if (c < 0) {
+            return firstKey();
+        }
+        Chunk chunk = chunks[c];
+        int index = chunk.indexOf(key);
+        index = index >= 0 ? index + 1 : -index - 1;
+        if (index < chunk.size) {
+            return chunk.keys[index];
+        } else if (c + 1 < chunkCount) {
+            return chunks[c + 1].firstKey();
+        }
+        return NO_KEY;
+    }
+
+    /**
+     * @return the largest key strictly less than {@code key}, or {@link #NO_KEY}
+     */
+    public long lowerKey(long key) {
+        int c = chunkFor(key);
+        if (c < 0) {
+            return NO_KEY;
+        }
+        Chunk chunk = chunks[c];
+        int index = lowerBound(chunk, key) - 1;
+        if (index >= 0) {
+            return chunk.keys[index];
+        } else if (c > 0) {
+            return chunks[c - 1].lastKey();
+        }
+        return NO_KEY;
+    }
+
+    /**
+     * @return the index of the last chunk whose first key is less than or equal to {@code key},
+     *         or -1 if there is no such chunk
+     */
+    private int chunkFor(long key) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid].firstKey() <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * @return the index of the first key in {@code chunk} that is not less than {@code key}
+     */
+    private static int lowerBound(Chunk chunk, long key) {
+        int index = chunk.indexOf(key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void insertChunk(int index, Chunk chunk) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        chunks[index] = chunk;
+        chunkCount++;
+    }
+
+    private void removeChunks(int from, int to) {
+        System.arraycopy(chunks, to, chunks, from, chunkCount - to);
+        int newCount = chunkCount - (to - from);
+        Arrays.fill(chunks, newCount, chunkCount, null);
+        chunkCount = newCount;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,6 +53,7 @@ import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.js.runtime.joni.result.JoniNoMatchResult;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.Props.CompiledRegex;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.Props.RegexEngine;
@@ -770,7 +771,7 @@ public final class TRegexUtil {
                 assert i > 0;
                 return Undefined.instance;
             } else {
-                return input.substring(beginIndex, accessor.captureGroupEnd(regexResult, i));
+                return JSLazyString.createSubstring(input, beginIndex, accessor.captureGroupEnd(regexResult, i));
             }
         }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,11 +40,10 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
+import java.lang.ref.WeakReference;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.HiddenKey;
@@ -53,11 +52,21 @@ import com.oracle.truffle.js.runtime.objects.JSShape;
 
 /**
  * JavaScript WeakMap.
+ *
+ * The mapping is inverted: every key object holds an {@link Ephemerons} table, mapping the weak
+ * maps it is a key of to its values. The value is therefore only reachable through the key, so that
+ * an entry whose value refers back to its key can still be collected (the JVM has no ephemerons).
+ * The table is attached once per key in a hidden property and updated in place; it holds the first
+ * weak map in an inline slot and only allocates a hash table for keys of more than one weak map.
  */
 public class WeakMap implements Map<DynamicObject, Object> {
     private static final HiddenKey INVERTED_WEAK_MAP_KEY = new HiddenKey("InvertedWeakMap");
 
+    private final int hash;
+
     public WeakMap() {
+        int h = System.identityHashCode(this);
+        this.hash = h ^ (h >>> 16);
     }
 
     private static DynamicObject checkKey(Object key) {
@@ -67,54 +76,62 @@ public class WeakMap implements Map<DynamicObject, Object> {
         return (DynamicObject) key;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<WeakMap, Object> getInvertedMap(DynamicObject k, boolean put) {
-        if (k.containsKey(INVERTED_WEAK_MAP_KEY)) {
-            return (WeakHashMap<WeakMap, Object>) k.get(INVERTED_WEAK_MAP_KEY);
-        } else {
-            if (put) {
-                return putInvertedMap(k);
-            } else {
-                return Collections.emptyMap();
-            }
-        }
+    private static Ephemerons getEphemerons(DynamicObject k) {
+        return (Ephemerons) k.get(INVERTED_WEAK_MAP_KEY);
     }
 
-    private static WeakHashMap<WeakMap, Object> putInvertedMap(DynamicObject k) {
-        WeakHashMap<WeakMap, Object> invertedMap = new WeakHashMap<>();
+    private static Ephemerons putEphemerons(DynamicObject k) {
+        Ephemerons ephemerons = new Ephemerons();
         boolean wasNotExtensible = !JSShape.isExtensible(k.getShape());
-        k.define(INVERTED_WEAK_MAP_KEY, invertedMap);
+        k.define(INVERTED_WEAK_MAP_KEY, ephemerons);
         if (wasNotExtensible && JSObject.isExtensible(k)) {
             // not-extensible marker property is expected to be the last property; ensure it is.
             k.delete(JSShape.NOT_EXTENSIBLE_KEY);
             JSObject.preventExtensions(k);
             assert !JSObject.isExtensible(k);
         }
-        return invertedMap;
+        return ephemerons;
+    }
+
+    private Entry find(DynamicObject k) {
+        Ephemerons ephemerons = getEphemerons(k);
+        return ephemerons == null ? null : ephemerons.find(this);
     }
 
     @Override
     public boolean containsKey(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).containsKey(this);
+        return find(k) != null;
     }
 
     @Override
     public Object get(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).get(this);
+        Entry entry = find(k);
+        return entry == null ? null : entry.value;
     }
 
     @Override
     public Object put(DynamicObject key, Object value) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, true).put(this, value);
+        assert value != null;
+        Ephemerons ephemerons = getEphemerons(k);
+        if (ephemerons == null) {
+            ephemerons = putEphemerons(k);
+        }
+        return ephemerons.put(this, value);
     }
 
     @Override
     public Object remove(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).remove(this);
+        Entry entry = find(k);
+        if (entry == null) {
+            return null;
+        }
+        Object oldValue = entry.value;
+        entry.kill();
+        return oldValue;
     }
 
     @Override
@@ -160,4 +177,135 @@ public class WeakMap implements Map<DynamicObject, Object> {
     private static UnsupportedOperationException unsupported() {
         return new UnsupportedOperationException("Not supported by WeakMap");
     }
+
+    /**
+     * Value of a key in one weak map. Entries of removed or collected weak maps are dead (cleared
+     * referent and value) and are reused or dropped by later insertions.
+     */
+    private static final class Entry extends WeakReference<WeakMap> {
+        final int hash;
+        Object value;
+
+        Entry(WeakMap map, Object value) {
+            super(map);
+            this.hash = map.hash;
+            this.value = value;
+        }
+
+        boolean isDead() {
+            return get() == null;
+        }
+
+        void kill() {
+            clear();
+            value = null;
+        }
+    }
+
+    /**
+     * The weak maps an object is a key of, with the respective values. The first weak map is held
+     * in an inline slot; further ones go to an open-addressing table with linear probing, in which
+     * dead entries act as tombstones until the next resize.
+     */
+    private static final class Ephemerons {
+        private static final int INITIAL_TABLE_SIZE = 4;
+
+        private Entry first;
+        private Entry[] table;
+        /** Number of non-null table slots, including dead entries. */
+        private int used;
+
+        Entry find(WeakMap map) {
+            Entry entry = first;
+            if (entry != null) {
+                if (entry.get() == map) {
+                    return entry;
+                } else if (table == null) {
+                    if (entry.isDead()) {
+                        entry.value = null;
+                    }
+                    return null;
+                }
+            }
+            if (table == null) {
+                return null;
+            }
+            int mask = table.length - 1;
+            for (int i = map.hash & mask;; i = (i + 1) & mask) {
+                entry = table[i];
+                if (entry == null) {
+                    return null;
+                } else if (entry.get() == map) {
+                    return entry;
+                }
+            }
+        }
+
+        Object put(WeakMap map, Object value) {
+            Entry entry = find(map);
+            if (entry != null) {
+                Object oldValue = entry.value;
+                entry.value = value;
+                return oldValue;
+            }
+            if (first == null || first.isDead()) {
+                first = new Entry(map, value);
+            } else {
+                insert(new Entry(map, value));
+            }
+            return null;
+        }
+
+        private void insert(Entry newEntry) {
+            if (table == null) {
+                table = new Entry[INITIAL_TABLE_SIZE];
+            } else if ((used + 1) * 4 > table.length * 3) {
+                resize();
+            }
+            int mask = table.length - 1;
+            for (int i = newEntry.hash & mask;; i = (i + 1) & mask) {
+                Entry entry = table[i];
+                if (entry == null) {
+                    table[i] = newEntry;
+                    used++;
+                    return;
+                } else if (entry.isDead()) {
+                    table[i] = newEntry;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Rehashes the live entries, dropping dead ones, into a table of twice their number.
+         */
+        private void resize() {
+            Entry[] oldTable = table;
+            int live = 0;
+            for (Entry entry : oldTable) {
+                if (entry != null && !entry.isDead()) {
+                    live++;
+                }
+            }
+            int newSize = INITIAL_TABLE_SIZE;
+            while (newSize < (live + 1) * 2) {
+                newSize <<= 1;
+            }
+            Entry[] newTable = new Entry[newSize];
+            int mask = newSize - 1;
+            for (Entry entry : oldTable) {
+                if (entry != null && !entry.isDead()) {
+                    int i = entry.hash & mask;
+                    while (newTable[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    newTable[i] = entry;
+                } else if (entry != null) {
+                    entry.value = null;
+                }
+            }
+            table = newTable;
+            used = live;
+        }
+    }
 }
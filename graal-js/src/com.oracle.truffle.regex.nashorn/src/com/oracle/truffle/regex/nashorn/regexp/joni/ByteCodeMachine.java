@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -290,12 +290,12 @@ class ByteCodeMachine extends StackMachine {
                     // opt!
                     if (repeatStk[memEndStk + i] != INVALID_INDEX) {
                         region.beg[i] = bsAt(regex.btMemStart, i) ?
-                                        stack[repeatStk[memStartStk + i]].getMemPStr() - str :
+                                        get(repeatStk[memStartStk + i], StackEntry.MEM_PSTR) - str :
                                         repeatStk[memStartStk + i] - str;
 
 
                         region.end[i] = bsAt(regex.btMemEnd, i) ?
-                                        stack[repeatStk[memEndStk + i]].getMemPStr() :
+                                        get(repeatStk[memEndStk + i], StackEntry.MEM_PSTR) :
                                         repeatStk[memEndStk + i] - str;
 
                     } else {
@@ -738,18 +738,6 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private boolean backrefInvalid(final int mem) {
-        return repeatStk[memEndStk + mem] == INVALID_INDEX || repeatStk[memStartStk + mem] == INVALID_INDEX;
-    }
-
-    private int backrefStart(final int mem) {
-        return bsAt(regex.btMemStart, mem) ? stack[repeatStk[memStartStk + mem]].getMemPStr() : repeatStk[memStartStk + mem];
-    }
-
-    private int backrefEnd(final int mem) {
-        return bsAt(regex.btMemEnd, mem) ? stack[repeatStk[memEndStk + mem]].getMemPStr() : repeatStk[memEndStk + mem];
-    }
-
     private void backref(final int mem, boolean ignoreCase) {
         /* if you want to remove following line,
         you should check in parse and compile time. (numMem) */
@@ -874,16 +862,16 @@ class ByteCodeMachine extends StackMachine {
         int k = stk - 1;
 
         while (k >= 0) {
-            final StackEntry e = stack[k];
+            final int type = type(k);
 
-            if (e.type == CALL_FRAME) {
+            if (type == CALL_FRAME) {
                 level--;
-            } else if (e.type == RETURN) {
+            } else if (type == RETURN) {
                 level++;
             } else if (level == nest) {
-                if (e.type == MEM_START) {
-                    if (memIsInMemp(e.getMemNum(), memNum, memp)) {
-                        final int pstart = e.getMemPStr();
+                if (type == MEM_START) {
+                    if (memIsInMemp(get(k, StackEntry.MEM_NUM), memNum, memp)) {
+                        final int pstart = get(k, StackEntry.MEM_PSTR);
                         if (pend != -1) {
                             if (pend - pstart > end - s) {
                                 return false; /* or goto next_mem; */
@@ -907,9 +895,9 @@ class ByteCodeMachine extends StackMachine {
                             return true;
                         }
                     }
-                } else if (e.type == MEM_END) {
-                    if (memIsInMemp(e.getMemNum(), memNum, memp)) {
-                        pend = e.getMemPStr();
+                } else if (type == MEM_END) {
+                    if (memIsInMemp(get(k, StackEntry.MEM_NUM), memNum, memp)) {
+                        pend = get(k, StackEntry.MEM_PSTR);
                     }
                 }
             }
@@ -1045,32 +1033,34 @@ class ByteCodeMachine extends StackMachine {
     }
 
     /**
-     * Checks whether the last iteration of the REPEAT described by the {@link StackEntry} {@code e}
+     * Checks whether the last iteration of the REPEAT described by the stack entry {@code e}
      * passes the null check or not.
      */
-    private boolean nullCheckRepeat(StackEntry e) {
-        return e.getRepeatPStr() != s || e.getRepeatCount() < regex.repeatRangeLo[e.getRepeatNum()];
+    private boolean nullCheckRepeat(final int e) {
+        return get(e, StackEntry.REPEAT_PSTR) != s || get(e, StackEntry.REPEAT_COUNT) < regex.repeatRangeLo[get(e, StackEntry.REPEAT_NUM)];
     }
 
     private void repeatInc(final int mem, final int si) {
-        final StackEntry e = stack[si];
+        final int e = si;
 
         if (!nullCheckRepeat(e)) {
             opFail();
             return;
         }
 
-        int slast = e.getRepeatPStr();
-        e.increaseRepeatCount();
-        e.setRepeatPStr(s);
+        int slast = get(e, StackEntry.REPEAT_PSTR);
+        final int count = get(e, StackEntry.REPEAT_COUNT) + 1;
+        set(e, StackEntry.REPEAT_COUNT, count);
+        set(e, StackEntry.REPEAT_PSTR, s);
 
-        if (e.getRepeatCount() >= regex.repeatRangeHi[mem]) {
+        if (count >= regex.repeatRangeHi[mem]) {
             /* end of repeat. Nothing to do. */
-        } else if (e.getRepeatCount() >= regex.repeatRangeLo[mem]) {
+        } else if (count >= regex.repeatRangeLo[mem]) {
+            final int pcode = get(e, StackEntry.REPEAT_PCODE);
             pushAlt(ip, s);
-            ip = e.getRepeatPCode(); /* Don't use stkp after PUSH. */
+            ip = pcode; /* Don't use stkp after PUSH. */
         } else {
-            ip = e.getRepeatPCode();
+            ip = get(e, StackEntry.REPEAT_PCODE);
         }
         pushRepeatInc(si, slast);
     }
@@ -1088,27 +1078,28 @@ class ByteCodeMachine extends StackMachine {
     }
 
     private void repeatIncNG(final int mem, final int si) {
-        final StackEntry e = stack[si];
+        final int e = si;
 
         if (!nullCheckRepeat(e)) {
             opFail();
             return;
         }
 
-        int slast = e.getRepeatPStr();
-        e.increaseRepeatCount();
-        e.setRepeatPStr(s);
+        int slast = get(e, StackEntry.REPEAT_PSTR);
+        final int count = get(e, StackEntry.REPEAT_COUNT) + 1;
+        set(e, StackEntry.REPEAT_COUNT, count);
+        set(e, StackEntry.REPEAT_PSTR, s);
 
-        if (e.getRepeatCount() < regex.repeatRangeHi[mem]) {
-            if (e.getRepeatCount() >= regex.repeatRangeLo[mem]) {
-                final int pcode = e.getRepeatPCode();
+        if (count < regex.repeatRangeHi[mem]) {
+            if (count >= regex.repeatRangeLo[mem]) {
+                final int pcode = get(e, StackEntry.REPEAT_PCODE);
                 pushRepeatInc(si, slast);
                 pushAlt(pcode, s);
             } else {
-                ip = e.getRepeatPCode();
+                ip = get(e, StackEntry.REPEAT_PCODE);
                 pushRepeatInc(si, slast);
             }
-        } else if (e.getRepeatCount() == regex.repeatRangeHi[mem]) {
+        } else if (count == regex.repeatRangeHi[mem]) {
             pushRepeatInc(si, slast);
         }
     }
@@ -1130,8 +1121,8 @@ class ByteCodeMachine extends StackMachine {
     }
 
     private void opPopPos() {
-        final StackEntry e = stack[posEnd()];
-        s    = e.getStatePStr();
+        final int e = posEnd();
+        s    = get(e, StackEntry.STATE_PSTR);
     }
 
     private void opPushPosNot() {
@@ -1185,9 +1176,9 @@ class ByteCodeMachine extends StackMachine {
         }
 
 
-        final StackEntry e = pop();
-        ip    = e.getStatePCode();
-        s     = e.getStatePStr();
+        final int e = pop();
+        ip    = get(e, StackEntry.STATE_PCODE);
+        s     = get(e, StackEntry.STATE_PSTR);
     }
 
     private int finish() {
@@ -0,0 +1,906 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/*
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.nashorn.regexp.joni;
+
+// @formatter:off
+
+import static com.oracle.truffle.regex.nashorn.regexp.joni.BitStatus.bsAt;
+import static com.oracle.truffle.regex.nashorn.regexp.joni.EncodingHelper.isNewLine;
+import static com.oracle.truffle.regex.nashorn.regexp.joni.Option.isFindCondition;
+import static com.oracle.truffle.regex.nashorn.regexp.joni.Option.isNotBol;
+import static com.oracle.truffle.regex.nashorn.regexp.joni.Option.isNotEol;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind;
+import com.oracle.truffle.regex.nashorn.regexp.joni.constants.AnchorType;
+import com.oracle.truffle.regex.nashorn.regexp.joni.constants.OPCode;
+import com.oracle.truffle.regex.nashorn.regexp.joni.exception.ErrorMessages;
+import com.oracle.truffle.regex.nashorn.regexp.joni.exception.InternalException;
+import com.oracle.truffle.regex.nashorn.regexp.joni.exception.JoniInterruptedException;
+
+/**
+ * A {@link ByteCodeMachine} whose dispatch loop is exploded by partial evaluation. Given a regex
+ * that is a compilation constant, the instruction pointer is a constant in every iteration, so the
+ * byte code of the pattern is compiled into a control flow graph with one merge per instruction.
+ * Backtracking pops a code address from the stack; it is turned back into a constant by comparing
+ * it with the addresses that the pattern can push, which are collected by
+ * {@link #findBacktrackTargets(Regex)}.
+ *
+ * Only a subset of the op codes is supported (no repeat counters, no CClassNode operands, no
+ * leveled back references), the byte code must have at most {@value #MAX_INSTRUCTIONS}
+ * instructions and the regex must not use the find-longest or find-not-empty options. Other
+ * patterns are executed by {@link ByteCodeMachine}.
+ */
+public final class ExplodedByteCodeMachine extends StackMachine {
+
+    /*
+     * Every instruction is a copy of its case in the compiled code, so the instruction count bounds
+     * the size of the compilation unit. Of about 1200 regex literals in the Node.js core library,
+     * npm and the V8 benchmarks, 99% of the supported ones have at most 128 instructions (median 8,
+     * 99th percentile 108); the few longer ones are mostly long lists of alternatives.
+     */
+    static final int MAX_INSTRUCTIONS = 128;
+
+    /* pseudo code address of the backtracking dispatch */
+    private static final int BACKTRACK = -1;
+
+    /* the interrupt status is checked once per this many backtracks */
+    private static final int INTERRUPT_CHECK_MASK = 0xfff;
+
+    ExplodedByteCodeMachine(final Regex regex, final String chars, final int p, final int end) {
+        super(regex, chars, p, end);
+    }
+
+    /**
+     * Returns the code addresses that can be pushed as alternatives when matching {@code regex},
+     * or {@code null} if the byte code of {@code regex} cannot be executed by this machine.
+     */
+    static int[] findBacktrackTargets(final Regex regex) {
+        if (isFindCondition(regex.options)) {
+            return null;
+        }
+        final int[] code = regex.code;
+        final ByteCodePrinter printer = new ByteCodePrinter(regex);
+        int[] targets = new int[8];
+        int n = 0;
+        targets[n++] = regex.codeLength - 1; /* bottom of the stack, see StackMachine.init() */
+
+        int ip = 0;
+        int instructions = 0;
+        while (ip < regex.codeLength) {
+            if (++instructions > MAX_INSTRUCTIONS) {
+                return null;
+            }
+            final int next = printer.compiledByteCodeToString(new StringBuilder(), ip);
+            final int target;
+            switch (code[ip]) {
+                case OPCode.FINISH:
+                case OPCode.END:
+                case OPCode.EXACT1:
+                case OPCode.EXACT2:
+                case OPCode.EXACT3:
+                case OPCode.EXACT4:
+                case OPCode.EXACT5:
+                case OPCode.EXACTN:
+                case OPCode.EXACT1_IC:
+                case OPCode.EXACTN_IC:
+                case OPCode.CCLASS:
+                case OPCode.CCLASS_MB:
+                case OPCode.CCLASS_MIX:
+                case OPCode.CCLASS_NOT:
+                case OPCode.CCLASS_MB_NOT:
+                case OPCode.CCLASS_MIX_NOT:
+                case OPCode.ANYCHAR:
+                case OPCode.ANYCHAR_ML:
+                case OPCode.WORD:
+                case OPCode.NOT_WORD:
+                case OPCode.WORD_BOUND:
+                case OPCode.NOT_WORD_BOUND:
+                case OPCode.WORD_BEGIN:
+                case OPCode.WORD_END:
+                case OPCode.BEGIN_BUF:
+                case OPCode.END_BUF:
+                case OPCode.BEGIN_LINE:
+                case OPCode.END_LINE:
+                case OPCode.SEMI_END_BUF:
+                case OPCode.BEGIN_POSITION:
+                case OPCode.MEMORY_START_PUSH:
+                case OPCode.MEMORY_START:
+                case OPCode.MEMORY_END_PUSH:
+                case OPCode.MEMORY_END:
+                case OPCode.MEMORY_CLEAR:
+                case OPCode.BACKREF1:
+                case OPCode.BACKREF2:
+                case OPCode.BACKREFN:
+                case OPCode.BACKREFN_IC:
+                case OPCode.BACKREF_MULTI:
+                case OPCode.BACKREF_MULTI_IC:
+                case OPCode.NULL_CHECK_START:
+                case OPCode.JUMP:
+                case OPCode.POP:
+                case OPCode.PUSH_POS:
+                case OPCode.POP_POS:
+                case OPCode.FAIL_POS:
+                case OPCode.PUSH_STOP_BT:
+                case OPCode.POP_STOP_BT:
+                case OPCode.LOOK_BEHIND:
+                case OPCode.FAIL_LOOK_BEHIND_NOT:
+                case OPCode.FAIL:
+                    target = -1;
+                    break;
+                case OPCode.NULL_CHECK_END:
+                case OPCode.NULL_CHECK_END_MEMST:
+                    /* an empty loop skips the following JUMP or PUSH */
+                    if (next >= regex.codeLength || (code[next] != OPCode.JUMP && code[next] != OPCode.PUSH)) {
+                        return null;
+                    }
+                    target = -1;
+                    break;
+                case OPCode.ANYCHAR_STAR:
+                case OPCode.ANYCHAR_ML_STAR:
+                case OPCode.ANYCHAR_STAR_PEEK_NEXT:
+                case OPCode.ANYCHAR_ML_STAR_PEEK_NEXT:
+                    target = next;
+                    break;
+                case OPCode.PUSH:
+                case OPCode.PUSH_POS_NOT:
+                    target = ip + 2 + code[ip + 1];
+                    break;
+                case OPCode.PUSH_OR_JUMP_EXACT1:
+                case OPCode.PUSH_IF_PEEK_NEXT:
+                case OPCode.PUSH_LOOK_BEHIND_NOT:
+                    target = ip + 3 + code[ip + 1];
+                    break;
+                default:
+                    return null;
+            }
+            if (target != -1 && !contains(targets, n, target)) {
+                if (n == targets.length) {
+                    targets = Arrays.copyOf(targets, n << 1);
+                }
+                targets[n++] = target;
+            }
+            ip = next;
+        }
+        return Arrays.copyOf(targets, n);
+    }
+
+    private static boolean contains(final int[] targets, final int n, final int target) {
+        for (int i = 0; i < n; i++) {
+            if (targets[i] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Like {@link #match}, {@code pattern} must be the regex of this matcher and a compilation
+     * constant.
+     */
+    public int matchExploded(final Regex pattern, final int at, final int option) {
+        msaInit(option, at);
+        return execute(pattern, end, at);
+    }
+
+    /**
+     * Like {@link #search} from {@code start} to the end of the string, {@code pattern} must be the
+     * regex of this matcher and a compilation constant. Like {@link #search}, the exact string or
+     * char map of the regex narrows the start positions that are tried. The prefilter runs behind
+     * a boundary, so that the exploded byte code is inlined only once.
+     */
+    public int searchExploded(final Regex pattern, final int start, final int option) {
+        if (start > end || start < str) {
+            return -1;
+        }
+        if ((pattern.anchor & AnchorType.BEGIN_BUF) != 0 && start != str) {
+            return -1;
+        }
+        final boolean anchored = (pattern.anchor & (AnchorType.BEGIN_BUF | AnchorType.BEGIN_POSITION | AnchorType.ANYCHAR_STAR_ML)) != 0;
+        final boolean prefilter = !anchored && pattern.searchAlgorithm != SearchAlgorithm.NONE;
+        if (prefilter && end - start < pattern.thresholdLength) {
+            return -1;
+        }
+
+        msaInit(option, start);
+
+        int s = start;
+        /* last start position of the current candidate range */
+        int last = end;
+        if (prefilter) {
+            if (!forwardSearchRange(s)) {
+                return -1;
+            }
+            /* with an infinite distance, the prefilter only checks that the exact string occurs */
+            if (pattern.dMax != MinMaxLen.INFINITE_DISTANCE) {
+                s = Math.max(s, low);
+                last = high;
+            }
+        }
+        while (true) {
+            if (execute(pattern, end, s) != -1) {
+                return s - str;
+            }
+            if (anchored || s >= end) {
+                return -1;
+            }
+            s++;
+            if (s > last) {
+                if (s >= end || !forwardSearchRange(s)) {
+                    return -1;
+                }
+                s = Math.max(s, low);
+                last = high;
+            }
+        }
+    }
+
+    /**
+     * Finds the next range of start positions from {@code s} whose match can contain the exact
+     * string or char map of the regex and stores it in {@link #low} and {@link #high}.
+     */
+    @TruffleBoundary
+    private boolean forwardSearchRange(final int s) {
+        return forwardSearchRange(str, end, s, end, this);
+    }
+
+    @Override
+    protected int matchAt(final int range, final int sstart) {
+        return execute(regex, range, sstart);
+    }
+
+    @ExplodeLoop(kind = LoopExplosionKind.MERGE_EXPLODE)
+    private int execute(final Regex pattern, final int range, final int sstart) {
+        CompilerAsserts.partialEvaluationConstant(pattern);
+        final int[] code = pattern.code;
+        final int[] targets = pattern.backtrackTargets;
+
+        stk = 0;
+        init();
+
+        int s = sstart;
+        int backtracks = 0;
+        int ip = 0;
+
+        dispatch: while (true) {
+            CompilerAsserts.partialEvaluationConstant(ip);
+            if (ip == BACKTRACK) {
+                if (!pattern.stackNeeded) {
+                    ip = pattern.codeLength - 1;
+                    continue;
+                }
+                if ((++backtracks & INTERRUPT_CHECK_MASK) == 0) {
+                    checkInterrupted();
+                }
+                final int e = pop();
+                final int pcode = get(e, StackEntry.STATE_PCODE);
+                s = get(e, StackEntry.STATE_PSTR);
+                for (int i = 0; i < targets.length; i++) {
+                    if (pcode == targets[i]) {
+                        ip = targets[i];
+                        continue dispatch;
+                    }
+                }
+                CompilerDirectives.transferToInterpreter();
+                throw new InternalException(ErrorMessages.ERR_UNEXPECTED_BYTECODE);
+            }
+
+            switch (code[ip]) {
+                case OPCode.FINISH:
+                    /* END returns right away, so no match has been found */
+                    return -1;
+
+                case OPCode.END:
+                    return end(pattern, s, sstart);
+
+                case OPCode.EXACT1:
+                case OPCode.EXACT2:
+                case OPCode.EXACT3:
+                case OPCode.EXACT4:
+                case OPCode.EXACT5: {
+                    final int n = code[ip] - OPCode.EXACT1 + 1;
+                    if (s + n > range) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    for (int i = 0; i < n; i++) {
+                        if (code[ip + 1 + i] != charAt(s + i)) {
+                            ip = BACKTRACK;
+                            continue dispatch;
+                        }
+                    }
+                    s += n;
+                    ip += 1 + n;
+                    continue;
+                }
+
+                case OPCode.EXACTN:
+                case OPCode.EXACTN_IC: {
+                    final int tlen = code[ip + 1];
+                    if (s + tlen > range || !templateEquals(pattern.templates[code[ip + 2]], code[ip + 3], tlen, s, code[ip] == OPCode.EXACTN_IC)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s += tlen;
+                    ip += 4;
+                    continue;
+                }
+
+                case OPCode.EXACT1_IC:
+                    if (s >= range || code[ip + 1] != toLowerCase(charAt(s))) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip += 2;
+                    continue;
+
+                case OPCode.CCLASS:
+                case OPCode.CCLASS_NOT:
+                    if (s >= range || isInBitSet(code, ip + 1, charAt(s)) != (code[ip] == OPCode.CCLASS)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip += 1 + BitSet.BITSET_SIZE;
+                    continue;
+
+                case OPCode.CCLASS_MB:
+                case OPCode.CCLASS_MB_NOT: {
+                    if (s >= range) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    final int c = charAt(s);
+                    final boolean in = c > 0xff && EncodingHelper.isInCodeRange(code, ip + 2, c);
+                    if (in != (code[ip] == OPCode.CCLASS_MB)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip += 2 + code[ip + 1];
+                    continue;
+                }
+
+                case OPCode.CCLASS_MIX:
+                case OPCode.CCLASS_MIX_NOT: {
+                    if (s >= range) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    final int mb = ip + 1 + BitSet.BITSET_SIZE;
+                    final int c = charAt(s);
+                    final boolean in = c > 0xff ? EncodingHelper.isInCodeRange(code, mb + 1, c) : isInBitSet(code, ip + 1, c);
+                    if (in != (code[ip] == OPCode.CCLASS_MIX)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip = mb + 1 + code[mb];
+                    continue;
+                }
+
+                case OPCode.ANYCHAR:
+                    if (s >= range || isNewLine(charAt(s))) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip++;
+                    continue;
+
+                case OPCode.ANYCHAR_ML:
+                    if (s >= range) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip++;
+                    continue;
+
+                case OPCode.ANYCHAR_STAR:
+                case OPCode.ANYCHAR_ML_STAR:
+                    s = anyCharStar(ip + 1, s, range, code[ip] == OPCode.ANYCHAR_ML_STAR);
+                    if (s == -1) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.ANYCHAR_STAR_PEEK_NEXT:
+                case OPCode.ANYCHAR_ML_STAR_PEEK_NEXT:
+                    s = anyCharStarPeekNext(ip + 2, (char) code[ip + 1], s, range, code[ip] == OPCode.ANYCHAR_ML_STAR_PEEK_NEXT);
+                    if (s == -1) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip += 2;
+                    continue;
+
+                case OPCode.WORD:
+                case OPCode.NOT_WORD:
+                    if (s >= range || EncodingHelper.isWord(charAt(s)) != (code[ip] == OPCode.WORD)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    s++;
+                    ip++;
+                    continue;
+
+                case OPCode.WORD_BOUND:
+                case OPCode.NOT_WORD_BOUND:
+                    if ((isWordAt(s) != isWordAt(s - 1)) != (code[ip] == OPCode.WORD_BOUND)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.WORD_BEGIN:
+                    if (isWordAt(s - 1) || !isWordAt(s)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.WORD_END:
+                    if (!isWordAt(s - 1) || isWordAt(s)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.BEGIN_BUF:
+                    if (s != str) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.END_BUF:
+                    if (s != end) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.BEGIN_LINE:
+                    if (s == str ? isNotBol(msaOptions) : !isNewLineAt(s - 1)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.END_LINE:
+                    if (s == end ? !isEndOfLastLine() : !isNewLineAt(s)) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.SEMI_END_BUF:
+                    if (s == end ? !isEndOfLastLine() : !isNewLineAt(s) || s + 1 != end) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.BEGIN_POSITION:
+                    if (s != msaStart) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.MEMORY_START_PUSH:
+                    pushMemStart(code[ip + 1], s);
+                    ip += 2;
+                    continue;
+
+                case OPCode.MEMORY_START:
+                    repeatStk[memStartStk + code[ip + 1]] = s;
+                    ip += 2;
+                    continue;
+
+                case OPCode.MEMORY_END_PUSH:
+                    pushMemEnd(code[ip + 1], s);
+                    ip += 2;
+                    continue;
+
+                case OPCode.MEMORY_END:
+                    repeatStk[memEndStk + code[ip + 1]] = s;
+                    ip += 2;
+                    continue;
+
+                case OPCode.MEMORY_CLEAR:
+                    memoryClear(code[ip + 1], code[ip + 2]);
+                    ip += 3;
+                    continue;
+
+                case OPCode.BACKREF1:
+                case OPCode.BACKREF2:
+                    s = backref(code[ip] == OPCode.BACKREF1 ? 1 : 2, s, range, false);
+                    if (s == -1) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip++;
+                    continue;
+
+                case OPCode.BACKREFN:
+                case OPCode.BACKREFN_IC:
+                    s = backref(code[ip + 1], s, range, code[ip] == OPCode.BACKREFN_IC);
+                    if (s == -1) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip += 2;
+                    continue;
+
+                case OPCode.BACKREF_MULTI:
+                case OPCode.BACKREF_MULTI_IC: {
+                    final int tlen = code[ip + 1];
+                    s = backrefMulti(code, ip + 2, tlen, s, range, code[ip] == OPCode.BACKREF_MULTI_IC);
+                    if (s == -1) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip += 2 + tlen;
+                    continue;
+                }
+
+                case OPCode.NULL_CHECK_START:
+                    pushNullCheckStart(code[ip + 1], s);
+                    ip += 2;
+                    continue;
+
+                case OPCode.NULL_CHECK_END:
+                    /* empty loop found, skip the next JUMP or PUSH */
+                    if (nullCheck(code[ip + 1], s) != 0) {
+                        ip += 4;
+                        continue;
+                    }
+                    ip += 2;
+                    continue;
+
+                case OPCode.NULL_CHECK_END_MEMST:
+                    if (nullCheckMemSt(code[ip + 1], s) != 0) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip += 2;
+                    continue;
+
+                case OPCode.JUMP:
+                    ip += 2 + code[ip + 1];
+                    continue;
+
+                case OPCode.PUSH:
+                    pushAlt(ip + 2 + code[ip + 1], s);
+                    ip += 2;
+                    continue;
+
+                case OPCode.POP:
+                    popOne();
+                    ip++;
+                    continue;
+
+                case OPCode.PUSH_OR_JUMP_EXACT1:
+                    if (s < range && code[ip + 2] == charAt(s)) {
+                        pushAlt(ip + 3 + code[ip + 1], s);
+                        ip += 3;
+                        continue;
+                    }
+                    ip += 3 + code[ip + 1];
+                    continue;
+
+                case OPCode.PUSH_IF_PEEK_NEXT:
+                    if (s < range && code[ip + 2] == charAt(s)) {
+                        pushAlt(ip + 3 + code[ip + 1], s);
+                    }
+                    ip += 3;
+                    continue;
+
+                case OPCode.PUSH_POS:
+                    pushPos(s);
+                    ip++;
+                    continue;
+
+                case OPCode.POP_POS:
+                    s = get(posEnd(), StackEntry.STATE_PSTR);
+                    ip++;
+                    continue;
+
+                case OPCode.PUSH_POS_NOT:
+                    pushPosNot(ip + 2 + code[ip + 1], s);
+                    ip += 2;
+                    continue;
+
+                case OPCode.FAIL_POS:
+                    popTilPosNot();
+                    ip = BACKTRACK;
+                    continue;
+
+                case OPCode.PUSH_STOP_BT:
+                    pushStopBT();
+                    ip++;
+                    continue;
+
+                case OPCode.POP_STOP_BT:
+                    stopBtEnd();
+                    ip++;
+                    continue;
+
+                case OPCode.LOOK_BEHIND:
+                    s = EncodingHelper.stepBack(str, s, code[ip + 1]);
+                    if (s == -1) {
+                        ip = BACKTRACK;
+                        continue;
+                    }
+                    ip += 2;
+                    continue;
+
+                case OPCode.PUSH_LOOK_BEHIND_NOT: {
+                    final int q = EncodingHelper.stepBack(str, s, code[ip + 2]);
+                    if (q == -1) {
+                        /* too short case -> success. ex. /(?<!XXX)a/.match("a") */
+                        ip += 3 + code[ip + 1];
+                        continue;
+                    }
+                    pushLookBehindNot(ip + 3 + code[ip + 1], s);
+                    s = q;
+                    ip += 3;
+                    continue;
+                }
+
+                case OPCode.FAIL_LOOK_BEHIND_NOT:
+                    popTilLookBehindNot();
+                    ip = BACKTRACK;
+                    continue;
+
+                case OPCode.FAIL:
+                    ip = BACKTRACK;
+                    continue;
+
+                default:
+                    CompilerDirectives.transferToInterpreter();
+                    throw new InternalException(ErrorMessages.ERR_UNDEFINED_BYTECODE);
+            }
+        }
+    }
+
+    /* see ByteCodeMachine.opEnd(), the find-longest and find-not-empty options are not supported */
+    private int end(final Regex pattern, final int s, final int sstart) {
+        final Region region = msaRegion;
+        if (region != null) {
+            region.beg[0] = msaBegin = sstart - str;
+            region.end[0] = msaEnd   = s      - str;
+            for (int i = 1; i <= pattern.numMem; i++) {
+                if (repeatStk[memEndStk + i] != INVALID_INDEX) {
+                    region.beg[i] = bsAt(pattern.btMemStart, i) ?
+                                    get(repeatStk[memStartStk + i], StackEntry.MEM_PSTR) - str :
+                                    repeatStk[memStartStk + i] - str;
+                    region.end[i] = bsAt(pattern.btMemEnd, i) ?
+                                    get(repeatStk[memEndStk + i], StackEntry.MEM_PSTR) :
+                                    repeatStk[memEndStk + i] - str;
+                } else {
+                    region.beg[i] = region.end[i] = Region.REGION_NOTPOS;
+                }
+            }
+        } else {
+            msaBegin = sstart - str;
+            msaEnd   = s      - str;
+        }
+        return s - sstart;
+    }
+
+    private boolean isEndOfLastLine() {
+        if (Config.USE_NEWLINE_AT_END_OF_STRING_HAS_EMPTY_LINE) {
+            if (str == end || !isNewLineAt(end - 1)) {
+                return !isNotEol(msaOptions);
+            }
+            return true;
+        }
+        return !isNotEol(msaOptions);
+    }
+
+    private static boolean isInBitSet(final int[] code, final int bitset, final int c) {
+        return c <= 0xff && (code[bitset + (c >>> BitSet.ROOM_SHIFT)] & (1 << c)) != 0;
+    }
+
+    private boolean templateEquals(final char[] bs, final int ps, final int tlen, final int s, final boolean ignoreCase) {
+        for (int i = 0; i < tlen; i++) {
+            final char c = charAt(s + i);
+            if (bs[ps + i] != (ignoreCase ? toLowerCase(c) : c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* returns the new position, or -1 to backtrack */
+    private int anyCharStar(final int next, final int sp, final int range, final boolean multiLine) {
+        int s = sp;
+        while (s < range) {
+            pushAlt(next, s);
+            if (!multiLine && isNewLineAt(s)) {
+                return -1;
+            }
+            s++;
+        }
+        return s;
+    }
+
+    /* returns the new position, or -1 to backtrack */
+    private int anyCharStarPeekNext(final int next, final char c, final int sp, final int range, final boolean multiLine) {
+        int s = sp;
+        while (s < range) {
+            final char b = charAt(s);
+            if (c == b) {
+                pushAlt(next, s);
+            }
+            if (!multiLine && isNewLine(b)) {
+                return -1;
+            }
+            s++;
+        }
+        return s;
+    }
+
+    private void memoryClear(final int fromMem, final int toMem) {
+        for (int mem = fromMem; mem < toMem; mem++) {
+            if (bsAt(regex.btMemStart, mem)) {
+                pushMemStart(mem, INVALID_INDEX);
+            } else {
+                repeatStk[memStartStk + mem] = INVALID_INDEX;
+            }
+            if (bsAt(regex.btMemEnd, mem)) {
+                pushMemEnd(mem, INVALID_INDEX);
+            } else {
+                repeatStk[memEndStk + mem] = INVALID_INDEX;
+            }
+        }
+    }
+
+    /* returns the new position, or -1 to backtrack */
+    private int backref(final int mem, final int s, final int range, final boolean ignoreCase) {
+        if (mem > regex.numMem) {
+            return -1;
+        }
+        if (backrefInvalid(mem)) {
+            return s; /* empty */
+        }
+        final int pstart = backrefStart(mem);
+        final int n = backrefEnd(mem) - pstart;
+        if (s + n > range || !regionEquals(pstart, s, n, ignoreCase)) {
+            return -1;
+        }
+        return s + n;
+    }
+
+    /* returns the new position, or -1 to backtrack */
+    private int backrefMulti(final int[] code, final int memp, final int tlen, final int s, final int range, final boolean ignoreCase) {
+        for (int i = 0; i < tlen; i++) {
+            final int mem = code[memp + i];
+            if (backrefInvalid(mem)) {
+                continue;
+            }
+            final int pstart = backrefStart(mem);
+            final int n = backrefEnd(mem) - pstart;
+            if (s + n > range) {
+                return -1;
+            }
+            if (regionEquals(pstart, s, n, ignoreCase)) {
+                return s + n;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionEquals(final int p1, final int p2, final int n, final boolean ignoreCase) {
+        for (int i = 0; i < n; i++) {
+            final char c1 = charAt(p1 + i);
+            final char c2 = charAt(p2 + i);
+            if (ignoreCase ? toUpperCase(c1) != toUpperCase(c2) : c1 != c2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCase(final char c) {
+        return c < 128 ? EncodingHelper.toLowerCase(c) : toLowerCaseNonAscii(c);
+    }
+
+    private static char toUpperCase(final char c) {
+        return c < 128 ? EncodingHelper.toUpperCase(c) : toUpperCaseNonAscii(c);
+    }
+
+    @TruffleBoundary
+    private static char toLowerCaseNonAscii(final char c) {
+        return EncodingHelper.toLowerCase(c);
+    }
+
+    @TruffleBoundary
+    private static char toUpperCaseNonAscii(final char c) {
+        return EncodingHelper.toUpperCase(c);
+    }
+
+    @TruffleBoundary
+    private static void checkInterrupted() {
+        if (Thread.interrupted()) {
+            throw new JoniInterruptedException();
+        }
+    }
+}
@@ -146,7 +146,7 @@ public abstract class Matcher extends IntHolder {
     }
 
     int low, high; // these are the return values
-    private boolean forwardSearchRange(final int string, final int e, final int s, final int range, final IntHolder lowPrev) {
+    boolean forwardSearchRange(final int string, final int e, final int s, final int range, final IntHolder lowPrev) {
         int pprev = -1;
         int p = s;
 
@@ -61,6 +61,7 @@ package com.oracle.truffle.regex.nashorn.regexp.joni;
 
 // @formatter:off
 
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.regex.nashorn.regexp.joni.constants.AnchorType;
 import com.oracle.truffle.regex.nashorn.regexp.joni.constants.RegexState;
 import com.oracle.truffle.regex.nashorn.regexp.joni.exception.ErrorMessages;
@@ -68,18 +69,18 @@ import com.oracle.truffle.regex.nashorn.regexp.joni.exception.ValueException;
 
 public class Regex implements RegexState {
 
-    int[] code;             /* compiled pattern */
-    int codeLength;
-    boolean stackNeeded;
+    @CompilationFinal(dimensions = 1) int[] code; /* compiled pattern */
+    @CompilationFinal int codeLength;
+    @CompilationFinal boolean stackNeeded;
     Object[] operands;       /* e.g. shared CClassNode */
     int operandLength;
 
-    int numMem;             /* used memory(...) num counted from 1 */
+    @CompilationFinal int numMem; /* used memory(...) num counted from 1 */
     int numRepeat;          /* OP_REPEAT/OP_REPEAT_NG id-counter */
     int numNullCheck;       /* OP_NULL_CHECK_START/END id counter */
     int captureHistory;     /* (?@...) flag (1-31) */
-    int btMemStart;         /* need backtrack flag */
-    int btMemEnd;           /* need backtrack flag */
+    @CompilationFinal int btMemStart; /* need backtrack flag */
+    @CompilationFinal int btMemEnd; /* need backtrack flag */
 
     int stackPopLevel;
 
@@ -90,13 +91,13 @@ public class Regex implements RegexState {
     protected MatcherFactory factory;
     public Analyser analyser;
 
-    int options;
+    @CompilationFinal int options;
     final int caseFoldFlag;
 
     /* optimization info (string search, char-map and anchors) */
-    SearchAlgorithm searchAlgorithm;        /* optimize flag */
-    int thresholdLength;                    /* search str-length for apply optimize */
-    int anchor;                             /* BEGIN_BUF, BEGIN_POS, (SEMI_)END_BUF */
+    @CompilationFinal SearchAlgorithm searchAlgorithm; /* optimize flag */
+    @CompilationFinal int thresholdLength;  /* search str-length for apply optimize */
+    @CompilationFinal int anchor;           /* BEGIN_BUF, BEGIN_POS, (SEMI_)END_BUF */
     int anchorDmin;                         /* (SEMI_)END_BUF anchor distance */
     int anchorDmax;                         /* (SEMI_)END_BUF anchor distance */
     int subAnchor;                          /* start-anchor for exact or map */
@@ -109,11 +110,15 @@ public class Regex implements RegexState {
     int[] intMap;                            /* BM skip for exact_len > 255 */
     int[] intMapBackward;                    /* BM skip for backward search */
     int dMin;                               /* min-distance of exact or map */
-    int dMax;                               /* max-distance of exact or map */
+    @CompilationFinal int dMax;             /* max-distance of exact or map */
 
-    char[][] templates;
+    @CompilationFinal(dimensions = 1) char[][] templates;
     int templateNum;
 
+    /* code addresses pushed as alternatives, null if the code cannot be exploded */
+    @CompilationFinal(dimensions = 1) int[] backtrackTargets;
+    private boolean backtrackTargetsComputed;
+
     public Regex(final CharSequence cs) {
         this(cs.toString());
     }
@@ -182,6 +187,24 @@ public class Regex implements RegexState {
         return factory.create(this, chars, p, end);
     }
 
+    /**
+     * Returns whether {@link #explodedMatcher(String)} can be used for this regex, i.e. whether
+     * its byte code is short enough and only uses op codes supported by
+     * {@link ExplodedByteCodeMachine}.
+     */
+    public boolean isExplodable() {
+        if (!backtrackTargetsComputed) {
+            backtrackTargets = ExplodedByteCodeMachine.findBacktrackTargets(this);
+            backtrackTargetsComputed = true;
+        }
+        return backtrackTargets != null;
+    }
+
+    public ExplodedByteCodeMachine explodedMatcher(final String chars) {
+        assert isExplodable();
+        return new ExplodedByteCodeMachine(this, chars, 0, chars.length());
+    }
+
     public WarnCallback getWarnings() {
         return warnings;
     }
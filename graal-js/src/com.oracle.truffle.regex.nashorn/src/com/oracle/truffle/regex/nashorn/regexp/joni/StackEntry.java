@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -61,148 +61,66 @@ package com.oracle.truffle.regex.nashorn.regexp.joni;
 
 // @formatter:off
 
+/**
+ * Layout of the entries of the backtrack stack in {@link StackMachine}. The stack is a single
+ * {@code int[]}, with {@link #SIZE} slots per entry: the entry type followed by four slots whose
+ * meaning depends on the type, mirroring the union of the original C implementation. Entries are
+ * referred to by their index; slot {@code n} of entry {@code k} is {@code stack[k * SIZE + n]}.
+ */
 final class StackEntry {
-    int type;
-    private int E1, E2, E3, E4;
+    static final int SIZE = 5;
+
+    static final int TYPE = 0;
 
     // first union member
     /* byte code position */
-    void setStatePCode(final int pcode) {
-        E1 = pcode;
-    }
-    int getStatePCode() {
-        return E1;
-    }
+    static final int STATE_PCODE = 1;
     /* string position */
-    void setStatePStr(final int pstr) {
-        E2 = pstr;
-    }
-    int getStatePStr() {
-        return E2;
-    }
+    static final int STATE_PSTR = 2;
 
     // second union member
     /* for OP_REPEAT_INC, OP_REPEAT_INC_NG */
-    void setRepeatCount(final int count) {
-        E1 = count;
-    }
-    int getRepeatCount() {
-        return E1;
-    }
-    void decreaseRepeatCount() {
-        E1--;
-    }
-    void increaseRepeatCount() {
-        E1++;
-    }
+    static final int REPEAT_COUNT = 1;
     /* byte code position (head of repeated target) */
-    void setRepeatPCode(final int pcode) {
-        E2 = pcode;
-    }
-    int getRepeatPCode() {
-        return E2;
-    }
+    static final int REPEAT_PCODE = 2;
     /* repeat id */
-    void setRepeatNum(final int num) {
-        E3 = num;
-    }
-    int getRepeatNum() {
-        return E3;
-    }
+    static final int REPEAT_NUM = 3;
     /* the beginning of the match of the last iteration of the repeat,
        used to perform null checks */
-    void setRepeatPStr(final int pstr) {
-        E4 = pstr;
-    }
-    int getRepeatPStr() {
-        return E4;
-    }
+    static final int REPEAT_PSTR = 4;
 
     // third union member
     /* index of stack */ /*int repeat_inc struct*/
-    void setRepeatIncSi(final int si) {
-        E1 = si;
-    }
-    int getRepeatIncSi() {
-        return E1;
-    }
+    static final int REPEAT_INC_SI = 1;
     /* the start of the match of the last iteration of the repeat when this REPEAT_INC was pushed,
        used to restore its original value when undoing/unwinding this entry from the stack */
-    void setRepeatIncPStr(final int pstr) {
-        E2 = pstr;
-    }
-    int getRepeatIncPStr() {
-        return E2;
-    }
+    static final int REPEAT_INC_PSTR = 2;
 
     // fourth union member
     /* memory num */
-    void setMemNum(final int num) {
-        E1 = num;
-    }
-    int getMemNum() {
-        return E1;
-    }
+    static final int MEM_NUM = 1;
     /* start/end position */
-    void setMemPstr(final int pstr) {
-        E2 = pstr;
-    }
-    int getMemPStr() {
-        return E2;
-    }
-
+    static final int MEM_PSTR = 2;
     /* Following information is set, if this stack type is MEM-START */
     /* prev. info (for backtrack  "(...)*" ) */
-    void setMemStart(final int start) {
-        E3 = start;
-    }
-    int getMemStart() {
-        return E3;
-    }
+    static final int MEM_PREV_START = 3;
     /* prev. info (for backtrack  "(...)*" ) */
-    void setMemEnd(final int end) {
-        E4 = end;
-    }
-    int getMemEnd() {
-        return E4;
-    }
+    static final int MEM_PREV_END = 4;
 
     // fifth union member
     /* null check id */
-    void setNullCheckNum(final int num) {
-        E1 = num;
-    }
-    int getNullCheckNum() {
-        return E1;
-    }
+    static final int NULL_CHECK_NUM = 1;
     /* start position */
-    void setNullCheckPStr(final int pstr) {
-        E2 = pstr;
-    }
-    int getNullCheckPStr() {
-        return E2;
-    }
+    static final int NULL_CHECK_PSTR = 2;
 
     // sixth union member
     /* byte code position */
-    void setCallFrameRetAddr(final int addr) {
-        E1 = addr;
-    }
-    int getCallFrameRetAddr() {
-        return E1;
-    }
+    static final int CALL_FRAME_RET_ADDR = 1;
     /* null check id */
-    void setCallFrameNum(final int num) {
-        E2 = num;
-    }
-    int getCallFrameNum() {
-        return E2;
-    }
+    static final int CALL_FRAME_NUM = 2;
     /* string position */
-    void setCallFramePStr(final int pstr) {
-        E3 = pstr;
-    }
-    int getCallFramePStr() {
-        return E3;
+    static final int CALL_FRAME_PSTR = 3;
+
+    private StackEntry() {
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -61,15 +61,19 @@ package com.oracle.truffle.regex.nashorn.regexp.joni;
 
 // @formatter:off
 
+import static com.oracle.truffle.regex.nashorn.regexp.joni.BitStatus.bsAt;
+
 import java.lang.ref.WeakReference;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.regex.nashorn.regexp.joni.constants.StackPopLevel;
 import com.oracle.truffle.regex.nashorn.regexp.joni.constants.StackType;
 
 abstract class StackMachine extends Matcher implements StackType {
     protected static final int INVALID_INDEX = -1;
 
-    protected StackEntry[]stack;
+    /* entries of StackEntry.SIZE ints each, see StackEntry for the layout */
+    protected int[]stack;
     protected int stk;  // stkEnd
 
     protected final int[]repeatStk;
@@ -88,33 +92,32 @@ abstract class StackMachine extends Matcher implements StackType {
         /* for index start from 1, mem_end_stk[1]..mem_end_stk[num_mem] */
     }
 
-    private static StackEntry[] allocateStack() {
-        final StackEntry[]stack = new StackEntry[Config.INIT_MATCH_STACK_SIZE];
-        stack[0] = new StackEntry();
-        return stack;
+    private static int[] allocateStack() {
+        return new int[Config.INIT_MATCH_STACK_SIZE * StackEntry.SIZE];
     }
 
     private void doubleStack() {
-        final StackEntry[] newStack = new StackEntry[stack.length << 1];
+        final int[] newStack = new int[stack.length << 1];
         System.arraycopy(stack, 0, newStack, 0, stack.length);
         stack = newStack;
     }
 
     @SuppressWarnings("all")
-    static final ThreadLocal<WeakReference<StackEntry[]>> stacks
-            = new ThreadLocal<WeakReference<StackEntry[]>>() {
+    static final ThreadLocal<WeakReference<int[]>> stacks
+            = new ThreadLocal<WeakReference<int[]>>() {
         @Override
-        protected WeakReference<StackEntry[]> initialValue() {
-            return new WeakReference<StackEntry[]>(allocateStack());
+        protected WeakReference<int[]> initialValue() {
+            return new WeakReference<int[]>(allocateStack());
         }
     };
 
     @SuppressWarnings("all")
-    private static StackEntry[] fetchStack() {
-        WeakReference<StackEntry[]> ref = stacks.get();
-        StackEntry[] stack = ref.get();
+    @TruffleBoundary
+    private static int[] fetchStack() {
+        WeakReference<int[]> ref = stacks.get();
+        int[] stack = ref.get();
         if (stack == null) {
-            ref = new WeakReference<StackEntry[]>(stack = allocateStack());
+            ref = new WeakReference<int[]>(stack = allocateStack());
             stacks.set(ref);
         }
         return stack;
@@ -131,34 +134,49 @@ abstract class StackMachine extends Matcher implements StackType {
         }
     }
 
-    protected final StackEntry ensure1() {
-        if (stk >= stack.length) {
+    // stack entry access, k is the index of an entry
+
+    protected final int type(final int k) {
+        return stack[k * StackEntry.SIZE + StackEntry.TYPE];
+    }
+
+    protected final void setType(final int k, final int type) {
+        stack[k * StackEntry.SIZE + StackEntry.TYPE] = type;
+    }
+
+    protected final int get(final int k, final int slot) {
+        return stack[k * StackEntry.SIZE + slot];
+    }
+
+    protected final void set(final int k, final int slot, final int value) {
+        stack[k * StackEntry.SIZE + slot] = value;
+    }
+
+    /* returns the index of the new top entry, which the caller must fill in */
+    protected final int ensure1() {
+        if ((stk + 1) * StackEntry.SIZE > stack.length) {
             doubleStack();
         }
-        StackEntry e = stack[stk];
-        if (e == null) {
-            stack[stk] = e = new StackEntry();
-        }
-        return e;
+        return stk;
     }
 
     protected final void pushType(final int type) {
-        ensure1().type = type;
+        setType(ensure1(), type);
         stk++;
     }
 
     private void push(final int type, final int pat, final int s) {
-        final StackEntry e = ensure1();
-        e.type = type;
-        e.setStatePCode(pat);
-        e.setStatePStr(s);
+        final int e = ensure1();
+        setType(e, type);
+        set(e, StackEntry.STATE_PCODE, pat);
+        set(e, StackEntry.STATE_PSTR, s);
         stk++;
     }
 
     protected final void pushEnsured(final int type, final int pat) {
-        final StackEntry e = stack[stk];
-        e.type = type;
-        e.setStatePCode(pat);
+        final int e = stk;
+        setType(e, type);
+        set(e, StackEntry.STATE_PCODE, pat);
         stk++;
     }
 
@@ -183,58 +201,58 @@ abstract class StackMachine extends Matcher implements StackType {
     }
 
     protected final void pushRepeat(final int id, final int pat, final int s) {
-        final StackEntry e = ensure1();
-        e.type = REPEAT;
-        e.setRepeatNum(id);
-        e.setRepeatPCode(pat);
-        e.setRepeatCount(0);
-        e.setRepeatPStr(s);
+        final int e = ensure1();
+        setType(e, REPEAT);
+        set(e, StackEntry.REPEAT_NUM, id);
+        set(e, StackEntry.REPEAT_PCODE, pat);
+        set(e, StackEntry.REPEAT_COUNT, 0);
+        set(e, StackEntry.REPEAT_PSTR, s);
         stk++;
     }
 
     protected final void pushRepeatInc(final int sindex, final int slast) {
-        final StackEntry e = ensure1();
-        e.type = REPEAT_INC;
-        e.setRepeatIncSi(sindex);
-        e.setRepeatIncPStr(slast);
+        final int e = ensure1();
+        setType(e, REPEAT_INC);
+        set(e, StackEntry.REPEAT_INC_SI, sindex);
+        set(e, StackEntry.REPEAT_INC_PSTR, slast);
         stk++;
     }
 
     protected final void pushMemStart(final int mnum, final int s) {
-        final StackEntry e = ensure1();
-        e.type = MEM_START;
-        e.setMemNum(mnum);
-        e.setMemPstr(s);
-        e.setMemStart(repeatStk[memStartStk + mnum]);
-        e.setMemEnd(repeatStk[memEndStk + mnum]);
+        final int e = ensure1();
+        setType(e, MEM_START);
+        set(e, StackEntry.MEM_NUM, mnum);
+        set(e, StackEntry.MEM_PSTR, s);
+        set(e, StackEntry.MEM_PREV_START, repeatStk[memStartStk + mnum]);
+        set(e, StackEntry.MEM_PREV_END, repeatStk[memEndStk + mnum]);
         repeatStk[memStartStk + mnum] = stk;
         repeatStk[memEndStk + mnum] = INVALID_INDEX;
         stk++;
     }
 
     protected final void pushMemEnd(final int mnum, final int s) {
-        final StackEntry e = ensure1();
-        e.type = MEM_END;
-        e.setMemNum(mnum);
-        e.setMemPstr(s);
-        e.setMemStart(repeatStk[memStartStk + mnum]);
-        e.setMemEnd(repeatStk[memEndStk + mnum]);
+        final int e = ensure1();
+        setType(e, MEM_END);
+        set(e, StackEntry.MEM_NUM, mnum);
+        set(e, StackEntry.MEM_PSTR, s);
+        set(e, StackEntry.MEM_PREV_START, repeatStk[memStartStk + mnum]);
+        set(e, StackEntry.MEM_PREV_END, repeatStk[memEndStk + mnum]);
         repeatStk[memEndStk + mnum] = stk;
         stk++;
     }
 
     protected final void pushNullCheckStart(final int cnum, final int s) {
-        final StackEntry e = ensure1();
-        e.type = NULL_CHECK_START;
-        e.setNullCheckNum(cnum);
-        e.setNullCheckPStr(s);
+        final int e = ensure1();
+        setType(e, NULL_CHECK_START);
+        set(e, StackEntry.NULL_CHECK_NUM, cnum);
+        set(e, StackEntry.NULL_CHECK_PSTR, s);
         stk++;
     }
 
     protected final void pushNullCheckEnd(final int cnum) {
-        final StackEntry e = ensure1();
-        e.type = NULL_CHECK_END;
-        e.setNullCheckNum(cnum);
+        final int e = ensure1();
+        setType(e, NULL_CHECK_END);
+        set(e, StackEntry.NULL_CHECK_NUM, cnum);
         stk++;
     }
 
@@ -245,7 +263,8 @@ abstract class StackMachine extends Matcher implements StackType {
         stk--;
     }
 
-    protected final StackEntry pop() {
+    /* returns the index of the popped entry */
+    protected final int pop() {
         switch (regex.stackPopLevel) {
         case StackPopLevel.FREE:
             return popFree();
@@ -256,70 +275,74 @@ abstract class StackMachine extends Matcher implements StackType {
         }
     }
 
-    private StackEntry popFree() {
+    private int popFree() {
         while (true) {
-            final StackEntry e = stack[--stk];
+            final int e = --stk;
 
-            if ((e.type & MASK_POP_USED) != 0) {
+            if ((type(e) & MASK_POP_USED) != 0) {
                 return e;
             }
         }
     }
 
-    private StackEntry popMemStart() {
+    private int popMemStart() {
         while (true) {
-            final StackEntry e = stack[--stk];
+            final int e = --stk;
+            final int type = type(e);
 
-            if ((e.type & MASK_POP_USED) != 0) {
+            if ((type & MASK_POP_USED) != 0) {
                 return e;
-            } else if (e.type == MEM_START) {
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemEnd();
+            } else if (type == MEM_START) {
+                restoreMem(e, get(e, StackEntry.MEM_PREV_END));
             }
         }
     }
 
-    private StackEntry popDefault() {
+    private int popDefault() {
         while (true) {
-            final StackEntry e = stack[--stk];
+            final int e = --stk;
+            final int type = type(e);
 
-            if ((e.type & MASK_POP_USED) != 0) {
+            if ((type & MASK_POP_USED) != 0) {
                 return e;
-            } else if (e.type == MEM_START) {
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemEnd();
-            } else if (e.type == REPEAT_INC) {
-                //int si = stack[stk + IREPEAT_INC_SI];
-                //stack[si + IREPEAT_COUNT]--;
-                int si = e.getRepeatIncSi();
-                stack[si].decreaseRepeatCount();
-                stack[si].setRepeatPStr(e.getRepeatIncPStr());
-            } else if (e.type == MEM_END) {
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemEnd();
+            } else if (type == MEM_START) {
+                restoreMem(e, get(e, StackEntry.MEM_PREV_END));
+            } else if (type == REPEAT_INC) {
+                undoRepeatInc(e);
+            } else if (type == MEM_END) {
+                restoreMem(e, get(e, StackEntry.MEM_PREV_END));
             }
         }
     }
 
+    private void restoreMem(final int e, final int memEnd) {
+        final int mnum = get(e, StackEntry.MEM_NUM);
+        repeatStk[memStartStk + mnum] = get(e, StackEntry.MEM_PREV_START);
+        repeatStk[memEndStk + mnum] = memEnd;
+    }
+
+    private void undoRepeatInc(final int e) {
+        //int si = stack[stk + IREPEAT_INC_SI];
+        //stack[si + IREPEAT_COUNT]--;
+        final int si = get(e, StackEntry.REPEAT_INC_SI);
+        set(si, StackEntry.REPEAT_COUNT, get(si, StackEntry.REPEAT_COUNT) - 1);
+        set(si, StackEntry.REPEAT_PSTR, get(e, StackEntry.REPEAT_INC_PSTR));
+    }
+
     protected final void popTilPosNot() {
         while (true) {
             stk--;
-            final StackEntry e = stack[stk];
+            final int e = stk;
+            final int type = type(e);
 
-            if (e.type == POS_NOT) {
+            if (type == POS_NOT) {
                 break;
-            } else if (e.type == MEM_START) {
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemStart();
-            } else if (e.type == REPEAT_INC) {
-                //int si = stack[stk + IREPEAT_INC_SI];
-                //stack[si + IREPEAT_COUNT]--;
-                int si = e.getRepeatIncSi();
-                stack[si].decreaseRepeatCount();
-                stack[si].setRepeatPStr(e.getRepeatIncPStr());
-            } else if (e.type == MEM_END){
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemStart();
+            } else if (type == MEM_START) {
+                restoreMem(e, get(e, StackEntry.MEM_PREV_START));
+            } else if (type == REPEAT_INC) {
+                undoRepeatInc(e);
+            } else if (type == MEM_END){
+                restoreMem(e, get(e, StackEntry.MEM_PREV_START));
             }
         }
     }
@@ -327,22 +350,17 @@ abstract class StackMachine extends Matcher implements StackType {
     protected final void popTilLookBehindNot() {
         while (true) {
             stk--;
-            final StackEntry e = stack[stk];
+            final int e = stk;
+            final int type = type(e);
 
-            if (e.type == LOOK_BEHIND_NOT) {
+            if (type == LOOK_BEHIND_NOT) {
                 break;
-            } else if (e.type == MEM_START) {
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemEnd();
-            } else if (e.type == REPEAT_INC) {
-                //int si = stack[stk + IREPEAT_INC_SI];
-                //stack[si + IREPEAT_COUNT]--;
-                int si = e.getRepeatIncSi();
-                stack[si].decreaseRepeatCount();
-                stack[si].setRepeatPStr(e.getRepeatIncPStr());
-            } else if (e.type == MEM_END) {
-                repeatStk[memStartStk + e.getMemNum()] = e.getMemStart();
-                repeatStk[memEndStk + e.getMemNum()] = e.getMemEnd();
+            } else if (type == MEM_START) {
+                restoreMem(e, get(e, StackEntry.MEM_PREV_END));
+            } else if (type == REPEAT_INC) {
+                undoRepeatInc(e);
+            } else if (type == MEM_END) {
+                restoreMem(e, get(e, StackEntry.MEM_PREV_END));
             }
         }
     }
@@ -351,11 +369,11 @@ abstract class StackMachine extends Matcher implements StackType {
         int k = stk;
         while (true) {
             k--;
-            final StackEntry e = stack[k];
-            if ((e.type & MASK_TO_VOID_TARGET) != 0) {
-                e.type = VOID;
-            } else if (e.type == POS) {
-                e.type = VOID;
+            final int type = type(k);
+            if ((type & MASK_TO_VOID_TARGET) != 0) {
+                setType(k, VOID);
+            } else if (type == POS) {
+                setType(k, VOID);
                 break;
             }
         }
@@ -366,12 +384,12 @@ abstract class StackMachine extends Matcher implements StackType {
         int k = stk;
         while (true) {
             k--;
-            final StackEntry e = stack[k];
+            final int type = type(k);
 
-            if ((e.type & MASK_TO_VOID_TARGET) != 0) {
-                e.type = VOID;
-            } else if (e.type == STOP_BT) {
-                e.type = VOID;
+            if ((type & MASK_TO_VOID_TARGET) != 0) {
+                setType(k, VOID);
+            } else if (type == STOP_BT) {
+                setType(k, VOID);
                 break;
             }
         }
@@ -382,11 +400,10 @@ abstract class StackMachine extends Matcher implements StackType {
         int k = stk;
         while (true) {
             k--;
-            final StackEntry e = stack[k];
 
-            if (e.type == NULL_CHECK_START) {
-                if (e.getNullCheckNum() == id) {
-                    return e.getNullCheckPStr() == s ? 1 : 0;
+            if (type(k) == NULL_CHECK_START) {
+                if (get(k, StackEntry.NULL_CHECK_NUM) == id) {
+                    return get(k, StackEntry.NULL_CHECK_PSTR) == s ? 1 : 0;
                 }
             }
         }
@@ -397,22 +414,34 @@ abstract class StackMachine extends Matcher implements StackType {
         return -nullCheck(id, s);
     }
 
+    protected final boolean backrefInvalid(final int mem) {
+        return repeatStk[memEndStk + mem] == INVALID_INDEX || repeatStk[memStartStk + mem] == INVALID_INDEX;
+    }
+
+    protected final int backrefStart(final int mem) {
+        return bsAt(regex.btMemStart, mem) ? get(repeatStk[memStartStk + mem], StackEntry.MEM_PSTR) : repeatStk[memStartStk + mem];
+    }
+
+    protected final int backrefEnd(final int mem) {
+        return bsAt(regex.btMemEnd, mem) ? get(repeatStk[memEndStk + mem], StackEntry.MEM_PSTR) : repeatStk[memEndStk + mem];
+    }
+
     protected final int getRepeat(final int id) {
         int level = 0;
         int k = stk;
         while (true) {
             k--;
-            final StackEntry e = stack[k];
+            final int type = type(k);
 
-            if (e.type == REPEAT) {
+            if (type == REPEAT) {
                 if (level == 0) {
-                    if (e.getRepeatNum() == id) {
+                    if (get(k, StackEntry.REPEAT_NUM) == id) {
                         return k;
                     }
                 }
-            } else if (e.type == CALL_FRAME) {
+            } else if (type == CALL_FRAME) {
                 level--;
-            } else if (e.type == RETURN) {
+            } else if (type == RETURN) {
                 level++;
             }
         }
@@ -423,14 +452,14 @@ abstract class StackMachine extends Matcher implements StackType {
         int k = stk;
         while (true) {
             k--;
-            final StackEntry e = stack[k];
+            final int type = type(k);
 
-            if (e.type == CALL_FRAME) {
+            if (type == CALL_FRAME) {
                 if (level == 0) {
-                    return e.getCallFrameRetAddr();
+                    return get(k, StackEntry.CALL_FRAME_RET_ADDR);
                 }
                 level--;
-            } else if (e.type == RETURN) {
+            } else if (type == RETURN) {
                 level++;
             }
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -44,9 +44,11 @@ const NIOBufferPrototypeAllocator = arguments[arguments.length - 1];
 
 function patchBufferPrototype(proto) {
 	if (NIOBufferPrototypeAllocator) {
-		const bufferBuiltin = NIOBufferPrototypeAllocator(proto.utf8Write, proto.utf8Slice);
-		proto.utf8Write = bufferBuiltin.utf8Write;
-		proto.utf8Slice = bufferBuiltin.utf8Slice;
+		// The allocator keeps the native functions of proto as fallbacks.
+		const bufferBuiltin = NIOBufferPrototypeAllocator(proto);
+		for (const name of Object.getOwnPropertyNames(bufferBuiltin)) {
+			proto[name] = bufferBuiltin[name];
+		}
 	}
 }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -44,6 +44,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.trufflenode.buffer.NIOBufferBuiltins;
 
 /**
  * Realm-specific embedder data.
@@ -52,8 +53,7 @@ public final class RealmData {
     private Object securityToken;
     private final Map<Integer, Object> embedderData = new HashMap<>();
 
-    private DynamicObject nativeUtf8Write;
-    private DynamicObject nativeUtf8Slice;
+    private final DynamicObject[] nativeBufferBuiltins = new DynamicObject[NIOBufferBuiltins.Buffer.values().length];
     private DynamicObject resolverFactory;
 
     public RealmData() {
@@ -67,20 +67,12 @@ public final class RealmData {
         return securityToken;
     }
 
-    public DynamicObject getNativeUtf8Write() {
-        return nativeUtf8Write;
+    public DynamicObject getNativeBufferBuiltin(NIOBufferBuiltins.Buffer builtin) {
+        return nativeBufferBuiltins[builtin.ordinal()];
     }
 
-    public void setNativeUtf8Write(DynamicObject nativeUtf8Write) {
-        this.nativeUtf8Write = nativeUtf8Write;
-    }
-
-    public DynamicObject getNativeUtf8Slice() {
-        return nativeUtf8Slice;
-    }
-
-    public void setNativeUtf8Slice(DynamicObject nativeUtf8Slice) {
-        this.nativeUtf8Slice = nativeUtf8Slice;
+    public void setNativeBufferBuiltin(NIOBufferBuiltins.Buffer builtin, DynamicObject nativeFunction) {
+        nativeBufferBuiltins[builtin.ordinal()] = nativeFunction;
     }
 
     public void setEmbedderData(int index, Object value) {
@@ -57,11 +57,14 @@ import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.trufflenode.GraalJSAccess;
 
 public abstract class NIOBufferAccessNode extends JSBuiltinNode {
 
     protected static final Charset utf8 = Charset.forName("UTF-8");
 
+    protected static final int V8MaxStringLength = (1 << 30) - 1 - 24;
+
     @Child protected ArrayBufferViewGetByteLengthNode getLenNode;
 
     public NIOBufferAccessNode(JSContext context, JSBuiltin builtin) {
@@ -107,6 +110,10 @@ public abstract class NIOBufferAccessNode extends JSBuiltinNode {
         throw exception;
     }
 
+    protected DynamicObject getNativeBufferBuiltin(NIOBufferBuiltins.Buffer builtin) {
+        return GraalJSAccess.getRealmEmbedderData(getContext().getRealm()).getNativeBufferBuiltin(builtin);
+    }
+
     protected static boolean accept(DynamicObject target) {
         return JSArrayBufferView.isJSArrayBufferView(target);
     }
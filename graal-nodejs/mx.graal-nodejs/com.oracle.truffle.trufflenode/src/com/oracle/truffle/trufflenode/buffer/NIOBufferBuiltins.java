@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -52,7 +52,15 @@ public final class NIOBufferBuiltins extends JSBuiltinsContainer.SwitchEnum<NIOB
 
     public enum Buffer implements BuiltinEnum<Buffer> {
         utf8Write(0),
-        utf8Slice(0);
+        utf8Slice(0),
+        latin1Write(0),
+        latin1Slice(0),
+        asciiWrite(0),
+        asciiSlice(0),
+        base64Write(0),
+        base64Slice(0),
+        hexWrite(0),
+        hexSlice(0);
 
         private final int length;
 
@@ -73,6 +81,16 @@ public final class NIOBufferBuiltins extends JSBuiltinsContainer.SwitchEnum<NIOB
                 return NIOBufferUTF8WriteNodeGen.create(context, builtin, args().withThis().fixedArgs(3).createArgumentNodes(context));
             case utf8Slice:
                 return NIOBufferUTF8SliceNodeGen.create(context, builtin, args().withThis().fixedArgs(2).createArgumentNodes(context));
+            case latin1Write:
+            case asciiWrite:
+            case base64Write:
+            case hexWrite:
+                return NIOBufferWriteNodeGen.create(context, builtin, builtinEnum, args().withThis().fixedArgs(3).createArgumentNodes(context));
+            case latin1Slice:
+            case asciiSlice:
+            case base64Slice:
+            case hexSlice:
+                return NIOBufferSliceNodeGen.create(context, builtin, builtinEnum, args().withThis().fixedArgs(2).createArgumentNodes(context));
         }
         return null;
     }
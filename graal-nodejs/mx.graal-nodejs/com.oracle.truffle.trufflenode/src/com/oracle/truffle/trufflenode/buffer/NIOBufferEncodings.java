@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Java versions of the one-byte, base64 and hex codecs of node's {@code StringBytes}. All
+ * positions are absolute indices into the backing (direct) byte buffer, so the buffer state is
+ * never modified.
+ */
+final class NIOBufferEncodings {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] BASE64_TABLE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /** Same as node's {@code unbase64_table}: -1 for illegal characters, -2 for whitespace. */
+    private static final byte[] UNBASE64_TABLE = new byte[256];
+
+    static {
+        Arrays.fill(UNBASE64_TABLE, (byte) -1);
+        for (int i = 0; i < BASE64_TABLE.length; i++) {
+            UNBASE64_TABLE[BASE64_TABLE[i]] = (byte) i;
+        }
+        // URL-safe alphabet
+        UNBASE64_TABLE['-'] = 62;
+        UNBASE64_TABLE['_'] = 63;
+        UNBASE64_TABLE['\n'] = -2;
+        UNBASE64_TABLE['\r'] = -2;
+        UNBASE64_TABLE[' '] = -2;
+    }
+
+    private NIOBufferEncodings() {
+    }
+
+    static byte[] getBytes(ByteBuffer buffer, int index, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer data = buffer.duplicate();
+        data.position(index);
+        data.get(bytes);
+        return bytes;
+    }
+
+    static boolean isAscii(byte[] bytes) {
+        int bits = 0;
+        for (byte b : bytes) {
+            bits |= b;
+        }
+        return bits >= 0;
+    }
+
+    static boolean isAscii(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @TruffleBoundary
+    static String latin1Slice(ByteBuffer buffer, int index, int length) {
+        return new String(getBytes(buffer, index, length), StandardCharsets.ISO_8859_1);
+    }
+
+    @TruffleBoundary
+    static String asciiSlice(ByteBuffer buffer, int index, int length) {
+        byte[] bytes = getBytes(buffer, index, length);
+        if (!isAscii(bytes)) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] &= 0x7f;
+            }
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @TruffleBoundary
+    static String hexSlice(ByteBuffer buffer, int index, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = buffer.get(index + i) & 0xff;
+            chars[2 * i] = HEX_DIGITS[b >> 4];
+            chars[2 * i + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    static long base64EncodedLength(int length) {
+        return (length + 2L) / 3 * 4;
+    }
+
+    @TruffleBoundary
+    static String base64Slice(ByteBuffer buffer, int index, int length) {
+        char[] chars = new char[(int) base64EncodedLength(length)];
+        int n = length / 3 * 3;
+        int i = 0;
+        int k = 0;
+        while (i < n) {
+            int a = buffer.get(index + i) & 0xff;
+            int b = buffer.get(index + i + 1) & 0xff;
+            int c = buffer.get(index + i + 2) & 0xff;
+            chars[k] = BASE64_TABLE[a >> 2];
+            chars[k + 1] = BASE64_TABLE[((a & 0x03) << 4) | (b >> 4)];
+            chars[k + 2] = BASE64_TABLE[((b & 0x0f) << 2) | (c >> 6)];
+            chars[k + 3] = BASE64_TABLE[c & 0x3f];
+            i += 3;
+            k += 4;
+        }
+        if (n != length) {
+            int a = buffer.get(index + i) & 0xff;
+            chars[k] = BASE64_TABLE[a >> 2];
+            if (length - n == 1) {
+                chars[k + 1] = BASE64_TABLE[(a & 0x03) << 4];
+                chars[k + 2] = '=';
+            } else {
+                int b = buffer.get(index + i + 1) & 0xff;
+                chars[k + 1] = BASE64_TABLE[((a & 0x03) << 4) | (b >> 4)];
+                chars[k + 2] = BASE64_TABLE[(b & 0x0f) << 2];
+            }
+            chars[k + 3] = '=';
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Writes the low byte of every character, like {@code String::WriteOneByte}. Used for both
+     * latin1 and ascii.
+     */
+    @TruffleBoundary
+    static int oneByteWrite(String str, ByteBuffer buffer, int index, int maxLength) {
+        int length = Math.min(str.length(), maxLength);
+        for (int i = 0; i < length; i++) {
+            buffer.put(index + i, (byte) str.charAt(i));
+        }
+        return length;
+    }
+
+    /**
+     * Decodes pairs of hex digits until the first invalid pair, like node's {@code hex_decode}.
+     */
+    @TruffleBoundary
+    static int hexWrite(String str, ByteBuffer buffer, int index, int maxLength) {
+        int srcLength = str.length();
+        int i;
+        for (i = 0; i < maxLength && i * 2 + 1 < srcLength; i++) {
+            int a = unhex(str.charAt(i * 2));
+            int b = unhex(str.charAt(i * 2 + 1));
+            if (a < 0 || b < 0) {
+                return i;
+            }
+            buffer.put(index + i, (byte) ((a << 4) | b));
+        }
+        return i;
+    }
+
+    private static int unhex(char c) {
+        int x = c & 0xff;
+        if (x >= '0' && x <= '9') {
+            return x - '0';
+        } else if (x >= 'a' && x <= 'f') {
+            return x - 'a' + 10;
+        } else if (x >= 'A' && x <= 'F') {
+            return x - 'A' + 10;
+        }
+        return -1;
+    }
+
+    @TruffleBoundary
+    static int base64Write(String str, ByteBuffer buffer, int index, int maxLength) {
+        return new Base64Decoder(str, buffer, index, maxLength).decode();
+    }
+
+    private static int unbase64(char c) {
+        return UNBASE64_TABLE[c & 0xff];
+    }
+
+    /**
+     * Port of node's {@code base64_decode}: decodes groups of four characters and falls back to
+     * a slow path that skips whitespace and illegal characters, and stops at the first '='.
+     */
+    private static final class Base64Decoder {
+        private final String src;
+        private final int srcLength;
+        private final ByteBuffer dst;
+        private final int dstIndex;
+        private final int dstLength;
+
+        private int i;
+        private int k;
+
+        Base64Decoder(String src, ByteBuffer dst, int dstIndex, int dstLength) {
+            this.src = src;
+            this.srcLength = src.length();
+            this.dst = dst;
+            this.dstIndex = dstIndex;
+            this.dstLength = dstLength;
+        }
+
+        int decode() {
+            int available = Math.min(dstLength, decodedSize());
+            int maxK = available / 3 * 3;
+            int maxI = srcLength / 4 * 4;
+            while (i < maxI && k < maxK) {
+                int a = unbase64(src.charAt(i));
+                int b = unbase64(src.charAt(i + 1));
+                int c = unbase64(src.charAt(i + 2));
+                int d = unbase64(src.charAt(i + 3));
+                if ((a | b | c | d) < 0) {
+                    // whitespace or invalid base64
+                    if (!decodeGroupSlow()) {
+                        return k;
+                    }
+                    maxI = i + (srcLength - i) / 4 * 4;
+                } else {
+                    put(k, (a << 2) | (b >> 4));
+                    put(k + 1, ((b & 0x0f) << 4) | (c >> 2));
+                    put(k + 2, ((c & 0x03) << 6) | d);
+                    i += 4;
+                    k += 3;
+                }
+            }
+            if (i < srcLength && k < dstLength) {
+                decodeGroupSlow();
+            }
+            return k;
+        }
+
+        /**
+         * Decodes one group of four legal characters.
+         *
+         * @return false if decoding should stop
+         */
+        private boolean decodeGroupSlow() {
+            int hi = 0;
+            for (int n = 0; n < 4; n++) {
+                int lo;
+                while (true) {
+                    char c = src.charAt(i++);
+                    lo = unbase64(c);
+                    if (lo >= 0) {
+                        break;
+                    }
+                    if ((c & 0xff) == '=' || i >= srcLength) {
+                        return false;
+                    }
+                }
+                if (n == 1) {
+                    put(k++, ((hi & 0x3f) << 2) | ((lo & 0x30) >> 4));
+                } else if (n == 2) {
+                    put(k++, ((hi & 0x0f) << 4) | ((lo & 0x3c) >> 2));
+                } else if (n == 3) {
+                    put(k++, ((hi & 0x03) << 6) | (lo & 0x3f));
+                }
+                if (i >= srcLength || k >= dstLength) {
+                    return false;
+                }
+                hi = lo;
+            }
+            return true;
+        }
+
+        private int decodedSize() {
+            int size = srcLength;
+            if (size > 0 && src.charAt(size - 1) == '=') {
+                size--;
+            }
+            if (size > 0 && src.charAt(size - 1) == '=') {
+                size--;
+            }
+            int remainder = size % 4;
+            size = size / 4 * 3;
+            if (remainder != 0) {
+                if (size == 0 && remainder == 1) {
+                    // a single character cannot be decoded
+                    size = 0;
+                } else {
+                    size += remainder == 3 ? 2 : 1;
+                }
+            }
+            return size;
+        }
+
+        private void put(int offset, int value) {
+            dst.put(dstIndex + offset, (byte) value);
+        }
+    }
+}
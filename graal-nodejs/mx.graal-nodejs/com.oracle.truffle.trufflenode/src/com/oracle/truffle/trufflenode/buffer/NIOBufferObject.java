@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,6 +53,7 @@ import com.oracle.truffle.js.runtime.JavaScriptRootNode;
 import com.oracle.truffle.js.runtime.builtins.JSBuiltinObject;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.trufflenode.GraalJSAccess;
 import com.oracle.truffle.trufflenode.RealmData;
@@ -68,7 +69,12 @@ public final class NIOBufferObject extends JSBuiltinObject {
     }
 
     @TruffleBoundary
-    private static DynamicObject create(JSContext context) {
+    private static DynamicObject create(JSContext context, DynamicObject bufferPrototype) {
+        RealmData embedderData = GraalJSAccess.getRealmEmbedderData(context.getRealm());
+        for (NIOBufferBuiltins.Buffer builtin : NIOBufferBuiltins.Buffer.values()) {
+            // Keep the native implementation as fallback for the cases not handled in Java.
+            embedderData.setNativeBufferBuiltin(builtin, (DynamicObject) JSObject.get(bufferPrototype, builtin.name()));
+        }
         DynamicObject obj = context.getEmptyShapeNullPrototype().newInstance();
         ((JSBuiltinLookup) context.getFunctionLookup()).defineBuiltins(NIO_BUFFER_BUILTINS);
         JSObjectUtil.putFunctionsFromContainer(context.getRealm(), obj, NIO_BUFFER_BUILTINS.getName());
@@ -91,16 +97,12 @@ public final class NIOBufferObject extends JSBuiltinObject {
             @Override
             public Object execute(VirtualFrame frame) {
                 Object[] args = frame.getArguments();
-                assert args.length == 4;
-                DynamicObject nativeUtf8Write = (DynamicObject) args[2];
-                DynamicObject nativeUtf8Slice = (DynamicObject) args[3];
-                RealmData embedderData = GraalJSAccess.getRealmEmbedderData(context.getRealm());
-                embedderData.setNativeUtf8Write(nativeUtf8Write);
-                embedderData.setNativeUtf8Slice(nativeUtf8Slice);
-                return create(context);
+                assert args.length == 3;
+                DynamicObject bufferPrototype = (DynamicObject) args[2];
+                return create(context, bufferPrototype);
             }
         };
-        JSFunctionData functionData = JSFunctionData.createCallOnly(context, Truffle.getRuntime().createCallTarget(wrapperNode), 2, "NIOBufferBuiltinsInitFunction");
+        JSFunctionData functionData = JSFunctionData.createCallOnly(context, Truffle.getRuntime().createCallTarget(wrapperNode), 1, "NIOBufferBuiltinsInitFunction");
         return JSFunction.create(realm, functionData);
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -45,6 +45,7 @@ import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -55,12 +56,9 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
-import com.oracle.truffle.trufflenode.GraalJSAccess;
 
 public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
 
-    private static final int V8MaxStringLength = (1 << 30) - 1 - 24;
-
     protected final BranchProfile nativePath = BranchProfile.create();
     protected final BranchProfile errorBranch = BranchProfile.create();
 
@@ -69,7 +67,7 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
     }
 
     private DynamicObject getNativeUtf8Slice() {
-        return GraalJSAccess.getRealmEmbedderData(getContext().getRealm()).getNativeUtf8Slice();
+        return getNativeBufferBuiltin(NIOBufferBuiltins.Buffer.utf8Slice);
     }
 
     @Specialization(guards = {"accept(target)"})
@@ -132,18 +130,19 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
             errorBranch.enter();
             outOfBoundsFail();
         }
-        ByteBuffer data = sliceBuffer(rawBuffer, byteOffset);
-        data.position(start);
-        data.limit(end);
-        return doDecode(data);
+        return doDecode(rawBuffer, byteOffset + start, length);
     }
 
     @TruffleBoundary
-    private static Object doDecode(ByteBuffer data) throws CharacterCodingException {
+    private static Object doDecode(ByteBuffer rawBuffer, int index, int length) throws CharacterCodingException {
+        byte[] bytes = NIOBufferEncodings.getBytes(rawBuffer, index, length);
+        if (NIOBufferEncodings.isAscii(bytes)) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
         CharsetDecoder decoder = utf8.newDecoder();
         decoder.onMalformedInput(CodingErrorAction.REPORT);
         decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
-        CharBuffer decoded = decoder.decode(data);
+        CharBuffer decoded = decoder.decode(ByteBuffer.wrap(bytes));
         return decoded.toString();
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -58,7 +58,6 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
-import com.oracle.truffle.trufflenode.GraalJSAccess;
 
 public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
 
@@ -73,7 +72,7 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
     }
 
     private DynamicObject getNativeUtf8Write() {
-        return GraalJSAccess.getRealmEmbedderData(getContext().getRealm()).getNativeUtf8Write();
+        return getNativeBufferBuiltin(NIOBufferBuiltins.Buffer.utf8Write);
     }
 
     @Specialization(guards = "accept(target)")
@@ -88,7 +87,7 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
     @Specialization(guards = {"accept(target)", "isUndefined(bytes)"})
     public Object writeDefaultOffset(DynamicObject target, String str, int destOffset, Object bytes) {
         try {
-            return doWrite(target, str, destOffset, getBytes(str).length);
+            return doWrite(target, str, destOffset, utf8Length(str));
         } catch (CharacterCodingException e) {
             return doNativeFallback(target, str, destOffset, bytes);
         }
@@ -97,7 +96,7 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
     @Specialization(guards = {"accept(target)", "isUndefined(destOffset)", "isUndefined(bytes)"})
     public Object writeDefaultValues(DynamicObject target, String str, Object destOffset, Object bytes) {
         try {
-            return doWrite(target, str, 0, getBytes(str).length);
+            return doWrite(target, str, 0, utf8Length(str));
         } catch (CharacterCodingException e) {
             return doNativeFallback(target, str, destOffset, bytes);
         }
@@ -139,6 +138,10 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
             outOfBoundsFail();
         }
         ByteBuffer rawBuffer = getDirectByteBuffer(arrayBuffer);
+        int maxLength = Math.min(bufferLen - destOffset, bytes);
+        if (isAscii(str)) {
+            return NIOBufferEncodings.oneByteWrite(str, rawBuffer, bufferOffset + destOffset, maxLength);
+        }
         ByteBuffer buffer = sliceBuffer(rawBuffer, bufferOffset);
         buffer.position(destOffset);
         buffer.limit(Math.min(bufferLen, destOffset + bytes));
@@ -167,8 +170,27 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
     }
 
     @TruffleBoundary
-    private static byte[] getBytes(String str) {
-        return str.getBytes(utf8);
+    private static boolean isAscii(String str) {
+        return NIOBufferEncodings.isAscii(str);
+    }
+
+    @TruffleBoundary
+    private static int utf8Length(String str) {
+        int length = str.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c >= 0x800) {
+                // 3 bytes, or 4 bytes for a surrogate pair
+                utf8Length += 2;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    i++;
+                }
+            } else if (c >= 0x80) {
+                utf8Length += 1;
+            }
+        }
+        return utf8Length;
     }
 
     private static boolean cannotEncode(CoderResult res) {
@@ -1,7 +1,7 @@
 #
 # ----------------------------------------------------------------------------------------------------
 #
-# Copyright (c) 2007, 2018, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2007, 2019, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # This code is free software; you can redistribute it and/or modify it
@@ -27,8 +27,11 @@
 # ----------------------------------------------------------------------------------------------------
 
 import mx, mx_benchmark, mx_graal_nodejs
+import os
 from mx_benchmark import GuestVm
 
+_nodejs_vm_registry = mx_benchmark.VmRegistry('Node.js', 'node-vm')
+
 class GraalNodeJsVm(GuestVm):
     def __init__(self, config_name, options, host_vm=None):
         super(GraalNodeJsVm, self).__init__(host_vm=host_vm)
@@ -61,7 +64,85 @@ class GraalNodeJsVm(GuestVm):
             return code, out, dims
 
 
+class NodeCoreBenchmarkRule(mx_benchmark.StdOutRule):
+    """Parses the `<name> <conf>: <rate>` lines printed by benchmark/common.js."""
+    def __init__(self, benchmark):
+        super(NodeCoreBenchmarkRule, self).__init__(r"^(?P<file>\S+\.js)(?P<conf>( \S+=\S+)*): (?P<rate>[0-9,]+(\.[0-9]+)?)$", {
+            "benchmark": benchmark,
+            "metric.name": "throughput",
+            "metric.value": ("<rate>", float),
+            "metric.unit": "op/s",
+            "metric.type": "numeric",
+            "metric.score-function": "id",
+            "metric.better": "higher",
+            "metric.iteration": 0,
+        })
+
+    def parseResults(self, text):
+        # rates are printed with thousands separators
+        results = list(super(NodeCoreBenchmarkRule, self).parseResults(text))
+        for result in results:
+            result['rate'] = result['rate'].replace(',', '')
+        return results
+
+
+class BufferEncodingBenchmarkSuite(mx_benchmark.VmBenchmarkSuite):
+    """Runs the node core benchmarks covering Buffer encoding and decoding."""
+
+    # name -> benchmark file and configuration, relative to graal-nodejs/benchmark
+    _benchmarks = {
+        'tostring-utf8': ['buffers/buffer-tostring.js', 'encoding=utf8', 'args=0', 'len=1024'],
+        'tostring-latin1': ['buffers/buffer-tostring.js', 'encoding=latin1', 'args=0', 'len=1024'],
+        'tostring-ascii': ['buffers/buffer-tostring.js', 'encoding=ascii', 'args=0', 'len=1024'],
+        'tostring-hex': ['buffers/buffer-tostring.js', 'encoding=hex', 'args=0', 'len=1024'],
+        'base64-encode': ['buffers/buffer-base64-encode.js'],
+        'base64-decode': ['buffers/buffer-base64-decode.js'],
+        'hex': ['buffers/buffer-hex.js', 'len=1024'],
+        'write-utf8': ['buffers/buffer-write-string.js', 'encoding=utf8', 'args=offset+length', 'len=2048'],
+        'write-latin1': ['buffers/buffer-write-string.js', 'encoding=latin1', 'args=offset+length', 'len=2048'],
+        'write-hex': ['buffers/buffer-write-string.js', 'encoding=hex', 'args=offset+length', 'len=2048'],
+    }
+
+    def name(self):
+        return 'node-buffer-encoding'
+
+    def group(self):
+        return 'Graal'
+
+    def subgroup(self):
+        return 'graal-js'
+
+    def benchmarkList(self, bmSuiteArgs):
+        return sorted(self._benchmarks.keys())
+
+    def get_vm_registry(self):
+        return _nodejs_vm_registry
+
+    def workingDirectory(self, benchmarks, bmSuiteArgs):
+        return os.path.join(mx.suite('graal-nodejs').dir, 'benchmark')
+
+    def validateEnvironment(self):
+        if not os.path.isdir(self.workingDirectory(None, None)):
+            mx.abort('Node.js core benchmarks not found in ' + self.workingDirectory(None, None))
+
+    def run(self, benchmarks, bmSuiteArgs):
+        results = []
+        for benchmark in benchmarks or self.benchmarkList(bmSuiteArgs):
+            results += super(BufferEncodingBenchmarkSuite, self).run([benchmark], bmSuiteArgs)
+        return results
+
+    def createCommandLineArgs(self, benchmarks, bmSuiteArgs):
+        if benchmarks is None or len(benchmarks) != 1:
+            mx.abort('Expected exactly one benchmark, got ' + str(benchmarks))
+        return self.vmArgs(bmSuiteArgs) + self._benchmarks[benchmarks[0]] + self.runArgs(bmSuiteArgs)
+
+    def rules(self, output, benchmarks, bmSuiteArgs):
+        return [NodeCoreBenchmarkRule(benchmarks[0])]
+
+
 def register_nodejs_vms():
+    _nodejs_vm_registry.add_vm(GraalNodeJsVm('default', []), mx.suite('graal-nodejs'), 10)
+    mx_benchmark.add_bm_suite(BufferEncodingBenchmarkSuite())
     if mx.suite('nodejs-benchmarks', fatalIfMissing=False):
         import mx_nodejs_benchmarks
         _suite = mx.suite('graal-nodejs')
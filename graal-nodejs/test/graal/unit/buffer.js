@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -145,4 +145,73 @@ describe('Buffer.utf8Slice', function() {
     it('length is zero', function() {
         assert.strictEqual(new Buffer(0).utf8Slice.length, 0);
     });
-});
\ No newline at end of file
+});
+describe('Buffer.latin1Write', function() {
+    it('should write the low byte of every character', function() {
+        var buffer = new Buffer(4).fill(0);
+        assert.strictEqual(buffer.latin1Write('aÿł', 0, 4), 3);
+        assert.deepStrictEqual(Array.from(buffer), [0x61, 0xff, 0x42, 0]);
+    });
+    it('should stop at the end of the buffer', function() {
+        assert.strictEqual(new Buffer(10).latin1Write('abcdefghi', 5, 9), 5);
+    });
+    it('should fail with negative offset', function() {
+        assert.throws(() => {
+            new Buffer(10).latin1Write('abc', -5, 1)
+        }, RangeError);
+    });
+});
+
+describe('Buffer.latin1Slice', function() {
+    it('should decode every byte', function() {
+        assert.strictEqual(Buffer.from([0x61, 0xff, 0x80]).latin1Slice(0, 3), 'aÿ\u0080');
+    });
+    it('should check range', function() {
+        assert.throws(() => {
+            new Buffer(10).latin1Slice(0, -1)
+        }, RangeError);
+    });
+});
+
+describe('Buffer.asciiSlice', function() {
+    it('should mask the high bit', function() {
+        assert.strictEqual(Buffer.from([0x61, 0xe2]).asciiSlice(0, 2), 'ab');
+    });
+});
+
+describe('Buffer.hexWrite', function() {
+    it('should stop at the first invalid pair', function() {
+        var buffer = new Buffer(4).fill(0);
+        assert.strictEqual(buffer.hexWrite('0aFfzz01', 0, 4), 2);
+        assert.deepStrictEqual(Array.from(buffer), [0x0a, 0xff, 0, 0]);
+    });
+});
+
+describe('Buffer.hexSlice', function() {
+    it('should encode lower case', function() {
+        assert.strictEqual(Buffer.from([0x0a, 0xff, 0x10]).hexSlice(0, 3), '0aff10');
+    });
+});
+
+describe('Buffer.base64Write', function() {
+    it('should decode padded input', function() {
+        var buffer = new Buffer(10).fill(0);
+        assert.strictEqual(buffer.base64Write('aGVsbG8=', 0, 10), 5);
+        assert.strictEqual(buffer.latin1Slice(0, 5), 'hello');
+    });
+    it('should skip whitespace and accept url-safe characters', function() {
+        var buffer = new Buffer(10).fill(0);
+        assert.strictEqual(buffer.base64Write('aGVs\nbG8-_w', 0, 10), 7);
+        assert.strictEqual(buffer.hexSlice(0, 7), '68656c6c6f3eff');
+    });
+    it('should stop at the end of the buffer', function() {
+        assert.strictEqual(new Buffer(2).base64Write('aGVsbG8=', 0, 2), 2);
+    });
+});
+
+describe('Buffer.base64Slice', function() {
+    it('should pad the output', function() {
+        assert.strictEqual(Buffer.from('hello').base64Slice(0, 5), 'aGVsbG8=');
+        assert.strictEqual(Buffer.from('hell').base64Slice(0, 4), 'aGVsbA==');
+    });
+});